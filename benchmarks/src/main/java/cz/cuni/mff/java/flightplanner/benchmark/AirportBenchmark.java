@@ -0,0 +1,141 @@
+package cz.cuni.mff.java.flightplanner.benchmark;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import cz.cuni.mff.java.flightplanner.dataobject.Airport;
+import cz.cuni.mff.java.flightplanner.dataobject.Runway;
+import cz.cuni.mff.java.flightplanner.util.ResourceLocator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * The benchmarks of the airports database: its loading, the search of the
+ * airports and the construction of the runways.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class AirportBenchmark {
+
+    private static final String databaseResource = "MRpLairportsDatabase.csv";
+    /**
+     * The airports of different sizes whose runways are constructed.
+     */
+    private static final Set<String> runwaySamples = Set.of("LKPR", "EGLL", "KJFK", "KORD", "EDDF",
+                                                            "LFPG", "YSSY", "AGAR", "LKTB", "RJTT");
+
+    /**
+     * The ICAO codes searched at once, as given on the command line.
+     */
+    private final List<String> icaoCodes = List.of("LKPR", "EGLL", "KJFK", "RJTT", "YSSY");
+    private byte[] database;
+    private final List<String> runwayIcaos = new ArrayList<>();
+    private final List<String[]> runwayEntries = new ArrayList<>();
+
+    /**
+     * Reads the database into the memory, so that the parsing can be measured
+     * without the I/O, and loads the stored database used by the search.
+     */
+    @Setup
+    public void setup() throws IOException {
+        URL location = ResourceLocator.locate(databaseResource);
+        if (location == null) throw new IOException(databaseResource + " was not found.");
+        try (InputStream in = location.openStream()) {
+            database = in.readAllBytes();
+        }
+        for (String line : new String(database, StandardCharsets.UTF_8).split("\n")) {
+            String[] fields = line.split(",", 11);
+            if (fields.length == 11 && runwaySamples.contains(fields[0])) {
+                runwayIcaos.add(fields[0]);
+                runwayEntries.add(Arrays.stream(fields[10].split("RUNWAY,"))
+                                        .filter(x -> !x.isBlank())
+                                        .toArray(String[]::new));
+            }
+        }
+        if (Airport.find("LKPR") == null) throw new IOException("The airports database could not be loaded.");
+    }
+
+    /**
+     * The complete loading of the database as done by the first search:
+     * locating and reading the resource and parsing all its lines.
+     */
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public Map<String, Airport> loadDatabase() throws IOException {
+        BufferedReader reader = ResourceLocator.openReader(databaseResource);
+        if (reader == null) throw new IOException(databaseResource + " was not found.");
+        try (BufferedReader br = reader) {
+            return Airport.readDatabase(br);
+        }
+    }
+
+    /**
+     * The parsing of the database lines already read into the memory.
+     */
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public Map<String, Airport> parseDatabase() throws IOException {
+        try (BufferedReader br = new BufferedReader(
+                new InputStreamReader(new ByteArrayInputStream(database), StandardCharsets.UTF_8))) {
+            return Airport.readDatabase(br);
+        }
+    }
+
+    /**
+     * The lookup of several airports by their ICAO codes.
+     */
+    @Benchmark
+    public List<Airport> searchByIcao() {
+        return Airport.searchAirports(null, icaoCodes, false, false);
+    }
+
+    /**
+     * The search which matches a few airports by the name of their city.
+     */
+    @Benchmark
+    public List<Airport> searchSubstring() {
+        return Airport.search("prague", 10);
+    }
+
+    /**
+     * The search which matches hundreds of airports, so the sorting of the
+     * matches dominates.
+     */
+    @Benchmark
+    public List<Airport> searchMultiMatch() {
+        return Airport.search("international", 500);
+    }
+
+    /**
+     * The construction of the runways of the sample airports.
+     */
+    @Benchmark
+    public void runwayConstruction(Blackhole bh) {
+        for (int i = 0; i < runwayIcaos.size(); i++) {
+            bh.consume(Runway.setRunways(runwayIcaos.get(i), runwayEntries.get(i)));
+        }
+    }
+}
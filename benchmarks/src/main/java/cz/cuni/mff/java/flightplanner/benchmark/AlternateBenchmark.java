@@ -0,0 +1,53 @@
+package cz.cuni.mff.java.flightplanner.benchmark;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import cz.cuni.mff.java.flightplanner.dataobject.Airport;
+import cz.cuni.mff.java.flightplanner.routing.AirportGraph;
+import cz.cuni.mff.java.flightplanner.routing.Alternate;
+import cz.cuni.mff.java.flightplanner.routing.AlternateFinder;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * The benchmark of the corridor search of the alternate airports along the
+ * transatlantic route KJFK - EGLL (about 3000 NM).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class AlternateBenchmark {
+
+    private static final double corridorNm = 100;
+
+    private AlternateFinder finder;
+    private List<Airport> route;
+
+    /**
+     * Builds the graph of the airports and the finder.
+     */
+    @Setup
+    public void setup() throws IOException {
+        AirportGraph graph = AirportGraph.ofDatabase();
+        if (graph == null) throw new IOException("The airports database could not be loaded.");
+        finder = new AlternateFinder(graph, null);
+        route = List.of(graph.airport(graph.indexOf("KJFK")), graph.airport(graph.indexOf("EGLL")));
+    }
+
+    @Benchmark
+    public List<Alternate> corridorSearch() {
+        return finder.find(route, corridorNm);
+    }
+}
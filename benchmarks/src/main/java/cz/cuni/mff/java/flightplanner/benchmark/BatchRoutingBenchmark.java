@@ -0,0 +1,85 @@
+package cz.cuni.mff.java.flightplanner.benchmark;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import cz.cuni.mff.java.flightplanner.dataobject.APTCategory;
+import cz.cuni.mff.java.flightplanner.dataobject.Airport;
+import cz.cuni.mff.java.flightplanner.geo.GreatCircle;
+import cz.cuni.mff.java.flightplanner.routing.AirportGraph;
+import cz.cuni.mff.java.flightplanner.routing.BatchRouter;
+import cz.cuni.mff.java.flightplanner.routing.RouteOptions;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * The benchmark of the batch routing of {@value #pairCount} random pairs of the
+ * large airports at most {@value #maxPairNm} NM apart with the range of
+ * 500 NM, run by the different numbers of the threads. The pairs are the same
+ * in every run.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BatchRoutingBenchmark {
+
+    private static final int pairCount = 512;
+    private static final double maxPairNm = 1500;
+
+    @Param({ "1", "2", "4", "8" })
+    public int threads;
+
+    private BatchRouter router;
+    private RouteOptions options;
+    private int[] from, to;
+
+    /**
+     * Builds the graph of the airports, the router and the pairs.
+     */
+    @Setup
+    public void setup() throws IOException {
+        AirportGraph graph = AirportGraph.ofDatabase();
+        if (graph == null) throw new IOException("The airports database could not be loaded.");
+        List<Integer> large = new ArrayList<>();
+        for (int node = 0; node < graph.size(); node++) {
+            if (graph.airport(node).getCat() == APTCategory.large_airport) large.add(node);
+        }
+        Random random = new Random(2020);
+        from = new int[pairCount];
+        to = new int[pairCount];
+        for (int i = 0; i < pairCount; ) {
+            from[i] = large.get(random.nextInt(large.size()));
+            to[i] = large.get(random.nextInt(large.size()));
+            Airport departure = graph.airport(from[i]), destination = graph.airport(to[i]);
+            if (GreatCircle.distanceNm(departure.getGeoLat(), departure.getGeoLong(),
+                                       destination.getGeoLat(), destination.getGeoLong()) <= maxPairNm) i++;
+        }
+        router = new BatchRouter(graph, null, threads);
+        options = new RouteOptions(500);
+    }
+
+    @TearDown
+    public void tearDown() {
+        router.close();
+    }
+
+    @Benchmark
+    public int batchRoutes() throws IOException {
+        return router.route(from, to, options, null, (pair, departure, destination, route) -> { });
+    }
+}
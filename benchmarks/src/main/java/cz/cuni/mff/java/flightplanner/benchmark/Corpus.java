@@ -0,0 +1,51 @@
+package cz.cuni.mff.java.flightplanner.benchmark;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.stream.Collectors;
+import cz.cuni.mff.java.flightplanner.util.NotNull;
+
+/**
+ * The Corpus class reads the benchmark inputs stored in the resources of the
+ * benchmarks module.
+ */
+final class Corpus {
+
+    /**
+     * The METAR entries in the .csv format of the provider, i.e.
+     * "ICAO,year,month,day,hour,minute,report". The corpus covers all the
+     * token types of the lexer, the European and the North American formats
+     * and one "NIL" report.
+     */
+    static final String metarCorpus = "metar-corpus.csv";
+
+    private Corpus() {
+    }
+
+    /**
+     * @param resourceName The name of the resource of the benchmarks module.
+     * @return The non-blank lines of the resource.
+     * @throws IOException if the resource is missing or can not be read.
+     */
+    static @NotNull List<String> lines(@NotNull String resourceName) throws IOException {
+        InputStream in = Corpus.class.getClassLoader().getResourceAsStream(resourceName);
+        if (in == null) throw new IOException(resourceName + " is not on the classpath.");
+        try (BufferedReader br = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8))) {
+            return br.lines()
+                     .filter(line -> !line.isBlank())
+                     .collect(Collectors.toUnmodifiableList());
+        }
+    }
+
+    /**
+     * @param csvEntry The METAR entry in the .csv format.
+     * @return The report of the entry without its metadata and the final "=".
+     */
+    static @NotNull String report(@NotNull String csvEntry) {
+        return csvEntry.split(",", 7)[6].replace("=", "").strip();
+    }
+}
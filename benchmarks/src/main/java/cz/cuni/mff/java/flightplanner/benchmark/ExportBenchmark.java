@@ -0,0 +1,93 @@
+package cz.cuni.mff.java.flightplanner.benchmark;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import cz.cuni.mff.java.flightplanner.dataobject.APTCategory;
+import cz.cuni.mff.java.flightplanner.export.PlanFormat;
+import cz.cuni.mff.java.flightplanner.export.PlanWriter;
+import cz.cuni.mff.java.flightplanner.performance.PerformanceModel;
+import cz.cuni.mff.java.flightplanner.performance.PerformanceTable;
+import cz.cuni.mff.java.flightplanner.performance.RouteWind;
+import cz.cuni.mff.java.flightplanner.routing.AirportGraph;
+import cz.cuni.mff.java.flightplanner.routing.FlightEstimate;
+import cz.cuni.mff.java.flightplanner.routing.Route;
+import cz.cuni.mff.java.flightplanner.routing.RouteOptions;
+import cz.cuni.mff.java.flightplanner.routing.RoutePlanner;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * The benchmark of the export of {@value #routeCount} routes between random
+ * large airports at most {@value #maxRouteNm} NM apart with the range of
+ * 500 NM in every export format. The routes
+ * are planned once and written into a stream which discards the output, so
+ * only the formatting and the encoding are measured.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ExportBenchmark {
+
+    private static final int routeCount = 256;
+    private static final double maxRouteNm = 1500;
+
+    @Param({ "fpl", "gpx", "legs" })
+    public String format;
+
+    private final List<Route> routes = new ArrayList<>();
+    private final List<FlightEstimate> estimates = new ArrayList<>();
+    private PlanFormat planFormat;
+
+    /**
+     * Plans the routes and estimates them for the A320.
+     */
+    @Setup
+    public void setup() throws IOException {
+        AirportGraph graph = AirportGraph.ofDatabase();
+        PerformanceTable table = PerformanceTable.ofResource();
+        if (graph == null || table == null) throw new IOException("The databases could not be loaded.");
+        PerformanceModel performance = table.find("A320");
+        List<Integer> large = new ArrayList<>();
+        for (int node = 0; node < graph.size(); node++) {
+            if (graph.airport(node).getCat() == APTCategory.large_airport) large.add(node);
+        }
+        RoutePlanner planner = new RoutePlanner(graph, null);
+        RouteOptions options = new RouteOptions(500);
+        Random random = new Random(2020);
+        while (routes.size() < routeCount) {
+            int from = large.get(random.nextInt(large.size())), to = large.get(random.nextInt(large.size()));
+            if (graph.distanceNm(from, to) > maxRouteNm) continue;
+            Route route = planner.plan(from, to, options);
+            if (route == null || route.getLegs().isEmpty()) continue;
+            routes.add(route);
+            estimates.add(FlightEstimate.of(route, performance, RouteWind.calm));
+        }
+        planFormat = PlanFormat.of(format);
+    }
+
+    @Benchmark
+    public int export() throws IOException {
+        PlanWriter writer = planFormat.open(OutputStream.nullOutputStream());
+        for (int i = 0; i < routeCount; i++) {
+            writer.write(routes.get(i), estimates.get(i));
+        }
+        writer.finish();
+        return writer.count();
+    }
+}
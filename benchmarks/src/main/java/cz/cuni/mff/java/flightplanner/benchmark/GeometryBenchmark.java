@@ -0,0 +1,88 @@
+package cz.cuni.mff.java.flightplanner.benchmark;
+
+import java.io.IOException;
+import java.util.Collection;
+import java.util.concurrent.TimeUnit;
+import cz.cuni.mff.java.flightplanner.dataobject.Airport;
+import cz.cuni.mff.java.flightplanner.geo.GreatCircle;
+import cz.cuni.mff.java.flightplanner.geo.Track;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * The benchmarks of the great-circle geometry: the distances and the
+ * cross-track distances from one point to all the airports of the database,
+ * computed one by one and by the batched methods.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class GeometryBenchmark {
+
+    private static final double latitude = 50.1008, longitude = 14.26;
+
+    private double[] latitudes, longitudes, xs, ys, zs, out;
+    private Track track;
+
+    /**
+     * Copies the coordinates of the airports into the arrays.
+     */
+    @Setup
+    public void setup() throws IOException {
+        Collection<Airport> airports = Airport.all();
+        if (airports == null) throw new IOException("The airports database could not be loaded.");
+        int n = 0;
+        latitudes = new double[airports.size()];
+        longitudes = new double[airports.size()];
+        for (Airport airport : airports) {
+            if (airport.getGeoLat() == null || airport.getGeoLong() == null) continue;
+            latitudes[n] = airport.getGeoLat();
+            longitudes[n] = airport.getGeoLong();
+            n++;
+        }
+        xs = new double[n];
+        ys = new double[n];
+        zs = new double[n];
+        out = new double[n];
+        GreatCircle.unitVectors(latitudes, longitudes, xs, ys, zs, 0, n);
+        track = new Track(latitude, longitude, 38.7813, -9.13592);
+    }
+
+    @Benchmark
+    public double scalarDistances() {
+        double sum = 0;
+        for (int i = 0; i < out.length; i++) {
+            sum += GreatCircle.distanceNm(latitude, longitude, latitudes[i], longitudes[i]);
+        }
+        return sum;
+    }
+
+    @Benchmark
+    public double[] batchedDistances() {
+        GreatCircle.distancesNm(latitude, longitude, latitudes, longitudes, out, 0, out.length);
+        return out;
+    }
+
+    @Benchmark
+    public double[] batchedAngles() {
+        GreatCircle.angles(xs[0], ys[0], zs[0], xs, ys, zs, out, 0, out.length);
+        return out;
+    }
+
+    @Benchmark
+    public double[] batchedCrossTracks() {
+        track.crossTracksNm(xs, ys, zs, out, 0, out.length);
+        return out;
+    }
+}
@@ -0,0 +1,114 @@
+package cz.cuni.mff.java.flightplanner.benchmark;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import cz.cuni.mff.java.flightplanner.dataobject.Airport;
+import cz.cuni.mff.java.flightplanner.util.METARDecoder;
+import cz.cuni.mff.java.flightplanner.util.WeatherLexer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * The benchmarks of the METAR processing over the whole corpus: the token
+ * classification, the structured decoding and the full text report.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class METARBenchmark {
+
+    private List<String> entries;
+    private String[][] reports;
+    private File corpusFile;
+    private PrintStream console, sink;
+
+    /**
+     * Splits the corpus reports into the tokens and copies the corpus into a
+     * file for the full decoding. The console output of the decoder is
+     * discarded during the benchmark.
+     */
+    @Setup
+    public void setup() throws IOException {
+        entries = Corpus.lines(Corpus.metarCorpus);
+        reports = entries.stream()
+                         .map(entry -> Corpus.report(entry).split("\\s+"))
+                         .toArray(String[][]::new);
+        corpusFile = File.createTempFile("metar-corpus", ".csv");
+        corpusFile.deleteOnExit();
+        Files.write(corpusFile.toPath(), entries, StandardCharsets.UTF_8);
+
+        // the dictionary and the database are loaded once, not in the measured code
+        if (Airport.find("LKPR") == null) throw new IOException("The airports database could not be loaded.");
+        console = System.out;
+        sink = new PrintStream(OutputStream.nullOutputStream());
+        System.setOut(sink);
+        new METARDecoder(false).fileDecode(corpusFile, sink, false);
+    }
+
+    @TearDown
+    public void tearDown() {
+        System.setOut(console);
+        corpusFile.delete();
+    }
+
+    /**
+     * The classification of every token of the corpus reports.
+     */
+    @Benchmark
+    public void classifyTokens(Blackhole bh) {
+        for (String[] parts : reports) {
+            for (int i = 3; i < parts.length; i++) {
+                bh.consume(WeatherLexer.classify(parts[i], WeatherLexer.Mode.METAR));
+            }
+        }
+    }
+
+    /**
+     * The tokenization of the corpus reports, including the joining of the
+     * tokens split by spaces (e.g. "1 1/2SM").
+     */
+    @Benchmark
+    public void tokenizeReports(Blackhole bh) {
+        for (String[] parts : reports) {
+            bh.consume(WeatherLexer.tokenize(parts, 3, WeatherLexer.Mode.METAR));
+        }
+    }
+
+    /**
+     * The structured decoding of the corpus entries used by the statistics
+     * and the record output.
+     */
+    @Benchmark
+    public void decodeObservations(Blackhole bh) {
+        for (String entry : entries) {
+            bh.consume(METARDecoder.decodeObservation(entry));
+        }
+    }
+
+    /**
+     * The full text report of the whole corpus file.
+     */
+    @Benchmark
+    public int decodeReports() {
+        return new METARDecoder(false).fileDecode(corpusFile, sink, false);
+    }
+}
@@ -0,0 +1,58 @@
+package cz.cuni.mff.java.flightplanner.benchmark;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import cz.cuni.mff.java.flightplanner.dataobject.Airport;
+import cz.cuni.mff.java.flightplanner.navdata.NavDataGenerator;
+import cz.cuni.mff.java.flightplanner.navdata.NavDataReader;
+import cz.cuni.mff.java.flightplanner.navdata.NavDataWriter;
+import cz.cuni.mff.java.flightplanner.navdata.NavGraph;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * The benchmarks of the navigation database: the loading of the synthetic
+ * database generated with the fixes every 5 NM (about 165 000 points).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class NavDataBenchmark {
+
+    private static final double fixSpacingNm = 5;
+
+    private byte[] database;
+
+    /**
+     * Generates the database and keeps it in the memory, so that the parsing
+     * is measured without the I/O.
+     */
+    @Setup
+    public void setup() throws IOException {
+        if (Airport.all() == null) throw new IOException("The airports database could not be loaded.");
+        NavGraph graph = new NavDataGenerator(fixSpacingNm, NavDataGenerator.defaultMaxAirwayNm,
+                                              NavDataGenerator.defaultAirwayNeighbours,
+                                              NavDataGenerator.defaultSeed).generate(Airport.all());
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        NavDataWriter.write(graph, out);
+        database = out.toByteArray();
+    }
+
+    @Benchmark
+    public NavGraph loadNavData() throws IOException {
+        return NavDataReader.read(new ByteArrayInputStream(database));
+    }
+}
@@ -0,0 +1,102 @@
+package cz.cuni.mff.java.flightplanner.benchmark;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import cz.cuni.mff.java.flightplanner.dataobject.Airport;
+import cz.cuni.mff.java.flightplanner.dataobject.Wind;
+import cz.cuni.mff.java.flightplanner.geo.GreatCircle;
+import cz.cuni.mff.java.flightplanner.performance.PerformanceModel;
+import cz.cuni.mff.java.flightplanner.performance.PerformanceTable;
+import cz.cuni.mff.java.flightplanner.performance.RouteWind;
+import cz.cuni.mff.java.flightplanner.routing.AirportGraph;
+import cz.cuni.mff.java.flightplanner.routing.Route;
+import cz.cuni.mff.java.flightplanner.routing.RouteOptions;
+import cz.cuni.mff.java.flightplanner.routing.RoutePlanner;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * The benchmark of the time and fuel estimates of the legs and of the route
+ * search minimizing the time of a C172 in the wind, compared with the search
+ * minimizing the distance.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class PerformanceBenchmark {
+
+    private static final double rangeNm = 400;
+
+    private PerformanceModel performance;
+    private RouteWind wind;
+    private RoutePlanner planner;
+    private RouteOptions distanceOptions, timeOptions;
+    private int from, to;
+    private double[] xs, ys, zs;
+    private final double[] components = new double[2];
+
+    /**
+     * Builds the graph of the airports and the unit vectors of all the
+     * airports.
+     */
+    @Setup
+    public void setup() throws IOException {
+        AirportGraph graph = AirportGraph.ofDatabase();
+        PerformanceTable table = PerformanceTable.ofResource();
+        if (graph == null || table == null) throw new IOException("The resources could not be loaded.");
+        performance = table.find("C172");
+        wind = RouteWind.of(new Wind(270, 25, Double.NaN), new Wind(240, 15, Double.NaN));
+        planner = new RoutePlanner(graph);
+        distanceOptions = new RouteOptions(rangeNm, RouteOptions.defaultStopPenaltyNm);
+        timeOptions = new RouteOptions(rangeNm, RouteOptions.defaultStopPenaltyNm, performance, wind);
+        from = graph.indexOf("LKPR");
+        to = graph.indexOf("LPPT");
+        xs = new double[graph.size()];
+        ys = new double[graph.size()];
+        zs = new double[graph.size()];
+        double[] vector = new double[3];
+        for (int i = 0; i < graph.size(); i++) {
+            Airport airport = graph.airport(i);
+            GreatCircle.unitVector(airport.getGeoLat(), airport.getGeoLong(), vector);
+            xs[i] = vector[0];
+            ys[i] = vector[1];
+            zs[i] = vector[2];
+        }
+    }
+
+    /**
+     * Estimates the time of the leg from the first airport to every airport,
+     * the work done by the search for every relaxed edge.
+     */
+    @Benchmark
+    public double legTimes() {
+        double sum = 0;
+        for (int i = 1; i < xs.length; i++) {
+            wind.components(xs[0], ys[0], zs[0], xs[i], ys[i], zs[i], components);
+            double distance = GreatCircle.angle(xs[0], ys[0], zs[0], xs[i], ys[i], zs[i]) * GreatCircle.earthRadiusNm;
+            sum += performance.legTimeHours(distance, components[0], components[1]);
+        }
+        return sum;
+    }
+
+    @Benchmark
+    public Route distanceRoute() {
+        return planner.plan(from, to, distanceOptions);
+    }
+
+    @Benchmark
+    public Route timeRoute() {
+        return planner.plan(from, to, timeOptions);
+    }
+}
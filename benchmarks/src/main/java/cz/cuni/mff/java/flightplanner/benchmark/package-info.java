@@ -0,0 +1,14 @@
+/**
+ * The package contains the JMH benchmarks of the hot paths of the application:
+ * the loading of the airports database, the airport search, the construction
+ * of the runways, the great-circle geometry, the search of the alternates
+ * along a route, the time estimates of the legs and the route search
+ * minimizing the time, the parallel batch routing, the export of the routes,
+ * the METAR classification and decoding and the loading of the synthetic
+ * navigation database. The METARs are taken from the fixed corpus in the
+ * resources of the module, so that the results of different versions can be
+ * compared.
+ *
+ * @author Viktor Bujko
+ */
+package cz.cuni.mff.java.flightplanner.benchmark;
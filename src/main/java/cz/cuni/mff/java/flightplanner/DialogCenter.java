@@ -4,6 +4,7 @@ import java.io.*;
 import java.text.SimpleDateFormat;
 import java.util.*;
 import java.util.stream.Collectors;
+import cz.cuni.mff.java.flightplanner.output.RecordFormat;
 import cz.cuni.mff.java.flightplanner.plugin.Plugin;
 import cz.cuni.mff.java.flightplanner.util.FilesHandler;
 import cz.cuni.mff.java.flightplanner.util.NotNull;
@@ -45,6 +46,24 @@ public class DialogCenter {
      * @see #setFileOutputStream(boolean, String)
      */
     public static OutputStream chooseOutputForm(@NotNull String arg, boolean prompt, @Nullable String fileName) {
+        return chooseOutputForm(arg, prompt, fileName, RecordFormat.TEXT);
+    }
+
+    /**
+     * The variant of {@link #chooseOutputForm(String, boolean, String)} which
+     * creates the file with the extension of the chosen {@code format}.
+     *
+     * @param arg      The optional argument to be printed in the prompted message.
+     * @param prompt   {@code Boolean} flag which indicates whether the user's
+     *                 interaction is required when the file is created.
+     * @param fileName The name of a file used in case the output is to be
+     *                 printed to file. If {@code null}, then a temporary file
+     *                 is created.
+     * @param format   The format of the output, see {@link #chooseFormat(String)}.
+     * @return The value of output stream to be used.
+     */
+    public static OutputStream chooseOutputForm(@NotNull String arg, boolean prompt, @Nullable String fileName,
+                                                @NotNull RecordFormat format) {
         OutputStream result;
 
         arg = (!arg.isEmpty() && !arg.startsWith(" "))
@@ -55,7 +74,7 @@ public class DialogCenter {
 
         switch (getInput(false, false)) {
             case "file":
-                result = setFileOutputStream(prompt, fileName);
+                result = setFileOutputStream(prompt, fileName, format.getFileExtension());
                 break;
             case "screen": //no break on purpose because default output stream is System.out
             default:
@@ -67,6 +86,27 @@ public class DialogCenter {
         return result;
     }
 
+    /**
+     * Asks the user for the format of the output: the text report, or one of
+     * the machine-readable formats (see {@link RecordFormat}). Any incorrect
+     * input results in the text report.
+     *
+     * @param arg The optional argument to be printed in the prompted message.
+     * @return The chosen format.
+     */
+    public static @NotNull RecordFormat chooseFormat(@NotNull String arg) {
+        arg = (!arg.isEmpty() && !arg.startsWith(" "))
+                ? " " + arg
+                : arg;
+        System.out.printf("Please type your choice of output format (%s)%s: ",
+                          Arrays.stream(RecordFormat.values())
+                                .map(RecordFormat::getKeyword)
+                                .collect(Collectors.joining("/")),
+                          arg);
+        RecordFormat format = RecordFormat.of(getInput(true, true));
+        return format == null ? RecordFormat.TEXT : format;
+    }
+
     /**
      * Sets the output stream chosen by the user and eventually creates the file to
      * be written in. The output file is by default created in the project output
@@ -85,6 +125,22 @@ public class DialogCenter {
      *         data.
      */
     public static OutputStream setFileOutputStream(boolean prompt, @Nullable String fileName) {
+        return setFileOutputStream(prompt, fileName, RecordFormat.TEXT.getFileExtension());
+    }
+
+    /**
+     * The variant of {@link #setFileOutputStream(boolean, String)} which
+     * creates the file with the given extension.
+     *
+     * @param prompt    {@code Boolean} flag which indicates whether user's
+     *                  interaction is required.
+     * @param fileName  The name of a file, or {@code null} for a temporary file.
+     * @param extension The extension of the file.
+     * @return The {@code output stream} type to be used when printing gathered
+     *         data.
+     */
+    public static OutputStream setFileOutputStream(boolean prompt, @Nullable String fileName,
+                                                   @NotNull String extension) {
 
         String outPath = null;
 
@@ -103,13 +159,45 @@ public class DialogCenter {
             }
         }
 
+        return createFileOutputStream(outPath, fileName, extension);
+    }
+
+    /**
+     * Creates the file to be written in without any interaction with the user.
+     * The name of the file is completed by the current date and time.
+     *
+     * @param outPath  The path of the destination directory. If {@code null} or
+     *                 invalid, the default "output" directory is used.
+     *
+     * @param fileName The name of a file. If {@code null}, then a temporary file
+     *                 is created.
+     *
+     * @return The {@code output stream} type to be used when printing gathered
+     *         data. The screen output is used if the file can not be created.
+     */
+    public static OutputStream createFileOutputStream(@Nullable String outPath, @Nullable String fileName) {
+        return createFileOutputStream(outPath, fileName, RecordFormat.TEXT.getFileExtension());
+    }
+
+    /**
+     * The variant of {@link #createFileOutputStream(String, String)} which
+     * creates the file with the given extension.
+     *
+     * @param outPath   The path of the destination directory, or {@code null}.
+     * @param fileName  The name of a file, or {@code null} for a temporary file.
+     * @param extension The extension of the file.
+     * @return The {@code output stream} type to be used when printing gathered
+     *         data. The screen output is used if the file can not be created.
+     */
+    public static OutputStream createFileOutputStream(@Nullable String outPath, @Nullable String fileName,
+                                                      @NotNull String extension) {
         String completeFileName,
                dateTime = new SimpleDateFormat("yyyyMMddHHmmss").format(new Date());
         if (fileName != null) {
             completeFileName = "%FILENAME_%DATETIME.%EXTENSION"
                                .replace("%FILENAME", fileName)
                                .replace("%DATETIME", dateTime)
-                               .replace("%EXTENSION", "txt");
+                               .replace("%EXTENSION", extension);
         } else {
             try {
                 File temporary = File.createTempFile("temporary_file_%DATETIME"
@@ -2,6 +2,8 @@ package cz.cuni.mff.java.flightplanner;
 
 import java.util.List;
 import cz.cuni.mff.java.flightplanner.plugin.Plugin;
+import cz.cuni.mff.java.flightplanner.plugin.PluginParameters;
+import cz.cuni.mff.java.flightplanner.util.NotNull;
 
 /**
  * The entry point to the program. Launches the application.
@@ -16,6 +18,9 @@ public class FlightPlanner {
         List<Plugin> allPlugins, activePlugins;
 
         allPlugins = Plugin.loadAllPlugins();
+        if (args.length > 0) {
+            System.exit(runNonInteractive(allPlugins, args));
+        }
         DialogCenter.welcomeMenu();
         while (true) {
             activePlugins = DialogCenter.choosePlugins(allPlugins);
@@ -27,4 +32,26 @@ public class FlightPlanner {
             } else break;
         }
     }
+
+    /**
+     * Runs the plugins chosen by the command-line arguments without any
+     * interaction with the user.
+     *
+     * @param allPlugins List of all available plugins.
+     * @param args       The command-line arguments.
+     * @return The exit code of the program: 0 if every plugin finished just
+     *         fine, 1 if any issue has occurred and 2 if the arguments are not
+     *         correct.
+     */
+    private static int runNonInteractive(@NotNull List<Plugin> allPlugins, @NotNull String[] args) {
+        PluginParameters parameters;
+        try {
+            parameters = PluginParameters.fromArguments(args);
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            System.err.println(PluginParameters.usage());
+            return 2;
+        }
+        return Plugin.runPlugins(allPlugins, parameters);
+    }
 }
@@ -7,6 +7,7 @@ import java.io.*;
 import java.lang.reflect.Field;
 import java.util.*;
 import java.util.List;
+import java.util.stream.Collectors;
 
 /**
  * The class which represent an Airport object and all the important available data
@@ -20,15 +21,21 @@ public class Airport {
      */
     private static final Map<String, Airport> aptDatabase = new HashMap<>();
     private static boolean aptDatabaseIsSet = false;
+    /**
+     * The airports and the runways of the database addressed by their IDs.
+     */
+    private static AirportRegistry registry;
 
+    private final int id;
     private final List<Runway> runways;
     private final String icaoCode, name, municipality;
     private final String countryCode;
     private final Double elevation, geoLat, geoLong;
     private final APTCategory cat;
 
-    private Airport(String icao, String name, String country, String municipality,
+    private Airport(int id, String icao, String name, String country, String municipality,
                     APTCategory cat, Double geoLat, Double geoLong, Double elev, List<Runway> rwys) {
+        this.id = id;
         this.icaoCode = icao;
         this.name = name;
         this.countryCode = country;
@@ -40,6 +47,14 @@ public class Airport {
         this.runways = rwys;
     }
 
+    /**
+     * @return The dense ID of the airport assigned when the database is read,
+     *         see {@link AirportRegistry}.
+     */
+    public int getId() {
+        return id;
+    }
+
     /**
      * @return The value of the elevation of the object.
      */
@@ -108,7 +123,7 @@ public class Airport {
      *
      * @see #aptDatabase
      */
-    private static Map<String, Airport> getAptDatabase() {
+    private static synchronized Map<String, Airport> getAptDatabase() {
         int exitCode;
         if (!aptDatabaseIsSet) {
             exitCode = setAirportsDatabase();
@@ -118,6 +133,70 @@ public class Airport {
         return aptDatabase;
     }
 
+    /**
+     * Finds the airport by its ICAO code without any interaction with the user.
+     *
+     * @param icaoCode The ICAO code of the airport (not case-sensitive).
+     * @return The airport, or {@code null} if there is no such airport or the
+     *         database could not be read.
+     */
+    public static @Nullable Airport find(@NotNull String icaoCode) {
+        AirportRegistry airports = registry();
+        return airports == null ? null : airports.find(icaoCode);
+    }
+
+    /**
+     * @return The airports and the runways of the database addressed by their
+     *         IDs, or {@code null} if the database could not be read.
+     */
+    public static synchronized @Nullable AirportRegistry registry() {
+        if (getAptDatabase() == null) return null;
+        return registry;
+    }
+
+    /**
+     * @return All the airports of the database (unmodifiable), or {@code null}
+     *         if the database could not be read.
+     */
+    public static @Nullable Collection<Airport> all() {
+        Map<String, Airport> database = getAptDatabase();
+        return database == null ? null : Collections.unmodifiableCollection(database.values());
+    }
+
+    /**
+     * Searches the database for the airports matching the query without any
+     * interaction with the user. The query is matched against the ICAO code,
+     * the name and the municipality of the airports (not case-sensitive). The
+     * exact ICAO match is returned first, then the airports whose ICAO code
+     * starts with the query, then the others. The larger airports precede the
+     * smaller ones within each of these groups.
+     *
+     * @param query The searched text.
+     * @param limit The maximal number of the returned airports.
+     * @return The list of the matching airports, or {@code null} if the
+     *         database could not be read.
+     */
+    public static @Nullable List<Airport> search(@NotNull String query, int limit) {
+        Map<String, Airport> database = getAptDatabase();
+        if (database == null) return null;
+        String text = query.strip().toLowerCase();
+        if (text.isEmpty()) return List.of();
+        Comparator<Airport> order =
+                Comparator.<Airport>comparingInt(apt -> apt.icaoCode.equalsIgnoreCase(text)
+                                                        ? 0
+                                                        : apt.icaoCode.toLowerCase().startsWith(text) ? 1 : 2)
+                          .thenComparing(apt -> apt.cat, Comparator.reverseOrder())
+                          .thenComparing(apt -> apt.icaoCode);
+        return database.values()
+                       .stream()
+                       .filter(apt -> apt.icaoCode.toLowerCase().startsWith(text) ||
+                                      apt.name.toLowerCase().contains(text) ||
+                                      apt.municipality.toLowerCase().contains(text))
+                       .sorted(order)
+                       .limit(Math.max(0, limit))
+                       .collect(Collectors.toList());
+    }
+
     /**
      * The method prompts the user to enter all the airports to be searched for
      * and creates a list of provided strings which are separated by any non-letter
@@ -330,49 +409,65 @@ public class Airport {
      * @see #aptDatabase
      */
     private static int setAirportsDatabase() {
-
-        String line;
-        File src = FilesHandler.findResource("MRpLairportsDatabase.csv");
+        BufferedReader src = ResourceLocator.openReader("MRpLairportsDatabase.csv");
         if (src == null) {
             System.err.println("The resource was not found.\n");
             return 1;
         }
-        String[] csvFields;
-        double lat, longit, elev;
-        int linesRead = 0;
-
-        try (BufferedReader br = new BufferedReader(new FileReader(src))) {
-            while ((line = br.readLine()) != null) {
-                ++linesRead;
-                csvFields = line.split(",", 11);
-                elev = Utilities.parseDouble(csvFields[9]);
-                lat = Utilities.parseDouble(csvFields[7]);
-                longit = Utilities.parseDouble(csvFields[8]);
-                APTCategory cat = APTCategory.valueOf(csvFields[6].trim());
-                String[] runways = csvFields[10].split("RUNWAY,");
-                runways = Arrays.stream(runways)
-                                .filter(x -> !x.isBlank())
-                                .toArray(String[]::new);
-                aptDatabase.put(csvFields[0], new Airport(csvFields[0],
-                                                          csvFields[1],
-                                                          csvFields[2],
-                                                          csvFields[3],
-                                                          cat,
-                                                          lat,
-                                                          longit,
-                                                          elev,
-                                                          Runway.setRunways(csvFields[0],runways)));
-            }
-            if (linesRead != aptDatabase.size()) throw new IOException();
-            else aptDatabaseIsSet = true;
+        try (BufferedReader br = src) {
+            aptDatabase.putAll(readDatabase(br));
+            registry = new AirportRegistry(aptDatabase.values());
+            aptDatabaseIsSet = true;
             return 0;
-        } catch (FileNotFoundException e) {
-            System.err.println("The file with data was not found.");
-            return 1;
-        }
-        catch (IOException ex) {
+        } catch (IOException ex) {
             System.err.println("At least one database line was not imported.");
             return 1;
         }
     }
+
+    /**
+     * Parses the airports from the lines in the .csv format of the airports
+     * database. The stored database of the Airport class is not modified.
+     * The airports get the IDs in the order of the lines, their runways in the
+     * order of the airports, see {@link AirportRegistry}.
+     *
+     * @param br The reader of the database lines.
+     * @return The parsed airports indexed by their ICAO codes.
+     * @throws IOException if the lines can not be read or if any line was not
+     *         imported (e.g. because of the duplicate ICAO code).
+     */
+    public static @NotNull Map<String, Airport> readDatabase(@NotNull BufferedReader br) throws IOException {
+        Map<String, Airport> result = new HashMap<>();
+        String line;
+        String[] csvFields;
+        double lat, longit, elev;
+        int linesRead = 0, runwaysRead = 0;
+
+        while ((line = br.readLine()) != null) {
+            ++linesRead;
+            csvFields = line.split(",", 11);
+            elev = Utilities.parseDouble(csvFields[9]);
+            lat = Utilities.parseDouble(csvFields[7]);
+            longit = Utilities.parseDouble(csvFields[8]);
+            APTCategory cat = APTCategory.valueOf(csvFields[6].trim());
+            String[] runways = csvFields[10].split("RUNWAY,");
+            runways = Arrays.stream(runways)
+                            .filter(x -> !x.isBlank())
+                            .toArray(String[]::new);
+            List<Runway> airportRunways = Runway.setRunways(csvFields[0], linesRead - 1, runwaysRead, runways);
+            runwaysRead += airportRunways.size();
+            result.put(csvFields[0], new Airport(linesRead - 1,
+                                                 csvFields[0],
+                                                 csvFields[1],
+                                                 csvFields[2],
+                                                 csvFields[3],
+                                                 cat,
+                                                 lat,
+                                                 longit,
+                                                 elev,
+                                                 airportRunways));
+        }
+        if (linesRead != result.size()) throw new IOException("Duplicate airports in the database.");
+        return result;
+    }
 }
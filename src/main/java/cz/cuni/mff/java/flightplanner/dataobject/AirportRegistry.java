@@ -0,0 +1,119 @@
+package cz.cuni.mff.java.flightplanner.dataobject;
+
+import java.util.Collection;
+import java.util.List;
+import cz.cuni.mff.java.flightplanner.util.NotNull;
+import cz.cuni.mff.java.flightplanner.util.Nullable;
+
+/**
+ * The AirportRegistry class addresses the airports and the runways of one
+ * database by their dense IDs. The IDs are assigned when the database is read
+ * (see {@link Airport#readDatabase}): the airports are numbered from 0 in the
+ * order of the database lines and the runways from 0 airport by airport, so
+ * the runways of the airport {@code id} are the runways
+ * {@link #runwayStart(int) runwayStart(id)} to {@code runwayStart(id + 1) - 1}.
+ * <p>
+ * The IDs let the indexes, the searches and the caches keep their data in
+ * primitive arrays indexed by the ID instead of the maps keyed by the ICAO
+ * codes. The ICAO code is converted to the ID once, by the {@link IcaoIndex}.
+ * <p>
+ * The registry is immutable and can be shared by several threads.
+ */
+public final class AirportRegistry {
+
+    private final Airport[] airports;
+    private final Runway[] runways;
+    private final int[] runwayStart;
+    private final IcaoIndex index;
+
+    /**
+     * @param airports All the airports of one database.
+     * @throws IllegalArgumentException if the IDs of the airports or of their
+     *         runways are not dense or do not belong to one database.
+     */
+    public AirportRegistry(@NotNull Collection<Airport> airports) {
+        int n = airports.size(), runwayCount = 0;
+        this.airports = new Airport[n];
+        for (Airport airport : airports) {
+            int id = airport.getId();
+            if (id < 0 || id >= n || this.airports[id] != null) {
+                throw new IllegalArgumentException("The airport IDs are not dense: %ICAO has the ID %ID."
+                                                   .replace("%ICAO", airport.getIcaoCode())
+                                                   .replace("%ID", String.valueOf(id)));
+            }
+            this.airports[id] = airport;
+            runwayCount += airport.getRunways().size();
+        }
+        this.runways = new Runway[runwayCount];
+        this.runwayStart = new int[n + 1];
+        String[] icaoCodes = new String[n];
+        int[] ids = new int[n];
+        for (int id = 0; id < n; id++) {
+            Airport airport = this.airports[id];
+            List<Runway> airportRunways = airport.getRunways();
+            runwayStart[id + 1] = runwayStart[id] + airportRunways.size();
+            int runwayId = runwayStart[id];
+            for (Runway runway : airportRunways) {
+                if (runway.getId() != runwayId || runway.getAirportId() != id) {
+                    throw new IllegalArgumentException("The runway IDs of %ICAO are not dense."
+                                                       .replace("%ICAO", airport.getIcaoCode()));
+                }
+                runways[runwayId++] = runway;
+            }
+            icaoCodes[id] = airport.getIcaoCode();
+            ids[id] = id;
+        }
+        this.index = new IcaoIndex(icaoCodes, ids);
+    }
+
+    /**
+     * @return The number of the airports. The airport IDs are 0 to
+     *         {@code size() - 1}.
+     */
+    public int size() {
+        return airports.length;
+    }
+
+    /**
+     * @param icaoCode The ICAO code of the airport (not case-sensitive).
+     * @return The ID of the airport, or -1 if there is no such airport.
+     */
+    public int idOf(@NotNull CharSequence icaoCode) {
+        return index.get(icaoCode);
+    }
+
+    public @NotNull Airport airport(int id) {
+        return airports[id];
+    }
+
+    /**
+     * @param icaoCode The ICAO code of the airport (not case-sensitive).
+     * @return The airport, or {@code null} if there is no such airport.
+     */
+    public @Nullable Airport find(@NotNull CharSequence icaoCode) {
+        int id = index.get(icaoCode);
+        return id < 0 ? null : airports[id];
+    }
+
+    /**
+     * @return The number of the runways of all the airports. The runway IDs
+     *         are 0 to {@code runwayCount() - 1}.
+     */
+    public int runwayCount() {
+        return runways.length;
+    }
+
+    public @NotNull Runway runway(int runwayId) {
+        return runways[runwayId];
+    }
+
+    /**
+     * @param id The airport ID, or {@link #size()} for the end of the last
+     *           airport.
+     * @return The ID of the first runway of the airport. The runways of the
+     *         airport end before {@code runwayStart(id + 1)}.
+     */
+    public int runwayStart(int id) {
+        return runwayStart[id];
+    }
+}
@@ -0,0 +1,38 @@
+package cz.cuni.mff.java.flightplanner.dataobject;
+
+/**
+ * FlightCategory enum class classifies the weather conditions based on the
+ * ceiling and the visibility, from the visual flight rules conditions (VFR) to
+ * the low instrument flight rules conditions (LIFR).
+ */
+public enum FlightCategory {
+    VFR,
+    MVFR,
+    IFR,
+    LIFR,
+    UNKNOWN;
+
+    private static final double metersPerSM = 1609.344;
+
+    /**
+     * Determines the category using the usual limits: LIFR below 500 feet or
+     * 1 statute mile, IFR below 1000 feet or 3 statute miles and MVFR up to
+     * 3000 feet or 5 statute miles.
+     *
+     * @param visibility The visibility in meters, or {@code NaN} if unknown.
+     * @param ceiling    The ceiling in feet, {@code POSITIVE_INFINITY} if there
+     *                   is no ceiling or {@code NaN} if unknown.
+     * @return The category of the conditions, or {@link #UNKNOWN} if neither
+     *         the visibility nor the ceiling is known.
+     */
+    public static FlightCategory of(double visibility, double ceiling) {
+        if (Double.isNaN(visibility) && Double.isNaN(ceiling)) return UNKNOWN;
+        // the unknown value does not make the category worse
+        double vis = Double.isNaN(visibility) ? Double.POSITIVE_INFINITY : visibility / metersPerSM,
+               cig = Double.isNaN(ceiling) ? Double.POSITIVE_INFINITY : ceiling;
+        if (cig < 500 || vis < 1)   return LIFR;
+        if (cig < 1000 || vis < 3)  return IFR;
+        if (cig <= 3000 || vis <= 5) return MVFR;
+        return VFR;
+    }
+}
@@ -0,0 +1,279 @@
+package cz.cuni.mff.java.flightplanner.dataobject;
+
+import cz.cuni.mff.java.flightplanner.util.NotNull;
+import cz.cuni.mff.java.flightplanner.util.Nullable;
+
+import java.time.ZonedDateTime;
+import java.util.*;
+
+/**
+ * The class which represents a decoded terminal aerodrome forecast (TAF). The
+ * forecast consists of the base conditions and the list of change groups. The
+ * prevailing conditions are precomputed into a time index when the object is
+ * created, so that the conditions at any time can be found by a binary search.
+ */
+public class Forecast {
+
+    /**
+     * The type of the change group of the forecast.
+     */
+    public enum ChangeType {
+        /** The conditions change completely at the given time ("FM"). */
+        FROM,
+        /** The conditions change gradually during the period ("BECMG"). */
+        BECOMING,
+        /** The conditions temporarily fluctuate during the period ("TEMPO"). */
+        TEMPORARY,
+        /** The conditions may occur during the period ("PROB30", "PROB40"). */
+        PROBABILITY
+    }
+
+    /**
+     * One change group of the forecast.
+     */
+    public static class Change {
+        private final ChangeType type;
+        private final int probability;
+        private final ZonedDateTime from, to;
+        private final WeatherConditions conditions;
+        private final String raw;
+
+        /**
+         * @param type        The type of the change group.
+         * @param probability The probability in percent (100 for the groups
+         *                    without any probability).
+         * @param from        The beginning of the change.
+         * @param to          The end of the change.
+         * @param conditions  The conditions described by the group.
+         * @param raw         The raw text of the group.
+         */
+        public Change(@NotNull ChangeType type, int probability, @NotNull ZonedDateTime from,
+                      @NotNull ZonedDateTime to, @NotNull WeatherConditions conditions, @NotNull String raw) {
+            this.type = type;
+            this.probability = probability;
+            this.from = from;
+            this.to = to;
+            this.conditions = conditions;
+            this.raw = raw;
+        }
+
+        /**
+         * @return The type of the change group.
+         */
+        public ChangeType getType() {
+            return type;
+        }
+
+        /**
+         * @return The probability in percent.
+         */
+        public int getProbability() {
+            return probability;
+        }
+
+        /**
+         * @return The beginning of the change.
+         */
+        public ZonedDateTime getFrom() {
+            return from;
+        }
+
+        /**
+         * @return The end of the change.
+         */
+        public ZonedDateTime getTo() {
+            return to;
+        }
+
+        /**
+         * @return The conditions described by the group.
+         */
+        public WeatherConditions getConditions() {
+            return conditions;
+        }
+
+        /**
+         * @return The raw text of the group.
+         */
+        public String getRaw() {
+            return raw;
+        }
+
+        /**
+         * @param time The time to be checked.
+         * @return The flag indicating that the change group is in force at the
+         *         given time.
+         */
+        public boolean covers(@NotNull ZonedDateTime time) {
+            return !time.isBefore(from) && time.isBefore(to);
+        }
+    }
+
+    private final String icaoCode, raw;
+    private final ZonedDateTime issued, validFrom, validTo;
+    private final WeatherConditions base;
+    private final List<Change> changes;
+    /**
+     * The time index of the prevailing conditions. The conditions at index i
+     * prevail from {@code timeIndex[i]} (epoch seconds) until the next entry.
+     */
+    private final long[] timeIndex;
+    private final WeatherConditions[] prevailing;
+
+    /**
+     * @param icaoCode  The ICAO code of the airport.
+     * @param issued    The time of the forecast issue.
+     * @param validFrom The beginning of the forecast validity.
+     * @param validTo   The end of the forecast validity.
+     * @param base      The initial conditions.
+     * @param changes   The change groups in the order of the forecast.
+     * @param raw       The raw text of the forecast.
+     */
+    public Forecast(@NotNull String icaoCode, @NotNull ZonedDateTime issued, @NotNull ZonedDateTime validFrom,
+                    @NotNull ZonedDateTime validTo, @NotNull WeatherConditions base,
+                    @NotNull List<Change> changes, @NotNull String raw) {
+        this.icaoCode = icaoCode;
+        this.issued = issued;
+        this.validFrom = validFrom;
+        this.validTo = validTo;
+        this.base = base;
+        this.changes = List.copyOf(changes);
+        this.raw = raw;
+
+        // the prevailing conditions are changed only by FM and BECMG groups,
+        // BECMG is taken into account from its beginning to stay on the safe side
+        List<Change> permanent = new ArrayList<>();
+        for (Change change : this.changes) {
+            if (change.type == ChangeType.FROM || change.type == ChangeType.BECOMING)
+                permanent.add(change);
+        }
+        permanent.sort(Comparator.comparing(Change::getFrom));
+        timeIndex  = new long[permanent.size() + 1];
+        prevailing = new WeatherConditions[permanent.size() + 1];
+        timeIndex[0]  = validFrom.toEpochSecond();
+        prevailing[0] = base;
+        for (int i = 0; i < permanent.size(); i++) {
+            Change change = permanent.get(i);
+            timeIndex[i + 1]  = change.from.toEpochSecond();
+            prevailing[i + 1] = change.type == ChangeType.FROM
+                                ? change.conditions
+                                : prevailing[i].overlay(change.conditions);
+        }
+    }
+
+    /**
+     * @return The ICAO code of the airport.
+     */
+    public String getIcaoCode() {
+        return icaoCode;
+    }
+
+    /**
+     * @return The time of the forecast issue.
+     */
+    public ZonedDateTime getIssued() {
+        return issued;
+    }
+
+    /**
+     * @return The beginning of the forecast validity.
+     */
+    public ZonedDateTime getValidFrom() {
+        return validFrom;
+    }
+
+    /**
+     * @return The end of the forecast validity.
+     */
+    public ZonedDateTime getValidTo() {
+        return validTo;
+    }
+
+    /**
+     * @return The initial conditions of the forecast.
+     */
+    public WeatherConditions getBase() {
+        return base;
+    }
+
+    /**
+     * @return The change groups of the forecast.
+     */
+    public List<Change> getChanges() {
+        return changes;
+    }
+
+    /**
+     * @return The raw text of the forecast.
+     */
+    public String getRaw() {
+        return raw;
+    }
+
+    /**
+     * @param time The time to be checked.
+     * @return The flag indicating that the forecast is valid at the given time.
+     */
+    public boolean isValidAt(@NotNull ZonedDateTime time) {
+        return !time.isBefore(validFrom) && time.isBefore(validTo);
+    }
+
+    /**
+     * Finds the prevailing conditions (i.e. the base conditions modified by the
+     * FM and BECMG groups) at the estimated time of arrival.
+     *
+     * @param eta The estimated time of arrival.
+     * @return The prevailing conditions, or {@code null} if the forecast is not
+     *         valid at the given time.
+     */
+    public @Nullable WeatherConditions conditionsAt(@NotNull ZonedDateTime eta) {
+        if (!isValidAt(eta)) return null;
+        int index = Arrays.binarySearch(timeIndex, eta.toEpochSecond());
+        if (index < 0) index = -index - 2;          // the last entry which starts before eta
+        // equal keys: take the last of them, it was applied last
+        while (index + 1 < timeIndex.length && timeIndex[index + 1] == eta.toEpochSecond()) index++;
+        return prevailing[Math.max(index, 0)];
+    }
+
+    /**
+     * Finds the temporary and probable changes (TEMPO and PROB groups) which are
+     * in force at the estimated time of arrival.
+     *
+     * @param eta The estimated time of arrival.
+     * @return The list of the temporary changes, possibly empty.
+     */
+    public @NotNull List<Change> temporaryChangesAt(@NotNull ZonedDateTime eta) {
+        List<Change> result = new ArrayList<>();
+        for (Change change : changes) {
+            if ((change.type == ChangeType.TEMPORARY || change.type == ChangeType.PROBABILITY) &&
+                change.covers(eta)) {
+                result.add(change);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Computes the worst conditions which may occur at the estimated time of
+     * arrival, i.e. the prevailing conditions modified by every temporary change
+     * in force whose flight category is worse.
+     *
+     * @param eta The estimated time of arrival.
+     * @return The worst expected conditions, or {@code null} if the forecast is
+     *         not valid at the given time.
+     */
+    public @Nullable WeatherConditions worstConditionsAt(@NotNull ZonedDateTime eta) {
+        WeatherConditions result = conditionsAt(eta);
+        if (result == null) return null;
+        for (Change change : temporaryChangesAt(eta)) {
+            WeatherConditions candidate = result.overlay(change.conditions);
+            FlightCategory category = candidate.getFlightCategory();
+            if ((category != FlightCategory.UNKNOWN &&
+                 category.compareTo(result.getFlightCategory()) > 0) ||
+                candidate.isWindshear()) {
+                result = candidate;
+            }
+        }
+        return result;
+    }
+}
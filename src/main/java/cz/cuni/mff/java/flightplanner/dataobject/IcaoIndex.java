@@ -0,0 +1,122 @@
+package cz.cuni.mff.java.flightplanner.dataobject;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import cz.cuni.mff.java.flightplanner.util.NotNull;
+
+/**
+ * The IcaoIndex class maps the ICAO codes to the {@code int} values, e.g. to
+ * the IDs of the airports or to the nodes of a graph. Every code of at most
+ * {@value #maxPackedLength} letters and digits is packed into one {@code int},
+ * one base-{@value #radix} digit per character, and looked up by the binary
+ * search of the sorted packed codes. Neither the lookup nor the index itself
+ * creates or hashes any string. The other codes, which do not occur in the
+ * airports database, are kept in an ordinary map.
+ * <p>
+ * The index is immutable and can be shared by several threads.
+ */
+public final class IcaoIndex {
+
+    private static final int maxPackedLength = 4, radix = 37;
+
+    /**
+     * The packed codes in the ascending order and their values.
+     */
+    private final int[] codes, values;
+    private final Map<String, Integer> others = new HashMap<>();
+
+    /**
+     * @param icaoCodes The ICAO codes (not case-sensitive).
+     * @param values    The values of the codes at the same indices.
+     * @throws IllegalArgumentException if the arrays differ in length or a
+     *         code occurs twice.
+     */
+    public IcaoIndex(@NotNull String[] icaoCodes, @NotNull int[] values) {
+        if (icaoCodes.length != values.length) {
+            throw new IllegalArgumentException("Every ICAO code needs its value.");
+        }
+        long[] entries = new long[icaoCodes.length];
+        int packed = 0;
+        for (int i = 0; i < icaoCodes.length; i++) {
+            int code = pack(icaoCodes[i]);
+            if (code >= 0) {
+                entries[packed++] = (long) code << 32 | (values[i] & 0xFFFFFFFFL);
+            } else if (others.put(icaoCodes[i].strip().toUpperCase(), values[i]) != null) {
+                throw duplicate(icaoCodes[i]);
+            }
+        }
+        Arrays.sort(entries, 0, packed);
+        this.codes = new int[packed];
+        this.values = new int[packed];
+        for (int i = 0; i < packed; i++) {
+            codes[i] = (int) (entries[i] >>> 32);
+            this.values[i] = (int) entries[i];
+            if (i > 0 && codes[i] == codes[i - 1]) throw duplicate(unpack(codes[i]));
+        }
+    }
+
+    /**
+     * @return The number of the codes.
+     */
+    public int size() {
+        return codes.length + others.size();
+    }
+
+    /**
+     * @param icaoCode The ICAO code (not case-sensitive, the surrounding white
+     *                 space is ignored).
+     * @return The value of the code, or -1 if the code is not in the index.
+     */
+    public int get(@NotNull CharSequence icaoCode) {
+        int code = pack(icaoCode);
+        if (code < 0) {
+            Integer value = others.get(icaoCode.toString().strip().toUpperCase());
+            return value == null ? -1 : value;
+        }
+        int found = Arrays.binarySearch(codes, code);
+        return found < 0 ? -1 : values[found];
+    }
+
+    /**
+     * Packs the ICAO code into one number. The letters are the digits 1 - 26,
+     * the digits 27 - 36, the shorter codes are padded by zeros.
+     *
+     * @return The packed code, or -1 if the code is empty, too long or contains
+     *         other characters.
+     */
+    static int pack(@NotNull CharSequence icaoCode) {
+        int start = 0, end = icaoCode.length();
+        while (start < end && Character.isWhitespace(icaoCode.charAt(start))) start++;
+        while (end > start && Character.isWhitespace(icaoCode.charAt(end - 1))) end--;
+        if (start == end || end - start > maxPackedLength) return -1;
+        int code = 0;
+        for (int i = 0; i < maxPackedLength; i++) {
+            int digit = 0;
+            if (start + i < end) {
+                char c = Character.toUpperCase(icaoCode.charAt(start + i));
+                if (c >= 'A' && c <= 'Z') digit = c - 'A' + 1;
+                else if (c >= '0' && c <= '9') digit = c - '0' + 27;
+                else return -1;
+            }
+            code = code * radix + digit;
+        }
+        return code;
+    }
+
+    private static @NotNull String unpack(int code) {
+        char[] chars = new char[maxPackedLength];
+        int length = maxPackedLength;
+        for (int i = maxPackedLength - 1; i >= 0; i--) {
+            int digit = code % radix;
+            code /= radix;
+            if (digit == 0) length = i;
+            chars[i] = digit <= 26 ? (char) ('A' + digit - 1) : (char) ('0' + digit - 27);
+        }
+        return new String(chars, 0, length);
+    }
+
+    private static @NotNull IllegalArgumentException duplicate(@NotNull String icaoCode) {
+        return new IllegalArgumentException("Duplicate ICAO code: %ICAO".replace("%ICAO", icaoCode));
+    }
+}
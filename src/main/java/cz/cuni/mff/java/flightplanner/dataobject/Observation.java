@@ -0,0 +1,79 @@
+package cz.cuni.mff.java.flightplanner.dataobject;
+
+import cz.cuni.mff.java.flightplanner.util.NotNull;
+
+import java.time.ZonedDateTime;
+
+/**
+ * The class which represents one decoded weather observation (METAR or SPECI)
+ * of an airport.
+ */
+public class Observation {
+
+    private final String icaoCode, type, raw;
+    private final ZonedDateTime time;
+    private final WeatherConditions conditions;
+
+    /**
+     * @param icaoCode   The ICAO code of the airport.
+     * @param type       The type of the report, either "METAR" or "SPECI".
+     * @param time       The time of the observation.
+     * @param conditions The decoded weather conditions.
+     * @param raw        The raw text of the report.
+     */
+    public Observation(@NotNull String icaoCode, @NotNull String type, @NotNull ZonedDateTime time,
+                       @NotNull WeatherConditions conditions, @NotNull String raw) {
+        this.icaoCode = icaoCode;
+        this.type = type;
+        this.time = time;
+        this.conditions = conditions;
+        this.raw = raw;
+    }
+
+    /**
+     * @return The ICAO code of the airport.
+     */
+    public String getIcaoCode() {
+        return icaoCode;
+    }
+
+    /**
+     * @return The type of the report, either "METAR" or "SPECI".
+     */
+    public String getType() {
+        return type;
+    }
+
+    /**
+     * @return The flag indicating the special (unscheduled) report.
+     */
+    public boolean isSpecial() {
+        return "SPECI".equals(type);
+    }
+
+    /**
+     * @return The time of the observation.
+     */
+    public ZonedDateTime getTime() {
+        return time;
+    }
+
+    /**
+     * @return The decoded weather conditions.
+     */
+    public WeatherConditions getConditions() {
+        return conditions;
+    }
+
+    /**
+     * @return The raw text of the report.
+     */
+    public String getRaw() {
+        return raw;
+    }
+
+    @Override
+    public String toString() {
+        return raw;
+    }
+}
@@ -13,13 +13,16 @@ public class Runway {
 
     private Double[] thr1Coordinates, thr2Coordinates;
     private final String   icaoCode;
+    private final int      id, airportId;
     private String identification, coverage,
                    truehdgs, elevations;
     private Double length,   width;
     private boolean isDetailed;
 
-    private Runway(String icao, String rwy) {
+    private Runway(String icao, int airportId, int id, String rwy) {
         this.icaoCode = icao;
+        this.airportId = airportId;
+        this.id = id;
 
         String[] items = rwy.split(",",-1);
         try {
@@ -101,6 +104,76 @@ public class Runway {
         return isDetailed;
     }
 
+    /**
+     * @return The ICAO code of the airport the runway belongs to.
+     */
+    public String getIcaoCode() {
+        return icaoCode;
+    }
+
+    /**
+     * @return The ID of the runway in the database, or -1 if the runway was
+     *         created outside of the database.
+     *
+     * @see AirportRegistry
+     */
+    public int getId() {
+        return id;
+    }
+
+    /**
+     * @return The ID of the airport the runway belongs to, or -1 if the runway
+     *         was created outside of the database.
+     *
+     * @see Airport#getId()
+     */
+    public int getAirportId() {
+        return airportId;
+    }
+
+    /**
+     * Computes the true headings of both ends of the runway. If the true heading
+     * of an end is not present in the database, it is derived from the runway
+     * designator (e.g. "09L" means 90 degrees). Such an approximation ignores
+     * the magnetic variation, but it is precise enough for the wind components
+     * computation.
+     *
+     * @return The array of length 2 which contains the true heading of the
+     *         first and the second end of the runway respectively. The value is
+     *         {@code NaN} if the heading can not be determined.
+     */
+    public @NotNull double[] getTrueHeadings() {
+        String[] hdgs   = truehdgs == null ? new String[0] : truehdgs.split("/", -1),
+                 idents = identification == null ? new String[0] : identification.split("/", -1);
+        double[] result = new double[2];
+        for (int i = 0; i < result.length; i++) {
+            double hdg = i < hdgs.length ? Utilities.parseDouble(hdgs[i]) : Double.NaN;
+            if (Double.isNaN(hdg) && i < idents.length) {
+                hdg = designatorHeading(idents[i]);
+            }
+            result[i] = hdg;
+        }
+        return result;
+    }
+
+    /**
+     * Derives the approximate heading from the runway designator.
+     *
+     * @param designator The designator of one runway end, e.g. "27R".
+     * @return The heading in degrees, or {@code NaN} if the designator does not
+     *         start with a runway number.
+     */
+    private static double designatorHeading(@NotNull String designator) {
+        int digits = 0;
+        while (digits < designator.length() && digits < 2 &&
+               Character.isDigit(designator.charAt(digits))) {
+            digits++;
+        }
+        if (digits == 0) return Double.NaN;
+        int number = Integer.parseInt(designator.substring(0, digits));
+        return Utilities.isBetween(number, 1, 36) ? number * 10 : Double.NaN;
+    }
+
     /**
      * Checks for the relevance of {@code Runway} object and replaces invalid
      * fields with default "unknown" values.
@@ -138,11 +211,25 @@ public class Runway {
      * @param runways  The array of runways in .csv format.
      * @return The list of runway objects for corresponding airport.
      */
-    static @NotNull
+    public static @NotNull
     List<Runway> setRunways(@NotNull String icaoCode, @NotNull String[] runways) {
+        return setRunways(icaoCode, -1, -1, runways);
+    }
+
+    /**
+     * Creates the runways of the airport of the database and assigns them
+     * the consecutive IDs.
+     * @param icaoCode      The ICAO code of the airport.
+     * @param airportId     The ID of the airport.
+     * @param firstRunwayId The ID of the first runway.
+     * @param runways       The array of runways in .csv format.
+     * @return The list of runway objects for corresponding airport.
+     */
+    static @NotNull
+    List<Runway> setRunways(@NotNull String icaoCode, int airportId, int firstRunwayId, @NotNull String[] runways) {
         List<Runway> result = new LinkedList<>();
         for(String rwyStr : runways) {
-            result.add(new Runway(icaoCode,rwyStr));
+            result.add(new Runway(icaoCode, airportId, firstRunwayId < 0 ? -1 : firstRunwayId++, rwyStr));
         }
         return result;
     }
@@ -0,0 +1,120 @@
+package cz.cuni.mff.java.flightplanner.dataobject;
+
+import cz.cuni.mff.java.flightplanner.util.NotNull;
+import cz.cuni.mff.java.flightplanner.util.Nullable;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * The class which represents the decoded weather conditions, either observed
+ * (METAR) or forecast (TAF). Any of the values may be missing, which is
+ * important for the forecast change groups which only describe the values that
+ * change.
+ */
+public class WeatherConditions {
+
+    private final Wind wind;
+    private final double visibility, ceiling;
+    private final List<String> phenomena;
+    private final boolean windshear;
+
+    /**
+     * @param wind       The surface wind, or {@code null} if not reported.
+     * @param visibility The prevailing visibility in meters, or {@code NaN} if
+     *                   not reported.
+     * @param ceiling    The height of the lowest broken or overcast layer (or the
+     *                   vertical visibility) in feet, {@code POSITIVE_INFINITY}
+     *                   if there is no ceiling or {@code NaN} if not reported.
+     * @param phenomena  The weather phenomena codes (e.g. "-SHRA"), an empty
+     *                   list for no significant weather or {@code null} if not
+     *                   reported.
+     * @param windshear  The flag indicating the reported windshear.
+     */
+    public WeatherConditions(@Nullable Wind wind, double visibility, double ceiling,
+                             @Nullable List<String> phenomena, boolean windshear) {
+        this.wind = wind;
+        this.visibility = visibility;
+        this.ceiling = ceiling;
+        this.phenomena = phenomena == null ? null : Collections.unmodifiableList(phenomena);
+        this.windshear = windshear;
+    }
+
+    /**
+     * @return The surface wind, or {@code null} if not reported.
+     */
+    public @Nullable Wind getWind() {
+        return wind;
+    }
+
+    /**
+     * @return The prevailing visibility in meters, or {@code NaN}.
+     */
+    public double getVisibility() {
+        return visibility;
+    }
+
+    /**
+     * @return The ceiling in feet, {@code POSITIVE_INFINITY} if there is no
+     *         ceiling or {@code NaN} if not reported.
+     */
+    public double getCeiling() {
+        return ceiling;
+    }
+
+    /**
+     * @return The weather phenomena codes, or {@code null} if not reported.
+     */
+    public @Nullable List<String> getPhenomena() {
+        return phenomena;
+    }
+
+    /**
+     * @return The flag indicating the reported windshear.
+     */
+    public boolean isWindshear() {
+        return windshear;
+    }
+
+    /**
+     * @return The flight category corresponding to the visibility and ceiling.
+     */
+    public @NotNull FlightCategory getFlightCategory() {
+        return FlightCategory.of(visibility, ceiling);
+    }
+
+    /**
+     * Applies the change described by {@code change} on these conditions. Only
+     * the values present in the {@code change} replace the current values.
+     *
+     * @param change The conditions which change.
+     * @return New conditions after the change.
+     */
+    public @NotNull WeatherConditions overlay(@NotNull WeatherConditions change) {
+        return new WeatherConditions(change.wind != null ? change.wind : wind,
+                                     !Double.isNaN(change.visibility) ? change.visibility : visibility,
+                                     !Double.isNaN(change.ceiling) ? change.ceiling : ceiling,
+                                     change.phenomena != null ? change.phenomena : phenomena,
+                                     change.windshear || windshear);
+    }
+
+    @Override
+    public String toString() {
+        String vis = Double.isNaN(visibility)
+                     ? "not reported"
+                     : visibility >= 9999 ? "10 km or more" : String.format("%.0f meters", visibility);
+        String cig = Double.isNaN(ceiling)
+                     ? "not reported"
+                     : Double.isInfinite(ceiling) ? "none" : String.format("%.0f feet", ceiling);
+        String wx  = phenomena == null
+                     ? "not reported"
+                     : phenomena.isEmpty() ? "no significant weather" : String.join(" ", phenomena);
+        return "Wind: %WIND, visibility: %VIS, ceiling: %CIG, weather: %WX%WS (%CAT)"
+               .replace("%WIND", wind == null ? "not reported" : wind.toString())
+               .replace("%VIS", vis)
+               .replace("%CIG", cig)
+               .replace("%WX", wx)
+               .replace("%WS", windshear ? ", WINDSHEAR" : "")
+               .replace("%CAT", getFlightCategory().name());
+    }
+}
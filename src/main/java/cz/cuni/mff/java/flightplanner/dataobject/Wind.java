@@ -0,0 +1,80 @@
+package cz.cuni.mff.java.flightplanner.dataobject;
+
+/**
+ * The class which represents the surface wind reported in a weather report.
+ * The speeds are always stored in knots, regardless of the unit used in the
+ * original report.
+ */
+public class Wind {
+
+    /**
+     * The direction value used for the variable ("VRB") wind.
+     */
+    public static final int VARIABLE = -1;
+
+    private final int direction;
+    private final double speed, gust;
+
+    /**
+     * @param direction The direction the wind blows from in degrees, or
+     *                  {@link #VARIABLE} if the direction is variable.
+     * @param speed     The mean wind speed in knots.
+     * @param gust      The gust speed in knots, or {@code NaN} if no gusts are
+     *                  reported.
+     */
+    public Wind(int direction, double speed, double gust) {
+        this.direction = direction;
+        this.speed = speed;
+        this.gust = gust;
+    }
+
+    /**
+     * @return The direction the wind blows from in degrees, or {@link #VARIABLE}.
+     */
+    public int getDirection() {
+        return direction;
+    }
+
+    /**
+     * @return The mean wind speed in knots.
+     */
+    public double getSpeed() {
+        return speed;
+    }
+
+    /**
+     * @return The gust speed in knots, or {@code NaN} if no gusts are reported.
+     */
+    public double getGust() {
+        return gust;
+    }
+
+    /**
+     * @return The flag indicating that the wind direction is variable.
+     */
+    public boolean isVariable() {
+        return direction == VARIABLE;
+    }
+
+    /**
+     * @return The flag indicating that the reported wind is calm.
+     */
+    public boolean isCalm() {
+        return speed == 0 && !hasGusts();
+    }
+
+    /**
+     * @return The flag indicating that gusts are reported.
+     */
+    public boolean hasGusts() {
+        return !Double.isNaN(gust);
+    }
+
+    @Override
+    public String toString() {
+        String dir = isVariable() ? "VRB" : String.format("%03d", direction);
+        return hasGusts()
+                ? String.format("%s%02.0fG%02.0fKT", dir, speed, gust)
+                : String.format("%s%02.0fKT", dir, speed);
+    }
+}
@@ -0,0 +1,111 @@
+package cz.cuni.mff.java.flightplanner.export;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.List;
+import cz.cuni.mff.java.flightplanner.performance.PerformanceModel;
+import cz.cuni.mff.java.flightplanner.routing.FlightEstimate;
+import cz.cuni.mff.java.flightplanner.routing.LegEstimate;
+import cz.cuni.mff.java.flightplanner.routing.Route;
+import cz.cuni.mff.java.flightplanner.util.NotNull;
+import cz.cuni.mff.java.flightplanner.util.Nullable;
+
+/**
+ * The FplWriter class writes the items 15 and 16 of the ICAO flight plan for
+ * every leg of the routes. Every stop of a route is a landing, so each leg is
+ * a flight plan of its own. One line is written per leg, its fields are
+ * separated by tabs: the number of the route, the number of the leg, the
+ * departure aerodrome (item 13 without the time), the item 15 and the item 16.
+ * For example:
+ * <pre>
+ * 1    1    LKPR    N0122A065 DCT    EDPA0125
+ * </pre>
+ * The cruising speed and level of the item 15 are the cruise of the aircraft,
+ * the level is given as the altitude below {@value #transitionAltitudeFt} ft
+ * and as the flight level above. The route is always direct. The total
+ * estimated elapsed time of the item 16 is rounded up to whole minutes. The
+ * aerodromes without a four-letter ICAO location indicator are written as
+ * "ZZZZ". A route with a leg which can not be flown against the wind is not
+ * written at all.
+ */
+class FplWriter extends TextPlanWriter {
+
+    /**
+     * The altitude in feet from which the cruising level is written as a
+     * flight level.
+     */
+    static final int transitionAltitudeFt = 10000;
+
+    /**
+     * @param out The stream the UTF-8 encoded lines are written to.
+     */
+    FplWriter(@NotNull OutputStream out) {
+        super(out);
+    }
+
+    @Override
+    public void write(@NotNull Route route, @Nullable FlightEstimate estimate) throws IOException {
+        if (estimate == null) {
+            throw new IllegalArgumentException("The FPL export needs the aircraft type for the speed, the level and the time.");
+        }
+        List<LegEstimate> legs = estimate.getLegs();
+        for (LegEstimate leg : legs) {
+            if (Double.isNaN(leg.getTimeHours()) || Double.isInfinite(leg.getTimeHours())) {
+                throw new IllegalArgumentException("The leg %FROM - %TO can not be flown against the wind."
+                                                       .replace("%FROM", leg.getLeg().getFrom().getIcaoCode())
+                                                       .replace("%TO", leg.getLeg().getTo().getIcaoCode()));
+            }
+        }
+        count++;
+        for (int i = 0; i < legs.size(); i++) {
+            LegEstimate leg = legs.get(i);
+            padded(count, 1);
+            out.write('\t');
+            padded(i + 1, 1);
+            out.write('\t');
+            locationIndicator(leg.getLeg().getFrom().getIcaoCode());
+            out.write('\t');
+            speedAndLevel(estimate.getPerformance());
+            out.write(" DCT\t");
+            locationIndicator(leg.getLeg().getTo().getIcaoCode());
+            elapsedTime(leg.getTimeHours());
+            out.write('\n');
+        }
+    }
+
+    @Override
+    public void finish() throws IOException {
+        flush();
+    }
+
+    /**
+     * Writes the cruising speed in knots (N followed by four digits) and the
+     * cruising level (A followed by the altitude in hundreds of feet or F
+     * followed by the flight level).
+     */
+    private void speedAndLevel(@NotNull PerformanceModel performance) throws IOException {
+        out.write('N');
+        padded(Math.round(performance.getCruiseSpeedKt()), 4);
+        long hundreds = Math.round(performance.getCruiseAltitudeFt() / 100);
+        out.write(hundreds * 100 < transitionAltitudeFt ? 'A' : 'F');
+        padded(hundreds, 3);
+    }
+
+    /**
+     * Writes the elapsed time as hours and minutes. The time has been checked
+     * to be finite before the first leg of the route is written.
+     */
+    private void elapsedTime(double hours) throws IOException {
+        long minutes = (long) Math.ceil(hours * 60 - 1e-9);
+        padded(minutes / 60, 2);
+        padded(minutes % 60, 2);
+    }
+
+    private void locationIndicator(@NotNull String icaoCode) throws IOException {
+        boolean valid = icaoCode.length() == 4;
+        for (int i = 0; i < icaoCode.length() && valid; i++) {
+            valid = icaoCode.charAt(i) >= 'A' && icaoCode.charAt(i) <= 'Z';
+        }
+        out.write(valid ? icaoCode : "ZZZZ");
+    }
+}
@@ -0,0 +1,120 @@
+package cz.cuni.mff.java.flightplanner.export;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import cz.cuni.mff.java.flightplanner.dataobject.Airport;
+import cz.cuni.mff.java.flightplanner.routing.FlightEstimate;
+import cz.cuni.mff.java.flightplanner.routing.Route;
+import cz.cuni.mff.java.flightplanner.util.NotNull;
+import cz.cuni.mff.java.flightplanner.util.Nullable;
+
+/**
+ * The GpxWriter class writes the routes as the {@code rte} elements of a
+ * GPX 1.1 file. The route points are the stops of the route named by their
+ * ICAO codes and described by the names of the airports. The description of
+ * the route holds its distance and, if the aircraft is known, its time and
+ * fuel.
+ * <p>
+ * The beginning of the file is written with the first route, the end by
+ * {@link #finish()}, so the file is not valid until it is finished.
+ */
+class GpxWriter extends TextPlanWriter {
+
+    private boolean started = false, finished = false;
+
+    /**
+     * @param out The stream the UTF-8 encoded document is written to.
+     */
+    GpxWriter(@NotNull OutputStream out) {
+        super(out);
+    }
+
+    @Override
+    public void write(@NotNull Route route, @Nullable FlightEstimate estimate) throws IOException {
+        start();
+        count++;
+        out.write(" <rte>\n  <name>");
+        if (route.getLegs().isEmpty()) {
+            out.write("empty route");
+        } else {
+            escaped(route.getLegs().get(0).getFrom().getIcaoCode());
+            out.write('-');
+            escaped(route.getLegs().get(route.getLegs().size() - 1).getTo().getIcaoCode());
+        }
+        out.write("</name>\n  <desc>");
+        fixed(route.getDistanceNm(), 1);
+        out.write(" NM");
+        if (estimate != null) {
+            out.write(", ");
+            fixed(estimate.getTimeHours() * 60, 0);
+            out.write(" min, ");
+            fixed(estimate.getFuelKg(), 0);
+            out.write(" kg");
+        }
+        out.write("</desc>\n  <number>");
+        padded(count, 1);
+        out.write("</number>\n");
+        for (Airport stop : route.getStops()) {
+            out.write("  <rtept lat=\"");
+            fixed(stop.getGeoLat(), 6);
+            out.write("\" lon=\"");
+            fixed(stop.getGeoLong(), 6);
+            out.write("\">");
+            if (stop.getElevation() != null && !stop.getElevation().isNaN()) {
+                // GPX elevations are in meters, the database ones in feet
+                out.write("<ele>");
+                fixed(stop.getElevation() * 0.3048, 1);
+                out.write("</ele>");
+            }
+            out.write("<name>");
+            escaped(stop.getIcaoCode());
+            out.write("</name>");
+            if (stop.getName() != null) {
+                out.write("<desc>");
+                escaped(stop.getName());
+                out.write("</desc>");
+            }
+            out.write("<type>airport</type></rtept>\n");
+        }
+        out.write(" </rte>\n");
+    }
+
+    @Override
+    public void finish() throws IOException {
+        if (!finished) {
+            start();
+            out.write("</gpx>\n");
+            finished = true;
+        }
+        flush();
+    }
+
+    private void start() throws IOException {
+        if (started) return;
+        started = true;
+        out.write("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n");
+        out.write("<gpx version=\"1.1\" creator=\"FlightPlanner\" xmlns=\"http://www.topografix.com/GPX/1/1\">\n");
+    }
+
+    /**
+     * Writes the text with the XML special characters replaced by the
+     * entities.
+     */
+    private void escaped(@NotNull String text) throws IOException {
+        int from = 0;
+        for (int i = 0; i < text.length(); i++) {
+            String entity;
+            switch (text.charAt(i)) {
+                case '&': entity = "&amp;"; break;
+                case '<': entity = "&lt;"; break;
+                case '>': entity = "&gt;"; break;
+                case '"': entity = "&quot;"; break;
+                default: continue;
+            }
+            out.write(text, from, i - from);
+            out.write(entity);
+            from = i + 1;
+        }
+        out.write(text, from, text.length() - from);
+    }
+}
@@ -0,0 +1,71 @@
+package cz.cuni.mff.java.flightplanner.export;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.List;
+import cz.cuni.mff.java.flightplanner.output.CsvWriter;
+import cz.cuni.mff.java.flightplanner.output.RecordWriter;
+import cz.cuni.mff.java.flightplanner.routing.FlightEstimate;
+import cz.cuni.mff.java.flightplanner.routing.LegEstimate;
+import cz.cuni.mff.java.flightplanner.routing.Route;
+import cz.cuni.mff.java.flightplanner.routing.RouteLeg;
+import cz.cuni.mff.java.flightplanner.util.NotNull;
+import cz.cuni.mff.java.flightplanner.util.Nullable;
+
+/**
+ * The LegTableWriter class writes the legs of the routes as the rows of a CSV
+ * table. The fields of a row are the number of the route, the number of the
+ * leg, the departure and the arrival airport, the distance in nautical miles,
+ * the initial true course and, if the aircraft is known, the tailwind
+ * component, the time in minutes and the fuel in kilograms of the leg. The
+ * values are rounded, the time and the fuel of a leg which can not be flown
+ * against the wind are left empty.
+ */
+class LegTableWriter implements PlanWriter {
+
+    private final RecordWriter writer;
+    private int count = 0;
+
+    /**
+     * @param out The stream the UTF-8 encoded table is written to.
+     */
+    LegTableWriter(@NotNull OutputStream out) {
+        this.writer = new CsvWriter(out);
+    }
+
+    @Override
+    public void write(@NotNull Route route, @Nullable FlightEstimate estimate) throws IOException {
+        count++;
+        List<RouteLeg> legs = route.getLegs();
+        for (int i = 0; i < legs.size(); i++) {
+            RouteLeg leg = legs.get(i);
+            LegEstimate legEstimate = estimate == null ? null : estimate.getLegs().get(i);
+            writer.beginRecord();
+            writer.integer("plan", count);
+            writer.integer("leg", i + 1);
+            writer.string("from", leg.getFrom().getIcaoCode());
+            writer.string("to", leg.getTo().getIcaoCode());
+            writer.number("distance_nm", Math.rint(leg.getDistanceNm() * 10) / 10.0);
+            writer.integer("course", Math.round(leg.getCourse()) % 360);
+            writer.number("tailwind_kt", legEstimate == null ? Double.NaN : Math.rint(legEstimate.getTailwindKt()));
+            writer.number("time_min", legEstimate == null ? Double.NaN : Math.rint(legEstimate.getTimeHours() * 60));
+            writer.number("fuel_kg", legEstimate == null ? Double.NaN : Math.rint(legEstimate.getFuelKg()));
+            writer.endRecord();
+        }
+    }
+
+    @Override
+    public int count() {
+        return count;
+    }
+
+    @Override
+    public void flush() throws IOException {
+        writer.flush();
+    }
+
+    @Override
+    public void finish() throws IOException {
+        flush();
+    }
+}
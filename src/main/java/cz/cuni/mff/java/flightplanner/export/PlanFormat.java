@@ -0,0 +1,83 @@
+package cz.cuni.mff.java.flightplanner.export;
+
+import java.io.OutputStream;
+import cz.cuni.mff.java.flightplanner.util.NotNull;
+import cz.cuni.mff.java.flightplanner.util.Nullable;
+
+/**
+ * The formats in which the planned routes can be exported.
+ */
+public enum PlanFormat {
+    /**
+     * The items 15 and 16 of the ICAO flight plan, one line per leg.
+     */
+    FPL("fpl", "txt", true),
+    /**
+     * The GPX 1.1 file with one route per plan.
+     */
+    GPX("gpx", "gpx", false),
+    /**
+     * The CSV table with one row per leg.
+     */
+    LEGS("legs", "csv", false);
+
+    private final String keyword, fileExtension;
+    private final boolean estimateNeeded;
+
+    PlanFormat(@NotNull String keyword, @NotNull String fileExtension, boolean estimateNeeded) {
+        this.keyword = keyword;
+        this.fileExtension = fileExtension;
+        this.estimateNeeded = estimateNeeded;
+    }
+
+    /**
+     * @return The name of the format used in the parameters and the prompts.
+     */
+    public @NotNull String getKeyword() {
+        return keyword;
+    }
+
+    /**
+     * @return The extension of the files written in this format.
+     */
+    public @NotNull String getFileExtension() {
+        return fileExtension;
+    }
+
+    /**
+     * @return {@code True}, if the routes can be written only together with
+     *         their time estimate, i.e. the aircraft type has to be known.
+     */
+    public boolean isEstimateNeeded() {
+        return estimateNeeded;
+    }
+
+    /**
+     * Creates the writer of the routes in this format.
+     *
+     * @param out The stream the routes are written to.
+     * @return The writer.
+     */
+    public @NotNull PlanWriter open(@NotNull OutputStream out) {
+        switch (this) {
+            case FPL:
+                return new FplWriter(out);
+            case GPX:
+                return new GpxWriter(out);
+            default:
+                return new LegTableWriter(out);
+        }
+    }
+
+    /**
+     * @param keyword The name of the format, case-insensitive.
+     * @return The format with the given name, or {@code null} if there is no
+     *         such format.
+     */
+    public static @Nullable PlanFormat of(@NotNull String keyword) {
+        for (PlanFormat format : values()) {
+            if (format.keyword.equalsIgnoreCase(keyword.strip())) return format;
+        }
+        return null;
+    }
+}
@@ -0,0 +1,48 @@
+package cz.cuni.mff.java.flightplanner.export;
+
+import java.io.Flushable;
+import java.io.IOException;
+import cz.cuni.mff.java.flightplanner.routing.FlightEstimate;
+import cz.cuni.mff.java.flightplanner.routing.Route;
+import cz.cuni.mff.java.flightplanner.util.NotNull;
+import cz.cuni.mff.java.flightplanner.util.Nullable;
+
+/**
+ * {@code PlanWriter} interface represents the streaming exporter of the
+ * planned routes. Each route is written as soon as it is given, the routes of
+ * one file are numbered from 1 in the order of writing.
+ * <p>
+ * The writer does not own the underlying stream: {@link #finish()} completes
+ * the file and writes the pending data to it, but the stream is closed by its
+ * owner. The writer is not thread-safe, several files are written
+ * concurrently by several writers.
+ */
+public interface PlanWriter extends Flushable {
+
+    /**
+     * Writes one route.
+     *
+     * @param route    The route to be written.
+     * @param estimate The time and the fuel of the route, {@code null} if no
+     *                 aircraft performance is known.
+     * @throws IOException              if the route can not be written.
+     * @throws IllegalArgumentException if the format needs the estimate and
+     *                                  it is not given, or if the route can
+     *                                  not be expressed in the format. Nothing
+     *                                  is written in that case.
+     */
+    void write(@NotNull Route route, @Nullable FlightEstimate estimate) throws IOException;
+
+    /**
+     * @return The number of the routes written so far.
+     */
+    int count();
+
+    /**
+     * Writes the end of the file, if the format has any, and flushes the
+     * writer. No route can be written afterwards.
+     *
+     * @throws IOException if the end can not be written.
+     */
+    void finish() throws IOException;
+}
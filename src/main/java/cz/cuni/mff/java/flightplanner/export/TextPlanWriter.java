@@ -0,0 +1,90 @@
+package cz.cuni.mff.java.flightplanner.export;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import cz.cuni.mff.java.flightplanner.util.NotNull;
+
+/**
+ * The base of the writers of the text formats. The numbers are formatted
+ * into a reused buffer and written directly, so that no string is created
+ * for them.
+ */
+abstract class TextPlanWriter implements PlanWriter {
+
+    /**
+     * The powers of ten for the decimal places of {@link #fixed}.
+     */
+    private static final long[] scales = { 1, 10, 100, 1000, 10_000, 100_000, 1_000_000 };
+
+    final Writer out;
+    private final char[] digits = new char[24];
+    int count = 0;
+
+    /**
+     * @param out The stream the UTF-8 encoded text is written to.
+     */
+    TextPlanWriter(@NotNull OutputStream out) {
+        this.out = new OutputStreamWriter(out, StandardCharsets.UTF_8);
+    }
+
+    @Override
+    public int count() {
+        return count;
+    }
+
+    @Override
+    public void flush() throws IOException {
+        out.flush();
+    }
+
+    /**
+     * Writes the number rounded to the given number of the decimal places.
+     * Nothing is written for {@code NaN} and the infinite values.
+     *
+     * @param value    The number to be written.
+     * @param decimals The number of the decimal places, at most 6.
+     */
+    void fixed(double value, int decimals) throws IOException {
+        if (Double.isNaN(value) || Double.isInfinite(value)) return;
+        long scaled = Math.round(Math.abs(value) * scales[decimals]);
+        int end = digits.length, start = end;
+        for (int i = 0; i < decimals; i++) {
+            digits[--start] = (char) ('0' + scaled % 10);
+            scaled /= 10;
+        }
+        if (decimals > 0) digits[--start] = '.';
+        do {
+            digits[--start] = (char) ('0' + scaled % 10);
+            scaled /= 10;
+        } while (scaled > 0);
+        if (value < 0 && !isZero(start, end)) digits[--start] = '-';
+        out.write(digits, start, end - start);
+    }
+
+    /**
+     * Writes the non-negative integer padded by zeros to the given width.
+     */
+    void padded(long value, int width) throws IOException {
+        int end = digits.length, start = end;
+        do {
+            digits[--start] = (char) ('0' + value % 10);
+            value /= 10;
+        } while (value > 0);
+        while (end - start < width) digits[--start] = '0';
+        out.write(digits, start, end - start);
+    }
+
+    /**
+     * @return {@code True}, if the formatted digits are all zeros, i.e. the
+     *         negative number is rounded to zero and written without the sign.
+     */
+    private boolean isZero(int start, int end) {
+        for (int i = start; i < end; i++) {
+            if (digits[i] != '0' && digits[i] != '.') return false;
+        }
+        return true;
+    }
+}
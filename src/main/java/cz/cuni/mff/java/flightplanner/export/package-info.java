@@ -0,0 +1,10 @@
+/**
+ * The package contains the exporters of the planned routes into the standard
+ * formats: the items 15 and 16 of the ICAO flight plan, the GPX routes and the
+ * CSV table of the legs. The exporters write every route directly into the
+ * output stream as soon as it is planned, so a file can hold thousands of
+ * routes without keeping them in the memory.
+ *
+ * @author Viktor Bujko
+ */
+package cz.cuni.mff.java.flightplanner.export;
@@ -0,0 +1,324 @@
+package cz.cuni.mff.java.flightplanner.geo;
+
+import cz.cuni.mff.java.flightplanner.util.NotNull;
+
+/**
+ * The GreatCircle class provides the computations on the spherical Earth of
+ * the radius {@value #earthRadiusNm} NM. The error of the spherical model is
+ * up to 0.5 %, which is acceptable for the planning; {@link Vincenty} gives
+ * the exact distances on the ellipsoid.
+ * <p>
+ * The methods come in three forms:
+ * <ul>
+ *     <li>the scalar methods taking the coordinates in degrees,</li>
+ *     <li>the methods taking the unit vectors of the points (the
+ *         x axis points to the longitude 0, the z axis to the North pole),
+ *         which need no trigonometric function to compare two points and
+ *         are used by the searches,</li>
+ *     <li>the batched methods computing the result for the elements
+ *         {@code from} to {@code to - 1} of the coordinate arrays into the
+ *         same elements of the output array. Their loops are kept simple, so
+ *         that the JIT compiler can vectorize the arithmetic parts.</li>
+ * </ul>
+ */
+public final class GreatCircle {
+
+    /**
+     * The mean radius of the Earth in nautical miles.
+     */
+    public static final double earthRadiusNm = 3440.065;
+
+    private GreatCircle() {
+    }
+
+    /**
+     * @return The haversine great-circle distance of two points in nautical
+     *         miles. The coordinates are in degrees.
+     */
+    public static double distanceNm(double lat1, double lon1, double lat2, double lon2) {
+        return centralAngle(Math.toRadians(lat1), Math.toRadians(lon1),
+                            Math.toRadians(lat2), Math.toRadians(lon2)) * earthRadiusNm;
+    }
+
+    /**
+     * @return The haversine central angle between two points in radians. The
+     *         coordinates are in radians.
+     */
+    public static double centralAngle(double lat1, double lon1, double lat2, double lon2) {
+        double sinLat = Math.sin((lat2 - lat1) / 2),
+               sinLon = Math.sin((lon2 - lon1) / 2);
+        double a = sinLat * sinLat + Math.cos(lat1) * Math.cos(lat2) * sinLon * sinLon;
+        return halfChordAngle(Math.min(1, a));
+    }
+
+    /**
+     * @return The initial true bearing from the first point to the second one
+     *         in degrees (0 - 360). The coordinates are in degrees.
+     */
+    public static double initialBearing(double lat1, double lon1, double lat2, double lon2) {
+        return initialBearingRadians(Math.toRadians(lat1), Math.toRadians(lon1),
+                                     Math.toRadians(lat2), Math.toRadians(lon2));
+    }
+
+    /**
+     * @return The initial true bearing from the first point to the second one
+     *         in degrees (0 - 360). The coordinates are in radians.
+     */
+    public static double initialBearingRadians(double lat1, double lon1, double lat2, double lon2) {
+        double dLon = lon2 - lon1;
+        double y = Math.sin(dLon) * Math.cos(lat2),
+               x = Math.cos(lat1) * Math.sin(lat2) - Math.sin(lat1) * Math.cos(lat2) * Math.cos(dLon);
+        double bearing = Math.toDegrees(Math.atan2(y, x));
+        return bearing < 0 ? bearing + 360 : bearing;
+    }
+
+    /**
+     * @return The distance of the point from the great circle going from the
+     *         point A to the point B in nautical miles, positive to the right
+     *         of the track. The coordinates are in degrees.
+     * @see Track#crossTrackNm(double, double)
+     */
+    public static double crossTrackNm(double latA, double lonA, double latB, double lonB, double lat, double lon) {
+        return new Track(latA, lonA, latB, lonB).crossTrackNm(lat, lon);
+    }
+
+    /**
+     * @return The distance from the point A to the projection of the point on
+     *         the great circle going from the point A to the point B in
+     *         nautical miles, negative behind the point A. The coordinates are
+     *         in degrees.
+     * @see Track#alongTrackNm(double, double)
+     */
+    public static double alongTrackNm(double latA, double lonA, double latB, double lonB, double lat, double lon) {
+        return new Track(latA, lonA, latB, lonB).alongTrackNm(lat, lon);
+    }
+
+    /**
+     * Computes the point on the great circle between two points.
+     *
+     * @param fraction The position of the point, 0 is the first point and 1
+     *                 the second one.
+     * @param result   The array receiving the latitude and the longitude of
+     *                 the point in degrees.
+     * @return The {@code result} array.
+     */
+    public static @NotNull double[] intermediatePoint(double lat1, double lon1, double lat2, double lon2,
+                                                     double fraction, @NotNull double[] result) {
+        double[] latitudes = new double[1], longitudes = new double[1];
+        interpolate(lat1, lon1, lat2, lon2, fraction, 0, 1, latitudes, longitudes);
+        result[0] = latitudes[0];
+        result[1] = longitudes[0];
+        return result;
+    }
+
+    /**
+     * Divides the great circle between two points into {@code count + 1}
+     * equal parts and computes the {@code count} points dividing it.
+     *
+     * @param latitudes  The array receiving the latitudes of the points in
+     *                   degrees, in the order from the first point.
+     * @param longitudes The array receiving the longitudes of the points.
+     * @param count      The number of the points.
+     */
+    public static void intermediatePoints(double lat1, double lon1, double lat2, double lon2,
+                                          @NotNull double[] latitudes, @NotNull double[] longitudes, int count) {
+        double step = 1.0 / (count + 1);
+        interpolate(lat1, lon1, lat2, lon2, step, step, count, latitudes, longitudes);
+    }
+
+    /**
+     * Computes the point in the given distance and bearing from the start.
+     *
+     * @param bearing    The initial true bearing in degrees.
+     * @param distanceNm The distance in nautical miles.
+     * @param result     The array receiving the latitude and the longitude of
+     *                   the point in degrees.
+     * @return The {@code result} array.
+     */
+    public static @NotNull double[] destinationPoint(double lat, double lon, double bearing, double distanceNm,
+                                                    @NotNull double[] result) {
+        double lat1 = Math.toRadians(lat), course = Math.toRadians(bearing), angle = distanceNm / earthRadiusNm;
+        double sinLat2 = Math.sin(lat1) * Math.cos(angle) + Math.cos(lat1) * Math.sin(angle) * Math.cos(course);
+        double lat2 = Math.asin(Math.max(-1, Math.min(1, sinLat2))),
+               dLon = Math.atan2(Math.sin(course) * Math.sin(angle) * Math.cos(lat1),
+                                 Math.cos(angle) - Math.sin(lat1) * sinLat2);
+        result[0] = Math.toDegrees(lat2);
+        result[1] = normalizeLongitude(lon + Math.toDegrees(dLon));
+        return result;
+    }
+
+    /**
+     * Computes the unit vector of a point.
+     *
+     * @param result The array receiving the x, y and z coordinates.
+     * @return The {@code result} array.
+     */
+    public static @NotNull double[] unitVector(double lat, double lon, @NotNull double[] result) {
+        double latitude = Math.toRadians(lat), longitude = Math.toRadians(lon), cosLat = Math.cos(latitude);
+        result[0] = cosLat * Math.cos(longitude);
+        result[1] = cosLat * Math.sin(longitude);
+        result[2] = Math.sin(latitude);
+        return result;
+    }
+
+    /**
+     * @return The central angle between two points given by their unit
+     *         vectors, in radians. The chord length is used, which keeps the
+     *         precision for the short distances too.
+     */
+    public static double angle(double x1, double y1, double z1, double x2, double y2, double z2) {
+        double dx = x1 - x2, dy = y1 - y2, dz = z1 - z2;
+        return halfChordAngle(Math.min(1, (dx * dx + dy * dy + dz * dz) / 4));
+    }
+
+    /**
+     * @param halfChordSquared The square of the half of the chord between two
+     *                         points on the unit sphere, at most 1.
+     * @return The central angle between the points in radians.
+     */
+    static double halfChordAngle(double halfChordSquared) {
+        return 2 * arcsine(Math.sqrt(halfChordSquared));
+    }
+
+    /**
+     * @param sine The sine of the angle, between -1 and 1.
+     * @return The angle in radians. {@link Math#asin} is fast for the small
+     *         arguments, but several times slower than {@link Math#atan2} for
+     *         the arguments above 0.5, therefore the equivalent
+     *         {@code atan2(sine, sqrt(1 - sine^2))} is used for them.
+     */
+    static double arcsine(double sine) {
+        return Math.abs(sine) < 0.5 ? Math.asin(sine) : Math.atan2(sine, Math.sqrt(1 - sine * sine));
+    }
+
+    /**
+     * @return The latitude in degrees of the point given by its unit vector.
+     */
+    public static double latitude(double x, double y, double z) {
+        return Math.toDegrees(Math.atan2(z, Math.hypot(x, y)));
+    }
+
+    /**
+     * @return The longitude in degrees of the point given by its unit vector.
+     */
+    public static double longitude(double x, double y) {
+        return Math.toDegrees(Math.atan2(y, x));
+    }
+
+    /**
+     * @return The longitude shifted by a multiple of 360 degrees into the
+     *         interval [-180, 180).
+     */
+    public static double normalizeLongitude(double lon) {
+        return lon >= -180 && lon < 180 ? lon : lon - 360 * Math.floor((lon + 180) / 360);
+    }
+
+    /**
+     * Computes the unit vectors of the points.
+     *
+     * @param latitudes  The latitudes in degrees.
+     * @param longitudes The longitudes in degrees.
+     */
+    public static void unitVectors(@NotNull double[] latitudes, @NotNull double[] longitudes,
+                                   @NotNull double[] xs, @NotNull double[] ys, @NotNull double[] zs,
+                                   int from, int to) {
+        for (int i = from; i < to; i++) {
+            double latitude = Math.toRadians(latitudes[i]), longitude = Math.toRadians(longitudes[i]),
+                   cosLat = Math.cos(latitude);
+            xs[i] = cosLat * Math.cos(longitude);
+            ys[i] = cosLat * Math.sin(longitude);
+            zs[i] = Math.sin(latitude);
+        }
+    }
+
+    /**
+     * Computes the central angles in radians between the point and the points
+     * of the arrays, all given by their unit vectors.
+     */
+    public static void angles(double x, double y, double z,
+                              @NotNull double[] xs, @NotNull double[] ys, @NotNull double[] zs,
+                              @NotNull double[] out, int from, int to) {
+        // the squared chords first: the loop without any method call is vectorized
+        for (int i = from; i < to; i++) {
+            double dx = xs[i] - x, dy = ys[i] - y, dz = zs[i] - z;
+            out[i] = Math.min(1, (dx * dx + dy * dy + dz * dz) / 4);
+        }
+        for (int i = from; i < to; i++) {
+            out[i] = halfChordAngle(out[i]);
+        }
+    }
+
+    /**
+     * Computes the dot products of the unit vector of the point with the unit
+     * vectors of the points of the arrays. The dot product is the cosine of
+     * the central angle, so it can be compared with the cosine of a distance
+     * limit without computing any angle.
+     */
+    public static void dots(double x, double y, double z,
+                            @NotNull double[] xs, @NotNull double[] ys, @NotNull double[] zs,
+                            @NotNull double[] out, int from, int to) {
+        for (int i = from; i < to; i++) {
+            out[i] = x * xs[i] + y * ys[i] + z * zs[i];
+        }
+    }
+
+    /**
+     * Computes the haversine distances in nautical miles between the point
+     * and the points of the arrays. All the coordinates are in degrees.
+     */
+    public static void distancesNm(double lat, double lon, @NotNull double[] latitudes, @NotNull double[] longitudes,
+                                   @NotNull double[] out, int from, int to) {
+        double lat1 = Math.toRadians(lat), lon1 = Math.toRadians(lon), cosLat1 = Math.cos(lat1);
+        for (int i = from; i < to; i++) {
+            double lat2 = Math.toRadians(latitudes[i]),
+                   sinLat = Math.sin((lat2 - lat1) / 2),
+                   sinLon = Math.sin((Math.toRadians(longitudes[i]) - lon1) / 2);
+            out[i] = Math.min(1, sinLat * sinLat + cosLat1 * Math.cos(lat2) * sinLon * sinLon);
+        }
+        for (int i = from; i < to; i++) {
+            out[i] = halfChordAngle(out[i]) * earthRadiusNm;
+        }
+    }
+
+    /**
+     * Computes the initial true bearings in degrees (0 - 360) from the point
+     * to the points of the arrays. All the coordinates are in degrees.
+     */
+    public static void initialBearings(double lat, double lon, @NotNull double[] latitudes,
+                                       @NotNull double[] longitudes, @NotNull double[] out, int from, int to) {
+        double lat1 = Math.toRadians(lat), lon1 = Math.toRadians(lon),
+               sinLat1 = Math.sin(lat1), cosLat1 = Math.cos(lat1);
+        for (int i = from; i < to; i++) {
+            double lat2 = Math.toRadians(latitudes[i]), dLon = Math.toRadians(longitudes[i]) - lon1,
+                   cosLat2 = Math.cos(lat2);
+            double bearing = Math.toDegrees(Math.atan2(Math.sin(dLon) * cosLat2,
+                                                       cosLat1 * Math.sin(lat2) - sinLat1 * cosLat2 * Math.cos(dLon)));
+            out[i] = bearing < 0 ? bearing + 360 : bearing;
+        }
+    }
+
+    /**
+     * Computes the points at the fractions {@code first}, {@code first + step},
+     * ... of the great circle between two points by the spherical linear
+     * interpolation of their unit vectors.
+     */
+    private static void interpolate(double lat1, double lon1, double lat2, double lon2, double first, double step,
+                                    int count, @NotNull double[] latitudes, @NotNull double[] longitudes) {
+        double[] a = unitVector(lat1, lon1, new double[3]), b = unitVector(lat2, lon2, new double[3]);
+        double angle = angle(a[0], a[1], a[2], b[0], b[1], b[2]), sinAngle = Math.sin(angle);
+        for (int i = 0; i < count; i++) {
+            double fraction = first + i * step;
+            if (sinAngle < 1e-12) {
+                // the same or the antipodal points, the great circle is not defined
+                latitudes[i] = lat1;
+                longitudes[i] = lon1;
+                continue;
+            }
+            double wa = Math.sin((1 - fraction) * angle) / sinAngle,
+                   wb = Math.sin(fraction * angle) / sinAngle;
+            double x = wa * a[0] + wb * b[0], y = wa * a[1] + wb * b[1], z = wa * a[2] + wb * b[2];
+            latitudes[i] = latitude(x, y, z);
+            longitudes[i] = longitude(x, y);
+        }
+    }
+}
@@ -0,0 +1,152 @@
+package cz.cuni.mff.java.flightplanner.geo;
+
+import cz.cuni.mff.java.flightplanner.util.NotNull;
+
+/**
+ * The Track class represents the great circle going from the point A to the
+ * point B. It precomputes the unit vectors of the track, so that the
+ * cross-track and the along-track distances of many points are computed by a
+ * few multiplications each.
+ * <p>
+ * If the points A and B coincide, the track has no direction: the cross-track
+ * distance of a point is its distance from the point A and the along-track
+ * distance is 0.
+ */
+public final class Track {
+
+    private final double ax, ay, az, bx, by, bz;
+    /**
+     * The unit normal of the plane of the track (to the left of the track)
+     * and the direction of the track at the point A.
+     */
+    private final double nx, ny, nz, tx, ty, tz;
+    private final double lengthNm;
+    private final boolean degenerate;
+
+    /**
+     * @param latA The latitude of the start of the track in degrees.
+     * @param lonA The longitude of the start of the track in degrees.
+     * @param latB The latitude of the end of the track in degrees.
+     * @param lonB The longitude of the end of the track in degrees.
+     */
+    public Track(double latA, double lonA, double latB, double lonB) {
+        double[] a = GreatCircle.unitVector(latA, lonA, new double[3]),
+                 b = GreatCircle.unitVector(latB, lonB, new double[3]);
+        ax = a[0];
+        ay = a[1];
+        az = a[2];
+        bx = b[0];
+        by = b[1];
+        bz = b[2];
+        double cx = ay * bz - az * by, cy = az * bx - ax * bz, cz = ax * by - ay * bx,
+               norm = Math.sqrt(cx * cx + cy * cy + cz * cz);
+        degenerate = norm < 1e-12;
+        nx = degenerate ? 0 : cx / norm;
+        ny = degenerate ? 0 : cy / norm;
+        nz = degenerate ? 0 : cz / norm;
+        tx = ny * az - nz * ay;
+        ty = nz * ax - nx * az;
+        tz = nx * ay - ny * ax;
+        lengthNm = GreatCircle.angle(ax, ay, az, bx, by, bz) * GreatCircle.earthRadiusNm;
+    }
+
+    /**
+     * @return The length of the track from A to B in nautical miles.
+     */
+    public double lengthNm() {
+        return lengthNm;
+    }
+
+    /**
+     * @return The distance of the point from the great circle of the track in
+     *         nautical miles, positive to the right of the track.
+     */
+    public double crossTrackNm(double lat, double lon) {
+        double[] p = GreatCircle.unitVector(lat, lon, new double[3]);
+        return crossTrackNm(p[0], p[1], p[2]);
+    }
+
+    /**
+     * @return The cross-track distance of the point given by its unit vector.
+     * @see #crossTrackNm(double, double)
+     */
+    public double crossTrackNm(double x, double y, double z) {
+        if (degenerate) return GreatCircle.angle(ax, ay, az, x, y, z) * GreatCircle.earthRadiusNm;
+        return crossTrackAngle(nx * x + ny * y + nz * z) * GreatCircle.earthRadiusNm;
+    }
+
+    /**
+     * @return The distance from the point A to the projection of the point on
+     *         the great circle of the track in nautical miles, negative behind
+     *         the point A. The distance is in the interval (-πR, πR].
+     */
+    public double alongTrackNm(double lat, double lon) {
+        double[] p = GreatCircle.unitVector(lat, lon, new double[3]);
+        return alongTrackNm(p[0], p[1], p[2]);
+    }
+
+    /**
+     * @return The along-track distance of the point given by its unit vector.
+     * @see #alongTrackNm(double, double)
+     */
+    public double alongTrackNm(double x, double y, double z) {
+        if (degenerate) return 0;
+        return Math.atan2(tx * x + ty * y + tz * z, ax * x + ay * y + az * z) * GreatCircle.earthRadiusNm;
+    }
+
+    /**
+     * Computes the point of the great circle of the track in the given
+     * distance from the point A.
+     *
+     * @param alongNm The along-track distance of the point in nautical miles.
+     * @param result  The array receiving the latitude and the longitude of the
+     *                point in degrees.
+     * @return The {@code result} array.
+     */
+    public @NotNull double[] pointAt(double alongNm, @NotNull double[] result) {
+        double angle = alongNm / GreatCircle.earthRadiusNm, cos = Math.cos(angle), sin = Math.sin(angle);
+        double x = cos * ax + sin * tx, y = cos * ay + sin * ty, z = cos * az + sin * tz;
+        result[0] = GreatCircle.latitude(x, y, z);
+        result[1] = GreatCircle.longitude(x, y);
+        return result;
+    }
+
+    /**
+     * Computes the cross-track distances in nautical miles of the points given
+     * by their unit vectors, see {@link #crossTrackNm(double, double)}.
+     */
+    public void crossTracksNm(@NotNull double[] xs, @NotNull double[] ys, @NotNull double[] zs,
+                              @NotNull double[] out, int from, int to) {
+        if (degenerate) {
+            GreatCircle.angles(ax, ay, az, xs, ys, zs, out, from, to);
+            for (int i = from; i < to; i++) out[i] *= GreatCircle.earthRadiusNm;
+            return;
+        }
+        GreatCircle.dots(nx, ny, nz, xs, ys, zs, out, from, to);
+        for (int i = from; i < to; i++) {
+            out[i] = crossTrackAngle(out[i]) * GreatCircle.earthRadiusNm;
+        }
+    }
+
+    /**
+     * Computes the along-track distances in nautical miles of the points given
+     * by their unit vectors, see {@link #alongTrackNm(double, double)}.
+     */
+    public void alongTracksNm(@NotNull double[] xs, @NotNull double[] ys, @NotNull double[] zs,
+                              @NotNull double[] out, int from, int to) {
+        for (int i = from; i < to; i++) {
+            out[i] = degenerate ? 0
+                     : Math.atan2(tx * xs[i] + ty * ys[i] + tz * zs[i], ax * xs[i] + ay * ys[i] + az * zs[i])
+                       * GreatCircle.earthRadiusNm;
+        }
+    }
+
+    /**
+     * @param sine The sine of the angle between the point and the plane of the
+     *             track, i.e. the dot product with the normal of the plane.
+     * @return The cross-track angle in radians, positive to the right.
+     */
+    private static double crossTrackAngle(double sine) {
+        return -GreatCircle.arcsine(Math.max(-1, Math.min(1, sine)));
+    }
+}
@@ -0,0 +1,105 @@
+package cz.cuni.mff.java.flightplanner.geo;
+
+import cz.cuni.mff.java.flightplanner.util.NotNull;
+
+/**
+ * The Vincenty class computes the distances and the bearings on the WGS-84
+ * ellipsoid by the Vincenty's inverse formula. The result is accurate to
+ * fractions of a millimetre, but the iteration costs several times more than
+ * the {@link GreatCircle} haversine, therefore it is meant for the reported
+ * distances rather than for the searches.
+ * <p>
+ * The iteration does not converge for the nearly antipodal points; the
+ * spherical distance and bearing are used for them instead.
+ */
+public final class Vincenty {
+
+    private static final double semiMajorAxis = 6378137, flattening = 1 / 298.257223563,
+                                semiMinorAxis = (1 - flattening) * semiMajorAxis,
+                                metresPerNm = 1852, tolerance = 1e-12;
+    private static final int maxIterations = 200;
+
+    private Vincenty() {
+    }
+
+    /**
+     * @return The distance of two points on the ellipsoid in nautical miles.
+     *         The coordinates are in degrees.
+     */
+    public static double distanceNm(double lat1, double lon1, double lat2, double lon2) {
+        return inverse(lat1, lon1, lat2, lon2, new double[3])[0];
+    }
+
+    /**
+     * @return The initial true bearing from the first point to the second one
+     *         on the ellipsoid in degrees (0 - 360).
+     */
+    public static double initialBearing(double lat1, double lon1, double lat2, double lon2) {
+        return inverse(lat1, lon1, lat2, lon2, new double[3])[1];
+    }
+
+    /**
+     * Solves the inverse geodetic problem.
+     *
+     * @param result The array receiving the distance in nautical miles, the
+     *               initial and the final true bearings in degrees (0 - 360).
+     * @return The {@code result} array.
+     */
+    public static @NotNull double[] inverse(double lat1, double lon1, double lat2, double lon2,
+                                           @NotNull double[] result) {
+        double l = Math.toRadians(lon2 - lon1),
+               u1 = Math.atan((1 - flattening) * Math.tan(Math.toRadians(lat1))),
+               u2 = Math.atan((1 - flattening) * Math.tan(Math.toRadians(lat2)));
+        double sinU1 = Math.sin(u1), cosU1 = Math.cos(u1), sinU2 = Math.sin(u2), cosU2 = Math.cos(u2);
+
+        double lambda = l, sinLambda, cosLambda, sinSigma, cosSigma, sigma, cosSqAlpha, cos2SigmaM;
+        int iteration = 0;
+        while (true) {
+            sinLambda = Math.sin(lambda);
+            cosLambda = Math.cos(lambda);
+            double p = cosU2 * sinLambda, q = cosU1 * sinU2 - sinU1 * cosU2 * cosLambda;
+            sinSigma = Math.sqrt(p * p + q * q);
+            if (sinSigma == 0) {
+                // the same points
+                result[0] = 0;
+                result[1] = 0;
+                result[2] = 0;
+                return result;
+            }
+            cosSigma = sinU1 * sinU2 + cosU1 * cosU2 * cosLambda;
+            sigma = Math.atan2(sinSigma, cosSigma);
+            double sinAlpha = cosU1 * cosU2 * sinLambda / sinSigma;
+            cosSqAlpha = 1 - sinAlpha * sinAlpha;
+            cos2SigmaM = cosSqAlpha != 0 ? cosSigma - 2 * sinU1 * sinU2 / cosSqAlpha : 0;
+            double c = flattening / 16 * cosSqAlpha * (4 + flattening * (4 - 3 * cosSqAlpha)),
+                   previous = lambda;
+            lambda = l + (1 - c) * flattening * sinAlpha *
+                         (sigma + c * sinSigma * (cos2SigmaM + c * cosSigma * (-1 + 2 * cos2SigmaM * cos2SigmaM)));
+            if (Math.abs(lambda - previous) <= tolerance) break;
+            if (++iteration == maxIterations || Math.abs(lambda) > Math.PI) {
+                result[0] = GreatCircle.distanceNm(lat1, lon1, lat2, lon2);
+                result[1] = GreatCircle.initialBearing(lat1, lon1, lat2, lon2);
+                double back = GreatCircle.initialBearing(lat2, lon2, lat1, lon1);
+                result[2] = back >= 180 ? back - 180 : back + 180;
+                return result;
+            }
+        }
+
+        double uSq = cosSqAlpha * (semiMajorAxis * semiMajorAxis - semiMinorAxis * semiMinorAxis) /
+                     (semiMinorAxis * semiMinorAxis);
+        double a = 1 + uSq / 16384 * (4096 + uSq * (-768 + uSq * (320 - 175 * uSq))),
+               b = uSq / 1024 * (256 + uSq * (-128 + uSq * (74 - 47 * uSq)));
+        double deltaSigma = b * sinSigma * (cos2SigmaM + b / 4 * (cosSigma * (-1 + 2 * cos2SigmaM * cos2SigmaM) -
+                            b / 6 * cos2SigmaM * (-3 + 4 * sinSigma * sinSigma) *
+                            (-3 + 4 * cos2SigmaM * cos2SigmaM)));
+        result[0] = semiMinorAxis * a * (sigma - deltaSigma) / metresPerNm;
+        result[1] = bearing(Math.atan2(cosU2 * sinLambda, cosU1 * sinU2 - sinU1 * cosU2 * cosLambda));
+        result[2] = bearing(Math.atan2(cosU1 * sinLambda, -sinU1 * cosU2 + cosU1 * sinU2 * cosLambda));
+        return result;
+    }
+
+    private static double bearing(double radians) {
+        double degrees = Math.toDegrees(radians);
+        return degrees < 0 ? degrees + 360 : degrees;
+    }
+}
@@ -0,0 +1,11 @@
+/**
+ * The package contains the geometry of the positions on the Earth: the
+ * great-circle distances, bearings, cross-track distances and intermediate
+ * points on the spherical Earth and the Vincenty distances on the WGS-84
+ * ellipsoid. The batched variants of the computations work on the primitive
+ * arrays of the coordinates, so that the hot loops of the searches neither
+ * box the coordinates nor call a method per point.
+ *
+ * @author Viktor Bujko
+ */
+package cz.cuni.mff.java.flightplanner.geo;
@@ -0,0 +1,78 @@
+package cz.cuni.mff.java.flightplanner.navdata;
+
+/**
+ * The open addressing hash map of the primitive {@code long} keys to the
+ * {@code int} values. It stores neither boxed keys nor entry objects, so the
+ * maps of hundreds of thousands of points stay small and fast. The key 0 is
+ * reserved for the empty slots.
+ */
+final class LongIntHashMap {
+
+    private long[] keys;
+    private int[] values;
+    private int size = 0, mask;
+
+    /**
+     * @param expectedSize The expected number of the entries.
+     */
+    LongIntHashMap(int expectedSize) {
+        int capacity = Integer.highestOneBit(Math.max(4, expectedSize * 2 - 1)) << 1;
+        keys = new long[capacity];
+        values = new int[capacity];
+        mask = capacity - 1;
+    }
+
+    int size() {
+        return size;
+    }
+
+    /**
+     * @return The value of the key, or {@code missing} if the key is absent.
+     */
+    int get(long key, int missing) {
+        for (int slot = slot(key); ; slot = (slot + 1) & mask) {
+            if (keys[slot] == key) return values[slot];
+            if (keys[slot] == 0) return missing;
+        }
+    }
+
+    /**
+     * Inserts the entry unless the key is present already.
+     *
+     * @return The value already associated with the key, or {@code missing}
+     *         if the entry was inserted.
+     */
+    int putIfAbsent(long key, int value, int missing) {
+        if (key == 0) throw new IllegalArgumentException("The key 0 is reserved.");
+        if (2 * (size + 1) > keys.length) grow();
+        int slot = slot(key);
+        while (keys[slot] != 0) {
+            if (keys[slot] == key) return values[slot];
+            slot = (slot + 1) & mask;
+        }
+        keys[slot] = key;
+        values[slot] = value;
+        size++;
+        return missing;
+    }
+
+    private int slot(long key) {
+        long hash = key * 0x9E3779B97F4A7C15L;
+        return (int) (hash ^ (hash >>> 32)) & mask;
+    }
+
+    private void grow() {
+        long[] oldKeys = keys;
+        int[] oldValues = values;
+        keys = new long[oldKeys.length * 2];
+        values = new int[oldKeys.length * 2];
+        mask = keys.length - 1;
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] == 0) continue;
+            int slot = slot(oldKeys[i]);
+            while (keys[slot] != 0) slot = (slot + 1) & mask;
+            keys[slot] = oldKeys[i];
+            values[slot] = oldValues[i];
+        }
+    }
+}
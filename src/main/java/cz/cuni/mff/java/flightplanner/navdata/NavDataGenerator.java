@@ -0,0 +1,287 @@
+package cz.cuni.mff.java.flightplanner.navdata;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import cz.cuni.mff.java.flightplanner.dataobject.APTCategory;
+import cz.cuni.mff.java.flightplanner.dataobject.Airport;
+import cz.cuni.mff.java.flightplanner.geo.GreatCircle;
+import cz.cuni.mff.java.flightplanner.util.NotNull;
+
+/**
+ * The NavDataGenerator class synthesizes a realistic navigation database from
+ * the coordinates of the airports, so that the route planning and its
+ * benchmarks can run without any licensed navigation data.
+ * <ul>
+ *     <li>Every medium and large airport gets a VOR near the airport, its
+ *         identifier is derived from the ICAO code of the airport.</li>
+ *     <li>Half of the small airports get an NDB.</li>
+ *     <li>Every VOR is connected by an airway to its nearest VORs within the
+ *         maximal airway length. The airway is divided by the fixes with the
+ *         five-letter pronounceable identifiers placed on the great circle
+ *         every {@code fixSpacingNm} nautical miles.</li>
+ * </ul>
+ * The smaller spacing of the fixes produces the larger databases, e.g. about
+ * half a million fixes for the spacing of 5 NM. The generator is
+ * deterministic: the same airports, parameters and seed always give the same
+ * database.
+ */
+public final class NavDataGenerator {
+
+    public static final double defaultFixSpacingNm = 20, defaultMaxAirwayNm = 250;
+    public static final int defaultAirwayNeighbours = 4;
+    public static final long defaultSeed = 2020;
+    private static final double maxVorOffsetNm = 2, ndbShare = 0.5;
+    private static final String consonants = "BCDFGHJKLMNPRSTVWXZ", vowels = "AEIOU",
+                                letters = "ABCDEFGHIJKLMNOPQRSTUVWXYZ";
+    private static final String[] airwayPrefixes = { "A", "B", "G", "L", "M", "N", "R", "T", "W", "Y" };
+    private static final int maxRandomAttempts = 50;
+
+    private final double fixSpacingNm, maxAirwayNm;
+    private final int airwayNeighbours;
+    private final long seed;
+
+    /**
+     * @param fixSpacingNm     The distance of the consecutive fixes on an
+     *                         airway in nautical miles.
+     * @param maxAirwayNm      The maximal length of an airway between two VORs
+     *                         in nautical miles.
+     * @param airwayNeighbours The number of the nearest VORs every VOR is
+     *                         connected to.
+     * @param seed             The seed of the random numbers.
+     * @throws IllegalArgumentException if the spacing or the length is not
+     *         positive.
+     */
+    public NavDataGenerator(double fixSpacingNm, double maxAirwayNm, int airwayNeighbours, long seed) {
+        if (!(fixSpacingNm > 0) || !(maxAirwayNm > 0)) {
+            throw new IllegalArgumentException("The fix spacing and the airway length have to be positive numbers.");
+        }
+        this.fixSpacingNm = fixSpacingNm;
+        this.maxAirwayNm = maxAirwayNm;
+        this.airwayNeighbours = airwayNeighbours;
+        this.seed = seed;
+    }
+
+    /**
+     * Creates the generator with the default parameters.
+     */
+    public NavDataGenerator() {
+        this(defaultFixSpacingNm, defaultMaxAirwayNm, defaultAirwayNeighbours, defaultSeed);
+    }
+
+    /**
+     * Generates the navigation database around the airports.
+     *
+     * @param airports The airports the navaids are derived from. The airports
+     *                 without known coordinates are skipped.
+     * @return The generated navigation graph.
+     */
+    public @NotNull NavGraph generate(@NotNull Collection<Airport> airports) {
+        Random random = new Random(seed);
+        List<Airport> located = new ArrayList<>();
+        for (Airport airport : airports) {
+            if (airport.getGeoLat() != null && airport.getGeoLong() != null && !airport.getGeoLat().isNaN() &&
+                !airport.getGeoLong().isNaN() && airport.getIcaoCode().length() >= 2) {
+                located.add(airport);
+            }
+        }
+        located.sort(Comparator.comparing(Airport::getIcaoCode));
+
+        NavGraph.Builder builder = new NavGraph.Builder(located.size() * 8);
+        List<Integer> vors = new ArrayList<>();
+        for (Airport airport : located) {
+            String icao = airport.getIcaoCode(), region = icao.substring(0, 2);
+            if (NavGraph.key("A", region) == 0) continue;
+            if (airport.getCat() == APTCategory.large_airport || airport.getCat() == APTCategory.medium_airport) {
+                double[] position = offset(airport.getGeoLat(), airport.getGeoLong(), random);
+                int vor = addNavaid(builder, NavPointType.VOR, icao.substring(1), region, position,
+                                    108 + 0.05 * random.nextInt(200), random);
+                if (vor >= 0) vors.add(vor);
+            } else if (random.nextDouble() < ndbShare) {
+                addNavaid(builder, NavPointType.NDB, icao.substring(2), region,
+                          new double[] { airport.getGeoLat(), airport.getGeoLong() }, 190 + random.nextInt(346), random);
+            }
+        }
+        connectVors(builder, vors, random);
+        return builder.build();
+    }
+
+    /**
+     * Adds the navaid with the identifier derived from the {@code base}. If
+     * the identifier is used already, the last letter is changed and then a
+     * random identifier of the same length is tried.
+     */
+    private static int addNavaid(@NotNull NavGraph.Builder builder, @NotNull NavPointType type, @NotNull String base,
+                                 @NotNull String region, @NotNull double[] position, double frequency,
+                                 @NotNull Random random) {
+        List<String> candidates = new ArrayList<>();
+        candidates.add(base);
+        for (int i = 0; i < letters.length(); i++) {
+            candidates.add(base.substring(0, base.length() - 1) + letters.charAt(i));
+        }
+        for (String ident : candidates) {
+            long key = NavGraph.key(ident, region);
+            if (key != 0 && builder.indexOf(key) < 0) {
+                return builder.addPoint(type, key, position[0], position[1], frequency);
+            }
+        }
+        for (int attempt = 0; attempt < maxRandomAttempts; attempt++) {
+            StringBuilder ident = new StringBuilder();
+            for (int i = 0; i < base.length(); i++) ident.append(letters.charAt(random.nextInt(letters.length())));
+            long key = NavGraph.key(ident, region);
+            if (builder.indexOf(key) < 0) return builder.addPoint(type, key, position[0], position[1], frequency);
+        }
+        return -1;
+    }
+
+    /**
+     * Connects every VOR with its nearest VORs by the airways divided by the
+     * fixes.
+     */
+    private void connectVors(@NotNull NavGraph.Builder builder, @NotNull List<Integer> vors, @NotNull Random random) {
+        int n = vors.size();
+        double[] latitudes = new double[n], longitudes = new double[n],
+                 xs = new double[n], ys = new double[n], zs = new double[n], dots = new double[n];
+        for (int i = 0; i < n; i++) {
+            latitudes[i] = builder.latitude(vors.get(i));
+            longitudes[i] = builder.longitude(vors.get(i));
+        }
+        GreatCircle.unitVectors(latitudes, longitudes, xs, ys, zs, 0, n);
+        double minDot = Math.cos(maxAirwayNm / GreatCircle.earthRadiusNm);
+        Set<Long> connected = new HashSet<>();
+        int airwayCount = 0;
+        int[] nearest = new int[airwayNeighbours];
+        double[] nearestDot = new double[airwayNeighbours];
+        for (int i = 0; i < n; i++) {
+            GreatCircle.dots(xs[i], ys[i], zs[i], xs, ys, zs, dots, 0, n);
+            int found = 0;
+            for (int j = 0; j < n; j++) {
+                double dot = dots[j];
+                if (i == j || dot < minDot || (found == airwayNeighbours && dot <= nearestDot[found - 1])) continue;
+                // insertion into the list of the nearest VORs sorted by the decreasing dot product
+                int k = found < airwayNeighbours ? found++ : found - 1;
+                while (k > 0 && nearestDot[k - 1] < dot) {
+                    nearest[k] = nearest[k - 1];
+                    nearestDot[k] = nearestDot[k - 1];
+                    k--;
+                }
+                nearest[k] = j;
+                nearestDot[k] = dot;
+            }
+            for (int k = 0; k < found; k++) {
+                int a = Math.min(i, nearest[k]), b = Math.max(i, nearest[k]);
+                if (!connected.add((long) a * n + b)) continue;
+                String airway = airwayPrefixes[airwayCount % airwayPrefixes.length] +
+                                (airwayCount / airwayPrefixes.length + 1);
+                airwayCount++;
+                addAirway(builder, airway, vors.get(a), vors.get(b), random);
+            }
+        }
+    }
+
+    /**
+     * Adds the airway between two VORs. The fixes divide the great circle
+     * between the VORs into the equal parts.
+     */
+    private void addAirway(@NotNull NavGraph.Builder builder, @NotNull String airway, int from, int to,
+                           @NotNull Random random) {
+        double lat1 = builder.latitude(from), lon1 = builder.longitude(from),
+               lat2 = builder.latitude(to), lon2 = builder.longitude(to);
+        int fixes = (int) Math.max(0, Math.ceil(GreatCircle.distanceNm(lat1, lon1, lat2, lon2) / fixSpacingNm) - 1);
+        double[] latitudes = new double[fixes], longitudes = new double[fixes];
+        GreatCircle.intermediatePoints(lat1, lon1, lat2, lon2, latitudes, longitudes, fixes);
+        String fromRegion = builder.region(from), toRegion = builder.region(to);
+        int previous = from;
+        for (int f = 0; f < fixes; f++) {
+            int fix = addFix(builder, 2 * f < fixes ? fromRegion : toRegion, latitudes[f], longitudes[f], random);
+            if (fix < 0) continue;
+            builder.addSegment(airway, previous, fix, true);
+            previous = fix;
+        }
+        builder.addSegment(airway, previous, to, true);
+    }
+
+    /**
+     * Adds the fix with a random pronounceable identifier unique in the region.
+     * If the pronounceable identifiers of the region are exhausted, any five
+     * letters are used.
+     */
+    private static int addFix(@NotNull NavGraph.Builder builder, @NotNull String region,
+                              double latitude, double longitude, @NotNull Random random) {
+        StringBuilder ident = new StringBuilder(5);
+        for (int attempt = 0; attempt < 2 * maxRandomAttempts; attempt++) {
+            ident.setLength(0);
+            boolean pronounceable = attempt < maxRandomAttempts;
+            for (int i = 0; i < 5; i++) {
+                String alphabet = !pronounceable ? letters : i % 2 == 0 ? consonants : vowels;
+                ident.append(alphabet.charAt(random.nextInt(alphabet.length())));
+            }
+            long key = NavGraph.key(ident, region);
+            if (builder.indexOf(key) < 0) {
+                return builder.addPoint(NavPointType.FIX, key, latitude, longitude, Double.NaN);
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * @return The position at most {@value #maxVorOffsetNm} NM away from the
+     *         given one in a random direction.
+     */
+    private static @NotNull double[] offset(double latitude, double longitude, @NotNull Random random) {
+        double distance = random.nextDouble() * maxVorOffsetNm,
+               direction = random.nextDouble() * 360;
+        return GreatCircle.destinationPoint(latitude, longitude, direction, distance, new double[2]);
+    }
+
+    /**
+     * Generates the database from the airports database and writes it to the
+     * file.
+     *
+     * @param args The output file, optionally followed by the fix spacing in
+     *             NM, the maximal airway length in NM, the number of the
+     *             airway neighbours and the seed.
+     */
+    public static void main(String[] args) {
+        if (args.length < 1) {
+            System.err.println("Usage: NavDataGenerator <output file> [fix spacing NM] [max airway NM] " +
+                               "[airway neighbours] [seed]");
+            System.exit(2);
+        }
+        NavDataGenerator generator;
+        try {
+            generator = new NavDataGenerator(args.length > 1 ? Double.parseDouble(args[1]) : defaultFixSpacingNm,
+                                             args.length > 2 ? Double.parseDouble(args[2]) : defaultMaxAirwayNm,
+                                             args.length > 3 ? Integer.parseInt(args[3]) : defaultAirwayNeighbours,
+                                             args.length > 4 ? Long.parseLong(args[4]) : defaultSeed);
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            System.exit(2);
+            return;
+        }
+        Collection<Airport> airports = Airport.all();
+        if (airports == null) System.exit(1);
+
+        NavGraph graph = generator.generate(airports);
+        Path file = Path.of(args[0]);
+        try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(file))) {
+            NavDataWriter.write(graph, out);
+        } catch (IOException e) {
+            System.err.println("The navigation database could not be written to %FILE.".replace("%FILE", args[0]));
+            System.exit(1);
+        }
+        System.out.println("The navigation database with %POINTS points and %SEGMENTS segments has been written to %FILE."
+                           .replace("%POINTS", String.valueOf(graph.pointCount()))
+                           .replace("%SEGMENTS", String.valueOf(graph.segmentCount()))
+                           .replace("%FILE", args[0]));
+    }
+}
@@ -0,0 +1,256 @@
+package cz.cuni.mff.java.flightplanner.navdata;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import cz.cuni.mff.java.flightplanner.util.NotNull;
+
+/**
+ * The NavDataReader class loads the navigation database in the FPNAV format
+ * (see the {@link cz.cuni.mff.java.flightplanner.navdata package}) into the
+ * {@link NavGraph}. The whole file is read into the memory at once and parsed
+ * directly from the bytes: the lines are not converted to strings, the
+ * identifiers are packed into the keys and the coordinates are parsed without
+ * creating any object, so that the databases of hundreds of thousands of
+ * points are loaded in a fraction of a second.
+ */
+public final class NavDataReader {
+
+    /**
+     * The header of the supported version of the format.
+     */
+    public static final String header = "FPNAV,1";
+    private static final int maxExactDigits = 15;
+    private static final double[] powersOfTen = { 1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10,
+                                                  1e11, 1e12, 1e13, 1e14, 1e15 };
+
+    private final byte[] data;
+    private int position = 0, line = 1;
+
+    private NavDataReader(@NotNull byte[] data) {
+        this.data = data;
+    }
+
+    /**
+     * Loads the navigation database from the file.
+     *
+     * @param file The file in the FPNAV format.
+     * @return The navigation graph.
+     * @throws IOException if the file can not be read or is not correct. The
+     *         message contains the number of the incorrect line.
+     */
+    public static @NotNull NavGraph read(@NotNull Path file) throws IOException {
+        return new NavDataReader(Files.readAllBytes(file)).parse();
+    }
+
+    /**
+     * Loads the navigation database from the stream. The stream is not
+     * closed.
+     *
+     * @param in The stream of the database in the FPNAV format.
+     * @return The navigation graph.
+     * @throws IOException if the stream can not be read or the database is not
+     *         correct. The message contains the number of the incorrect line.
+     */
+    public static @NotNull NavGraph read(@NotNull InputStream in) throws IOException {
+        return new NavDataReader(in.readAllBytes()).parse();
+    }
+
+    private @NotNull NavGraph parse() throws IOException {
+        position = fieldLength();
+        if (!matches(0, position, header.substring(0, header.indexOf(','))) ||
+            !nextField().equals(header.substring(header.indexOf(',') + 1)) || !endOfLine()) {
+            throw error("The file does not start with the \"%HEADER\" header.".replace("%HEADER", header));
+        }
+        nextLine();
+        // the points take about 40 bytes per line
+        NavGraph.Builder builder = new NavGraph.Builder(data.length / 40);
+        while (position < data.length) {
+            if (data[position] == '#' || endOfLine()) {
+                skipLine();
+                continue;
+            }
+            int start = position;
+            int length = fieldLength();
+            if (matches(start, length, "SEG")) {
+                segment(builder);
+            } else {
+                NavPointType type = pointType(start, length);
+                if (type == null) throw error("Unknown record type.");
+                point(builder, type);
+            }
+            if (!endOfLine()) throw error("Too many fields.");
+            nextLine();
+        }
+        return builder.build();
+    }
+
+    private void point(@NotNull NavGraph.Builder builder, @NotNull NavPointType type) throws IOException {
+        long key = nextKey();
+        double latitude = nextNumber(), longitude = nextNumber();
+        if (!(Math.abs(latitude) <= 90) || !(Math.abs(longitude) <= 180)) throw error("Incorrect coordinates.");
+        double frequency = !endOfLine() ? nextNumber() : Double.NaN;
+        if (builder.addPoint(type, key, latitude, longitude, frequency) < 0) throw error("Duplicate point.");
+    }
+
+    private void segment(@NotNull NavGraph.Builder builder) throws IOException {
+        String airway = nextField();
+        if (airway.isEmpty()) throw error("Missing airway name.");
+        int from = builder.indexOf(nextKey()), to = builder.indexOf(nextKey());
+        if (from < 0 || to < 0) throw error("The segment refers to an unknown point.");
+        boolean bidirectional = true;
+        if (!endOfLine()) {
+            String direction = nextField();
+            if ("F".equals(direction)) bidirectional = false;
+            else if (!"B".equals(direction)) throw error("The direction has to be B or F.");
+        }
+        builder.addSegment(airway, from, to, bidirectional);
+    }
+
+    /**
+     * Reads the identifier and the region fields and packs them into the key.
+     */
+    private long nextKey() throws IOException {
+        expectField();
+        int identStart = position, identLength = fieldLength();
+        expectField();
+        int regionStart = position, regionLength = fieldLength();
+        long key = NavGraph.key(new Ascii(identStart, identLength), new Ascii(regionStart, regionLength));
+        if (key == 0) throw error("Incorrect identifier or region.");
+        return key;
+    }
+
+    /**
+     * Parses the decimal number of the next field. The numbers with at most
+     * {@value #maxExactDigits} digits and no exponent are parsed directly: the
+     * digits and the power of ten are both represented exactly, so their
+     * correctly rounded quotient is the same as the result of the
+     * {@link Double#parseDouble(String)}, which parses the other numbers.
+     */
+    private double nextNumber() throws IOException {
+        expectField();
+        int start = position, length = fieldLength(), i = start, end = start + length;
+        boolean negative = i < end && data[i] == '-';
+        if (negative || (i < end && data[i] == '+')) i++;
+        long mantissa = 0;
+        int digits = 0, decimals = -1;
+        for (; i < end; i++) {
+            byte b = data[i];
+            if (b >= '0' && b <= '9') {
+                mantissa = mantissa * 10 + (b - '0');
+                digits++;
+                if (decimals >= 0) decimals++;
+            } else if (b == '.' && decimals < 0) {
+                decimals = 0;
+            } else {
+                break;
+            }
+        }
+        if (i == end && digits > 0 && digits <= maxExactDigits) {
+            double value = mantissa / powersOfTen[Math.max(decimals, 0)];
+            return negative ? -value : value;
+        }
+        try {
+            return Double.parseDouble(new Ascii(start, length).toString());
+        } catch (NumberFormatException e) {
+            throw error("Incorrect number.");
+        }
+    }
+
+    private @NotNull String nextField() throws IOException {
+        expectField();
+        int start = position;
+        return new Ascii(start, fieldLength()).toString();
+    }
+
+    /**
+     * Skips the separator before the next field of the record.
+     */
+    private void expectField() throws IOException {
+        if (position >= data.length || data[position] != ',') throw error("Missing field.");
+        position++;
+    }
+
+    /**
+     * Moves the position to the end of the current field.
+     *
+     * @return The length of the field.
+     */
+    private int fieldLength() {
+        int start = position;
+        while (position < data.length && data[position] != ',' && data[position] != '\n' && data[position] != '\r') {
+            position++;
+        }
+        return position - start;
+    }
+
+    private boolean endOfLine() {
+        return position >= data.length || data[position] == '\n' || data[position] == '\r';
+    }
+
+    private void nextLine() {
+        if (position < data.length && data[position] == '\r') position++;
+        if (position < data.length && data[position] == '\n') position++;
+        line++;
+    }
+
+    private void skipLine() {
+        while (!endOfLine()) position++;
+        nextLine();
+    }
+
+    private boolean matches(int start, int length, @NotNull String text) {
+        if (length != text.length()) return false;
+        for (int i = 0; i < length; i++) {
+            if (data[start + i] != text.charAt(i)) return false;
+        }
+        return true;
+    }
+
+    private NavPointType pointType(int start, int length) {
+        for (NavPointType type : NavPointType.values()) {
+            if (matches(start, length, type.name())) return type;
+        }
+        return null;
+    }
+
+    private @NotNull IOException error(@NotNull String message) {
+        return new IOException("Line %LINE: %MSG".replace("%LINE", String.valueOf(line)).replace("%MSG", message));
+    }
+
+    /**
+     * The view of the ASCII bytes of one field, used to pack the identifiers
+     * without creating the strings.
+     */
+    private final class Ascii implements CharSequence {
+
+        private final int start, length;
+
+        private Ascii(int start, int length) {
+            this.start = start;
+            this.length = length;
+        }
+
+        @Override
+        public int length() {
+            return length;
+        }
+
+        @Override
+        public char charAt(int index) {
+            return (char) (data[start + index] & 0xFF);
+        }
+
+        @Override
+        public @NotNull CharSequence subSequence(int from, int to) {
+            return new Ascii(start + from, to - from);
+        }
+
+        @Override
+        public @NotNull String toString() {
+            return new String(data, start, length, StandardCharsets.ISO_8859_1);
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package cz.cuni.mff.java.flightplanner.navdata;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import cz.cuni.mff.java.flightplanner.util.NotNull;
+
+/**
+ * The NavDataWriter class writes the {@link NavGraph} in the FPNAV format
+ * (see the {@link cz.cuni.mff.java.flightplanner.navdata package}). All the
+ * points are written before the segments, the coordinates are written with
+ * {@value #coordinateDecimals} decimal places (about 0.1 m).
+ */
+public final class NavDataWriter {
+
+    private static final int coordinateDecimals = 6, frequencyDecimals = 2;
+
+    private NavDataWriter() {
+    }
+
+    /**
+     * Writes the graph to the stream. The stream is flushed, but not closed.
+     *
+     * @param graph The navigation graph.
+     * @param out   The stream the database is written to.
+     * @throws IOException if the database can not be written.
+     */
+    public static void write(@NotNull NavGraph graph, @NotNull OutputStream out) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.US_ASCII), 1 << 16);
+        StringBuilder line = new StringBuilder(64);
+        writer.write(NavDataReader.header);
+        writer.write('\n');
+        writer.write("# type,ident,region,latitude,longitude,frequency\n");
+        for (int p = 0; p < graph.pointCount(); p++) {
+            line.setLength(0);
+            line.append(graph.type(p).name()).append(',')
+                .append(graph.ident(p)).append(',')
+                .append(graph.region(p)).append(',');
+            appendFixed(line, graph.latitude(p), coordinateDecimals);
+            line.append(',');
+            appendFixed(line, graph.longitude(p), coordinateDecimals);
+            if (!Double.isNaN(graph.frequency(p))) {
+                line.append(',');
+                appendFixed(line, graph.frequency(p), frequencyDecimals);
+            }
+            writer.append(line).append('\n');
+        }
+        writer.write("# SEG,airway,from ident,from region,to ident,to region,direction\n");
+        for (int s = 0; s < graph.segmentCount(); s++) {
+            int from = graph.segmentFrom(s), to = graph.segmentTo(s);
+            line.setLength(0);
+            line.append("SEG,").append(graph.segmentAirway(s)).append(',')
+                .append(graph.ident(from)).append(',').append(graph.region(from)).append(',')
+                .append(graph.ident(to)).append(',').append(graph.region(to)).append(',')
+                .append(graph.isBidirectional(s) ? 'B' : 'F');
+            writer.append(line).append('\n');
+        }
+        writer.flush();
+    }
+
+    /**
+     * Appends the number rounded to the given decimal places without the
+     * formatting overhead of the {@link String#format}.
+     */
+    private static void appendFixed(@NotNull StringBuilder sb, double value, int decimals) {
+        long scale = 1;
+        for (int i = 0; i < decimals; i++) scale *= 10;
+        long scaled = Math.round(Math.abs(value) * scale);
+        if (value < 0 && scaled != 0) sb.append('-');
+        sb.append(scaled / scale).append('.');
+        String fraction = Long.toString(scaled % scale);
+        for (int i = fraction.length(); i < decimals; i++) sb.append('0');
+        sb.append(fraction);
+    }
+}
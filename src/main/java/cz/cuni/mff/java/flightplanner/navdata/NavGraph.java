@@ -0,0 +1,363 @@
+package cz.cuni.mff.java.flightplanner.navdata;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import cz.cuni.mff.java.flightplanner.geo.GreatCircle;
+import cz.cuni.mff.java.flightplanner.util.NotNull;
+
+/**
+ * The NavGraph class is the compact in-memory navigation graph: the points
+ * (navaids and fixes) are its nodes and the airway segments its edges. All
+ * the data are kept in primitive arrays indexed by the point number, the
+ * identifier and the region of a point are packed into one {@code long} key.
+ * The outgoing edges of the point {@code p} are the edges
+ * {@link #edgeStart(int) edgeStart(p)} to {@code edgeStart(p + 1) - 1}, so the
+ * graph can be searched without creating any object.
+ * <p>
+ * The graph is immutable and can be shared by several threads. It is created
+ * by the {@link NavDataReader} or the {@link NavDataGenerator}.
+ */
+public final class NavGraph {
+
+    /**
+     * The maximal length of the point identifier.
+     */
+    public static final int maxIdentLength = 10;
+    private static final int regionLength = 2, radix = 37;
+    private static final NavPointType[] types = NavPointType.values();
+
+    private final long[] keys;
+    private final byte[] pointTypes;
+    private final double[] latitudes, longitudes;
+    private final float[] frequencies;
+    private final LongIntHashMap index;
+    private final String[] airways;
+    private final int[] segmentFrom, segmentTo, segmentAirway;
+    private final boolean[] segmentBoth;
+    private final int[] edgeStart, edgeTarget, edgeAirway;
+    private final float[] edgeLength;
+
+    private NavGraph(@NotNull Builder builder) {
+        int n = builder.pointCount, m = builder.segmentCount;
+        this.keys = Arrays.copyOf(builder.keys, n);
+        this.pointTypes = Arrays.copyOf(builder.pointTypes, n);
+        this.latitudes = Arrays.copyOf(builder.latitudes, n);
+        this.longitudes = Arrays.copyOf(builder.longitudes, n);
+        this.frequencies = Arrays.copyOf(builder.frequencies, n);
+        this.index = builder.index;
+        this.airways = builder.airwayNames.toArray(new String[0]);
+        this.segmentFrom = Arrays.copyOf(builder.segmentFrom, m);
+        this.segmentTo = Arrays.copyOf(builder.segmentTo, m);
+        this.segmentAirway = Arrays.copyOf(builder.segmentAirway, m);
+        this.segmentBoth = Arrays.copyOf(builder.segmentBoth, m);
+
+        this.edgeStart = new int[n + 1];
+        for (int s = 0; s < m; s++) {
+            edgeStart[segmentFrom[s] + 1]++;
+            if (segmentBoth[s]) edgeStart[segmentTo[s] + 1]++;
+        }
+        for (int p = 0; p < n; p++) {
+            edgeStart[p + 1] += edgeStart[p];
+        }
+        int edges = edgeStart[n];
+        int[] next = Arrays.copyOf(edgeStart, n);
+        this.edgeTarget = new int[edges];
+        this.edgeAirway = new int[edges];
+        this.edgeLength = new float[edges];
+        for (int s = 0; s < m; s++) {
+            float length = (float) distanceNm(segmentFrom[s], segmentTo[s]);
+            int e = next[segmentFrom[s]]++;
+            edgeTarget[e] = segmentTo[s];
+            edgeAirway[e] = segmentAirway[s];
+            edgeLength[e] = length;
+            if (segmentBoth[s]) {
+                e = next[segmentTo[s]]++;
+                edgeTarget[e] = segmentFrom[s];
+                edgeAirway[e] = segmentAirway[s];
+                edgeLength[e] = length;
+            }
+        }
+    }
+
+    /**
+     * @return The number of the points.
+     */
+    public int pointCount() {
+        return keys.length;
+    }
+
+    /**
+     * @return The number of the airway segments as defined in the database.
+     */
+    public int segmentCount() {
+        return segmentFrom.length;
+    }
+
+    /**
+     * @return The number of the directed edges, i.e. the segments flown in
+     *         both directions are counted twice.
+     */
+    public int edgeCount() {
+        return edgeTarget.length;
+    }
+
+    /**
+     * @param ident  The identifier of the point.
+     * @param region The region of the point.
+     * @return The number of the point, or -1 if there is no such point.
+     */
+    public int indexOf(@NotNull String ident, @NotNull String region) {
+        long key = key(ident, region);
+        return key == 0 ? -1 : index.get(key, -1);
+    }
+
+    public @NotNull String ident(int point) {
+        return decode(keys[point] / pow(regionLength), maxIdentLength);
+    }
+
+    public @NotNull String region(int point) {
+        return decode(keys[point] % pow(regionLength), regionLength);
+    }
+
+    public @NotNull NavPointType type(int point) {
+        return types[pointTypes[point]];
+    }
+
+    /**
+     * @return The latitude of the point in decimal degrees.
+     */
+    public double latitude(int point) {
+        return latitudes[point];
+    }
+
+    /**
+     * @return The longitude of the point in decimal degrees.
+     */
+    public double longitude(int point) {
+        return longitudes[point];
+    }
+
+    /**
+     * @return The frequency of the navaid (MHz for a VOR, kHz for an NDB), or
+     *         {@code NaN} if it is not known.
+     */
+    public double frequency(int point) {
+        return frequencies[point];
+    }
+
+    /**
+     * @return The first outgoing edge of the point. The edges of the point
+     *         end before {@code edgeStart(point + 1)}.
+     */
+    public int edgeStart(int point) {
+        return edgeStart[point];
+    }
+
+    /**
+     * @return The point the edge leads to.
+     */
+    public int edgeTarget(int edge) {
+        return edgeTarget[edge];
+    }
+
+    /**
+     * @return The name of the airway of the edge.
+     */
+    public @NotNull String edgeAirway(int edge) {
+        return airways[edgeAirway[edge]];
+    }
+
+    /**
+     * @return The great-circle length of the edge in nautical miles.
+     */
+    public double edgeLengthNm(int edge) {
+        return edgeLength[edge];
+    }
+
+    public int segmentFrom(int segment) {
+        return segmentFrom[segment];
+    }
+
+    public int segmentTo(int segment) {
+        return segmentTo[segment];
+    }
+
+    public @NotNull String segmentAirway(int segment) {
+        return airways[segmentAirway[segment]];
+    }
+
+    /**
+     * @return {@code True}, if the segment is flown in both directions.
+     */
+    public boolean isBidirectional(int segment) {
+        return segmentBoth[segment];
+    }
+
+    /**
+     * @return The great-circle distance of two points in nautical miles.
+     */
+    public double distanceNm(int from, int to) {
+        return GreatCircle.distanceNm(latitudes[from], longitudes[from], latitudes[to], longitudes[to]);
+    }
+
+    /**
+     * Packs the identifier and the region into one number. Every character is
+     * one base-{@value #radix} digit: 0 for the padding, 1 - 26 for the
+     * letters and 27 - 36 for the digits.
+     *
+     * @return The key, or 0 if the identifier or the region is not valid.
+     */
+    static long key(@NotNull CharSequence ident, @NotNull CharSequence region) {
+        if (ident.length() == 0 || ident.length() > maxIdentLength || region.length() != regionLength) return 0;
+        long key = 0;
+        for (int i = 0; i < maxIdentLength; i++) {
+            int digit = i < ident.length() ? digit(ident.charAt(i)) : 0;
+            if (digit < 0) return 0;
+            key = key * radix + digit;
+        }
+        for (int i = 0; i < regionLength; i++) {
+            int digit = digit(region.charAt(i));
+            if (digit <= 0) return 0;
+            key = key * radix + digit;
+        }
+        return key;
+    }
+
+    private static int digit(char c) {
+        if (c >= 'A' && c <= 'Z') return c - 'A' + 1;
+        if (c >= '0' && c <= '9') return c - '0' + 27;
+        return -1;
+    }
+
+    private static @NotNull String decode(long value, int length) {
+        char[] chars = new char[length];
+        int end = length;
+        for (int i = length - 1; i >= 0; i--) {
+            int digit = (int) (value % radix);
+            value /= radix;
+            if (digit == 0) end = i;
+            chars[i] = digit <= 26 ? (char) ('A' + digit - 1) : (char) ('0' + digit - 27);
+        }
+        return new String(chars, 0, end);
+    }
+
+    private static long pow(int exponent) {
+        long result = 1;
+        for (int i = 0; i < exponent; i++) result *= radix;
+        return result;
+    }
+
+    /**
+     * The builder collecting the points and the segments of the graph.
+     */
+    static final class Builder {
+
+        private int pointCount = 0, segmentCount = 0;
+        private long[] keys;
+        private byte[] pointTypes;
+        private double[] latitudes, longitudes;
+        private float[] frequencies;
+        private final LongIntHashMap index;
+        private final List<String> airwayNames = new ArrayList<>();
+        private final Map<String, Integer> airwayIndices = new HashMap<>();
+        private int[] segmentFrom, segmentTo, segmentAirway;
+        private boolean[] segmentBoth;
+
+        /**
+         * @param expectedPoints The expected number of the points.
+         */
+        Builder(int expectedPoints) {
+            int capacity = Math.max(16, expectedPoints);
+            keys = new long[capacity];
+            pointTypes = new byte[capacity];
+            latitudes = new double[capacity];
+            longitudes = new double[capacity];
+            frequencies = new float[capacity];
+            index = new LongIntHashMap(capacity);
+            segmentFrom = new int[capacity];
+            segmentTo = new int[capacity];
+            segmentAirway = new int[capacity];
+            segmentBoth = new boolean[capacity];
+        }
+
+        int pointCount() {
+            return pointCount;
+        }
+
+        /**
+         * @param key The key of the point, see {@link NavGraph#key}.
+         * @return The number of the point, or -1 if there is no such point.
+         */
+        int indexOf(long key) {
+            return index.get(key, -1);
+        }
+
+        @NotNull String region(int point) {
+            return decode(keys[point] % pow(regionLength), regionLength);
+        }
+
+        double latitude(int point) {
+            return latitudes[point];
+        }
+
+        double longitude(int point) {
+            return longitudes[point];
+        }
+
+        /**
+         * Adds the point.
+         *
+         * @param key The key of the point, see {@link NavGraph#key}.
+         * @return The number of the added point, or -1 if a point with the
+         *         same key exists already.
+         */
+        int addPoint(@NotNull NavPointType type, long key, double latitude, double longitude, double frequency) {
+            if (index.putIfAbsent(key, pointCount, -1) >= 0) return -1;
+            if (pointCount == keys.length) {
+                int capacity = pointCount * 2;
+                keys = Arrays.copyOf(keys, capacity);
+                pointTypes = Arrays.copyOf(pointTypes, capacity);
+                latitudes = Arrays.copyOf(latitudes, capacity);
+                longitudes = Arrays.copyOf(longitudes, capacity);
+                frequencies = Arrays.copyOf(frequencies, capacity);
+            }
+            keys[pointCount] = key;
+            pointTypes[pointCount] = (byte) type.ordinal();
+            latitudes[pointCount] = latitude;
+            longitudes[pointCount] = longitude;
+            frequencies[pointCount] = (float) frequency;
+            return pointCount++;
+        }
+
+        /**
+         * Adds the airway segment between two points already added.
+         */
+        void addSegment(@NotNull String airway, int from, int to, boolean bidirectional) {
+            if (segmentCount == segmentFrom.length) {
+                int capacity = segmentCount * 2;
+                segmentFrom = Arrays.copyOf(segmentFrom, capacity);
+                segmentTo = Arrays.copyOf(segmentTo, capacity);
+                segmentAirway = Arrays.copyOf(segmentAirway, capacity);
+                segmentBoth = Arrays.copyOf(segmentBoth, capacity);
+            }
+            Integer airwayIndex = airwayIndices.get(airway);
+            if (airwayIndex == null) {
+                airwayIndex = airwayNames.size();
+                airwayNames.add(airway);
+                airwayIndices.put(airway, airwayIndex);
+            }
+            segmentFrom[segmentCount] = from;
+            segmentTo[segmentCount] = to;
+            segmentAirway[segmentCount] = airwayIndex;
+            segmentBoth[segmentCount] = bidirectional;
+            segmentCount++;
+        }
+
+        @NotNull NavGraph build() {
+            return new NavGraph(this);
+        }
+    }
+}
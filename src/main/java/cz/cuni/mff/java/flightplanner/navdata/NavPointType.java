@@ -0,0 +1,11 @@
+package cz.cuni.mff.java.flightplanner.navdata;
+
+/**
+ * NavPointType enum class classifies the points of the navigation database.
+ * The name of the constant is the record type used in the FPNAV format.
+ */
+public enum NavPointType {
+    VOR,
+    NDB,
+    FIX
+}
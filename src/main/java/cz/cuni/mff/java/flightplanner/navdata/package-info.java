@@ -0,0 +1,30 @@
+/**
+ * The package contains the navigation database of the waypoints and airways:
+ * its open text format, the fast loader building the compact in-memory
+ * {@link cz.cuni.mff.java.flightplanner.navdata.NavGraph}, the writer and the
+ * generator of the synthetic datasets.
+ * <p>
+ * The format ("FPNAV") is the line-oriented text in the ASCII encoding. The
+ * first line is the header {@code FPNAV,1} (the name and the version of the
+ * format). The empty lines and the lines starting with {@code #} are ignored.
+ * The other lines are the comma separated records:
+ * <pre>
+ * VOR|NDB|FIX,IDENT,REGION,LATITUDE,LONGITUDE[,FREQUENCY]
+ * SEG,AIRWAY,FROM IDENT,FROM REGION,TO IDENT,TO REGION[,B|F]
+ * </pre>
+ * <ul>
+ *     <li>The point records define the navaids and the fixes. The identifier
+ *         has 1 to 10 characters and the region (e.g. the first two letters
+ *         of the ICAO codes of the area) has 2 characters, both consist of
+ *         the capital letters and the digits. The pair (identifier, region)
+ *         is unique. The coordinates are in decimal degrees, the frequency is
+ *         in MHz for a VOR and in kHz for an NDB.</li>
+ *     <li>The segment records define the airway segments between the points
+ *         defined on the preceding lines. The segment is flown in both
+ *         directions ({@code B}, the default) or only from the first point to
+ *         the second one ({@code F}).</li>
+ * </ul>
+ *
+ * @author Viktor Bujko
+ */
+package cz.cuni.mff.java.flightplanner.navdata;
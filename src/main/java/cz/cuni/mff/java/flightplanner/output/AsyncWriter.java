@@ -0,0 +1,147 @@
+package cz.cuni.mff.java.flightplanner.output;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Arrays;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import cz.cuni.mff.java.flightplanner.util.NotNull;
+import cz.cuni.mff.java.flightplanner.util.Nullable;
+
+/**
+ * The AsyncWriter class writes the output of several streams on its own
+ * thread, so that the plugins do not wait for the disk. The streams created by
+ * {@link #wrap(OutputStream)} only pass the written blocks to the queue of the
+ * writer. The blocks of one stream are written in the order of their
+ * arrival. When the queue is full, the writing plugin waits until there is
+ * room for the next block, so the memory used by the queue stays bounded.
+ * <p>
+ * The errors of the writer thread are reported when the writer is closed.
+ */
+public class AsyncWriter implements Closeable {
+
+    private enum Kind { WRITE, FLUSH, CLOSE, STOP }
+
+    private static class Task {
+        private final Kind kind;
+        private final OutputStream target;
+        private final byte[] data;
+
+        private Task(@NotNull Kind kind, @Nullable OutputStream target, @Nullable byte[] data) {
+            this.kind = kind;
+            this.target = target;
+            this.data = data;
+        }
+    }
+
+    private final BlockingQueue<Task> queue;
+    private final Thread thread;
+    private volatile IOException error = null;
+
+    /**
+     * Starts the writer thread.
+     *
+     * @param capacity The maximal number of the blocks waiting to be written.
+     */
+    public AsyncWriter(int capacity) {
+        this.queue = new ArrayBlockingQueue<>(Math.max(1, capacity));
+        this.thread = new Thread(this::writeAll, "output-writer");
+        this.thread.setDaemon(true);
+        this.thread.start();
+    }
+
+    /**
+     * Creates the stream whose output is written by the writer thread. Closing
+     * the stream closes the {@code target} after all its blocks are written.
+     *
+     * @param target The stream to be written by the writer thread.
+     * @return The stream passing the blocks to the writer thread.
+     */
+    public @NotNull OutputStream wrap(@NotNull OutputStream target) {
+        return new OutputStream() {
+            private boolean closed = false;
+
+            @Override
+            public void write(int b) throws IOException {
+                write(new byte[] { (byte) b }, 0, 1);
+            }
+
+            @Override
+            public void write(@NotNull byte[] b, int off, int len) throws IOException {
+                if (closed) throw new IOException("The stream is closed.");
+                if (len > 0) submit(new Task(Kind.WRITE, target, Arrays.copyOfRange(b, off, off + len)));
+            }
+
+            @Override
+            public void flush() throws IOException {
+                if (!closed) submit(new Task(Kind.FLUSH, target, null));
+            }
+
+            @Override
+            public void close() throws IOException {
+                if (closed) return;
+                closed = true;
+                submit(new Task(Kind.CLOSE, target, null));
+            }
+        };
+    }
+
+    /**
+     * Waits until all the queued blocks are written and stops the writer
+     * thread.
+     *
+     * @throws IOException if any block could not be written.
+     */
+    @Override
+    public void close() throws IOException {
+        if (thread.isAlive()) {
+            submit(new Task(Kind.STOP, null, null));
+            try {
+                thread.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException("The writing of the output was interrupted.");
+            }
+        }
+        if (error != null) throw error;
+    }
+
+    private void submit(@NotNull Task task) throws IOException {
+        try {
+            queue.put(task);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("The writing of the output was interrupted.");
+        }
+    }
+
+    private void writeAll() {
+        while (true) {
+            Task task;
+            try {
+                task = queue.take();
+            } catch (InterruptedException e) {
+                return;
+            }
+            if (task.kind == Kind.STOP) return;
+            try {
+                switch (task.kind) {
+                    case WRITE:
+                        task.target.write(task.data);
+                        break;
+                    case FLUSH:
+                        task.target.flush();
+                        break;
+                    case CLOSE:
+                        task.target.close();
+                        break;
+                    default:
+                        break;
+                }
+            } catch (IOException e) {
+                if (error == null) error = e;
+            }
+        }
+    }
+}
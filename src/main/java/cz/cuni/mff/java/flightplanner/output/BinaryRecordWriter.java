@@ -0,0 +1,121 @@
+package cz.cuni.mff.java.flightplanner.output;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+import cz.cuni.mff.java.flightplanner.util.NotNull;
+import cz.cuni.mff.java.flightplanner.util.Nullable;
+
+/**
+ * The BinaryRecordWriter class writes the records in a compact binary row
+ * format. The stream starts with the magic bytes "FPRB" and the version byte
+ * {@value #version}. Each record is the sequence of its fields terminated by
+ * the {@value #endOfRecord} byte. A field consists of
+ * <ul>
+ *     <li>the type byte: 1 missing value, 2 text, 3 number, 4 integer,
+ *         5 false, 6 true,</li>
+ *     <li>the index of the field name as an unsigned variable-length integer
+ *         (7 bits per byte, the least significant group first). The index
+ *         equal to the number of the names defined so far defines a new name,
+ *         it is followed by the length and the UTF-8 bytes of the name,</li>
+ *     <li>the value: a text as its length and UTF-8 bytes, a number as the
+ *         8-byte IEEE 754 value (big-endian), an integer as the zig-zag
+ *         encoded variable-length integer. The other types have no value.</li>
+ * </ul>
+ * The field names are therefore written only once per stream.
+ */
+public class BinaryRecordWriter implements RecordWriter {
+
+    private static final int version = 1, endOfRecord = 0;
+    private static final int typeMissing = 1, typeText = 2, typeNumber = 3, typeInteger = 4,
+                             typeFalse = 5, typeTrue = 6;
+
+    private final DataOutputStream out;
+    private final Map<String, Integer> names = new HashMap<>();
+    private boolean headerWritten = false;
+
+    /**
+     * @param out The stream the records are written to.
+     */
+    public BinaryRecordWriter(@NotNull OutputStream out) {
+        this.out = new DataOutputStream(out);
+    }
+
+    @Override
+    public void beginRecord() throws IOException {
+        if (!headerWritten) {
+            out.write(new byte[] { 'F', 'P', 'R', 'B', version });
+            headerWritten = true;
+        }
+    }
+
+    @Override
+    public void string(@NotNull String name, @Nullable String value) throws IOException {
+        if (value == null) {
+            field(typeMissing, name);
+            return;
+        }
+        field(typeText, name);
+        text(value);
+    }
+
+    @Override
+    public void number(@NotNull String name, double value) throws IOException {
+        if (Double.isNaN(value) || Double.isInfinite(value)) {
+            field(typeMissing, name);
+            return;
+        }
+        field(typeNumber, name);
+        out.writeDouble(value);
+    }
+
+    @Override
+    public void integer(@NotNull String name, long value) throws IOException {
+        field(typeInteger, name);
+        varint((value << 1) ^ (value >> 63));
+    }
+
+    @Override
+    public void bool(@NotNull String name, boolean value) throws IOException {
+        field(value ? typeTrue : typeFalse, name);
+    }
+
+    @Override
+    public void endRecord() throws IOException {
+        out.write(endOfRecord);
+    }
+
+    @Override
+    public void flush() throws IOException {
+        out.flush();
+    }
+
+    private void field(int type, @NotNull String name) throws IOException {
+        out.write(type);
+        Integer index = names.get(name);
+        if (index != null) {
+            varint(index);
+        } else {
+            varint(names.size());
+            text(name);
+            names.put(name, names.size());
+        }
+    }
+
+    private void text(@NotNull String value) throws IOException {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        varint(bytes.length);
+        out.write(bytes);
+    }
+
+    private void varint(long value) throws IOException {
+        while ((value & ~0x7FL) != 0) {
+            out.write((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.write((int) value);
+    }
+}
@@ -0,0 +1,103 @@
+package cz.cuni.mff.java.flightplanner.output;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import cz.cuni.mff.java.flightplanner.util.NotNull;
+import cz.cuni.mff.java.flightplanner.util.Nullable;
+
+/**
+ * The CsvWriter class writes the records as the comma separated values
+ * (RFC 4180). The header line with the field names is written before the
+ * first record. The values containing a comma, a quote or a line break are
+ * quoted, the missing values are left empty.
+ */
+public class CsvWriter implements RecordWriter {
+
+    private final Writer out;
+    /**
+     * The fields of the first record, kept until the header is written.
+     */
+    private List<String> header = new ArrayList<>(), firstValues = new ArrayList<>();
+    private boolean firstField = true;
+
+    /**
+     * @param out The stream the UTF-8 encoded lines are written to.
+     */
+    public CsvWriter(@NotNull OutputStream out) {
+        this.out = new OutputStreamWriter(out, StandardCharsets.UTF_8);
+    }
+
+    @Override
+    public void beginRecord() {
+        firstField = true;
+    }
+
+    @Override
+    public void string(@NotNull String name, @Nullable String value) throws IOException {
+        field(name, value == null ? "" : escape(value));
+    }
+
+    @Override
+    public void number(@NotNull String name, double value) throws IOException {
+        String text = NumberText.of(value);
+        field(name, text == null ? "" : text);
+    }
+
+    @Override
+    public void integer(@NotNull String name, long value) throws IOException {
+        field(name, Long.toString(value));
+    }
+
+    @Override
+    public void bool(@NotNull String name, boolean value) throws IOException {
+        field(name, value ? "true" : "false");
+    }
+
+    @Override
+    public void endRecord() throws IOException {
+        if (header != null) {
+            for (int i = 0; i < header.size(); i++) {
+                if (i > 0) out.write(',');
+                out.write(escape(header.get(i)));
+            }
+            out.write("\r\n");
+            for (int i = 0; i < firstValues.size(); i++) {
+                if (i > 0) out.write(',');
+                out.write(firstValues.get(i));
+            }
+            header = null;
+            firstValues = null;
+        }
+        out.write("\r\n");
+    }
+
+    @Override
+    public void flush() throws IOException {
+        out.flush();
+    }
+
+    private void field(@NotNull String name, @NotNull String text) throws IOException {
+        if (header != null) {
+            header.add(name);
+            firstValues.add(text);
+            return;
+        }
+        if (!firstField) out.write(',');
+        firstField = false;
+        out.write(text);
+    }
+
+    private static @NotNull String escape(@NotNull String value) {
+        boolean quote = false;
+        for (int i = 0; i < value.length() && !quote; i++) {
+            char c = value.charAt(i);
+            quote = c == ',' || c == '"' || c == '\n' || c == '\r';
+        }
+        return quote ? '"' + value.replace("\"", "\"\"") + '"' : value;
+    }
+}
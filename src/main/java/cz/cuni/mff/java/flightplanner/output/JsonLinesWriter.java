@@ -0,0 +1,75 @@
+package cz.cuni.mff.java.flightplanner.output;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import cz.cuni.mff.java.flightplanner.util.NotNull;
+import cz.cuni.mff.java.flightplanner.util.Nullable;
+
+/**
+ * The JsonLinesWriter class writes every record as one JSON object on its own
+ * line (the JSON Lines format). The missing values are written as JSON null.
+ */
+public class JsonLinesWriter implements RecordWriter {
+
+    private final Writer out;
+    private boolean firstField = true;
+
+    /**
+     * @param out The stream the UTF-8 encoded lines are written to.
+     */
+    public JsonLinesWriter(@NotNull OutputStream out) {
+        this.out = new OutputStreamWriter(out, StandardCharsets.UTF_8);
+    }
+
+    @Override
+    public void beginRecord() throws IOException {
+        out.write('{');
+        firstField = true;
+    }
+
+    @Override
+    public void string(@NotNull String name, @Nullable String value) throws IOException {
+        name(name);
+        if (value == null) out.write("null");
+        else JsonText.quote(out, value);
+    }
+
+    @Override
+    public void number(@NotNull String name, double value) throws IOException {
+        name(name);
+        JsonText.number(out, value);
+    }
+
+    @Override
+    public void integer(@NotNull String name, long value) throws IOException {
+        name(name);
+        out.write(Long.toString(value));
+    }
+
+    @Override
+    public void bool(@NotNull String name, boolean value) throws IOException {
+        name(name);
+        out.write(value ? "true" : "false");
+    }
+
+    @Override
+    public void endRecord() throws IOException {
+        out.write('}');
+        out.write('\n');
+    }
+
+    @Override
+    public void flush() throws IOException {
+        out.flush();
+    }
+
+    private void name(@NotNull String name) throws IOException {
+        if (!firstField) out.write(',');
+        firstField = false;
+        JsonText.quote(out, name);
+        out.write(':');
+    }
+}
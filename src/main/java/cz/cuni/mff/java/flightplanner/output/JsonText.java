@@ -0,0 +1,66 @@
+package cz.cuni.mff.java.flightplanner.output;
+
+import java.io.IOException;
+import cz.cuni.mff.java.flightplanner.util.NotNull;
+
+/**
+ * The JsonText class contains the text of the JSON values shared by all the
+ * JSON writers: the quoted and escaped strings and the numbers. Both the
+ * JSON Lines records and the documents of the query service are written by
+ * it, so that the same value looks the same in both outputs.
+ */
+public final class JsonText {
+
+    private JsonText() {
+    }
+
+    /**
+     * Appends the text as a JSON string. The quote, the backslash and the
+     * control characters are escaped.
+     *
+     * @param out  The text the string is appended to.
+     * @param text The string to be quoted.
+     * @throws IOException if the text can not be appended.
+     */
+    public static void quote(@NotNull Appendable out, @NotNull String text) throws IOException {
+        out.append('"');
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            switch (c) {
+                case '"':
+                    out.append("\\\"");
+                    break;
+                case '\\':
+                    out.append("\\\\");
+                    break;
+                case '\n':
+                    out.append("\\n");
+                    break;
+                case '\r':
+                    out.append("\\r");
+                    break;
+                case '\t':
+                    out.append("\\t");
+                    break;
+                default:
+                    if (c < 0x20) out.append(String.format("\\u%04x", (int) c));
+                    else out.append(c);
+                    break;
+            }
+        }
+        out.append('"');
+    }
+
+    /**
+     * Appends the number formatted by {@link NumberText#of(double)},
+     * {@code NaN} and the infinite values as JSON null.
+     *
+     * @param out   The text the number is appended to.
+     * @param value The number.
+     * @throws IOException if the text can not be appended.
+     */
+    public static void number(@NotNull Appendable out, double value) throws IOException {
+        String text = NumberText.of(value);
+        out.append(text == null ? "null" : text);
+    }
+}
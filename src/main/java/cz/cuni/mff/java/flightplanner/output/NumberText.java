@@ -0,0 +1,29 @@
+package cz.cuni.mff.java.flightplanner.output;
+
+import cz.cuni.mff.java.flightplanner.util.Nullable;
+
+/**
+ * The NumberText class formats the numbers of the text outputs. The CSV, the
+ * JSON Lines and the JSON documents of the query service all write a number
+ * by it, so that the same value looks the same in all of them and only the
+ * missing value is written in the way of the format.
+ */
+public final class NumberText {
+
+    private NumberText() {
+    }
+
+    /**
+     * Formats the number. The whole numbers are written without the decimal
+     * point, the other numbers as {@link Double#toString(double)}.
+     *
+     * @param value The number.
+     * @return The text of the number, or {@code null} for {@code NaN} and the
+     *         infinite values, which are missing values in every format.
+     */
+    public static @Nullable String of(double value) {
+        if (Double.isNaN(value) || Double.isInfinite(value)) return null;
+        if (value == Math.rint(value) && Math.abs(value) < 1e15) return Long.toString((long) value);
+        return Double.toString(value);
+    }
+}
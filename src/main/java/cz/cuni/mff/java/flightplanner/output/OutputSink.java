@@ -0,0 +1,146 @@
+package cz.cuni.mff.java.flightplanner.output;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import cz.cuni.mff.java.flightplanner.util.NotNull;
+import cz.cuni.mff.java.flightplanner.util.Nullable;
+
+/**
+ * The OutputSink class is the destination of one report, either the screen or
+ * a file. The text printed by the {@link #printer()} is kept in a large buffer
+ * and written to the underlying stream only when the buffer is full, when the
+ * sink is flushed or when it is closed.
+ * <p>
+ * The sink owns the file streams and closes them together with itself. The
+ * standard output and the standard error stream are only flushed, they stay
+ * open for the rest of the program.
+ */
+public class OutputSink implements Closeable {
+
+    /**
+     * The default size of the buffer in bytes.
+     */
+    public static final int defaultBufferSize = 1 << 16;
+
+    private final PrintStream printer;
+    private final boolean fileOutput;
+    private final @Nullable OutputSinks owner;
+    private boolean closed = false;
+
+    /**
+     * @param target     The stream the output is written to.
+     * @param fileOutput The flag indicating that the sink owns the target and
+     *                   closes it.
+     * @param bufferSize The size of the buffer in bytes.
+     * @param autoFlush  The flag indicating that the buffer is flushed after
+     *                   every line, used when the output is interleaved with
+     *                   the questions for the user.
+     * @param owner      The manager of the sink, or {@code null}.
+     */
+    OutputSink(@NotNull OutputStream target, boolean fileOutput, int bufferSize, boolean autoFlush,
+               @Nullable OutputSinks owner) {
+        OutputStream stream = fileOutput ? target : new ConsoleStream(target);
+        this.printer = new PrintStream(new BufferedOutputStream(stream, Math.max(1, bufferSize)), autoFlush);
+        this.fileOutput = fileOutput;
+        this.owner = owner;
+    }
+
+    /**
+     * Creates the sink which is not managed by any {@link OutputSinks}. The
+     * caller is responsible for closing it.
+     *
+     * @param target      The stream the output is written to. Any stream other
+     *                    than the standard output and error stream is
+     *                    considered to be a file and is closed with the sink.
+     * @param interactive The flag indicating that the output is interleaved
+     *                    with the questions for the user, therefore the screen
+     *                    output has to be flushed after every line.
+     * @return The new sink.
+     */
+    public static @NotNull OutputSink of(@NotNull OutputStream target, boolean interactive) {
+        boolean fileOutput = !isConsole(target);
+        return new OutputSink(target, fileOutput, defaultBufferSize, interactive && !fileOutput, null);
+    }
+
+    /**
+     * @param target The stream to be checked.
+     * @return {@code True}, if the stream is the current standard output or
+     *         error stream.
+     */
+    static boolean isConsole(@NotNull OutputStream target) {
+        return target == System.out || target == System.err;
+    }
+
+    /**
+     * @return The printer writing into this sink.
+     */
+    public @NotNull PrintStream printer() {
+        return printer;
+    }
+
+    /**
+     * @return {@code True}, if the sink writes to a file.
+     */
+    public boolean isFileOutput() {
+        return fileOutput;
+    }
+
+    /**
+     * Writes the buffered output to the underlying stream.
+     */
+    public void flush() {
+        printer.flush();
+    }
+
+    /**
+     * Writes the buffered output and closes the file. The screen output is
+     * only flushed. Closing the sink repeatedly has no effect.
+     */
+    @Override
+    public void close() {
+        synchronized (this) {
+            if (closed) return;
+            closed = true;
+        }
+        printer.close();
+        if (printer.checkError()) {
+            System.err.println("The output could not be written completely.");
+        }
+        if (owner != null) owner.closed(this);
+    }
+
+    /**
+     * The view of the console stream which is never closed and which passes
+     * the whole blocks to the console.
+     */
+    private static class ConsoleStream extends OutputStream {
+        private final OutputStream console;
+
+        private ConsoleStream(@NotNull OutputStream console) {
+            this.console = console;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            console.write(b);
+        }
+
+        @Override
+        public void write(@NotNull byte[] b, int off, int len) throws IOException {
+            console.write(b, off, len);
+        }
+
+        @Override
+        public void flush() throws IOException {
+            console.flush();
+        }
+
+        @Override
+        public void close() throws IOException {
+            console.flush();
+        }
+    }
+}
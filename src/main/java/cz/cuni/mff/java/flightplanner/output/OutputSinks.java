@@ -0,0 +1,92 @@
+package cz.cuni.mff.java.flightplanner.output;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import cz.cuni.mff.java.flightplanner.util.NotNull;
+import cz.cuni.mff.java.flightplanner.util.Nullable;
+
+/**
+ * The OutputSinks class manages the lifecycle of all the sinks opened during
+ * one run. The sinks which the plugins leave open are flushed and closed
+ * together with the manager. If the asynchronous writing is enabled, the file
+ * sinks are written by a single {@link AsyncWriter} thread shared by all the
+ * sinks, the screen output is always written directly to keep its order with
+ * the rest of the console output.
+ */
+public class OutputSinks implements AutoCloseable {
+
+    private static final int asyncQueueCapacity = 64;
+
+    private final int bufferSize;
+    private final @Nullable AsyncWriter writer;
+    private final List<OutputSink> open = new ArrayList<>();
+
+    /**
+     * @param bufferSize The size of the buffer of each sink in bytes.
+     * @param async      The flag indicating that the files are written by
+     *                   the separate writer thread.
+     */
+    public OutputSinks(int bufferSize, boolean async) {
+        this.bufferSize = bufferSize;
+        this.writer = async ? new AsyncWriter(asyncQueueCapacity) : null;
+    }
+
+    /**
+     * Creates the sink writing to the {@code target}.
+     *
+     * @param target The stream the output is written to. Any stream other than
+     *               the standard output and error stream is considered to be a
+     *               file and is closed with the sink.
+     * @return The new sink.
+     */
+    public @NotNull OutputSink open(@NotNull OutputStream target) {
+        boolean fileOutput = !OutputSink.isConsole(target);
+        OutputStream stream = fileOutput && writer != null ? writer.wrap(target) : target;
+        OutputSink sink = new OutputSink(stream, fileOutput, bufferSize, false, this);
+        synchronized (open) {
+            open.add(sink);
+        }
+        return sink;
+    }
+
+    /**
+     * @return The number of the sinks which are still open.
+     */
+    public int openCount() {
+        synchronized (open) {
+            return open.size();
+        }
+    }
+
+    /**
+     * Removes the closed sink from the open ones.
+     */
+    void closed(@NotNull OutputSink sink) {
+        synchronized (open) {
+            open.remove(sink);
+        }
+    }
+
+    /**
+     * Closes all the sinks which are still open and waits until the writer
+     * thread writes all their output.
+     */
+    @Override
+    public void close() {
+        List<OutputSink> remaining;
+        synchronized (open) {
+            remaining = new ArrayList<>(open);
+        }
+        remaining.forEach(OutputSink::close);
+        if (writer != null) {
+            try {
+                writer.close();
+            } catch (IOException e) {
+                System.err.println("The output could not be written completely: %MSG"
+                                   .replace("%MSG", String.valueOf(e.getMessage())));
+            }
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package cz.cuni.mff.java.flightplanner.output;
+
+import java.io.OutputStream;
+import cz.cuni.mff.java.flightplanner.util.NotNull;
+import cz.cuni.mff.java.flightplanner.util.Nullable;
+
+/**
+ * The forms in which the reports can be written. The {@link #TEXT} form is the
+ * human-readable report, the other forms are the machine-readable records
+ * written by a {@link RecordWriter}.
+ */
+public enum RecordFormat {
+    TEXT("text", "txt", false),
+    JSONL("jsonl", "jsonl", false),
+    CSV("csv", "csv", false),
+    BINARY("binary", "bin", true);
+
+    private final String keyword, fileExtension;
+    private final boolean binary;
+
+    RecordFormat(@NotNull String keyword, @NotNull String fileExtension, boolean binary) {
+        this.keyword = keyword;
+        this.fileExtension = fileExtension;
+        this.binary = binary;
+    }
+
+    /**
+     * @return The name of the format used in the parameters and the prompts.
+     */
+    public @NotNull String getKeyword() {
+        return keyword;
+    }
+
+    /**
+     * @return The extension of the files written in this format.
+     */
+    public @NotNull String getFileExtension() {
+        return fileExtension;
+    }
+
+    /**
+     * @return {@code True}, if the format can not be printed on the screen.
+     */
+    public boolean isBinary() {
+        return binary;
+    }
+
+    /**
+     * Creates the writer of the records in this format.
+     *
+     * @param out The stream the records are written to.
+     * @return The writer, or {@code null} for the {@link #TEXT} format.
+     */
+    public @Nullable RecordWriter open(@NotNull OutputStream out) {
+        switch (this) {
+            case JSONL:
+                return new JsonLinesWriter(out);
+            case CSV:
+                return new CsvWriter(out);
+            case BINARY:
+                return new BinaryRecordWriter(out);
+            default:
+                return null;
+        }
+    }
+
+    /**
+     * @param keyword The name of the format, case-insensitive.
+     * @return The format with the given name, or {@code null} if there is no
+     *         such format.
+     */
+    public static @Nullable RecordFormat of(@NotNull String keyword) {
+        for (RecordFormat format : values()) {
+            if (format.keyword.equalsIgnoreCase(keyword.strip())) return format;
+        }
+        return null;
+    }
+}
@@ -0,0 +1,62 @@
+package cz.cuni.mff.java.flightplanner.output;
+
+import java.io.Flushable;
+import java.io.IOException;
+import cz.cuni.mff.java.flightplanner.util.NotNull;
+import cz.cuni.mff.java.flightplanner.util.Nullable;
+
+/**
+ * {@code RecordWriter} interface represents the streaming encoder of the flat
+ * records, e.g. one runway of an airport or one decoded METAR. Each record is
+ * written as soon as its fields are given, so the whole report is never kept
+ * in the memory. The records of one report always contain the same fields in
+ * the same order.
+ * <p>
+ * The writer does not own the underlying stream: {@link #flush()} writes the
+ * pending data to it, but the stream is closed by its owner.
+ */
+public interface RecordWriter extends Flushable {
+
+    /**
+     * Starts a new record.
+     *
+     * @throws IOException if the record can not be written.
+     */
+    void beginRecord() throws IOException;
+
+    /**
+     * @param name  The name of the field.
+     * @param value The text value, {@code null} if not available.
+     * @throws IOException if the field can not be written.
+     */
+    void string(@NotNull String name, @Nullable String value) throws IOException;
+
+    /**
+     * @param name  The name of the field.
+     * @param value The numeric value. {@code NaN} and the infinite values are
+     *              written as missing values.
+     * @throws IOException if the field can not be written.
+     */
+    void number(@NotNull String name, double value) throws IOException;
+
+    /**
+     * @param name  The name of the field.
+     * @param value The integral value.
+     * @throws IOException if the field can not be written.
+     */
+    void integer(@NotNull String name, long value) throws IOException;
+
+    /**
+     * @param name  The name of the field.
+     * @param value The boolean value.
+     * @throws IOException if the field can not be written.
+     */
+    void bool(@NotNull String name, boolean value) throws IOException;
+
+    /**
+     * Finishes the current record.
+     *
+     * @throws IOException if the record can not be written.
+     */
+    void endRecord() throws IOException;
+}
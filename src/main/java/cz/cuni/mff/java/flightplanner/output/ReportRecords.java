@@ -0,0 +1,133 @@
+package cz.cuni.mff.java.flightplanner.output;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileReader;
+import java.io.IOException;
+import cz.cuni.mff.java.flightplanner.dataobject.Airport;
+import cz.cuni.mff.java.flightplanner.dataobject.Observation;
+import cz.cuni.mff.java.flightplanner.dataobject.Runway;
+import cz.cuni.mff.java.flightplanner.dataobject.WeatherConditions;
+import cz.cuni.mff.java.flightplanner.dataobject.Wind;
+import cz.cuni.mff.java.flightplanner.util.METARDecoder;
+import cz.cuni.mff.java.flightplanner.util.NotNull;
+
+/**
+ * The ReportRecords class converts the airport and weather reports into the
+ * flat records written by a {@link RecordWriter}. The records of one report
+ * kind always have the same fields, so that they can be written as the
+ * columns of a table.
+ */
+public final class ReportRecords {
+
+    private ReportRecords() {
+    }
+
+    /**
+     * Writes one record for each runway of the airport. The airport fields
+     * are repeated in every record. The airport without any runway is written
+     * as one record with the missing runway fields.
+     *
+     * @param writer  The writer of the records.
+     * @param airport The airport to be written.
+     * @throws IOException if the records can not be written.
+     */
+    public static void writeAirport(@NotNull RecordWriter writer, @NotNull Airport airport) throws IOException {
+        if (airport.getRunways().isEmpty()) {
+            writer.beginRecord();
+            airportFields(writer, airport);
+            runwayFields(writer, null);
+            writer.endRecord();
+        }
+        for (Runway runway : airport.getRunways()) {
+            writer.beginRecord();
+            airportFields(writer, airport);
+            runwayFields(writer, runway);
+            writer.endRecord();
+        }
+    }
+
+    /**
+     * Decodes the METARs of the file and writes one record for each of them.
+     * The file is read line by line, the entries which can not be decoded are
+     * skipped.
+     *
+     * @param writer    The writer of the records.
+     * @param metarFile The file with the METAR entries in the .csv format.
+     * @return The number of the written records.
+     * @throws IOException if the file can not be read or the records can not
+     *         be written.
+     */
+    public static int writeObservations(@NotNull RecordWriter writer, @NotNull File metarFile) throws IOException {
+        int count = 0;
+        try (BufferedReader br = new BufferedReader(new FileReader(metarFile))) {
+            String line;
+            while ((line = br.readLine()) != null) {
+                Observation observation = METARDecoder.decodeObservation(line);
+                if (observation == null) continue;
+                writeObservation(writer, observation);
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Writes the record of one decoded METAR.
+     *
+     * @param writer      The writer of the records.
+     * @param observation The decoded METAR.
+     * @throws IOException if the record can not be written.
+     */
+    public static void writeObservation(@NotNull RecordWriter writer, @NotNull Observation observation)
+            throws IOException {
+        WeatherConditions conditions = observation.getConditions();
+        Wind wind = conditions.getWind();
+        writer.beginRecord();
+        writer.string("icao", observation.getIcaoCode());
+        writer.string("type", observation.getType());
+        writer.string("time", observation.getTime().toInstant().toString());
+        writer.string("wind_direction", wind == null ? null
+                                        : wind.isVariable() ? "VRB" : String.valueOf(wind.getDirection()));
+        writer.number("wind_speed_kt", wind == null ? Double.NaN : wind.getSpeed());
+        writer.number("wind_gust_kt", wind == null ? Double.NaN : wind.getGust());
+        writer.number("visibility_m", conditions.getVisibility());
+        writer.number("ceiling_ft", conditions.getCeiling());
+        writer.bool("no_ceiling", conditions.getCeiling() == Double.POSITIVE_INFINITY);
+        writer.string("phenomena", conditions.getPhenomena() == null ? null
+                                   : String.join(" ", conditions.getPhenomena()));
+        writer.bool("windshear", conditions.isWindshear());
+        writer.string("flight_category", conditions.getFlightCategory().name());
+        writer.string("raw", observation.getRaw());
+        writer.endRecord();
+    }
+
+    private static void airportFields(@NotNull RecordWriter writer, @NotNull Airport airport) throws IOException {
+        writer.string("icao", airport.getIcaoCode());
+        writer.string("name", airport.getName());
+        writer.string("municipality", airport.getMunicipality());
+        writer.string("country", airport.getCountryCode());
+        writer.string("category", airport.getCat().name());
+        writer.number("latitude", value(airport.getGeoLat()));
+        writer.number("longitude", value(airport.getGeoLong()));
+        writer.number("elevation_ft", value(airport.getElevation()));
+    }
+
+    private static void runwayFields(@NotNull RecordWriter writer, Runway runway) throws IOException {
+        boolean known = runway != null;
+        writer.string("runway", known ? runway.getIdentification() : null);
+        writer.number("length_ft", known ? value(runway.getLength()) : Double.NaN);
+        writer.number("width_ft", known ? value(runway.getWidth()) : Double.NaN);
+        writer.string("surface", known && runway.getCoverage().length() > 1 ? runway.getCoverage() : null);
+        writer.string("threshold_elevations_ft", known && !runway.getElevations().contains("UNKNOWN")
+                                                 ? runway.getElevations() : null);
+        writer.number("threshold1_latitude", known ? value(runway.getThr1Coordinates()[0]) : Double.NaN);
+        writer.number("threshold1_longitude", known ? value(runway.getThr1Coordinates()[1]) : Double.NaN);
+        writer.number("threshold2_latitude", known ? value(runway.getThr2Coordinates()[0]) : Double.NaN);
+        writer.number("threshold2_longitude", known ? value(runway.getThr2Coordinates()[1]) : Double.NaN);
+    }
+
+    private static double value(Double number) {
+        return number == null ? Double.NaN : number;
+    }
+}
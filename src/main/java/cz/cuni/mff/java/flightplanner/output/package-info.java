@@ -0,0 +1,12 @@
+/**
+ * The package contains the output sinks which the plugins print their results
+ * into. The sinks buffer the output in large blocks, so that a report of many
+ * airports is not written line by line, and they take care of flushing and
+ * closing the underlying streams. The file output can optionally be written
+ * by a separate writer thread. Besides the text reports, the airports and the
+ * decoded METARs can be written as machine-readable records (JSON Lines, CSV
+ * or a compact binary format) by the streaming {@code RecordWriter}s.
+ *
+ * @author Viktor Bujko
+ */
+package cz.cuni.mff.java.flightplanner.output;
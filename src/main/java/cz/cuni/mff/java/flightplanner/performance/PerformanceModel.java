@@ -0,0 +1,52 @@
+package cz.cuni.mff.java.flightplanner.performance;
+
+import cz.cuni.mff.java.flightplanner.util.NotNull;
+
+/**
+ * The performance model of an aircraft estimating the time and the fuel of
+ * one leg from its great-circle distance and the wind components. The
+ * estimates are evaluated by the route search for every candidate leg, so they
+ * should take constant time and create no objects.
+ * <p>
+ * The route search relies on the leg never being faster than the cruise:
+ * {@code legTimeHours(d, tailwind, crosswind) >= d / (getCruiseSpeedKt() + tailwind)}.
+ */
+public interface PerformanceModel {
+
+    /**
+     * @return The type of the aircraft, e.g. "C172".
+     */
+    @NotNull String getType();
+
+    /**
+     * @return The true airspeed in the cruise in knots.
+     */
+    double getCruiseSpeedKt();
+
+    /**
+     * @return The cruise altitude in feet.
+     */
+    double getCruiseAltitudeFt();
+
+    /**
+     * @param distanceNm  The great-circle distance of the leg in nautical
+     *                    miles.
+     * @param tailwindKt  The wind component along the leg in knots, negative
+     *                    for the headwind.
+     * @param crosswindKt The wind component across the leg in knots.
+     * @return The time of the leg in hours, or the positive infinity if the
+     *         aircraft can not fly the leg against the wind.
+     */
+    double legTimeHours(double distanceNm, double tailwindKt, double crosswindKt);
+
+    /**
+     * @param distanceNm  The great-circle distance of the leg in nautical
+     *                    miles.
+     * @param tailwindKt  The wind component along the leg in knots, negative
+     *                    for the headwind.
+     * @param crosswindKt The wind component across the leg in knots.
+     * @return The fuel burnt on the leg in kilograms, or the positive infinity
+     *         if the aircraft can not fly the leg against the wind.
+     */
+    double legFuelKg(double distanceNm, double tailwindKt, double crosswindKt);
+}
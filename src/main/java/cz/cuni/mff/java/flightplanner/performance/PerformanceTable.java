@@ -0,0 +1,145 @@
+package cz.cuni.mff.java.flightplanner.performance;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import cz.cuni.mff.java.flightplanner.util.NotNull;
+import cz.cuni.mff.java.flightplanner.util.Nullable;
+import cz.cuni.mff.java.flightplanner.util.ResourceLocator;
+
+/**
+ * The PerformanceTable class holds the {@link ProfilePerformance performance
+ * profiles} of the aircraft types read from a .csv table. The first line which
+ * is not a comment is the header:
+ * <pre>
+ * type,description,cruise_altitude_ft,climb_min,climb_nm,climb_fuel_kg,cruise_tas_kt,cruise_fuel_kg_h,descent_min,descent_nm,descent_fuel_kg
+ * </pre>
+ * and every following line is the profile of one aircraft type. The lines
+ * starting with '#' and the empty lines are skipped. The default table is the
+ * {@value #resourceName} resource.
+ */
+public final class PerformanceTable {
+
+    public static final String resourceName = "aircraftPerformance.csv";
+    private static final String header = "type,description,cruise_altitude_ft,climb_min,climb_nm,climb_fuel_kg," +
+                                         "cruise_tas_kt,cruise_fuel_kg_h,descent_min,descent_nm,descent_fuel_kg";
+    private static final int fieldCount = 11;
+    private static volatile PerformanceTable defaultTable;
+
+    private final Map<String, ProfilePerformance> profiles;
+
+    private PerformanceTable(@NotNull Map<String, ProfilePerformance> profiles) {
+        this.profiles = Collections.unmodifiableMap(profiles);
+    }
+
+    /**
+     * Reads the default table once and remembers it.
+     *
+     * @return The table of the {@value #resourceName} resource, or
+     *         {@code null} if it can not be read. The error is reported to the
+     *         user.
+     */
+    public static @Nullable PerformanceTable ofResource() {
+        PerformanceTable table = defaultTable;
+        if (table != null) return table;
+        BufferedReader reader = ResourceLocator.openReader(resourceName);
+        if (reader == null) return null;
+        try (BufferedReader br = reader) {
+            table = read(br);
+        } catch (IOException e) {
+            System.err.println("The aircraft performance table %FILE is not correct: %MSG"
+                               .replace("%FILE", resourceName)
+                               .replace("%MSG", e.getMessage()));
+            return null;
+        }
+        defaultTable = table;
+        return table;
+    }
+
+    /**
+     * @param file The .csv file of the table.
+     * @return The table, or {@code null} if the file can not be read. The
+     *         error is reported to the user.
+     */
+    public static @Nullable PerformanceTable load(@NotNull Path file) {
+        try (BufferedReader br = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            return read(br);
+        } catch (IOException e) {
+            System.err.println("The aircraft performance table %FILE could not be read: %MSG"
+                               .replace("%FILE", file.toString())
+                               .replace("%MSG", e.getMessage()));
+            return null;
+        }
+    }
+
+    /**
+     * @param reader The reader of the table.
+     * @return The table.
+     * @throws IOException if the table can not be read or is not correct. The
+     *         message contains the number of the incorrect line.
+     */
+    public static @NotNull PerformanceTable read(@NotNull BufferedReader reader) throws IOException {
+        Map<String, ProfilePerformance> profiles = new LinkedHashMap<>();
+        boolean headerRead = false;
+        int lineNumber = 0;
+        String line;
+        while ((line = reader.readLine()) != null) {
+            lineNumber++;
+            line = line.strip();
+            if (line.isEmpty() || line.startsWith("#")) continue;
+            if (!headerRead) {
+                if (!line.equals(header)) throw error(lineNumber, "Unexpected header.");
+                headerRead = true;
+                continue;
+            }
+            String[] fields = line.split(",", -1);
+            if (fields.length != fieldCount) throw error(lineNumber, "Expected %N fields."
+                                                                      .replace("%N", String.valueOf(fieldCount)));
+            String type = fields[0].strip().toUpperCase();
+            if (type.isEmpty()) throw error(lineNumber, "Missing aircraft type.");
+            double[] values = new double[fieldCount - 2];
+            for (int i = 0; i < values.length; i++) {
+                try {
+                    values[i] = Double.parseDouble(fields[i + 2].strip());
+                } catch (NumberFormatException e) {
+                    throw error(lineNumber, "Incorrect number.");
+                }
+            }
+            try {
+                profiles.put(type, new ProfilePerformance(type, fields[1].strip(), values[0], values[1], values[2],
+                                                          values[3], values[4], values[5], values[6], values[7],
+                                                          values[8]));
+            } catch (IllegalArgumentException e) {
+                throw error(lineNumber, e.getMessage());
+            }
+        }
+        if (!headerRead) throw error(lineNumber, "Missing header.");
+        return new PerformanceTable(profiles);
+    }
+
+    /**
+     * @param type The aircraft type, not case-sensitive.
+     * @return The performance profile of the type, or {@code null} if the
+     *         table does not contain it.
+     */
+    public @Nullable ProfilePerformance find(@NotNull String type) {
+        return profiles.get(type.strip().toUpperCase());
+    }
+
+    /**
+     * @return The aircraft types in the order of the table.
+     */
+    public @NotNull Set<String> types() {
+        return profiles.keySet();
+    }
+
+    private static @NotNull IOException error(int line, @NotNull String message) {
+        return new IOException("Line %LINE: %MSG".replace("%LINE", String.valueOf(line)).replace("%MSG", message));
+    }
+}
@@ -0,0 +1,132 @@
+package cz.cuni.mff.java.flightplanner.performance;
+
+import cz.cuni.mff.java.flightplanner.util.NotNull;
+
+/**
+ * The ProfilePerformance class is the performance model given by the three
+ * phases of the flight: the climb to the cruise altitude, the cruise and the
+ * descent. The climb and the descent are given by their time, air distance
+ * and fuel, the cruise by the true airspeed and the fuel flow.
+ * <p>
+ * The wind changes the ground distance of the climb and the descent by the
+ * tailwind component only; in the cruise the ground speed follows from the
+ * wind triangle. A leg shorter than the climb and the descent together is
+ * flown as their proportional part, without any cruise.
+ */
+public final class ProfilePerformance implements PerformanceModel {
+
+    private final String type, description;
+    private final double cruiseAltitudeFt, climbHours, climbNm, climbFuelKg, cruiseSpeedKt, cruiseFuelKgPerHour,
+                         descentHours, descentNm, descentFuelKg;
+
+    /**
+     * @param type                The type of the aircraft.
+     * @param description         The name of the aircraft.
+     * @param cruiseAltitudeFt    The cruise altitude in feet.
+     * @param climbMinutes        The time of the climb in minutes.
+     * @param climbNm             The air distance of the climb in nautical
+     *                            miles.
+     * @param climbFuelKg         The fuel of the climb in kilograms.
+     * @param cruiseSpeedKt       The true airspeed in the cruise in knots.
+     * @param cruiseFuelKgPerHour The fuel flow in the cruise in kilograms per
+     *                            hour.
+     * @param descentMinutes      The time of the descent in minutes.
+     * @param descentNm           The air distance of the descent in nautical
+     *                            miles.
+     * @param descentFuelKg       The fuel of the descent in kilograms.
+     * @throws IllegalArgumentException if any of the values is negative, the
+     *         cruise speed is not positive or the climb or the descent is
+     *         faster than the cruise.
+     */
+    public ProfilePerformance(@NotNull String type, @NotNull String description, double cruiseAltitudeFt,
+                              double climbMinutes, double climbNm, double climbFuelKg,
+                              double cruiseSpeedKt, double cruiseFuelKgPerHour,
+                              double descentMinutes, double descentNm, double descentFuelKg) {
+        for (double value : new double[] { cruiseAltitudeFt, climbMinutes, climbNm, climbFuelKg, cruiseFuelKgPerHour,
+                                           descentMinutes, descentNm, descentFuelKg }) {
+            if (!(value >= 0) || Double.isInfinite(value)) {
+                throw new IllegalArgumentException("The performance of %TYPE contains a negative or unknown value."
+                                                   .replace("%TYPE", type));
+            }
+        }
+        if (!(cruiseSpeedKt > 0) || Double.isInfinite(cruiseSpeedKt)) {
+            throw new IllegalArgumentException("The cruise speed of %TYPE has to be a positive number."
+                                               .replace("%TYPE", type));
+        }
+        if (climbNm * 60 > cruiseSpeedKt * climbMinutes || descentNm * 60 > cruiseSpeedKt * descentMinutes) {
+            throw new IllegalArgumentException("The climb and the descent of %TYPE can not be faster than the cruise."
+                                               .replace("%TYPE", type));
+        }
+        this.type = type;
+        this.description = description;
+        this.cruiseAltitudeFt = cruiseAltitudeFt;
+        this.climbHours = climbMinutes / 60;
+        this.climbNm = climbNm;
+        this.climbFuelKg = climbFuelKg;
+        this.cruiseSpeedKt = cruiseSpeedKt;
+        this.cruiseFuelKgPerHour = cruiseFuelKgPerHour;
+        this.descentHours = descentMinutes / 60;
+        this.descentNm = descentNm;
+        this.descentFuelKg = descentFuelKg;
+    }
+
+    @Override
+    public @NotNull String getType() {
+        return type;
+    }
+
+    public @NotNull String getDescription() {
+        return description;
+    }
+
+    @Override
+    public double getCruiseAltitudeFt() {
+        return cruiseAltitudeFt;
+    }
+
+    @Override
+    public double getCruiseSpeedKt() {
+        return cruiseSpeedKt;
+    }
+
+    @Override
+    public double legTimeHours(double distanceNm, double tailwindKt, double crosswindKt) {
+        double groundSpeed = cruiseGroundSpeed(tailwindKt, crosswindKt),
+               profileNm = profileGroundNm(tailwindKt);
+        if (!(groundSpeed > 0)) return Double.POSITIVE_INFINITY;
+        if (distanceNm < profileNm) return (climbHours + descentHours) * distanceNm / profileNm;
+        return climbHours + descentHours + (distanceNm - profileNm) / groundSpeed;
+    }
+
+    @Override
+    public double legFuelKg(double distanceNm, double tailwindKt, double crosswindKt) {
+        double groundSpeed = cruiseGroundSpeed(tailwindKt, crosswindKt),
+               profileNm = profileGroundNm(tailwindKt);
+        if (!(groundSpeed > 0)) return Double.POSITIVE_INFINITY;
+        if (distanceNm < profileNm) return (climbFuelKg + descentFuelKg) * distanceNm / profileNm;
+        return climbFuelKg + descentFuelKg + (distanceNm - profileNm) / groundSpeed * cruiseFuelKgPerHour;
+    }
+
+    /**
+     * @return The ground speed in the cruise given by the wind triangle, zero
+     *         or negative if the aircraft can not make any progress.
+     */
+    private double cruiseGroundSpeed(double tailwindKt, double crosswindKt) {
+        double along = cruiseSpeedKt * cruiseSpeedKt - crosswindKt * crosswindKt;
+        return along > 0 ? Math.sqrt(along) + tailwindKt : 0;
+    }
+
+    /**
+     * @return The ground distance of the climb and the descent. The distance
+     *         is never zero, so that a short leg is always a part of them.
+     */
+    private double profileGroundNm(double tailwindKt) {
+        return Math.max(Double.MIN_NORMAL, Math.max(0, climbNm + tailwindKt * climbHours) +
+                                           Math.max(0, descentNm + tailwindKt * descentHours));
+    }
+
+    @Override
+    public String toString() {
+        return type + " (" + description + ")";
+    }
+}
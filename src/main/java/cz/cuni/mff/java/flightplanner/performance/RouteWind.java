@@ -0,0 +1,129 @@
+package cz.cuni.mff.java.flightplanner.performance;
+
+import cz.cuni.mff.java.flightplanner.dataobject.Wind;
+import cz.cuni.mff.java.flightplanner.util.NotNull;
+import cz.cuni.mff.java.flightplanner.util.Nullable;
+
+/**
+ * The RouteWind class is the uniform wind assumed along the whole route. It
+ * is the mean of the surface winds reported at the departure and the
+ * destination airports, averaged as vectors. The variable wind has no known
+ * direction, so it counts as calm; a missing report is left out of the mean.
+ * <p>
+ * The wind is split into the tailwind and the crosswind components of a leg
+ * either by the course of the leg or, without any trigonometric function, by
+ * the unit vectors of the leg end points. The instances are immutable.
+ */
+public final class RouteWind {
+
+    /**
+     * The calm wind used when no wind is known.
+     */
+    public static final RouteWind calm = new RouteWind(0, 0);
+
+    /**
+     * The components of the velocity of the air in knots, pointing where the
+     * wind blows to.
+     */
+    private final double eastKt, northKt;
+
+    private RouteWind(double eastKt, double northKt) {
+        this.eastKt = eastKt;
+        this.northKt = northKt;
+    }
+
+    /**
+     * @param departure   The wind reported at the departure airport, or
+     *                    {@code null} if it is not known.
+     * @param destination The wind reported at the destination airport, or
+     *                    {@code null} if it is not known.
+     * @return The mean wind of the route, {@link #calm} if neither wind is
+     *         known.
+     */
+    public static @NotNull RouteWind of(@Nullable Wind departure, @Nullable Wind destination) {
+        if (departure == null && destination == null) return calm;
+        double east = 0, north = 0;
+        int count = 0;
+        for (Wind wind : new Wind[] { departure, destination }) {
+            if (wind == null) continue;
+            count++;
+            if (wind.isVariable()) continue;
+            double from = Math.toRadians(wind.getDirection());
+            east -= wind.getSpeed() * Math.sin(from);
+            north -= wind.getSpeed() * Math.cos(from);
+        }
+        return new RouteWind(east / count, north / count);
+    }
+
+    /**
+     * @return The wind speed in knots.
+     */
+    public double getSpeedKt() {
+        return Math.hypot(eastKt, northKt);
+    }
+
+    /**
+     * @return The direction the wind blows from in degrees (1 - 360), or 0 if
+     *         the wind is calm.
+     */
+    public int getDirection() {
+        if (eastKt == 0 && northKt == 0) return 0;
+        long direction = Math.round(Math.toDegrees(Math.atan2(-eastKt, -northKt)));
+        return (int) (direction <= 0 ? direction + 360 : direction);
+    }
+
+    /**
+     * @param courseDeg The true course in degrees.
+     * @return The wind component along the course in knots, negative for the
+     *         headwind.
+     */
+    public double tailwindKt(double courseDeg) {
+        double course = Math.toRadians(courseDeg);
+        return eastKt * Math.sin(course) + northKt * Math.cos(course);
+    }
+
+    /**
+     * @param courseDeg The true course in degrees.
+     * @return The size of the wind component across the course in knots.
+     */
+    public double crosswindKt(double courseDeg) {
+        double course = Math.toRadians(courseDeg);
+        return Math.abs(eastKt * Math.cos(course) - northKt * Math.sin(course));
+    }
+
+    /**
+     * Splits the wind into the components of the leg between two points given
+     * by their unit vectors. The direction of the leg is the direction of its
+     * chord in the local east and north axes at the middle of the leg, so only
+     * the square roots are computed. Both components are zero for a leg of
+     * zero length or a leg whose middle is a pole.
+     *
+     * @param result The array receiving the tailwind component (negative for
+     *               the headwind) at index 0 and the size of the crosswind
+     *               component at index 1, in knots.
+     */
+    public void components(double x1, double y1, double z1, double x2, double y2, double z2,
+                           @NotNull double[] result) {
+        result[0] = 0;
+        result[1] = 0;
+        if (eastKt == 0 && northKt == 0) return;
+        double mx = x1 + x2, my = y1 + y2, mz = z1 + z2,
+               horizontal2 = mx * mx + my * my;
+        if (horizontal2 == 0) return;
+        double horizontal = Math.sqrt(horizontal2),
+               length = Math.sqrt(horizontal2 + mz * mz),
+               dx = x2 - x1, dy = y2 - y1, dz = z2 - z1,
+               east = (mx * dy - my * dx) / horizontal,
+               north = (horizontal2 * dz - mz * (mx * dx + my * dy)) / (horizontal * length),
+               chord = Math.sqrt(east * east + north * north);
+        if (chord == 0) return;
+        result[0] = (eastKt * east + northKt * north) / chord;
+        result[1] = Math.abs(eastKt * north - northKt * east) / chord;
+    }
+
+    @Override
+    public String toString() {
+        if (eastKt == 0 && northKt == 0) return "calm";
+        return String.format("%03d/%02.0f KT", getDirection(), getSpeedKt());
+    }
+}
@@ -0,0 +1,10 @@
+/**
+ * The package contains the aircraft performance models estimating the time
+ * and the fuel of the legs of a route. The models are cheap enough to be
+ * evaluated by the route search for every candidate leg. The wind of a route
+ * is derived from the surface winds reported at its departure and
+ * destination airports.
+ *
+ * @author Viktor Bujko
+ */
+package cz.cuni.mff.java.flightplanner.performance;
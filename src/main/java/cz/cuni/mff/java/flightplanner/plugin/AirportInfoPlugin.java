@@ -1,6 +1,7 @@
 package cz.cuni.mff.java.flightplanner.plugin;
 
 import java.io.FileOutputStream;
+import java.io.IOException;
 import java.io.OutputStream;
 import java.io.PrintStream;
 import java.text.DecimalFormat;
@@ -9,6 +10,12 @@ import cz.cuni.mff.java.flightplanner.dataobject.Airport;
 import cz.cuni.mff.java.flightplanner.DialogCenter;
 import cz.cuni.mff.java.flightplanner.util.Utilities;
 import cz.cuni.mff.java.flightplanner.dataobject.Runway;
+import cz.cuni.mff.java.flightplanner.output.OutputSink;
+import cz.cuni.mff.java.flightplanner.output.RecordFormat;
+import cz.cuni.mff.java.flightplanner.output.RecordWriter;
+import cz.cuni.mff.java.flightplanner.output.ReportRecords;
+import cz.cuni.mff.java.flightplanner.template.Template;
+import cz.cuni.mff.java.flightplanner.template.Templates;
 import cz.cuni.mff.java.flightplanner.util.NotNull;
 
 /**
@@ -20,6 +27,26 @@ public class AirportInfoPlugin implements Plugin {
     private OutputStream outStream = null;
     private static final double ftToM = 0.3048;
     private static final DecimalFormat decForm = new DecimalFormat("#.###");
+    /**
+     * The templates of the runway description, parsed once when the class is
+     * loaded.
+     */
+    private static final Template
+            coverageTemplate = Templates.compile("airport.runway.coverage",
+                                                 "\tThe runway is made of: %COVERAGE",
+                                                 "COVERAGE"),
+            thresholdTemplate = Templates.compile("airport.runway.threshold",
+                                                  "\t\tLatitude  threshold %ID: %LAT\n\t\tLongitude threshold %ID: %LONG",
+                                                  "ID", "LAT", "LONG"),
+            dimensionsTemplate = Templates.compile("airport.runway.dimensions",
+                                                   "\tThe length: %LENGTH feet (%LCONV meters)\n\tThe width : %WIDTH feet (%WCONV meters).",
+                                                   "LENGTH", "LCONV", "WIDTH", "WCONV"),
+            elevationTemplate = Templates.compile("airport.runway.elevation",
+                                                  "\tThe elevation at the thresholds is %ELEV feet %FCONV/%SCONV (respectively to the runway identification %ID).",
+                                                  "ELEV", "FCONV", "SCONV", "ID"),
+            unknownElevationTemplate = Templates.compile("airport.runway.elevation.unknown",
+                                                         "\tThe elevation of the threshold(s) of the runway %ID is unknown.",
+                                                         "ID");
 
     @Override
     public String name() { return this.getClass().getName(); }
@@ -57,10 +84,12 @@ public class AirportInfoPlugin implements Plugin {
                                            false);
         if (foundAirports == null) return 1;                         // returns the exit code if searchAirports fails
 
+        RecordFormat format = DialogCenter.chooseFormat("");
         if (autoOutputManagement)
             outStream = DialogCenter.chooseOutputForm("",
                                                       false,
-                                                      null);
+                                                      null,
+                                                      format);
         for (Airport apt : foundAirports) {
             String icao = apt.getIcaoCode();
 
@@ -69,57 +98,163 @@ public class AirportInfoPlugin implements Plugin {
                         DialogCenter.chooseOutputForm(" for %ICAO airport"
                                                           .replace("%ICAO", icao),
                                                       true,
-                                                      icao + "_INFO");
+                                                      icao + "_INFO",
+                                                      format);
             }
             else {
                 if (outStream.getClass().isAssignableFrom(FileOutputStream.class))
                     outStream =
                         DialogCenter.setFileOutputStream(false,
-                                                         icao + "_INFO");
+                                                         icao + "_INFO",
+                                                         format.getFileExtension());
             }
-            PrintStream pr = new PrintStream(outStream);
-            pr.println(Utilities.sectionSeparator("Information about %s airport"
-                                                  .replace("%s",icao)));
-            pr.printf("The ICAO (International civil aviation organization) code of this airport is: %s%n" +
-                      "The %s airport is situated in: %s, %s.%n" +
-                      "It is a %s.%n",  icao,      apt.getName(),
-                                        apt.getMunicipality(),  apt.getCountryCode(),
-                                        apt.getCat().name().replace("_", " size ")
-                     );
-            pr.printf("The coordinates of %s are: %.4f, %.4f and its elevation is: %.0f feet (%.1f meters above sea level).%n",
-                        apt.getName(),      apt.getGeoLat(),
-                        apt.getGeoLong(),   apt.getElevation(),
-                        Utilities.unitsConverter(apt.getElevation(), ftToM)
-                     );
-            String append_S = apt.getRunways().size() > 1 ? "s" : "";
-
-            pr.printf("This airport has %d runway%s available:%n", apt.getRunways().size(), append_S);
-            for (Runway rwy : apt.getRunways()) {
-                String ident = rwy.getIdentification();
-                pr.printf("Runway identification is: %s.%n", ident);
-                if (!rwy.isDetailed()) {
-                    pr.println("ATTENTION! The runway %ID is in the database, but no enough data about it are provided."
-                               .replace("%ID", ident));
+            try (OutputSink sink = OutputSink.of(outStream, true)) {
+                if (format == RecordFormat.TEXT || (format.isBinary() && !sink.isFileOutput())) {
+                    printAirport(apt, sink.printer());
+                    sink.printer().printf("%n");
+                } else if (writeRecords(List.of(apt), format, sink) != 0) {
+                    return 1;
                 }
-                pr.println(lengthAndWidth(rwy));
-                pr.println(elevation(rwy));
-                pr.println(coverage(rwy));
-                pr.println("\tThe geographic location of the thresholds is:");
-                pr.println(thresholdGeoLoc(ident, rwy.getThr1Coordinates()));
-                pr.println(thresholdGeoLoc(ident, rwy.getThr2Coordinates()));
             }
-            pr.println(Utilities.sectionSeparator("End of information about %ICAO airport."
-                                                   .replace("%ICAO", icao)));
-            pr.printf("%n");
             if (outStream.getClass().isAssignableFrom(FileOutputStream.class)) {
-                pr = System.out; // changes the output stream to its default value
-                pr.println("\nInformation about %ICAO airport has been successfully written to the file.\n"
+                System.out.println("\nInformation about %ICAO airport has been successfully written to the file.\n"
                            .replace("%ICAO",icao));
             }
         }
         return 0;
     }
 
+    /**
+     * Asks the user for the airports and the output form, so that the plugin
+     * can be run by {@link #action(PluginParameters, PluginContext)}
+     * concurrently with the other plugins.
+     *
+     * @return The parameters of the plugin.
+     */
+    @Override
+    public @NotNull PluginParameters prepare(@NotNull PluginContext context) {
+        ParameterPrompts prompts = new ParameterPrompts(this, context);
+        if (prompts.airports()) prompts.output();
+        return prompts.toParameters();
+    }
+
+    /**
+     * The non-interactive variant of {@link #action()}. The airports and the
+     * output form are taken from the {@code parameters}.
+     *
+     * @param parameters The parameters of the non-interactive run.
+     * @return The exit code of the action. Any non-zero code means that an issue
+     *         has occurred.
+     */
+    @Override
+    public int action(@NotNull PluginParameters parameters) {
+        try (PluginContext context = new PluginContext()) {
+            return action(parameters, context);
+        }
+    }
+
+    /**
+     * The context-aware variant of {@link #action(PluginParameters)}. The
+     * airports found by another plugin of the run are not searched for again.
+     *
+     * @param parameters The parameters of the plugin.
+     * @param context    The context shared by the plugins of the run.
+     * @return The exit code of the action. Any non-zero code means that an issue
+     *         has occurred.
+     */
+    @Override
+    public int action(@NotNull PluginParameters parameters, @NotNull PluginContext context) {
+        List<Airport> foundAirports = context.findAirports(parameters);
+        if (foundAirports == null) return 1;
+        if (parameters.getFormat() != RecordFormat.TEXT) {
+            if (parameters.isFileOutput()) {
+                for (Airport apt : foundAirports) {
+                    try (OutputSink sink = context.openOutput(parameters, apt.getIcaoCode() + "_INFO")) {
+                        if (writeRecords(List.of(apt), parameters.getFormat(), sink) != 0) return 1;
+                    }
+                }
+                return 0;
+            }
+            try (OutputSink sink = context.openOutput(parameters, "AIRPORTS")) {
+                return writeRecords(foundAirports, parameters.getFormat(), sink);
+            }
+        }
+        for (Airport apt : foundAirports) {
+            try (OutputSink sink = context.openOutput(parameters, apt.getIcaoCode() + "_INFO")) {
+                printAirport(apt, sink.printer());
+                sink.printer().printf("%n");
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * Writes the airports and their runways as the machine-readable records.
+     *
+     * @param airports The airports to be written.
+     * @param format   The format of the records.
+     * @param sink     The sink the records are written to.
+     * @return The exit code of the action. Any non-zero code means that an issue
+     *         has occurred.
+     */
+    private int writeRecords(@NotNull List<Airport> airports, @NotNull RecordFormat format,
+                             @NotNull OutputSink sink) {
+        RecordWriter writer = format.open(sink.printer());
+        if (writer == null) return 1;
+        try {
+            for (Airport apt : airports) {
+                ReportRecords.writeAirport(writer, apt);
+            }
+            writer.flush();
+            return 0;
+        } catch (IOException e) {
+            System.err.println("The records of the airports could not be written.");
+            return 1;
+        }
+    }
+
+    /**
+     * Prints all the information about the airport and its runways.
+     *
+     * @param apt The airport to be described.
+     * @param pr  The printer used for printing.
+     */
+    private void printAirport(@NotNull Airport apt, @NotNull PrintStream pr) {
+        String icao = apt.getIcaoCode();
+        pr.println(Utilities.sectionSeparator("Information about %s airport"
+                                              .replace("%s",icao)));
+        pr.printf("The ICAO (International civil aviation organization) code of this airport is: %s%n" +
+                  "The %s airport is situated in: %s, %s.%n" +
+                  "It is a %s.%n",  icao,      apt.getName(),
+                                    apt.getMunicipality(),  apt.getCountryCode(),
+                                    apt.getCat().name().replace("_", " size ")
+                 );
+        pr.printf("The coordinates of %s are: %.4f, %.4f and its elevation is: %.0f feet (%.1f meters above sea level).%n",
+                    apt.getName(),      apt.getGeoLat(),
+                    apt.getGeoLong(),   apt.getElevation(),
+                    Utilities.unitsConverter(apt.getElevation(), ftToM)
+                 );
+        String append_S = apt.getRunways().size() > 1 ? "s" : "";
+
+        pr.printf("This airport has %d runway%s available:%n", apt.getRunways().size(), append_S);
+        for (Runway rwy : apt.getRunways()) {
+            String ident = rwy.getIdentification();
+            pr.printf("Runway identification is: %s.%n", ident);
+            if (!rwy.isDetailed()) {
+                pr.println("ATTENTION! The runway %ID is in the database, but no enough data about it are provided."
+                           .replace("%ID", ident));
+            }
+            pr.println(lengthAndWidth(rwy));
+            pr.println(elevation(rwy));
+            pr.println(coverage(rwy));
+            pr.println("\tThe geographic location of the thresholds is:");
+            pr.println(thresholdGeoLoc(ident, rwy.getThr1Coordinates()));
+            pr.println(thresholdGeoLoc(ident, rwy.getThr2Coordinates()));
+        }
+        pr.println(Utilities.sectionSeparator("End of information about %ICAO airport."
+                                               .replace("%ICAO", icao)));
+    }
+
     /**
      * Sets the runway coverage {@code String} result based on the information
      * about given {@code Runway} in the rwy parameter.
@@ -131,8 +266,7 @@ public class AirportInfoPlugin implements Plugin {
         String coverage = rwy.getCoverage();
 
         if (coverage.length() > 1)
-            return "\tThe runway is made of: %COVERAGE"
-                   .replace("%COVERAGE", coverage);
+            return coverageTemplate.render(coverage);
         else return "\tThe material used for the runway construction is not specified or unknown";
     }
 
@@ -154,10 +288,7 @@ public class AirportInfoPlugin implements Plugin {
             ? "UNKNOWN"
             : String.valueOf(coordinates[1]);
 
-        return "\t\tLatitude  threshold %ID: %LAT\n\t\tLongitude threshold %ID: %LONG"
-               .replaceAll("%ID",icaoID.substring(0,idSlashIndex))
-               .replace("%LAT", latitude)
-               .replace("%LONG",longitude);
+        return thresholdTemplate.render(icaoID.substring(0,idSlashIndex), latitude, longitude);
     }
 
     /**
@@ -172,11 +303,7 @@ public class AirportInfoPlugin implements Plugin {
                width = rwy.getWidth();
         String trLength = decForm.format(Utilities.unitsConverter(length, ftToM));
         String trWidth  = decForm.format(Utilities.unitsConverter(width,ftToM));
-        return "\tThe length: %LENGTH feet (%LCONV meters)\n\tThe width : %WIDTH feet (%WCONV meters)."
-               .replace("%LENGTH",String.valueOf(length))
-               .replace("%WIDTH", String.valueOf(width))
-               .replace("%LCONV", trLength)
-               .replace("%WCONV", trWidth);
+        return dimensionsTemplate.render(length, trLength, width, trWidth);
     }
 
 
@@ -193,22 +320,18 @@ public class AirportInfoPlugin implements Plugin {
 
         int elevSlashIndex = elev.indexOf("/");
         if(!elev.contains("UNKNOWN")) {
-            return  "\tThe elevation at the thresholds is %ELEV feet %FCONV/%SCONV (respectively to the runway identification %ID)."
-                    .replace("%ELEV", elev)
-                    .replace("%FCONV",
-                             Utilities.conversion(true,
-                                                            elev.substring(0, elevSlashIndex),
-                                                            ftToM,
-                                                            "meters"))
-                    .replace("%SCONV",
-                             Utilities.conversion(true,
-                                                             elev.substring(elevSlashIndex + 1),
-                                                             ftToM,
-                                                             "meters"))
-                    .replace("%ID",ident);
+            return elevationTemplate.render(elev,
+                                            Utilities.conversion(true,
+                                                                 elev.substring(0, elevSlashIndex),
+                                                                 ftToM,
+                                                                 "meters"),
+                                            Utilities.conversion(true,
+                                                                 elev.substring(elevSlashIndex + 1),
+                                                                 ftToM,
+                                                                 "meters"),
+                                            ident);
         } else {
-            return "\tThe elevation of the threshold(s) of the runway %ID is unknown."
-                   .replace("%ID",ident);
+            return unknownElevationTemplate.render(ident);
         }
     }
 
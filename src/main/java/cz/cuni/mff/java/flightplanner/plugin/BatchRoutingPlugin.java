@@ -0,0 +1,309 @@
+package cz.cuni.mff.java.flightplanner.plugin;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.InvalidPathException;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.StringJoiner;
+import cz.cuni.mff.java.flightplanner.export.PlanFormat;
+import cz.cuni.mff.java.flightplanner.output.OutputSink;
+import cz.cuni.mff.java.flightplanner.output.RecordWriter;
+import cz.cuni.mff.java.flightplanner.performance.PerformanceModel;
+import cz.cuni.mff.java.flightplanner.performance.RouteWind;
+import cz.cuni.mff.java.flightplanner.routing.AirportGraph;
+import cz.cuni.mff.java.flightplanner.routing.BatchRouter;
+import cz.cuni.mff.java.flightplanner.routing.FlightEstimate;
+import cz.cuni.mff.java.flightplanner.routing.LandmarkIndex;
+import cz.cuni.mff.java.flightplanner.routing.Route;
+import cz.cuni.mff.java.flightplanner.routing.RouteConstraint;
+import cz.cuni.mff.java.flightplanner.routing.RouteOptions;
+import cz.cuni.mff.java.flightplanner.routing.RouteRestrictions;
+import cz.cuni.mff.java.flightplanner.util.NotNull;
+import cz.cuni.mff.java.flightplanner.util.Nullable;
+import cz.cuni.mff.java.flightplanner.util.Utilities;
+
+/**
+ * The BatchRoutingPlugin class plans the routes of many origin/destination
+ * pairs read from a file. The pairs are planned in parallel by the
+ * {@link BatchRouter} and their routes are written in the order of the file
+ * as soon as a block of them is done, one line or record per pair.
+ * <p>
+ * Every line of the file contains the ICAO codes of the departure and the
+ * destination airports separated by a comma, a semicolon or white space. The
+ * empty lines, the lines starting with '#' and the header "from,to" are
+ * skipped, the pairs with an unknown airport are reported and skipped.
+ * <p>
+ * The range, the stop penalty, the runway constraints and the aircraft
+ * performance are the same as of the {@link CreateFlightPlanPlugin}. The
+ * weather is not taken into account, so the time and the fuel are estimated
+ * in the calm wind. The found routes can be exported in the formats of the
+ * {@link PlanExport}, either into a single file or into many files of the
+ * given number of the routes.
+ */
+public class BatchRoutingPlugin implements Plugin {
+
+    @Override
+    public String name() { return this.getClass().getName(); }
+
+    @Override
+    public String description() { return "Plan the routes of the origin/destination pairs read from a file."; }
+
+    @Override
+    public String keyword() { return "batch routes"; }
+
+    @Override
+    public Integer pluginID() { return 8; }
+
+    /**
+     * Lets the user choose the file of the pairs and the options of the search
+     * and writes the planned routes.
+     *
+     * @return The exit code of the action. Any non-zero code means that an issue
+     *         has occurred.
+     */
+    @Override
+    public int action() {
+        try (PluginContext context = new PluginContext()) {
+            return action(prepare(context), context);
+        }
+    }
+
+    /**
+     * Asks the user for the file of the pairs, the range of the aircraft, the
+     * stop penalty, the minimal runway length, the aircraft type, the number of
+     * the threads, the export formats and the output form.
+     *
+     * @return The parameters of the plugin.
+     */
+    @Override
+    public @NotNull PluginParameters prepare(@NotNull PluginContext context) {
+        ParameterPrompts prompts = new ParameterPrompts(this, context);
+        prompts.text("pairs", "Please enter the path of the file with the origin/destination pairs: ");
+        prompts.number("range", "Please enter the range of the aircraft in nautical miles (default %DEF): ",
+                       RouteOptions.defaultRangeNm);
+        prompts.number("stop-penalty", "Please enter the penalty of one stop in nautical miles (default %DEF): ",
+                       RouteOptions.defaultStopPenaltyNm);
+        prompts.number("min-runway", "Please enter the minimal length of the longest runway of a stop in feet (default %DEF): ",
+                       0);
+        prompts.text("aircraft", "Please enter the aircraft type for the time and fuel estimates (e.g. C172, empty for none): ");
+        prompts.number("threads", "Please enter the number of the planning threads (default %DEF): ",
+                       Runtime.getRuntime().availableProcessors());
+        prompts.text("export", "Please enter the export formats of the routes (fpl, gpx, legs separated by commas, empty for none): ");
+        prompts.number("plans-per-file", "Please enter the number of the routes of one export file (0 for a single file, default %DEF): ",
+                       0);
+        prompts.output();
+        return prompts.toParameters();
+    }
+
+    /**
+     * The non-interactive variant of {@link #action()}. The option "pairs" is
+     * the path of the file with the pairs, the options "range",
+     * "stop-penalty", "min-runway", "surfaces", "detailed-runways", "aircraft"
+     * and "performance-table" have the same meaning as for the
+     * {@link CreateFlightPlanPlugin}. The option "threads" is the number of the
+     * planning threads, all the processors are used by default. The option
+     * "export" is the comma separated list of the formats the found routes are
+     * exported in ("fpl", "gpx" or "legs"), the option "plans-per-file" the
+     * number of the routes of one export file, 0 (the default) for a single
+     * file per format.
+     *
+     * @param parameters The parameters of the non-interactive run.
+     * @return The exit code of the action. Any non-zero code means that an issue
+     *         has occurred.
+     */
+    @Override
+    public int action(@NotNull PluginParameters parameters) {
+        try (PluginContext context = new PluginContext()) {
+            return action(parameters, context);
+        }
+    }
+
+    /**
+     * The context-aware variant of {@link #action(PluginParameters)}.
+     *
+     * @param parameters The parameters of the plugin.
+     * @param context    The context shared by the plugins of the run.
+     * @return The exit code of the action. Any non-zero code means that an issue
+     *         has occurred.
+     */
+    @Override
+    public int action(@NotNull PluginParameters parameters, @NotNull PluginContext context) {
+        String pairsFile = parameters.getOption("pairs");
+        if (pairsFile == null || pairsFile.isBlank()) {
+            System.err.println("The file of the origin/destination pairs has to be given by the \"pairs\" option.");
+            return 1;
+        }
+        RouteOptions options;
+        List<RouteConstraint> constraints;
+        PerformanceModel performance;
+        List<PlanFormat> exportFormats;
+        int threads, plansPerFile;
+        try {
+            options = new RouteOptions(parameters.getOption("range", RouteOptions.defaultRangeNm),
+                                       parameters.getOption("stop-penalty", RouteOptions.defaultStopPenaltyNm));
+            performance = CreateFlightPlanPlugin.performance(parameters);
+            if (performance != null) {
+                options = new RouteOptions(options.getRangeNm(), options.getStopPenaltyNm(), performance,
+                                           RouteWind.calm);
+            }
+            constraints = CreateFlightPlanPlugin.runwayConstraints(parameters);
+            exportFormats = PlanExport.formats(parameters, performance);
+            plansPerFile = PlanExport.plansPerFile(parameters);
+            threads = (int) parameters.getOption("threads", Runtime.getRuntime().availableProcessors());
+            if (threads <= 0) throw new IllegalArgumentException("The number of the threads has to be a positive number.");
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            return 1;
+        }
+        AirportGraph graph = AirportGraph.ofDatabase();
+        if (graph == null) return 1;
+        Pairs pairs = readPairs(pairsFile.strip(), graph);
+        if (pairs == null) return 1;
+
+        RouteRestrictions restrictions = constraints.isEmpty() ? null : new RouteRestrictions(graph, constraints);
+        long start = System.nanoTime();
+        int found;
+        try (BatchRouter router = new BatchRouter(graph, performance == null ? LandmarkIndex.ofDatabase(options) : null,
+                                                  threads);
+             OutputSink sink = context.openOutput(parameters, "ROUTES");
+             PlanExport export = exportFormats.isEmpty() ? null
+                                 : new PlanExport(context, parameters, "ROUTES", exportFormats, plansPerFile)) {
+            RecordWriter writer = parameters.getFormat().open(sink.printer());
+            PrintStream pr = sink.printer();
+            if (writer == null) {
+                pr.println(Utilities.sectionSeparator("Routes of %COUNT pair(s)"
+                                                      .replace("%COUNT", String.valueOf(pairs.count))));
+            }
+            found = router.route(pairs.from, pairs.to, options, restrictions, (pair, from, to, route) -> {
+                FlightEstimate estimate = route == null || performance == null ? null
+                                          : FlightEstimate.of(route, performance, RouteWind.calm);
+                if (writer == null) {
+                    printRoute(graph, from, to, route, estimate, pr);
+                } else {
+                    writeRecord(graph, pair, from, to, route, estimate, writer);
+                }
+                if (export != null && route != null) export.write(route, estimate);
+            });
+            if (writer != null) writer.flush();
+        } catch (IOException e) {
+            System.err.println("The routes could not be written.");
+            return 1;
+        }
+        System.out.println("Routes found for %FOUND of %COUNT pair(s) in %TIME s with %THREADS thread(s)."
+                           .replace("%FOUND", String.valueOf(found))
+                           .replace("%COUNT", String.valueOf(pairs.count))
+                           .replace("%TIME", String.format("%.2f", (System.nanoTime() - start) / 1e9))
+                           .replace("%THREADS", String.valueOf(threads)));
+        return 0;
+    }
+
+    /**
+     * Reads the pairs of the file and converts their airports to the nodes of
+     * the graph.
+     *
+     * @return The pairs, or {@code null} if the file can not be read. The
+     *         error is reported to the user.
+     */
+    private static @Nullable Pairs readPairs(@NotNull String fileName, @NotNull AirportGraph graph) {
+        Pairs pairs = new Pairs();
+        try (BufferedReader br = Files.newBufferedReader(Path.of(fileName), StandardCharsets.UTF_8)) {
+            String line;
+            int lineNumber = 0;
+            while ((line = br.readLine()) != null) {
+                lineNumber++;
+                line = line.strip();
+                if (line.isEmpty() || line.startsWith("#")) continue;
+                String[] codes = line.split("[,;\\s]+");
+                if (codes.length == 2 && codes[0].equalsIgnoreCase("from") && codes[1].equalsIgnoreCase("to")) continue;
+                int from = codes.length == 2 ? graph.indexOf(codes[0].toUpperCase()) : -1,
+                    to   = codes.length == 2 ? graph.indexOf(codes[1].toUpperCase()) : -1;
+                if (from < 0 || to < 0) {
+                    System.err.println("Line %LINE: the pair \"%PAIR\" is skipped, its airports are not known."
+                                       .replace("%LINE", String.valueOf(lineNumber))
+                                       .replace("%PAIR", line));
+                    continue;
+                }
+                pairs.add(from, to);
+            }
+        } catch (IOException | InvalidPathException e) {
+            System.err.println("The file of the pairs %FILE could not be read.".replace("%FILE", fileName));
+            return null;
+        }
+        pairs.trim();
+        return pairs;
+    }
+
+    private static void printRoute(@NotNull AirportGraph graph, int from, int to, @Nullable Route route,
+                                   @Nullable FlightEstimate estimate, @NotNull PrintStream pr) {
+        String fromIcao = graph.airport(from).getIcaoCode(),
+               toIcao = graph.airport(to).getIcaoCode();
+        if (route == null) {
+            pr.printf("%-6s %-6s no route within the range%n", fromIcao, toIcao);
+        } else if (estimate == null) {
+            pr.printf("%-6s %-6s %3d %10.1f NM  %s%n", fromIcao, toIcao, route.getLegs().size(),
+                      route.getDistanceNm(), stops(route));
+        } else {
+            pr.printf("%-6s %-6s %3d %10.1f NM %8.0f min %8.0f kg  %s%n", fromIcao, toIcao, route.getLegs().size(),
+                      route.getDistanceNm(), estimate.getTimeHours() * 60, estimate.getFuelKg(), stops(route));
+        }
+    }
+
+    /**
+     * Writes the record of one pair. The route fields are missing if no route
+     * was found, the time and the fuel if no aircraft type is given.
+     */
+    private static void writeRecord(@NotNull AirportGraph graph, int pair, int from, int to, @Nullable Route route,
+                                    @Nullable FlightEstimate estimate, @NotNull RecordWriter writer)
+            throws IOException {
+        writer.beginRecord();
+        writer.integer("pair", pair + 1);
+        writer.string("from", graph.airport(from).getIcaoCode());
+        writer.string("to", graph.airport(to).getIcaoCode());
+        writer.bool("found", route != null);
+        writer.integer("legs", route == null ? 0 : route.getLegs().size());
+        writer.number("distance_nm", route == null ? Double.NaN : route.getDistanceNm());
+        writer.number("cost", route == null ? Double.NaN : route.getCost());
+        writer.number("time_min", estimate == null ? Double.NaN : estimate.getTimeHours() * 60);
+        writer.number("fuel_kg", estimate == null ? Double.NaN : estimate.getFuelKg());
+        writer.string("stops", route == null ? null : stops(route));
+        writer.endRecord();
+    }
+
+    /**
+     * @return The ICAO codes of the airports of the route separated by spaces.
+     */
+    private static @NotNull String stops(@NotNull Route route) {
+        StringJoiner joiner = new StringJoiner(" ");
+        route.getStops().forEach(airport -> joiner.add(airport.getIcaoCode()));
+        return joiner.toString();
+    }
+
+    /**
+     * The growing arrays of the departure and the destination nodes.
+     */
+    private static class Pairs {
+
+        private int[] from = new int[64], to = new int[64];
+        private int count = 0;
+
+        void add(int fromNode, int toNode) {
+            if (count == from.length) {
+                from = Arrays.copyOf(from, count * 2);
+                to = Arrays.copyOf(to, count * 2);
+            }
+            from[count] = fromNode;
+            to[count] = toNode;
+            count++;
+        }
+
+        void trim() {
+            from = Arrays.copyOf(from, count);
+            to = Arrays.copyOf(to, count);
+        }
+    }
+}
@@ -1,19 +1,78 @@
 package cz.cuni.mff.java.flightplanner.plugin;
 
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.InvalidPathException;
+import java.nio.file.Path;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import cz.cuni.mff.java.flightplanner.dataobject.Airport;
+import cz.cuni.mff.java.flightplanner.dataobject.WeatherConditions;
+import cz.cuni.mff.java.flightplanner.export.PlanFormat;
+import cz.cuni.mff.java.flightplanner.output.OutputSink;
+import cz.cuni.mff.java.flightplanner.output.RecordFormat;
+import cz.cuni.mff.java.flightplanner.output.RecordWriter;
+import cz.cuni.mff.java.flightplanner.performance.PerformanceModel;
+import cz.cuni.mff.java.flightplanner.performance.PerformanceTable;
+import cz.cuni.mff.java.flightplanner.performance.RouteWind;
+import cz.cuni.mff.java.flightplanner.routing.AirportGraph;
+import cz.cuni.mff.java.flightplanner.routing.Alternate;
+import cz.cuni.mff.java.flightplanner.routing.AlternateFinder;
+import cz.cuni.mff.java.flightplanner.routing.CategoryConstraint;
+import cz.cuni.mff.java.flightplanner.routing.FlightEstimate;
+import cz.cuni.mff.java.flightplanner.routing.LandmarkIndex;
+import cz.cuni.mff.java.flightplanner.routing.LegEstimate;
+import cz.cuni.mff.java.flightplanner.routing.Route;
+import cz.cuni.mff.java.flightplanner.routing.RouteConstraint;
+import cz.cuni.mff.java.flightplanner.routing.RouteLeg;
+import cz.cuni.mff.java.flightplanner.routing.RouteOptions;
+import cz.cuni.mff.java.flightplanner.routing.RoutePlanner;
+import cz.cuni.mff.java.flightplanner.routing.RouteRestrictions;
+import cz.cuni.mff.java.flightplanner.routing.RunwayConstraint;
+import cz.cuni.mff.java.flightplanner.routing.WeatherStopCost;
+import cz.cuni.mff.java.flightplanner.util.NotNull;
+import cz.cuni.mff.java.flightplanner.util.Nullable;
 import cz.cuni.mff.java.flightplanner.util.Utilities;
 
 /**
  * The CreateFlightPlanPlugin class is the class that uses both AirportInfoPlugin
- * and WeatherInfoPlugin on top of which uses the waypoints database in order to
- * create the route plan between two specified airports.
+ * and WeatherInfoPlugin on top of which uses the airports database in order to
+ * create the route plan between the specified airports. The route is searched
+ * for by the {@link RoutePlanner} among all the airports of the database, every
+ * leg of the route is at most as long as the range of the aircraft. The
+ * {@link LandmarkIndex} of the database is used if its directory is configured.
+ * <p>
+ * The intermediate stops may be restricted to the airports with a suitable
+ * runway. If the weather is taken into account, the latest METARs of the
+ * planned stops are downloaded and the stops below the minima or with too
+ * strong crosswind are penalized; the route is then planned again, until the
+ * weather of all its stops is known or {@value #maxWeatherRounds} rounds pass.
+ * <p>
+ * The alternate airports within the chosen distance of the planned route are
+ * found by the {@link AlternateFinder}. They have to satisfy the runway
+ * constraints of the stops and may be restricted to some airport categories.
+ * <p>
+ * If the aircraft type is given, the route minimizes the time of the flight
+ * instead of its distance and the time and the fuel of every leg are
+ * estimated by the performance of the type from the {@link PerformanceTable}.
+ * The wind of the route is the mean of the latest surface winds reported at
+ * its departure and destination airports, or calm if they are not known.
  */
 public class CreateFlightPlanPlugin implements Plugin {
 
+    private static final int maxWeatherRounds = 3, weatherHours = 3;
+
     @Override
     public String name() { return this.getClass().getName(); }
 
     @Override
-    public String description() { return "Complete flight plan creation - UNFINISHED; activate for further details."; }
+    public String description() { return "Plan the route between chosen airports within the range of the aircraft."; }
 
     @Override
     public String keyword() { return "flight plan"; }
@@ -21,19 +80,376 @@ public class CreateFlightPlanPlugin implements Plugin {
     @Override
     public Integer pluginID() { return 3; }
 
+    /**
+     * The flight plan is built on top of the weather and airport information,
+     * therefore it is run after them.
+     */
+    @Override
+    public @NotNull Set<Integer> dependencies() { return Set.of(1, 2); }
+
+    /**
+     * Lets the user choose the airports of the route and the range of the
+     * aircraft and prints the planned route.
+     *
+     * @return The exit code of the action. Any non-zero code means that an issue
+     *         has occurred.
+     */
     @Override
     public int action() {
-        System.out.println(Utilities.sectionSeparator("UNFINISHED - MISSING DATABASE"));
-        System.out.println("Unfortunately, this plugin could not be finished at this time.");
-        System.out.println("Despite searching thoroughly multiple times, I could only find several websites able to provide appropriate waypoint databases:");
-        System.out.println("Navigraph, Garmin, Jeppesen or FAA (federal aviation administration) webpages.");
-        System.out.println("However, all of these websites are the providers of the official, real world aviation charts");
-        System.out.println("and applications for pilots.");
-        System.out.println("Therefore, a regular paid subscription and registration are required to at least get access");
-        System.out.println("to the aviation charts without even being able to know whether the format would be appropriate");
-        System.out.println("for this program purposes.");
-        System.out.println(Utilities.sectionSeparator(""));
-        System.exit(0);
+        try (PluginContext context = new PluginContext()) {
+            return action(prepare(context), context);
+        }
+    }
+
+    /**
+     * Asks the user for the airports of the route in the order of the flight,
+     * the range of the aircraft, the stop penalty and the output form.
+     *
+     * @return The parameters of the plugin.
+     */
+    @Override
+    public @NotNull PluginParameters prepare(@NotNull PluginContext context) {
+        ParameterPrompts prompts = new ParameterPrompts(this, context);
+        if (prompts.airports()) {
+            prompts.number("range", "Please enter the range of the aircraft in nautical miles (default %DEF): ",
+                           RouteOptions.defaultRangeNm);
+            prompts.number("stop-penalty", "Please enter the penalty of one stop in nautical miles (default %DEF): ",
+                           RouteOptions.defaultStopPenaltyNm);
+            prompts.number("min-runway", "Please enter the minimal length of the longest runway of a stop in feet (default %DEF): ",
+                           0);
+            prompts.flag("detailed-runways", "Should the stops be restricted to the runways with known details? %OPT: ");
+            prompts.flag("weather", "Should the stops with bad weather be avoided? %OPT: ");
+            prompts.text("aircraft", "Please enter the aircraft type for the time and fuel estimates (e.g. C172, empty for none): ");
+            prompts.number("alternates", "Please enter the width of the corridor searched for the alternates in nautical miles (0 for none, default %DEF): ",
+                           0);
+            prompts.text("export", "Please enter the export formats of the routes (fpl, gpx, legs separated by commas, empty for none): ");
+            prompts.output();
+        }
+        return prompts.toParameters();
+    }
+
+    /**
+     * The non-interactive variant of {@link #action()}. The route goes through
+     * the airports of the {@code parameters} in their order, the options
+     * "range", "stop-penalty", "min-runway", "detailed-runways", "weather",
+     * "aircraft", "alternates" and "export" replace the prompted values. The option
+     * "surfaces" is the comma separated list of the accepted runway surfaces
+     * (e.g. "asp,con"), the option "alternate-categories" the list of the
+     * categories of the alternates (e.g. "medium,large") and the option
+     * "performance-table" the path of the table of the aircraft performance
+     * used instead of the default one. The routes are exported in the formats
+     * of the option "export", see {@link PlanExport}.
+     *
+     * @param parameters The parameters of the non-interactive run.
+     * @return The exit code of the action. Any non-zero code means that an issue
+     *         has occurred.
+     */
+    @Override
+    public int action(@NotNull PluginParameters parameters) {
+        try (PluginContext context = new PluginContext()) {
+            return action(parameters, context);
+        }
+    }
+
+    /**
+     * The context-aware variant of {@link #action(PluginParameters)}. The
+     * airports found by another plugin of the run are not searched for again.
+     *
+     * @param parameters The parameters of the plugin.
+     * @param context    The context shared by the plugins of the run.
+     * @return The exit code of the action. Any non-zero code means that an issue
+     *         has occurred.
+     */
+    @Override
+    public int action(@NotNull PluginParameters parameters, @NotNull PluginContext context) {
+        List<Airport> foundAirports = context.findAirports(parameters);
+        if (foundAirports == null) return 1;
+        if (foundAirports.size() < 2) {
+            System.err.println("At least two airports are needed to plan the route.");
+            return 1;
+        }
+        RouteOptions options;
+        List<RouteConstraint> constraints, alternateConstraints;
+        boolean weatherAware;
+        double corridorNm;
+        PerformanceModel performance;
+        List<PlanFormat> exportFormats;
+        try {
+            options = new RouteOptions(parameters.getOption("range", RouteOptions.defaultRangeNm),
+                                       parameters.getOption("stop-penalty", RouteOptions.defaultStopPenaltyNm));
+            performance = performance(parameters);
+            exportFormats = PlanExport.formats(parameters, performance);
+            constraints = runwayConstraints(parameters);
+            weatherAware = parameters.getFlag("weather");
+            corridorNm = parameters.getOption("alternates", 0);
+            if (!(corridorNm >= 0)) {
+                throw new IllegalArgumentException("The width of the corridor has to be a non-negative number.");
+            }
+            alternateConstraints = new ArrayList<>(constraints);
+            String categories = parameters.getOption("alternate-categories");
+            if (categories != null && !categories.isBlank()) {
+                alternateConstraints.add(CategoryConstraint.parse(categories));
+            }
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            return 1;
+        }
+        AirportGraph graph = AirportGraph.ofDatabase();
+        if (graph == null) return 1;
+
+        RoutePlanner planner = new RoutePlanner(graph, performance == null ? LandmarkIndex.ofDatabase(options) : null);
+        RouteRestrictions restrictions = constraints.isEmpty() ? null : new RouteRestrictions(graph, constraints);
+        AlternateFinder finder = corridorNm <= 0 ? null
+                                 : new AlternateFinder(graph, alternateConstraints.isEmpty() ? null
+                                                              : new RouteRestrictions(graph, alternateConstraints));
+        Map<String, WeatherConditions> weather = new HashMap<>();
+        Set<String> weatherAsked = new HashSet<>();
+        boolean records = parameters.getFormat() != RecordFormat.TEXT;
+        try (OutputSink sink = context.openOutput(parameters, "FLIGHTPLAN");
+             OutputSink alternateSink = finder != null && records ? context.openOutput(parameters, "ALTERNATES")
+                                                                   : null;
+             PlanExport export = exportFormats.isEmpty() ? null
+                                 : new PlanExport(context, parameters, "FLIGHTPLAN", exportFormats, 0)) {
+            RecordWriter writer = parameters.getFormat().open(sink.printer()),
+                         alternateWriter = alternateSink == null ? null
+                                           : parameters.getFormat().open(alternateSink.printer());
+            for (int i = 1; i < foundAirports.size(); i++) {
+                String from = foundAirports.get(i - 1).getIcaoCode(),
+                       to   = foundAirports.get(i).getIcaoCode();
+                RouteOptions legOptions = performance == null ? options
+                                          : new RouteOptions(options.getRangeNm(), options.getStopPenaltyNm(),
+                                                             performance, routeWind(context, foundAirports.get(i - 1),
+                                                                                    foundAirports.get(i)));
+                Route route;
+                try {
+                    route = planner.plan(from, to, legOptions, restrictions);
+                    for (int round = 0; weatherAware && route != null && round < maxWeatherRounds; round++) {
+                        List<Airport> unknown = new ArrayList<>();
+                        for (RouteLeg leg : route.getLegs().subList(0, route.getLegs().size() - 1)) {
+                            if (weatherAsked.add(leg.getTo().getIcaoCode())) unknown.add(leg.getTo());
+                        }
+                        if (unknown.isEmpty()) break;
+                        ZonedDateTime now = context.getStartTime();
+                        weather.putAll(WeatherStopCost.latestConditions(
+                                context.downloadMETARs(now.minusHours(weatherHours), now, unknown)));
+                        restrictions = new RouteRestrictions(graph, constraints, List.of(new WeatherStopCost(weather)));
+                        route = planner.plan(from, to, legOptions, restrictions);
+                    }
+                } catch (IllegalArgumentException e) {
+                    System.err.println(e.getMessage());
+                    return 1;
+                }
+                if (route == null) {
+                    System.err.println("No route from %FROM to %TO is within the range of %RANGE NM."
+                                       .replace("%FROM", from)
+                                       .replace("%TO", to)
+                                       .replace("%RANGE", String.format("%.0f", options.getRangeNm())));
+                    return 1;
+                }
+                List<Alternate> alternates = finder == null ? List.of() : finder.find(route, corridorNm);
+                FlightEstimate estimate = performance == null ? null
+                                          : FlightEstimate.of(route, performance, legOptions.getWind());
+                if (writer == null) {
+                    printRoute(route, estimate, from, to, finder == null ? null : alternates, corridorNm,
+                               sink.printer());
+                } else if (writeRecords(route, estimate, writer) != 0) {
+                    return 1;
+                } else if (alternateWriter != null && writeAlternates(alternates, from, to, alternateWriter) != 0) {
+                    return 1;
+                }
+                if (export != null) export.write(route, estimate);
+            }
+        } catch (IOException e) {
+            System.err.println("The route could not be exported.");
+            return 1;
+        }
         return 0;
     }
+
+    /**
+     * @return The performance of the aircraft type given by the option
+     *         "aircraft", or {@code null} if no type is given.
+     * @throws IllegalArgumentException if the table of the performance can not
+     *         be read or does not contain the type.
+     */
+    static @Nullable PerformanceModel performance(@NotNull PluginParameters parameters) {
+        String type = parameters.getOption("aircraft");
+        if (type == null || type.isBlank()) return null;
+        String tablePath = parameters.getOption("performance-table");
+        PerformanceTable table;
+        try {
+            table = tablePath == null || tablePath.isBlank() ? PerformanceTable.ofResource()
+                                                              : PerformanceTable.load(Path.of(tablePath.strip()));
+        } catch (InvalidPathException e) {
+            throw new IllegalArgumentException("Incorrect path of the performance table: %PATH"
+                                               .replace("%PATH", tablePath));
+        }
+        if (table == null) throw new IllegalArgumentException("The aircraft performance is not available.");
+        PerformanceModel performance = table.find(type);
+        if (performance == null) {
+            throw new IllegalArgumentException("Unknown aircraft type: %TYPE (known types: %LIST)"
+                                               .replace("%TYPE", type.strip())
+                                               .replace("%LIST", String.join(", ", table.types())));
+        }
+        return performance;
+    }
+
+    /**
+     * Downloads the latest METARs of the departure and the destination
+     * airports.
+     *
+     * @return The mean wind reported at the airports, or the calm wind if no
+     *         wind is known.
+     */
+    private static @NotNull RouteWind routeWind(@NotNull PluginContext context, @NotNull Airport departure,
+                                                @NotNull Airport destination) {
+        ZonedDateTime now = context.getStartTime();
+        Map<String, WeatherConditions> latest = WeatherStopCost.latestConditions(
+                context.downloadMETARs(now.minusHours(weatherHours), now, List.of(departure, destination)));
+        WeatherConditions atDeparture = latest.get(departure.getIcaoCode()),
+                          atDestination = latest.get(destination.getIcaoCode());
+        return RouteWind.of(atDeparture == null ? null : atDeparture.getWind(),
+                            atDestination == null ? null : atDestination.getWind());
+    }
+
+    /**
+     * @return The runway constraint given by the options "min-runway",
+     *         "surfaces" and "detailed-runways", or the empty list if none of
+     *         them is given.
+     * @throws IllegalArgumentException if any of the options is not correct.
+     */
+    static @NotNull List<RouteConstraint> runwayConstraints(@NotNull PluginParameters parameters) {
+        double minRunway = parameters.getOption("min-runway", 0);
+        String surfaces = parameters.getOption("surfaces");
+        boolean detailedOnly = parameters.getFlag("detailed-runways");
+        if (minRunway <= 0 && (surfaces == null || surfaces.isBlank()) && !detailedOnly) return List.of();
+        return List.of(new RunwayConstraint(minRunway,
+                                            surfaces == null ? null : Arrays.asList(surfaces.split(",")),
+                                            detailedOnly));
+    }
+
+    /**
+     * Prints the table of the legs of the route followed by the table of its
+     * alternates, if they were searched for. The time and the fuel of the legs
+     * are printed if the route was estimated.
+     */
+    private static void printRoute(@NotNull Route route, @Nullable FlightEstimate estimate, @NotNull String from,
+                                   @NotNull String to, @Nullable List<Alternate> alternates, double corridorNm,
+                                   @NotNull PrintStream pr) {
+        pr.println(Utilities.sectionSeparator("Route from %FROM to %TO".replace("%FROM", from).replace("%TO", to)));
+        if (estimate != null) {
+            pr.printf("Aircraft: %s, wind: %s%n", estimate.getPerformance(), estimate.getWind());
+            pr.printf("%-3s %-6s %-6s %12s %12s %9s %7s %9s%n", "#", "From", "To", "Distance NM", "Course (deg)",
+                      "Wind kt", "Time", "Fuel kg");
+        } else {
+            pr.printf("%-3s %-6s %-6s %12s %12s%n", "#", "From", "To", "Distance NM", "Course (deg)");
+        }
+        for (int i = 0; i < route.getLegs().size(); i++) {
+            RouteLeg leg = route.getLegs().get(i);
+            pr.printf("%-3d %-6s %-6s %12.1f %12.0f", i + 1, leg.getFrom().getIcaoCode(),
+                      leg.getTo().getIcaoCode(), leg.getDistanceNm(), leg.getCourse());
+            if (estimate != null) {
+                LegEstimate legEstimate = estimate.getLegs().get(i);
+                pr.printf(" %+9.0f %7s %9.0f", legEstimate.getTailwindKt(), duration(legEstimate.getTimeHours()),
+                          legEstimate.getFuelKg());
+            }
+            pr.printf("%n");
+        }
+        pr.printf("Total distance: %.1f NM in %d leg(s).%n", route.getDistanceNm(), route.getLegs().size());
+        if (estimate != null) {
+            pr.printf("Total time: %s, total fuel: %.0f kg (without the taxi and the reserves).%n",
+                      duration(estimate.getTimeHours()), estimate.getFuelKg());
+        }
+        if (alternates != null) printAlternates(alternates, corridorNm, pr);
+        pr.println(Utilities.sectionSeparator("End of the route from %FROM to %TO"
+                                              .replace("%FROM", from).replace("%TO", to)));
+        pr.printf("%n");
+    }
+
+    /**
+     * @return The time in the hours and minutes, e.g. "2:05".
+     */
+    private static @NotNull String duration(double hours) {
+        if (!(hours < Double.POSITIVE_INFINITY)) return "-";
+        long minutes = Math.round(hours * 60);
+        return String.format("%d:%02d", minutes / 60, minutes % 60);
+    }
+
+    /**
+     * Prints the table of the alternates of the route.
+     */
+    private static void printAlternates(@NotNull List<Alternate> alternates, double corridorNm,
+                                        @NotNull PrintStream pr) {
+        pr.printf("%nAlternates within %.0f NM of the route: %d%n", corridorNm, alternates.size());
+        if (alternates.isEmpty()) return;
+        pr.printf("%10s %-6s %10s %-15s %s%n", "Along NM", "ICAO", "Cross NM", "Category", "Name");
+        for (Alternate alternate : alternates) {
+            Airport airport = alternate.getAirport();
+            pr.printf("%10.1f %-6s %10.1f %-15s %s%n", alternate.getAlongTrackNm(), airport.getIcaoCode(),
+                      alternate.getCrossTrackNm(), airport.getCat(), airport.getName());
+        }
+    }
+
+    /**
+     * Writes one record for each alternate of the route.
+     *
+     * @return The exit code of the action. Any non-zero code means that an issue
+     *         has occurred.
+     */
+    private static int writeAlternates(@NotNull List<Alternate> alternates, @NotNull String from, @NotNull String to,
+                                       @NotNull RecordWriter writer) {
+        try {
+            for (Alternate alternate : alternates) {
+                Airport airport = alternate.getAirport();
+                writer.beginRecord();
+                writer.string("route_from", from);
+                writer.string("route_to", to);
+                writer.integer("leg", alternate.getLeg() + 1);
+                writer.string("icao", airport.getIcaoCode());
+                writer.string("name", airport.getName());
+                writer.string("category", airport.getCat().name());
+                writer.number("along_track_nm", alternate.getAlongTrackNm());
+                writer.number("cross_track_nm", alternate.getCrossTrackNm());
+                writer.number("distance_nm", alternate.getDistanceNm());
+                writer.endRecord();
+            }
+            writer.flush();
+            return 0;
+        } catch (IOException e) {
+            System.err.println("The records of the alternates could not be written.");
+            return 1;
+        }
+    }
+
+    /**
+     * Writes one record for each leg of the route. The wind, the time and the
+     * fuel fields are missing if the route was not estimated.
+     *
+     * @return The exit code of the action. Any non-zero code means that an issue
+     *         has occurred.
+     */
+    private static int writeRecords(@NotNull Route route, @Nullable FlightEstimate estimate,
+                                    @NotNull RecordWriter writer) {
+        try {
+            for (int i = 0; i < route.getLegs().size(); i++) {
+                RouteLeg leg = route.getLegs().get(i);
+                LegEstimate legEstimate = estimate == null ? null : estimate.getLegs().get(i);
+                writer.beginRecord();
+                writer.integer("leg", i + 1);
+                writer.string("from", leg.getFrom().getIcaoCode());
+                writer.string("to", leg.getTo().getIcaoCode());
+                writer.number("distance_nm", leg.getDistanceNm());
+                writer.number("course", leg.getCourse());
+                writer.number("tailwind_kt", legEstimate == null ? Double.NaN : legEstimate.getTailwindKt());
+                writer.number("time_min", legEstimate == null ? Double.NaN : legEstimate.getTimeHours() * 60);
+                writer.number("fuel_kg", legEstimate == null ? Double.NaN : legEstimate.getFuelKg());
+                writer.endRecord();
+            }
+            writer.flush();
+            return 0;
+        } catch (IOException e) {
+            System.err.println("The records of the route could not be written.");
+            return 1;
+        }
+    }
 }
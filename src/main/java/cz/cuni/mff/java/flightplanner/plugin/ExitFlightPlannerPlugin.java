@@ -1,6 +1,8 @@
 package cz.cuni.mff.java.flightplanner.plugin;
 
 import cz.cuni.mff.java.flightplanner.DialogCenter;
+import cz.cuni.mff.java.flightplanner.util.NotNull;
+
 /**
  * The ExitFlightPlannerPlugin represents a class which handles the application
  * exiting after the confirmation of the user.
@@ -39,4 +41,13 @@ public class ExitFlightPlannerPlugin implements Plugin{
             return 1;
         }
     }
+
+    /**
+     * The non-interactive run ends after all the chosen plugins are finished,
+     * therefore no confirmation is needed and nothing is performed.
+     */
+    @Override
+    public int action(@NotNull PluginParameters parameters) {
+        return 0;
+    }
 }
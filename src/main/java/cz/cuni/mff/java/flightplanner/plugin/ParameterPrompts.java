@@ -0,0 +1,182 @@
+package cz.cuni.mff.java.flightplanner.plugin;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import cz.cuni.mff.java.flightplanner.DialogCenter;
+import cz.cuni.mff.java.flightplanner.dataobject.Airport;
+import cz.cuni.mff.java.flightplanner.output.RecordFormat;
+import cz.cuni.mff.java.flightplanner.util.FilesHandler;
+import cz.cuni.mff.java.flightplanner.util.NotNull;
+import cz.cuni.mff.java.flightplanner.util.Utilities;
+
+/**
+ * The ParameterPrompts class asks the user for the inputs of one plugin and
+ * collects the answers into {@link PluginParameters}. It is used by the
+ * implementations of {@link Plugin#prepare(PluginContext)}, so that all the
+ * questions are asked before the plugins are started. The airports and the
+ * output form are asked for only once per run, the other plugins reuse the
+ * answers kept in the {@link PluginContext}.
+ */
+class ParameterPrompts {
+
+    private final Map<String, String> values = new HashMap<>();
+    private final PluginContext context;
+
+    /**
+     * Prints the heading of the settings of the plugin.
+     *
+     * @param plugin  The plugin whose inputs are asked for.
+     * @param context The context of the run keeping the shared answers.
+     */
+    ParameterPrompts(@NotNull Plugin plugin, @NotNull PluginContext context) {
+        this.context = context;
+        System.out.println(Utilities.sectionSeparator("Settings of %MOD".replace("%MOD", plugin.keyword())));
+    }
+
+    /**
+     * Lets the user search for the airports, unless they were already chosen
+     * for another plugin of the run.
+     *
+     * @return {@code True}, if at least one airport was found.
+     */
+    boolean airports() {
+        String chosen = context.getAnswer("airports");
+        if (chosen == null) {
+            List<Airport> found = Airport.searchAirports(null, null, false, false);
+            if (found == null || found.isEmpty()) return false;
+            chosen = found.stream()
+                          .map(Airport::getIcaoCode)
+                          .collect(Collectors.joining(","));
+            context.putAirports(PluginParameters.splitList(chosen, true), found);
+            context.putAnswer("airports", chosen);
+        } else {
+            System.out.println("The airports %LIST chosen before will be used.".replace("%LIST", chosen));
+        }
+        values.put("airports", chosen);
+        return true;
+    }
+
+    /**
+     * Asks for the output form, for the destination directory of the files if
+     * the file output is chosen and for the format of the output, unless they
+     * were already chosen for another plugin of the run.
+     */
+    void output() {
+        String chosen = context.getAnswer("output");
+        if (chosen != null) {
+            values.put("output", chosen);
+            values.put("format", context.getAnswer("format"));
+            String outPath = context.getAnswer("output-dir");
+            if (outPath != null) values.put("output-dir", outPath);
+            return;
+        }
+        askOutput();
+        RecordFormat format = DialogCenter.chooseFormat("");
+        if (format.isBinary() && !"file".equals(values.get("output"))) {
+            System.out.println("The binary format can not be printed on the screen, the text will be used.");
+            format = RecordFormat.TEXT;
+        }
+        values.put("format", format.getKeyword());
+        context.putAnswer("output", values.get("output"));
+        context.putAnswer("format", format.getKeyword());
+        if (values.containsKey("output-dir")) context.putAnswer("output-dir", values.get("output-dir"));
+    }
+
+    private void askOutput() {
+        System.out.print("Please type your choice of output form (screen/file): ");
+        if (!"file".equalsIgnoreCase(DialogCenter.getInput(false, false).strip())) {
+            values.put("output", "screen");
+            return;
+        }
+        values.put("output", "file");
+        System.out.printf("%n%s%n%s%n",
+                          "If you want to select the destination directory for the files, please enter the (absolute/relative) path.",
+                          "Enter \"pwd\" to get the current directory, any other choice results in the default \"output\" directory: ");
+        String outPath = DialogCenter.getInput(true, true).strip();
+        if ("pwd".equalsIgnoreCase(outPath)) {
+            System.out.println(FilesHandler.pwd());
+            System.out.print("Now please enter the path: ");
+            outPath = DialogCenter.getInput(true, true).strip();
+        }
+        if (!outPath.isEmpty()) values.put("output-dir", outPath);
+    }
+
+    /**
+     * Asks the yes/no question.
+     *
+     * @param key      The key of the parameter.
+     * @param question The question containing the %OPT placeholder for the
+     *                 choices.
+     */
+    void flag(@NotNull String key, @NotNull String question) {
+        values.put(key, DialogCenter.getResponse(null, question, "Y", true) ? "yes" : "no");
+    }
+
+    /**
+     * Asks for a positive number. Any incorrect input results in the default
+     * value.
+     *
+     * @param key          The key of the plugin specific option.
+     * @param prompt       The prompt containing the %DEF placeholder for the
+     *                     default value.
+     * @param defaultValue The default value.
+     */
+    void number(@NotNull String key, @NotNull String prompt, double defaultValue) {
+        System.out.print(prompt.replace("%DEF", String.format("%.0f", defaultValue)));
+        double value;
+        try {
+            value = Double.parseDouble(DialogCenter.getInput(true, true).strip());
+        } catch (NumberFormatException e) {
+            value = defaultValue;
+        }
+        values.put(key, String.valueOf(value > 0 ? value : defaultValue));
+    }
+
+    /**
+     * Asks for a text. The empty answer leaves the parameter unset.
+     *
+     * @param key    The key of the plugin specific option.
+     * @param prompt The prompt of the text.
+     */
+    void text(@NotNull String key, @NotNull String prompt) {
+        System.out.print(prompt);
+        String value = DialogCenter.getInput(true, true).strip();
+        if (!value.isEmpty()) values.put(key, value);
+    }
+
+    /**
+     * Sets the value which is not asked for directly.
+     *
+     * @param key   The key of the parameter.
+     * @param value The value of the parameter.
+     */
+    void set(@NotNull String key, @NotNull String value) {
+        values.put(key, value);
+    }
+
+    /**
+     * @return The collected parameters. The incorrect values are reported and
+     *         left out, their defaults are used instead. The other answers
+     *         are kept.
+     */
+    @NotNull PluginParameters toParameters() {
+        while (true) {
+            try {
+                return PluginParameters.fromValues(values);
+            } catch (PluginParameters.InvalidParameterException e) {
+                System.err.println(e.getMessage());
+                boolean removed = false;
+                for (String key : e.getKeys()) {
+                    if (values.remove(key) != null) {
+                        removed = true;
+                        System.err.println("The default value of \"%KEY\" is used.".replace("%KEY", key));
+                    }
+                }
+                // no answer to leave out, asking again would not help
+                if (!removed) throw e;
+            }
+        }
+    }
+}
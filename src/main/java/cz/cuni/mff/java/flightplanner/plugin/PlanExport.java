@@ -0,0 +1,158 @@
+package cz.cuni.mff.java.flightplanner.plugin;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import cz.cuni.mff.java.flightplanner.export.PlanFormat;
+import cz.cuni.mff.java.flightplanner.export.PlanWriter;
+import cz.cuni.mff.java.flightplanner.output.OutputSink;
+import cz.cuni.mff.java.flightplanner.performance.PerformanceModel;
+import cz.cuni.mff.java.flightplanner.routing.FlightEstimate;
+import cz.cuni.mff.java.flightplanner.routing.Route;
+import cz.cuni.mff.java.flightplanner.util.NotNull;
+import cz.cuni.mff.java.flightplanner.util.Nullable;
+
+/**
+ * The PlanExport class writes the planned routes into the export files of the
+ * formats chosen by the option "export". Every format has its own file, which
+ * is opened with the first route. If the option "plans-per-file" is positive,
+ * a new file is started after the given number of the routes, so that a large
+ * batch is split into many files. The files are written through the sinks of
+ * the {@link PluginContext}; with the asynchronous output they are written by
+ * the writer thread while the next routes are being planned. A route which
+ * can not be expressed in a format (e.g. the flight plan of a leg which can
+ * not be flown against the wind) is left out of that format only, with a
+ * message.
+ */
+class PlanExport implements Closeable {
+
+    private final PluginContext context;
+    private final PluginParameters parameters;
+    private final String baseName;
+    private final PlanFormat[] formats;
+    private final int plansPerFile;
+    private final PlanWriter[] writers;
+    private final OutputSink[] sinks;
+    private final int[] parts;
+
+    /**
+     * @param context      The context of the run opening the sinks.
+     * @param parameters   The parameters of the plugin choosing the output.
+     * @param baseName     The name of the files, completed by the format and
+     *                     the number of the part.
+     * @param formats      The formats of the export.
+     * @param plansPerFile The number of the routes of one file, 0 for a single
+     *                     file.
+     */
+    PlanExport(@NotNull PluginContext context, @NotNull PluginParameters parameters, @NotNull String baseName,
+               @NotNull List<PlanFormat> formats, int plansPerFile) {
+        this.context = context;
+        this.parameters = parameters;
+        this.baseName = baseName;
+        this.formats = formats.toArray(new PlanFormat[0]);
+        this.plansPerFile = plansPerFile;
+        this.writers = new PlanWriter[this.formats.length];
+        this.sinks = new OutputSink[this.formats.length];
+        this.parts = new int[this.formats.length];
+    }
+
+    /**
+     * Reads the formats of the export from the option "export", a comma
+     * separated list of the format names (e.g. "fpl,gpx").
+     *
+     * @param parameters  The parameters of the plugin.
+     * @param performance The performance of the aircraft, or {@code null}.
+     * @return The formats, empty if nothing is to be exported.
+     * @throws IllegalArgumentException if a format is not known or if it
+     *         needs the aircraft type and no type is given.
+     */
+    static @NotNull List<PlanFormat> formats(@NotNull PluginParameters parameters,
+                                             @Nullable PerformanceModel performance) {
+        String value = parameters.getOption("export");
+        List<PlanFormat> formats = new ArrayList<>();
+        if (value == null || value.isBlank()) return formats;
+        for (String name : value.split(",")) {
+            if (name.isBlank()) continue;
+            PlanFormat format = PlanFormat.of(name);
+            if (format == null) {
+                throw new IllegalArgumentException("The export format has to be one of \"fpl\", \"gpx\" or \"legs\".");
+            }
+            if (format.isEstimateNeeded() && performance == null) {
+                throw new IllegalArgumentException("The %FORMAT export needs the aircraft type."
+                                                   .replace("%FORMAT", format.getKeyword()));
+            }
+            if (!formats.contains(format)) formats.add(format);
+        }
+        return formats;
+    }
+
+    /**
+     * @return The number of the routes of one file given by the option
+     *         "plans-per-file", 0 for a single file.
+     * @throws IllegalArgumentException if the value is not a non-negative
+     *         number.
+     */
+    static int plansPerFile(@NotNull PluginParameters parameters) {
+        double value = parameters.getOption("plans-per-file", 0);
+        if (!(value >= 0) || value > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("The number of the routes per file has to be a non-negative number.");
+        }
+        return (int) value;
+    }
+
+    /**
+     * Writes the route in all the formats. A route which a format can not
+     * express is skipped in that format and the reason is printed.
+     *
+     * @param route    The route to be written.
+     * @param estimate The time and the fuel of the route, or {@code null}.
+     * @throws IOException if the route can not be written.
+     */
+    void write(@NotNull Route route, @Nullable FlightEstimate estimate) throws IOException {
+        for (int i = 0; i < formats.length; i++) {
+            if (writers[i] == null) {
+                String name = plansPerFile == 0
+                              ? "%NAME_%FORMAT"
+                              : "%NAME_%FORMAT_" + String.format("%04d", ++parts[i]);
+                sinks[i] = context.openOutput(parameters,
+                                              name.replace("%NAME", baseName)
+                                                  .replace("%FORMAT", formats[i].name()),
+                                              formats[i].getFileExtension());
+                writers[i] = formats[i].open(sinks[i].printer());
+            }
+            try {
+                writers[i].write(route, estimate);
+            } catch (IllegalArgumentException e) {
+                System.err.println(e.getMessage() + " The route is not exported to %FORMAT."
+                                                        .replace("%FORMAT", formats[i].name()));
+                continue;
+            }
+            if (plansPerFile > 0 && writers[i].count() == plansPerFile) finish(i);
+        }
+    }
+
+    /**
+     * Finishes and closes all the files which are still open.
+     *
+     * @throws IOException if the end of a file can not be written.
+     */
+    @Override
+    public void close() throws IOException {
+        for (int i = 0; i < formats.length; i++) {
+            if (writers[i] != null) finish(i);
+        }
+    }
+
+    private void finish(int i) throws IOException {
+        PlanWriter writer = writers[i];
+        OutputSink sink = sinks[i];
+        writers[i] = null;
+        sinks[i] = null;
+        try {
+            writer.finish();
+        } finally {
+            sink.close();
+        }
+    }
+}
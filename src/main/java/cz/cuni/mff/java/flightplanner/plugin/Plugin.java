@@ -2,8 +2,11 @@ package cz.cuni.mff.java.flightplanner.plugin;
 
 import java.util.*;
 
+import cz.cuni.mff.java.flightplanner.output.OutputSink;
+import cz.cuni.mff.java.flightplanner.output.OutputSinks;
+import cz.cuni.mff.java.flightplanner.util.Downloader;
 import cz.cuni.mff.java.flightplanner.util.NotNull;
-import cz.cuni.mff.java.flightplanner.util.Utilities;
+import cz.cuni.mff.java.flightplanner.util.Nullable;
 
 /**
  * {@code Plugin} interface represents an independent part of the program performing
@@ -38,27 +41,65 @@ public interface Plugin {
 
     /**
      * Launches every active plugin and prints the concluding message output
-     * specified by the exit code of currently performed action.
+     * specified by the exit code of currently performed action. First, each
+     * plugin asks the user for its inputs by {@link #prepare(PluginContext)}.
+     * Then the prepared plugins are run concurrently by the
+     * {@link PluginScheduler} while the others are run exclusively, one at a
+     * time. All the plugins share one {@link PluginContext}.
      *
      * @param active List of all plugins to be launched.
      */
     static void startPlugins(@NotNull List<Plugin> active) {
-        boolean fine = true;
-        for (Plugin mod : active) {
-            System.out.println(Utilities.sectionSeparator(mod.keyword()));
-            if (mod.action() != 0) {
-                System.err.println("An error occured during the execution of the %ACTION"
-                                   .replace("%ACTION",mod.name()));
-                fine = false;
+        active.sort(Comparator.comparingInt(Plugin::pluginID));
+        Map<Plugin, PluginParameters> prepared = new HashMap<>();
+        try (PluginContext context = new PluginContext()) {
+            for (Plugin mod : active) {
+                PluginParameters parameters = mod.prepare(context);
+                if (parameters != null) prepared.put(mod, parameters);
+            }
+            if (new PluginScheduler(Runtime.getRuntime().availableProcessors()).run(active, prepared, context) == 0) {
+                System.out.println("Every action finished just fine.");
             }
-            System.out.println(Utilities.sectionSeparator("End of %MOD"
-                                                                     .replace("%MOD",mod.keyword()))
-                                                         );
         }
-        if (fine) System.out.println("Every action finished just fine.");
         active.clear();
     }
 
+    /**
+     * Runs the plugins chosen by the {@code parameters} without any interaction
+     * with the user. The plugins are chosen by their ID or their keyword and
+     * run concurrently, their output is printed in the order of their IDs.
+     *
+     * @param all        List of all available plugins.
+     * @param parameters The parameters of the non-interactive run.
+     * @return The exit code of the run. Any non-zero code means that a plugin
+     *         was not found or an issue has occurred in any of the plugins.
+     */
+    static int runPlugins(@NotNull List<Plugin> all, @NotNull PluginParameters parameters) {
+        if (parameters.getPlugins().isEmpty()) {
+            System.err.println("No plugin to be run was specified.");
+            return 1;
+        }
+        List<Plugin> active = new ArrayList<>();
+        for (String option : parameters.getPlugins()) {
+            Optional<Plugin> match =
+                    all.stream()
+                       .filter(pl -> String.valueOf(pl.pluginID()).equals(option) ||
+                                     pl.keyword().equalsIgnoreCase(option))
+                       .findFirst();
+            if (match.isEmpty()) {
+                System.err.println("No option for \"%OPTION\" is available.".replace("%OPTION", option));
+                return 1;
+            }
+            if (!active.contains(match.get())) active.add(match.get());
+        }
+        Map<Plugin, PluginParameters> prepared = new HashMap<>();
+        active.forEach(mod -> prepared.put(mod, parameters));
+        OutputSinks sinks = new OutputSinks(OutputSink.defaultBufferSize, parameters.isAsyncOutput());
+        try (PluginContext context = new PluginContext(new Downloader(), sinks)) {
+            return new PluginScheduler(Runtime.getRuntime().availableProcessors()).run(active, prepared, context);
+        }
+    }
+
     /**
      * Returns the deleted plugins into the available plugins list.
      *
@@ -122,4 +163,59 @@ public interface Plugin {
      *         was encountered during the execution of the action.
      */
     int action();
+
+    /**
+     * Asks the user for all the inputs of the plugin before any plugin is
+     * started, so that the plugin can then run by
+     * {@link #action(PluginParameters, PluginContext)} concurrently with the
+     * other plugins. The plugins which keep this implementation interact with
+     * the user during their {@link #action()} and are therefore run
+     * exclusively.
+     *
+     * @param context The context of the run. The answers which the user has
+     *                already given to another plugin are taken from it.
+     * @return The parameters of the plugin, or {@code null} if the plugin is
+     *         to be run interactively.
+     */
+    default @Nullable PluginParameters prepare(@NotNull PluginContext context) {
+        return null;
+    }
+
+    /**
+     * @return The IDs of the plugins which have to finish before this plugin
+     *         is started, if they are chosen too.
+     */
+    default @NotNull Set<Integer> dependencies() {
+        return Set.of();
+    }
+
+    /**
+     * The non-interactive variant of {@link #action()}. All the information
+     * otherwise asked for is taken from the {@code parameters}. The plugins
+     * which do not support the non-interactive mode keep this implementation.
+     *
+     * @param parameters The parameters of the non-interactive run.
+     * @return The exit code of the action. Any non-zero number means that an issue
+     *         was encountered during the execution of the action.
+     */
+    default int action(@NotNull PluginParameters parameters) {
+        System.err.println("The %ACTION can not be run in the non-interactive mode."
+                           .replace("%ACTION", keyword()));
+        return 1;
+    }
+
+    /**
+     * The context-aware variant of {@link #action(PluginParameters)}. The
+     * airports, the weather reports and the output files are obtained from
+     * the {@code context}, so that the plugins of the same run share them. The
+     * plugins which do not use the context keep this implementation.
+     *
+     * @param parameters The parameters of the plugin.
+     * @param context    The context shared by the plugins of the run.
+     * @return The exit code of the action. Any non-zero number means that an issue
+     *         was encountered during the execution of the action.
+     */
+    default int action(@NotNull PluginParameters parameters, @NotNull PluginContext context) {
+        return action(parameters);
+    }
 }
@@ -0,0 +1,215 @@
+package cz.cuni.mff.java.flightplanner.plugin;
+
+import java.io.File;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import cz.cuni.mff.java.flightplanner.dataobject.Airport;
+import cz.cuni.mff.java.flightplanner.output.OutputSink;
+import cz.cuni.mff.java.flightplanner.output.OutputSinks;
+import cz.cuni.mff.java.flightplanner.util.Downloader;
+import cz.cuni.mff.java.flightplanner.util.NotNull;
+import cz.cuni.mff.java.flightplanner.util.Nullable;
+
+/**
+ * The PluginContext class holds everything the plugins of one run share: the
+ * answers given by the user, the airports found in the database, the
+ * downloaded weather reports and the opened output sinks. The second plugin
+ * which needs the same airports or reports gets the results of the first one
+ * instead of asking the user and downloading them again.
+ * <p>
+ * The context is used by the plugins running concurrently, therefore all its
+ * methods are thread-safe. When the same reports are requested by two plugins
+ * at the same time, only one of them downloads them and the other one waits.
+ * The reports which could not be downloaded are not requested again during
+ * the run.
+ */
+public class PluginContext implements AutoCloseable {
+
+    private final ZonedDateTime startTime = ZonedDateTime.now(ZoneOffset.UTC);
+    private final Downloader downloader;
+    private final Map<String, String> answers = new ConcurrentHashMap<>();
+    private final Map<List<String>, CompletableFuture<List<Airport>>> airports = new ConcurrentHashMap<>();
+    private final Map<String, CompletableFuture<File>> metars = new ConcurrentHashMap<>(),
+                                                     tafs   = new ConcurrentHashMap<>();
+    private final OutputSinks sinks;
+
+    /**
+     * Creates the context of a run which downloads the reports by the default
+     * {@link Downloader} and writes the output synchronously.
+     */
+    public PluginContext() {
+        this(new Downloader(), new OutputSinks(OutputSink.defaultBufferSize, false));
+    }
+
+    /**
+     * @param downloader The downloader of the weather reports.
+     * @param sinks      The manager of the output sinks of the run.
+     */
+    public PluginContext(@NotNull Downloader downloader, @NotNull OutputSinks sinks) {
+        this.downloader = downloader;
+        this.sinks = sinks;
+    }
+
+    /**
+     * @return The UTC time at which the run started. The plugins derive their
+     *         default time windows from it, so that the windows of different
+     *         plugins are equal and the downloaded reports can be shared.
+     */
+    public @NotNull ZonedDateTime getStartTime() {
+        return startTime;
+    }
+
+    /**
+     * @param key The key of the parameter as used in {@link PluginParameters}.
+     * @return The answer which the user already gave to another plugin, or
+     *         {@code null} if the question has not been asked yet.
+     */
+    @Nullable String getAnswer(@NotNull String key) {
+        return answers.get(key);
+    }
+
+    /**
+     * Keeps the answer of the user for the other plugins of the run.
+     *
+     * @param key   The key of the parameter as used in {@link PluginParameters}.
+     * @param value The answer.
+     */
+    void putAnswer(@NotNull String key, @NotNull String value) {
+        answers.put(key, value);
+    }
+
+    /**
+     * Keeps the airports already found in the database, so that they are not
+     * searched for again.
+     *
+     * @param requested The airports as requested in the parameters, see
+     *                  {@link PluginParameters#getAirports()}.
+     * @param found     The found airports.
+     */
+    void putAirports(@NotNull List<String> requested, @NotNull List<Airport> found) {
+        airports.put(List.copyOf(requested), CompletableFuture.completedFuture(List.copyOf(found)));
+    }
+
+    /**
+     * Finds the airports given by the {@code parameters}. The database is
+     * searched only once for the same requested airports during the run, the
+     * plugins requesting the airports being searched for by another plugin
+     * wait for its result. The unsuccessful search is not repeated either.
+     *
+     * @param parameters The parameters of the plugin.
+     * @return The list of the found airports, or {@code null} if no airport is
+     *         found. See {@link PluginParameters#findAirports()}.
+     */
+    public @Nullable List<Airport> findAirports(@NotNull PluginParameters parameters) {
+        CompletableFuture<List<Airport>> fresh = new CompletableFuture<>(),
+                                         known = airports.putIfAbsent(parameters.getAirports(), fresh);
+        if (known != null) return known.join();
+        List<Airport> found = null;
+        try {
+            found = parameters.findAirports();
+        } finally {
+            fresh.complete(found == null ? null : List.copyOf(found));
+        }
+        return fresh.join();
+    }
+
+    /**
+     * Downloads the METARs of the airports in the time window. Only the
+     * reports which were not downloaded during the run yet are downloaded.
+     *
+     * @param from     The start of the time window.
+     * @param to       The end of the time window.
+     * @param stations The airports whose METARs are needed.
+     * @return The map of the ICAO codes to the files with the METARs. The
+     *         airports whose METARs are not available are left out.
+     */
+    public @NotNull Map<String, File> downloadMETARs(@NotNull ZonedDateTime from, @NotNull ZonedDateTime to,
+                                                     @NotNull List<Airport> stations) {
+        String window = "%FROM/%TO".replace("%FROM", from.toInstant().toString())
+                                   .replace("%TO", to.toInstant().toString());
+        return download(metars, window, stations, missing -> downloader.downloadMETARs(from, to, missing));
+    }
+
+    /**
+     * Downloads the currently valid forecasts of the airports. Only the
+     * forecasts which were not downloaded during the run yet are downloaded.
+     *
+     * @param stations The airports whose forecasts are needed.
+     * @return The map of the ICAO codes to the files with the forecasts. The
+     *         airports whose forecasts are not available are left out.
+     */
+    public @NotNull Map<String, File> downloadTAFs(@NotNull List<Airport> stations) {
+        return download(tafs, "", stations, downloader::downloadTAFs);
+    }
+
+    /**
+     * Opens the output chosen by the {@code parameters}. The sinks which are
+     * not closed by the plugin are closed when the run ends.
+     *
+     * @param parameters The parameters of the plugin.
+     * @param fileName   The name of the file used in case of the file output.
+     * @return The sink to be printed into.
+     */
+    public @NotNull OutputSink openOutput(@NotNull PluginParameters parameters, @NotNull String fileName) {
+        return sinks.open(parameters.openOutput(fileName));
+    }
+
+    /**
+     * The variant of {@link #openOutput(PluginParameters, String)} which opens
+     * the file with the given extension.
+     *
+     * @param parameters The parameters of the plugin.
+     * @param fileName   The name of the file used in case of the file output.
+     * @param extension  The extension of the file.
+     * @return The sink to be printed into.
+     */
+    public @NotNull OutputSink openOutput(@NotNull PluginParameters parameters, @NotNull String fileName,
+                                          @NotNull String extension) {
+        return sinks.open(parameters.openOutput(fileName, extension));
+    }
+
+    /**
+     * Closes all the output sinks opened during the run.
+     */
+    @Override
+    public void close() {
+        sinks.close();
+    }
+
+    /**
+     * Returns the reports of the stations. The stations which are not cached
+     * are downloaded by a single call of the {@code loader}, the stations
+     * being downloaded by another thread are waited for.
+     */
+    private static @NotNull Map<String, File> download(@NotNull Map<String, CompletableFuture<File>> cache,
+                                                       @NotNull String window, @NotNull List<Airport> stations,
+                                                       @NotNull Function<List<Airport>, Map<String, File>> loader) {
+        Map<String, CompletableFuture<File>> wanted = new LinkedHashMap<>();
+        List<Airport> missing = new ArrayList<>();
+        for (Airport station : stations) {
+            CompletableFuture<File> fresh = new CompletableFuture<>(),
+                                    known = cache.putIfAbsent(station.getIcaoCode() + window, fresh);
+            wanted.put(station.getIcaoCode(), known == null ? fresh : known);
+            if (known == null) missing.add(station);
+        }
+        if (!missing.isEmpty()) {
+            Map<String, File> loaded = Map.of();
+            try {
+                loaded = loader.apply(missing);
+            } finally {
+                for (Airport station : missing) {
+                    wanted.get(station.getIcaoCode()).complete(loaded.get(station.getIcaoCode()));
+                }
+            }
+        }
+        Map<String, File> result = new LinkedHashMap<>();
+        wanted.forEach((icao, file) -> {
+            if (file.join() != null) result.put(icao, file.join());
+        });
+        return result;
+    }
+}
@@ -0,0 +1,388 @@
+package cz.cuni.mff.java.flightplanner.plugin;
+
+import java.io.*;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.*;
+import java.util.stream.Collectors;
+import cz.cuni.mff.java.flightplanner.DialogCenter;
+import cz.cuni.mff.java.flightplanner.dataobject.Airport;
+import cz.cuni.mff.java.flightplanner.output.RecordFormat;
+import cz.cuni.mff.java.flightplanner.util.NotNull;
+import cz.cuni.mff.java.flightplanner.util.Nullable;
+
+/**
+ * The PluginParameters class holds all the answers which the plugins otherwise
+ * ask the user for. The parameters are read from the command-line arguments
+ * and/or from a job file, or collected by {@link Plugin#prepare(PluginContext)}, so that
+ * the plugins can be run without any prompt by
+ * {@link Plugin#action(PluginParameters)}.
+ * <p>
+ * The arguments have the form {@code --key value}. The job file given by
+ * {@code --job path} is a {@link Properties} file using the same keys without
+ * the leading dashes, the command-line arguments override its values. The
+ * recognized keys are:
+ * <ul>
+ *     <li>{@code run} - the comma separated IDs or keywords of the plugins</li>
+ *     <li>{@code airports} - the comma separated ICAO codes</li>
+ *     <li>{@code from}, {@code to} - the UTC time window in the
+ *         "yyyy-MM-dd HH:mm" format</li>
+ *     <li>{@code output} - either "screen" (default) or "file"</li>
+ *     <li>{@code output-dir} - the destination directory of the files</li>
+ *     <li>{@code async-output} - write the files on a separate thread
+ *         ("yes" or "no")</li>
+ *     <li>{@code format} - "text" (default), "jsonl", "csv" or "binary", see
+ *         {@link RecordFormat}</li>
+ *     <li>{@code raw}, {@code tokens}, {@code taf} - the decode options
+ *         ("yes" or "no")</li>
+ * </ul>
+ * Any other key is kept as a plugin specific option.
+ */
+public class PluginParameters {
+
+    private static final String dateTimeStrFormat = "yyyy-MM-dd HH:mm";
+    private static final Set<String> knownKeys =
+            Set.of("run", "airports", "from", "to", "output", "output-dir", "async-output",
+                   "format", "raw", "tokens", "taf");
+
+    private final List<String> plugins, airports;
+    private final ZonedDateTime from, to;
+    private final boolean fileOutput, asyncOutput, rawData, tokenPrint, forecasts;
+    private final String outputDirectory;
+    private final RecordFormat format;
+    private final Map<String, String> options;
+
+    /**
+     * The exception reporting the incorrect values of the parameters together
+     * with their keys, so that only these values can be asked for again.
+     */
+    public static class InvalidParameterException extends IllegalArgumentException {
+        private static final long serialVersionUID = 1L;
+        private final List<String> keys;
+
+        private InvalidParameterException(@NotNull String message, @NotNull String... keys) {
+            super(message);
+            this.keys = List.of(keys);
+        }
+
+        /**
+         * @return The keys of the incorrect values.
+         */
+        public @NotNull List<String> getKeys() {
+            return keys;
+        }
+    }
+
+    private PluginParameters(@NotNull Map<String, String> values) {
+        this.plugins = splitList(values.get("run"), false);
+        this.airports = splitList(values.get("airports"), true);
+        this.from = parseTime(values.get("from"), "from");
+        this.to = parseTime(values.get("to"), "to");
+        if (from != null && to != null && !from.isBefore(to)) {
+            throw new InvalidParameterException("The \"from\" time has to be before the \"to\" time.", "from", "to");
+        }
+        String output = values.getOrDefault("output", "screen").strip().toLowerCase();
+        if (!"screen".equals(output) && !"file".equals(output)) {
+            throw new InvalidParameterException("The output has to be either \"screen\" or \"file\".", "output");
+        }
+        this.fileOutput = "file".equals(output);
+        this.outputDirectory = values.get("output-dir");
+        this.asyncOutput = parseFlag(values.get("async-output"), "async-output");
+        this.format = RecordFormat.of(values.getOrDefault("format", RecordFormat.TEXT.getKeyword()));
+        if (format == null) {
+            throw new InvalidParameterException("The format has to be one of \"text\", \"jsonl\", \"csv\" or \"binary\".",
+                                                "format");
+        }
+        if (format.isBinary() && !fileOutput) {
+            throw new InvalidParameterException("The binary format can be written only to the file output.", "format");
+        }
+        this.rawData = parseFlag(values.get("raw"), "raw");
+        this.tokenPrint = parseFlag(values.get("tokens"), "tokens");
+        this.forecasts = parseFlag(values.get("taf"), "taf");
+        this.options = values.entrySet()
+                             .stream()
+                             .filter(entry -> !knownKeys.contains(entry.getKey()))
+                             .collect(Collectors.toUnmodifiableMap(Map.Entry::getKey, Map.Entry::getValue));
+    }
+
+    /**
+     * Parses the command-line arguments. If the {@code --job} argument is
+     * present, the job file is read first and the other arguments override its
+     * values.
+     *
+     * @param args The command-line arguments.
+     * @return The parsed parameters.
+     * @throws IllegalArgumentException if the arguments or the job file are
+     *         not correct. The message describes the issue.
+     */
+    public static @NotNull PluginParameters fromArguments(@NotNull String[] args) {
+        Map<String, String> values = new HashMap<>(),
+                            fromArgs = new HashMap<>();
+        for (int i = 0; i < args.length; i++) {
+            if (!args[i].startsWith("--") || args[i].length() == 2) {
+                throw new IllegalArgumentException("Unexpected argument \"%ARG\".".replace("%ARG", args[i]));
+            }
+            String key = args[i].substring(2).toLowerCase();
+            if (i + 1 == args.length || args[i + 1].startsWith("--")) {
+                throw new IllegalArgumentException("The argument \"%ARG\" is missing its value.".replace("%ARG", args[i]));
+            }
+            fromArgs.put(key, args[++i]);
+        }
+        String job = fromArgs.remove("job");
+        if (job != null) values.putAll(readJobFile(new File(job)));
+        values.putAll(fromArgs);
+        return new PluginParameters(values);
+    }
+
+    /**
+     * Reads the parameters from the job file only.
+     *
+     * @param jobFile The {@link Properties} file with the parameters.
+     * @return The parsed parameters.
+     * @throws IllegalArgumentException if the job file is not correct.
+     */
+    public static @NotNull PluginParameters fromJobFile(@NotNull File jobFile) {
+        return new PluginParameters(readJobFile(jobFile));
+    }
+
+    /**
+     * Creates the parameters from the already collected values, e.g. from the
+     * answers of the user (see {@link Plugin#prepare(PluginContext)}).
+     *
+     * @param values The values of the parameters stored under the same keys as
+     *               in the job file.
+     * @return The parsed parameters.
+     * @throws InvalidParameterException if any of the values is not correct.
+     */
+    public static @NotNull PluginParameters fromValues(@NotNull Map<String, String> values) {
+        return new PluginParameters(values);
+    }
+
+    private static @NotNull Map<String, String> readJobFile(@NotNull File jobFile) {
+        Properties properties = new Properties();
+        try (Reader reader = new BufferedReader(new FileReader(jobFile))) {
+            properties.load(reader);
+        } catch (IOException e) {
+            throw new IllegalArgumentException("The job file %FILE could not be read."
+                                               .replace("%FILE", jobFile.getPath()));
+        }
+        Map<String, String> result = new HashMap<>();
+        properties.stringPropertyNames()
+                  .forEach(name -> result.put(name.toLowerCase(), properties.getProperty(name)));
+        return result;
+    }
+
+    /**
+     * @return The description of the command-line arguments.
+     */
+    public static @NotNull String usage() {
+        return String.join(System.lineSeparator(),
+                "Usage: FlightPlanner [--job <file>] [--<key> <value> ...]",
+                "Without any argument, the Flight Planner is run interactively.",
+                "  --run <plugins>        comma separated IDs or keywords of the plugins to be run (required)",
+                "  --airports <codes>     comma separated ICAO codes of the airports",
+                "  --from <time>          UTC start of the time window (%FORMAT)",
+                "  --to <time>            UTC end of the time window (%FORMAT)",
+                "  --output <form>        screen (default) or file",
+                "  --output-dir <path>    destination directory of the output files",
+                "  --async-output <yes/no> write the output files on a separate thread",
+                "  --format <format>      text (default), jsonl, csv or binary",
+                "  --raw <yes/no>         print the raw weather data too",
+                "  --tokens <yes/no>      print the names of the decoded METAR tokens",
+                "  --taf <yes/no>         decode the currently valid forecasts too",
+                "  --<option> <value>     plugin specific option, e.g. --interval 5",
+                "  --job <file>           properties file with the same keys, overridden by the arguments")
+                     .replace("%FORMAT", dateTimeStrFormat);
+    }
+
+    /**
+     * @return The IDs or keywords of the plugins to be run.
+     */
+    public @NotNull List<String> getPlugins() {
+        return plugins;
+    }
+
+    /**
+     * @return The upper case ICAO codes of the airports.
+     */
+    public @NotNull List<String> getAirports() {
+        return airports;
+    }
+
+    /**
+     * Finds the airports given by their ICAO codes in the database. The codes
+     * which do not match any airport are reported.
+     *
+     * @return The list of the found airports, or {@code null} if a database
+     *         issue is detected or no airport is found.
+     */
+    public @Nullable List<Airport> findAirports() {
+        List<Airport> found = Airport.searchAirports(null, airports, false, false);
+        if (found == null) return null;
+        for (String icao : airports) {
+            if (found.stream().noneMatch(apt -> apt.getIcaoCode().equals(icao))) {
+                System.err.println("Error, no airport matched \"%ICAO\" entry.".replace("%ICAO", icao));
+            }
+        }
+        if (found.isEmpty()) {
+            System.err.println("No airport was found. Please use the --airports argument with the ICAO codes.");
+            return null;
+        }
+        return found;
+    }
+
+    /**
+     * @return The start of the time window, or {@code null} if not given.
+     */
+    public @Nullable ZonedDateTime getFrom() {
+        return from;
+    }
+
+    /**
+     * @return The end of the time window, or {@code null} if not given.
+     */
+    public @Nullable ZonedDateTime getTo() {
+        return to;
+    }
+
+    /**
+     * @return The flag indicating that the output is directed to files.
+     */
+    public boolean isFileOutput() {
+        return fileOutput;
+    }
+
+    /**
+     * @return The flag indicating that the output files should be written by
+     *         a separate writer thread.
+     */
+    public boolean isAsyncOutput() {
+        return asyncOutput;
+    }
+
+    /**
+     * @return The format of the output.
+     */
+    public @NotNull RecordFormat getFormat() {
+        return format;
+    }
+
+    /**
+     * @return The flag indicating that the raw data should be printed too.
+     */
+    public boolean isRawData() {
+        return rawData;
+    }
+
+    /**
+     * @return The flag indicating that the token names should be printed.
+     */
+    public boolean isTokenPrint() {
+        return tokenPrint;
+    }
+
+    /**
+     * @return The flag indicating that the forecasts should be decoded too.
+     */
+    public boolean isForecasts() {
+        return forecasts;
+    }
+
+    /**
+     * Opens the output chosen by the parameters.
+     *
+     * @param fileName The name of the file used in case of the file output.
+     * @return The output stream to be used.
+     */
+    public @NotNull OutputStream openOutput(@NotNull String fileName) {
+        return openOutput(fileName, format.getFileExtension());
+    }
+
+    /**
+     * The variant of {@link #openOutput(String)} used for the files whose
+     * format differs from the chosen record format, e.g. the exported routes.
+     *
+     * @param fileName  The name of the file used in case of the file output.
+     * @param extension The extension of the file.
+     * @return The output stream to be used.
+     */
+    public @NotNull OutputStream openOutput(@NotNull String fileName, @NotNull String extension) {
+        return fileOutput
+               ? DialogCenter.createFileOutputStream(outputDirectory, fileName, extension)
+               : System.out;
+    }
+
+    /**
+     * @param key          The name of the plugin specific option.
+     * @param defaultValue The value used if the option is not given.
+     * @return The numeric value of the option.
+     * @throws IllegalArgumentException if the value is not a number.
+     */
+    public double getOption(@NotNull String key, double defaultValue) {
+        String value = options.get(key);
+        if (value == null) return defaultValue;
+        try {
+            return Double.parseDouble(value.strip());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("The option \"%KEY\" has to be a number.".replace("%KEY", key));
+        }
+    }
+
+    /**
+     * @param key The name of the plugin specific yes/no option.
+     * @return The value of the option, {@code false} if not given.
+     * @throws IllegalArgumentException if the value is not a yes/no value.
+     */
+    public boolean getFlag(@NotNull String key) {
+        return parseFlag(options.get(key), key);
+    }
+
+    /**
+     * @param key The name of the plugin specific option.
+     * @return The value of the option, or {@code null} if not given.
+     */
+    public @Nullable String getOption(@NotNull String key) {
+        return options.get(key);
+    }
+
+    static @NotNull List<String> splitList(@Nullable String value, boolean upperCase) {
+        if (value == null) return List.of();
+        return Arrays.stream(value.split(","))
+                     .map(String::strip)
+                     .filter(item -> !item.isEmpty())
+                     .map(item -> upperCase ? item.toUpperCase() : item)
+                     .collect(Collectors.toUnmodifiableList());
+    }
+
+    private static @Nullable ZonedDateTime parseTime(@Nullable String value, @NotNull String key) {
+        if (value == null) return null;
+        try {
+            return LocalDateTime.parse(value.strip(), DateTimeFormatter.ofPattern(dateTimeStrFormat))
+                                .atZone(ZoneOffset.UTC);
+        } catch (DateTimeParseException e) {
+            throw new InvalidParameterException("The \"%KEY\" time has to be in the %FORMAT format."
+                                                .replace("%KEY", key)
+                                                .replace("%FORMAT", dateTimeStrFormat), key);
+        }
+    }
+
+    private static boolean parseFlag(@Nullable String value, @NotNull String key) {
+        if (value == null) return false;
+        switch (value.strip().toLowerCase()) {
+            case "y":
+            case "yes":
+            case "true":
+                return true;
+            case "n":
+            case "no":
+            case "false":
+                return false;
+            default:
+                throw new InvalidParameterException("The \"%KEY\" option has to be either \"yes\" or \"no\"."
+                                                    .replace("%KEY", key), key);
+        }
+    }
+}
@@ -0,0 +1,377 @@
+package cz.cuni.mff.java.flightplanner.plugin;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import cz.cuni.mff.java.flightplanner.output.OutputSink;
+import cz.cuni.mff.java.flightplanner.util.NotNull;
+import cz.cuni.mff.java.flightplanner.util.Nullable;
+import cz.cuni.mff.java.flightplanner.util.Utilities;
+
+/**
+ * The PluginScheduler class runs the chosen plugins concurrently while their
+ * output still appears in the order of their IDs.
+ * <p>
+ * The plugins whose parameters were prepared beforehand (see
+ * {@link Plugin#prepare(PluginContext)}) do not need the user any more and
+ * are run by {@link Plugin#action(PluginParameters, PluginContext)} on the
+ * worker threads as soon as all
+ * their {@link Plugin#dependencies()} are finished. Everything they print to
+ * the standard output and to the standard error stream is kept in the buffer
+ * of their section. The buffer holds at most {@value #sectionMemoryLimit}
+ * bytes in the memory, the larger output is moved to a temporary file, so the
+ * large reports of the plugins waiting for their turn do not fill the heap.
+ * The section of the first unfinished plugin is printed directly to the
+ * console, so the long-running plugins are not silent.
+ * <p>
+ * The plugins without prepared parameters interact with the user by
+ * {@link Plugin#action()} and are run exclusively on the calling thread when
+ * their turn comes, therefore only one plugin reads the standard input at a
+ * time. The output of the threads which are not created by the plugins
+ * themselves (e.g. the common fork-join pool) is not captured and goes
+ * directly to the console.
+ */
+public class PluginScheduler {
+
+    /**
+     * The size of the output of one section kept in the memory in bytes.
+     */
+    static final int sectionMemoryLimit = 1 << 20;
+
+    private final int threads;
+
+    /**
+     * @param threads The maximal number of the plugins run at the same time.
+     */
+    public PluginScheduler(int threads) {
+        this.threads = Math.max(1, threads);
+    }
+
+    /**
+     * Runs the plugins and prints their sections. The sections are printed in
+     * the order of the plugin IDs, except for the plugins which depend on a
+     * plugin with a higher ID: these are printed after their dependencies.
+     *
+     * @param plugins  The plugins to be run.
+     * @param prepared The parameters of the plugins which can be run without
+     *                 the user. The other plugins are run exclusively.
+     * @param context  The context shared by the plugins.
+     * @return The exit code of the run. Any non-zero code means that an issue
+     *         has occurred in any of the plugins or that their dependencies
+     *         form a cycle.
+     */
+    public int run(@NotNull List<Plugin> plugins, @NotNull Map<Plugin, PluginParameters> prepared,
+                   @NotNull PluginContext context) {
+        List<Plugin> order = order(plugins);
+        if (order == null) {
+            System.err.println("The dependencies of the chosen plugins form a cycle.");
+            return 1;
+        }
+        long concurrent = order.stream().filter(prepared::containsKey).count();
+        if (concurrent == 0) {
+            return runSequentially(order);
+        }
+
+        PrintStream console = System.out, consoleErr = System.err;
+        RoutingStream routedOut = new RoutingStream(console, false),
+                      routedErr = new RoutingStream(consoleErr, true);
+        AtomicInteger threadNumber = new AtomicInteger();
+        ExecutorService workers =
+                Executors.newFixedThreadPool((int) Math.min(threads, concurrent), task -> {
+                    Thread thread = new Thread(task, "plugin-" + threadNumber.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        Map<Plugin, Section> sections = new HashMap<>();
+        Map<Plugin, CompletableFuture<Integer>> finished = new HashMap<>();
+        System.setOut(new PrintStream(routedOut, true));
+        System.setErr(new PrintStream(routedErr, true));
+        try {
+            for (Plugin plugin : order) {
+                Section section = new Section(console, consoleErr);
+                sections.put(plugin, section);
+                CompletableFuture<?>[] dependencies = dependenciesOf(plugin, finished);
+                PluginParameters parameters = prepared.get(plugin);
+                finished.put(plugin, parameters == null
+                                     ? new CompletableFuture<>()
+                                     : CompletableFuture.allOf(dependencies)
+                                                        .thenApplyAsync(ignored -> section.run(plugin, parameters, context),
+                                                                        workers));
+            }
+
+            boolean fine = true;
+            for (Plugin plugin : order) {
+                Section section = sections.get(plugin);
+                int exitCode;
+                if (prepared.containsKey(plugin)) {
+                    section.goLive();
+                    exitCode = finished.get(plugin).join();
+                } else {
+                    CompletableFuture.allOf(dependenciesOf(plugin, finished)).join();
+                    section.goLive();
+                    exitCode = section.run(plugin, null, context);
+                    finished.get(plugin).complete(exitCode);
+                }
+                if (exitCode != 0) fine = false;
+            }
+            return fine ? 0 : 1;
+        } finally {
+            System.setOut(console);
+            System.setErr(consoleErr);
+            workers.shutdown();
+        }
+    }
+
+    /**
+     * Runs the plugins one after another without any buffering.
+     */
+    private static int runSequentially(@NotNull List<Plugin> order) {
+        boolean fine = true;
+        for (Plugin plugin : order) {
+            System.out.println(Utilities.sectionSeparator(plugin.keyword()));
+            if (plugin.action() != 0) {
+                System.err.println("An error occured during the execution of the %ACTION"
+                                   .replace("%ACTION", plugin.name()));
+                fine = false;
+            }
+            System.out.println(Utilities.sectionSeparator("End of %MOD".replace("%MOD", plugin.keyword())));
+        }
+        return fine ? 0 : 1;
+    }
+
+    /**
+     * Sorts the plugins topologically by their dependencies. Among the plugins
+     * whose dependencies are finished, the one with the lowest ID comes first.
+     * The dependencies on the plugins which are not chosen are ignored.
+     *
+     * @return The sorted plugins, or {@code null} if the dependencies form
+     *         a cycle.
+     */
+    private static @Nullable List<Plugin> order(@NotNull List<Plugin> plugins) {
+        Map<Integer, Plugin> byID = new HashMap<>();
+        plugins.forEach(plugin -> byID.put(plugin.pluginID(), plugin));
+        Map<Plugin, Integer> waitingFor = new HashMap<>();
+        Map<Plugin, List<Plugin>> dependants = new HashMap<>();
+        PriorityQueue<Plugin> ready = new PriorityQueue<>(Comparator.comparingInt(Plugin::pluginID));
+        for (Plugin plugin : byID.values()) {
+            int count = 0;
+            for (Integer dependency : plugin.dependencies()) {
+                Plugin required = byID.get(dependency);
+                if (required == null || required == plugin) continue;
+                dependants.computeIfAbsent(required, key -> new ArrayList<>()).add(plugin);
+                count++;
+            }
+            waitingFor.put(plugin, count);
+            if (count == 0) ready.add(plugin);
+        }
+        List<Plugin> result = new ArrayList<>();
+        while (!ready.isEmpty()) {
+            Plugin next = ready.poll();
+            result.add(next);
+            for (Plugin dependant : dependants.getOrDefault(next, List.of())) {
+                if (waitingFor.merge(dependant, -1, Integer::sum) == 0) ready.add(dependant);
+            }
+        }
+        return result.size() == byID.size() ? result : null;
+    }
+
+    private static @NotNull CompletableFuture<?>[] dependenciesOf(@NotNull Plugin plugin,
+                                                                  @NotNull Map<Plugin, CompletableFuture<Integer>> finished) {
+        return finished.entrySet()
+                       .stream()
+                       .filter(entry -> entry.getKey() != plugin &&
+                                        plugin.dependencies().contains(entry.getKey().pluginID()))
+                       .map(Map.Entry::getValue)
+                       .toArray(CompletableFuture<?>[]::new);
+    }
+
+    /**
+     * The section of one plugin. Its standard and error output is buffered
+     * until the section goes live.
+     */
+    private static class Section {
+        private final SectionBuffer out, err;
+
+        private Section(@NotNull PrintStream console, @NotNull PrintStream consoleErr) {
+            this.out = new SectionBuffer(console);
+            this.err = new SectionBuffer(consoleErr);
+        }
+
+        /**
+         * Runs the plugin with the output of the current thread directed to
+         * this section.
+         *
+         * @param parameters The parameters of the plugin, or {@code null} if
+         *                   the plugin is run interactively.
+         * @param context    The context shared by the plugins.
+         * @return The exit code of the plugin.
+         */
+        private int run(@NotNull Plugin plugin, @Nullable PluginParameters parameters,
+                        @NotNull PluginContext context) {
+            RoutingStream.current.set(this);
+            PrintStream printer = new PrintStream(out, true);
+            try {
+                printer.println(Utilities.sectionSeparator(plugin.keyword()));
+                int exitCode;
+                try {
+                    exitCode = parameters == null ? plugin.action() : plugin.action(parameters, context);
+                } catch (RuntimeException e) {
+                    new PrintStream(err, true).println("%ACTION failed: %MSG"
+                                                       .replace("%ACTION", plugin.name())
+                                                       .replace("%MSG", String.valueOf(e.getMessage())));
+                    exitCode = 1;
+                }
+                if (exitCode != 0) {
+                    new PrintStream(err, true).println("An error occured during the execution of the %ACTION"
+                                                       .replace("%ACTION", plugin.name()));
+                }
+                printer.println(Utilities.sectionSeparator("End of %MOD".replace("%MOD", plugin.keyword())));
+                return exitCode;
+            } finally {
+                RoutingStream.current.remove();
+            }
+        }
+
+        private void goLive() {
+            out.goLive();
+            err.goLive();
+        }
+    }
+
+    /**
+     * The buffer which keeps the output until it goes live. Then the buffered
+     * output is written to the console and so is all the following output.
+     * The output exceeding the {@link #sectionMemoryLimit} is moved to a
+     * temporary file. If the file can not be created, the output stays in the
+     * memory.
+     */
+    private static class SectionBuffer extends OutputStream {
+        private final PrintStream console;
+        private boolean live = false, memoryOnly = false;
+        private ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        private File spillFile;
+        private OutputStream spill;
+
+        private SectionBuffer(@NotNull PrintStream console) {
+            this.console = console;
+        }
+
+        @Override
+        public synchronized void write(int b) throws IOException {
+            if (live) console.write(b);
+            else if (spill != null) spill.write(b);
+            else {
+                buffer.write(b);
+                if (!memoryOnly && buffer.size() > sectionMemoryLimit) spill();
+            }
+        }
+
+        @Override
+        public synchronized void write(@NotNull byte[] b, int off, int len) throws IOException {
+            if (live) console.write(b, off, len);
+            else if (spill != null) spill.write(b, off, len);
+            else {
+                buffer.write(b, off, len);
+                if (!memoryOnly && buffer.size() > sectionMemoryLimit) spill();
+            }
+        }
+
+        @Override
+        public synchronized void flush() {
+            if (live) console.flush();
+        }
+
+        /**
+         * Moves the buffered output to the temporary file.
+         */
+        private void spill() {
+            File file = null;
+            OutputStream stream = null;
+            try {
+                file = File.createTempFile("flightplanner-section", ".txt");
+                file.deleteOnExit();
+                stream = new BufferedOutputStream(new FileOutputStream(file), OutputSink.defaultBufferSize);
+                buffer.writeTo(stream);
+                spillFile = file;
+                spill = stream;
+                buffer = null;
+            } catch (IOException e) {
+                memoryOnly = true;
+                try {
+                    if (stream != null) stream.close();
+                } catch (IOException ignored) { }
+                if (file != null) file.delete();
+            }
+        }
+
+        private synchronized void goLive() {
+            if (live) return;
+            live = true;
+            if (spill != null) {
+                try {
+                    spill.close();
+                    Files.copy(spillFile.toPath(), console);
+                } catch (IOException e) {
+                    console.println("The output of the section could not be read back.");
+                } finally {
+                    spillFile.delete();
+                }
+                spill = null;
+                spillFile = null;
+            } else {
+                console.write(buffer.toByteArray(), 0, buffer.size());
+                buffer = null;
+            }
+            console.flush();
+        }
+    }
+
+    /**
+     * The stream which replaces the standard (or error) output while the
+     * scheduler runs. The output of the threads running a plugin goes to the
+     * plugin's section, the output of the other threads goes to the console.
+     * The threads created by a plugin inherit its section.
+     */
+    private static class RoutingStream extends OutputStream {
+        private static final InheritableThreadLocal<Section> current = new InheritableThreadLocal<>();
+
+        private final PrintStream console;
+        private final boolean errorStream;
+
+        private RoutingStream(@NotNull PrintStream console, boolean errorStream) {
+            this.console = console;
+            this.errorStream = errorStream;
+        }
+
+        private @NotNull OutputStream target() {
+            Section section = current.get();
+            if (section == null) return console;
+            return errorStream ? section.err : section.out;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            target().write(b);
+        }
+
+        @Override
+        public void write(@NotNull byte[] b, int off, int len) throws IOException {
+            target().write(b, off, len);
+        }
+
+        @Override
+        public void flush() throws IOException {
+            target().flush();
+        }
+    }
+}
@@ -0,0 +1,132 @@
+package cz.cuni.mff.java.flightplanner.plugin;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import cz.cuni.mff.java.flightplanner.DialogCenter;
+import cz.cuni.mff.java.flightplanner.service.FlightPlannerServer;
+import cz.cuni.mff.java.flightplanner.util.Downloader;
+import cz.cuni.mff.java.flightplanner.util.NotNull;
+import cz.cuni.mff.java.flightplanner.util.Utilities;
+
+/**
+ * The ServerPlugin class runs the Flight Planner as a long-lived HTTP query
+ * service. See {@link FlightPlannerServer} for the available endpoints.
+ */
+public class ServerPlugin implements Plugin {
+
+    private static final int defaultPort = 8080, defaultQueueCapacity = 256;
+    private static final int defaultKeepAlive = 30, defaultCacheTime = 5;
+
+    @Override
+    public String name() { return this.getClass().getName(); }
+
+    @Override
+    public String description() { return "Run the HTTP service answering the airport and weather queries."; }
+
+    @Override
+    public String keyword() { return "server"; }
+
+    @Override
+    public Integer pluginID() { return 7; }
+
+    /**
+     * Lets the user choose the port and runs the server until the user presses
+     * the "Enter" key.
+     *
+     * @return The exit code of the action. Any non-zero code means that an issue
+     *         has occurred.
+     */
+    @Override
+    public int action() {
+        System.out.print("Please enter the port of the server (default %DEF): "
+                         .replace("%DEF", String.valueOf(defaultPort)));
+        int port;
+        try {
+            port = Integer.parseInt(DialogCenter.getInput(true, true).strip());
+        } catch (NumberFormatException e) {
+            port = defaultPort;
+        }
+        FlightPlannerServer server = createServer(port, Runtime.getRuntime().availableProcessors(),
+                                                  defaultQueueCapacity, defaultKeepAlive, defaultCacheTime);
+        if (server == null) return 1;
+        System.out.println("Press \"Enter\" to stop the server.");
+        DialogCenter.getInput(true, false);
+        server.stop(Duration.ofSeconds(1));
+        System.out.println(Utilities.sectionSeparator("SERVER STOPPED"));
+        return 0;
+    }
+
+    /**
+     * The non-interactive variant of {@link #action()}. The options "port",
+     * "workers", "queue", "keep-alive" (seconds) and "cache" (minutes) tune the
+     * server. The server runs until the program is terminated, or for the
+     * number of minutes given by the option "duration".
+     *
+     * @param parameters The parameters of the non-interactive run.
+     * @return The exit code of the action. Any non-zero code means that an issue
+     *         has occurred.
+     */
+    @Override
+    public int action(@NotNull PluginParameters parameters) {
+        FlightPlannerServer server;
+        String duration;
+        try {
+            server = createServer((int) parameters.getOption("port", defaultPort),
+                                  (int) parameters.getOption("workers", Runtime.getRuntime().availableProcessors()),
+                                  (int) parameters.getOption("queue", defaultQueueCapacity),
+                                  (int) parameters.getOption("keep-alive", defaultKeepAlive),
+                                  (int) parameters.getOption("cache", defaultCacheTime));
+            duration = parameters.getOption("duration");
+            if (duration != null) parameters.getOption("duration", 0);         // validates the value
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            return 1;
+        }
+        if (server == null) return 1;
+
+        CountDownLatch stopped = new CountDownLatch(1);
+        Thread shutdownHook = new Thread(() -> {
+            server.stop(Duration.ofSeconds(1));
+            stopped.countDown();
+        });
+        Runtime.getRuntime().addShutdownHook(shutdownHook);
+        try {
+            if (duration == null) {
+                stopped.await();
+            } else {
+                Thread.sleep(Duration.ofMinutes((long) parameters.getOption("duration", 0)).toMillis());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        server.stop(Duration.ofSeconds(1));
+        try {
+            // the stopped server is not kept by the hook after the timed run
+            Runtime.getRuntime().removeShutdownHook(shutdownHook);
+        } catch (IllegalStateException ignored) {
+            // the program is being terminated, the hook has stopped the server
+        }
+        System.out.println(Utilities.sectionSeparator("SERVER STOPPED"));
+        return 0;
+    }
+
+    private static FlightPlannerServer createServer(int port, int workers, int queueCapacity,
+                                                    int keepAlive, int cacheTime) {
+        FlightPlannerServer server =
+                new FlightPlannerServer(port, workers, queueCapacity, Duration.ofSeconds(keepAlive),
+                                        Duration.ofMinutes(cacheTime), new Downloader());
+        try {
+            server.start();
+        } catch (IOException e) {
+            System.err.println("The server could not be started: %MSG".replace("%MSG", String.valueOf(e.getMessage())));
+            return null;
+        }
+        System.out.println(Utilities.sectionSeparator("SERVER"));
+        System.out.println("The server listens at http://localhost:%PORT/ with %WORKERS worker(s)."
+                           .replace("%PORT", String.valueOf(server.getPort()))
+                           .replace("%WORKERS", String.valueOf(Math.max(1, workers))));
+        System.out.println("Endpoints: /airports?q=..., /airports/ICAO, /weather/ICAO?taf=yes, /metrics");
+        return server;
+    }
+}
@@ -7,6 +7,11 @@ import java.time.format.DateTimeParseException;
 import java.util.*;
 import cz.cuni.mff.java.flightplanner.*;
 import cz.cuni.mff.java.flightplanner.dataobject.Airport;
+import cz.cuni.mff.java.flightplanner.dataobject.Wind;
+import cz.cuni.mff.java.flightplanner.output.OutputSink;
+import cz.cuni.mff.java.flightplanner.output.RecordFormat;
+import cz.cuni.mff.java.flightplanner.output.RecordWriter;
+import cz.cuni.mff.java.flightplanner.output.ReportRecords;
 import cz.cuni.mff.java.flightplanner.util.*;
 
 /**
@@ -16,6 +21,7 @@ import cz.cuni.mff.java.flightplanner.util.*;
 public class WeatherInfoPlugin implements Plugin {
 
     private final static String dateTimeStrFormat = "yyyy-MM-dd HH:mm";
+    private final static double maxCrosswind = 20, maxTailwind = 10;
     private OutputStream outStream = System.out;
     private String fileOutputPath = null;
 
@@ -82,14 +88,23 @@ public class WeatherInfoPlugin implements Plugin {
                                                  false);
         if (foundAirports == null) return 1;
 
+        RecordFormat recordFormat = DialogCenter.chooseFormat("");
         if (autoOutputManagement) {
             outStream =
                     DialogCenter.chooseOutputForm("", false,
-                                                  null);
+                                                  null, recordFormat);
         }
+        boolean forecasts =
+                DialogCenter.getResponse(null,
+                                         "Do you want to decode the currently valid forecasts (TAF) too? %OPT: ",
+                                         "Y",
+                                         true);
         Map<String, File> aptMETARs_raw =
                 dwnldr.downloadMETARs(utcFromTime, utcToTime,
                                       foundAirports);
+        Map<String, File> aptTAFs_raw = forecasts
+                                        ? dwnldr.downloadTAFs(foundAirports)
+                                        : Map.of();
 
         for (String icaoCode : aptMETARs_raw.keySet()) {
             int exit;
@@ -101,44 +116,258 @@ public class WeatherInfoPlugin implements Plugin {
                     DialogCenter.chooseOutputForm(" for %ICAO airport"
                                                       .replace("%ICAO", icaoCode),
                                                   true,
-                                                  icaoCode + "_METAR");
+                                                  icaoCode + "_METAR",
+                                                  recordFormat);
             }else {
                 if (outStream.getClass()
                              .isAssignableFrom(FileOutputStream.class)) {
                     outStream = DialogCenter.setFileOutputStream(false,
-                                                                 icaoCode + "_METAR");
+                                                                 icaoCode + "_METAR",
+                                                                 recordFormat.getFileExtension());
                 }
             }
-            PrintStream pr = new PrintStream(outStream);
-            boolean fileOutput = outStream.getClass()
-                                          .isAssignableFrom(FileOutputStream.class);
-
-            if (DialogCenter.getResponse(null,
-                                         "Do you want to print the raw data using the output form chosen previously? %OPT: ",
-                                         "Y",
-                                         true)) {
-                pr.println(Utilities.sectionSeparator(
-                    "RAW %ICAO FILE"
-                               .replace("%ICAO", icaoCode))
-                );
-                if (fileOutput) {
-                    fileOutputPath = keyCorresFile.getAbsolutePath();
+            if (recordFormat != RecordFormat.TEXT &&
+                (!recordFormat.isBinary() || outStream.getClass().isAssignableFrom(FileOutputStream.class))) {
+                try (OutputSink sink = OutputSink.of(outStream, true)) {
+                    if (writeRecords(Map.of(icaoCode, keyCorresFile), recordFormat, sink) != 0) return 1;
                 }
-                if ((exit = printRawDataFile(keyCorresFile, pr)) != 0) {
-                    return exit;
+                continue;
+            }
+            boolean rawData =
+                        DialogCenter.getResponse(null,
+                                                 "Do you want to print the raw data using the output form chosen previously? %OPT: ",
+                                                 "Y",
+                                                 true);
+
+            try (OutputSink sink = OutputSink.of(outStream, true)) {
+                exit = printWeather(icaoCode, keyCorresFile, aptTAFs_raw.get(icaoCode), foundAirports,
+                                    sink.printer(), sink.isFileOutput(), rawData, weatherProcessor);
+            }
+            if (exit != 0) return exit;
+        }
+        return 0;
+    }
+
+    /**
+     * Asks the user for the time window, the airports, the output form and the
+     * decode options, so that the plugin can be run by
+     * {@link #action(PluginParameters, PluginContext)} concurrently with the
+     * other plugins.
+     *
+     * @return The parameters of the plugin.
+     */
+    @Override
+    public @NotNull PluginParameters prepare(@NotNull PluginContext context) {
+        ParameterPrompts prompts = new ParameterPrompts(this, context);
+        if (DialogCenter.getResponse(null,
+                                     "Do you want to precise the date and time for the output? %OPT: ",
+                                     "Y",
+                                     true)) {
+            DateTimeFormatter format = DateTimeFormatter.ofPattern(dateTimeStrFormat);
+            LocalDateTime fromTime = getFromDateTime(format),
+                          toTime   = getToDateTime(fromTime, format);
+            prompts.set("from", toUTC(fromTime).format(format));
+            prompts.set("to", toUTC(toTime).format(format));
+        }
+        if (prompts.airports()) {
+            prompts.output();
+            prompts.flag("raw", "Do you want to print the raw data too? %OPT: ");
+            prompts.flag("tokens", "Should the token names be printed too? %OPT: ");
+            prompts.flag("taf", "Do you want to decode the currently valid forecasts (TAF) too? %OPT: ");
+        }
+        return prompts.toParameters();
+    }
+
+    private static @NotNull ZonedDateTime toUTC(@NotNull LocalDateTime localTime) {
+        return localTime.atZone(ZoneId.systemDefault())
+                        .withZoneSameInstant(ZoneId.of("UTC"));
+    }
+
+    /**
+     * The non-interactive variant of {@link #action()}. The airports, the time
+     * window (the last day by default), the output form and the decode options
+     * are taken from the {@code parameters}.
+     *
+     * @param parameters The parameters of the non-interactive run.
+     * @return The exit code of the action. Any non-zero code means that an issue
+     *         has occurred.
+     */
+    @Override
+    public int action(@NotNull PluginParameters parameters) {
+        try (PluginContext context = new PluginContext()) {
+            return action(parameters, context);
+        }
+    }
+
+    /**
+     * The context-aware variant of {@link #action(PluginParameters)}. The
+     * airports and the reports already obtained by another plugin of the run
+     * are reused, the default time window ends at the start of the run.
+     *
+     * @param parameters The parameters of the plugin.
+     * @param context    The context shared by the plugins of the run.
+     * @return The exit code of the action. Any non-zero code means that an issue
+     *         has occurred.
+     */
+    @Override
+    public int action(@NotNull PluginParameters parameters, @NotNull PluginContext context) {
+        List<Airport> foundAirports = context.findAirports(parameters);
+        if (foundAirports == null) return 1;
+
+        ZonedDateTime utcToTime   = parameters.getTo() != null
+                                    ? parameters.getTo()
+                                    : context.getStartTime(),
+                      utcFromTime = parameters.getFrom() != null
+                                    ? parameters.getFrom()
+                                    : utcToTime.minusDays(1);
+        Map<String, File> aptMETARs_raw = context.downloadMETARs(utcFromTime, utcToTime, foundAirports);
+        Map<String, File> aptTAFs_raw = parameters.isForecasts()
+                                        ? context.downloadTAFs(foundAirports)
+                                        : Map.of();
+        if (parameters.getFormat() != RecordFormat.TEXT) {
+            int exit = aptMETARs_raw.size() == foundAirports.size() ? 0 : 1;
+            if (parameters.isFileOutput()) {
+                for (Map.Entry<String, File> metars : aptMETARs_raw.entrySet()) {
+                    try (OutputSink sink = context.openOutput(parameters, metars.getKey() + "_METAR")) {
+                        if (writeRecords(Map.of(metars.getKey(), metars.getValue()),
+                                         parameters.getFormat(), sink) != 0) return 1;
+                    }
                 }
-                pr.println(Utilities.sectionSeparator("END RAW FILE"));
+                return exit;
+            }
+            try (OutputSink sink = context.openOutput(parameters, "METARS")) {
+                return writeRecords(aptMETARs_raw, parameters.getFormat(), sink) != 0 ? 1 : exit;
+            }
+        }
+        METARDecoder weatherProcessor = new METARDecoder(parameters.isTokenPrint());
+
+        for (String icaoCode : aptMETARs_raw.keySet()) {
+            int exit;
+            try (OutputSink sink = context.openOutput(parameters, icaoCode + "_METAR")) {
+                exit = printWeather(icaoCode, aptMETARs_raw.get(icaoCode), aptTAFs_raw.get(icaoCode), foundAirports,
+                                    sink.printer(), sink.isFileOutput(), parameters.isRawData(),
+                                    weatherProcessor);
+            }
+            if (exit != 0) return exit;
+        }
+        return aptMETARs_raw.size() == foundAirports.size() ? 0 : 1;
+    }
+
+    /**
+     * Writes the decoded METARs as the machine-readable records. The raw data,
+     * the runway wind components and the forecasts are not part of the
+     * records.
+     *
+     * @param metarFiles The map of the ICAO codes to the files with METARs.
+     * @param format     The format of the records.
+     * @param sink       The sink the records are written to.
+     * @return The exit code of the action. Any non-zero code means that an issue
+     *         has occurred.
+     */
+    private int writeRecords(@NotNull Map<String, File> metarFiles, @NotNull RecordFormat format,
+                             @NotNull OutputSink sink) {
+        RecordWriter writer = format.open(sink.printer());
+        if (writer == null) return 1;
+        try {
+            for (File metarFile : metarFiles.values()) {
+                ReportRecords.writeObservations(writer, metarFile);
+            }
+            writer.flush();
+            return 0;
+        } catch (IOException e) {
+            System.err.println("The records of the METARs could not be written.");
+            return 1;
+        }
+    }
+
+    /**
+     * Prints all the weather information of one airport: optionally the raw
+     * data, the decoded METARs, the runway wind components and the decoded
+     * forecasts.
+     *
+     * @param icaoCode   The ICAO code of the airport.
+     * @param metarFile  The downloaded file with METAR entries.
+     * @param tafFile    The downloaded file with the forecasts, or {@code null}
+     *                   if the forecasts are not decoded.
+     * @param airports   The airports whose weather is being processed.
+     * @param pr         The printer used for printing.
+     * @param fileOutput The flag indicating that the output is directed to a
+     *                   file.
+     * @param rawData    The flag indicating that the raw data are printed too.
+     * @param decoder    The decoder of the METARs.
+     * @return The exit code of the action. Any non-zero code means that an issue
+     *         has occurred.
+     */
+    private int printWeather(@NotNull String icaoCode, @NotNull File metarFile, @Nullable File tafFile,
+                             @NotNull List<Airport> airports, @NotNull PrintStream pr, boolean fileOutput,
+                             boolean rawData, @NotNull METARDecoder decoder) {
+        int exit;
+        if (rawData) {
+            pr.println(Utilities.sectionSeparator(
+                "RAW %ICAO FILE"
+                           .replace("%ICAO", icaoCode))
+            );
+            if (fileOutput) {
+                fileOutputPath = metarFile.getAbsolutePath();
+            }
+            if ((exit = printRawDataFile(metarFile, pr)) != 0) {
+                return exit;
             }
+            pr.println(Utilities.sectionSeparator("END RAW FILE"));
+        }
 
-            // executes the fileDecode method and returns its exitCode
-            exit = weatherProcessor.fileDecode(keyCorresFile,
-                                               pr,
-                                               fileOutput);
+        // executes the fileDecode method and returns its exitCode
+        exit = decoder.fileDecode(metarFile,
+                                  pr,
+                                  fileOutput);
+        if (exit != 0) return exit;
+        printRunwayWinds(airports, icaoCode, metarFile, pr);
+        if (tafFile != null) {
+            exit = new TAFDecoder().fileDecode(tafFile, pr, ZonedDateTime.now(ZoneId.of("UTC")));
             if (exit != 0) return exit;
         }
         return 0;
     }
 
+    /**
+     * Prints the wind components of the runways of the airport computed from
+     * the latest available METAR. The runways which satisfy the default
+     * crosswind and tailwind limits are listed first, the best one at the top.
+     *
+     * @param airports The airports whose weather is being processed.
+     * @param icaoCode The ICAO code of the airport whose runways are printed.
+     * @param metarFile The downloaded file with METAR entries.
+     * @param printer  The printer used for printing.
+     */
+    private void printRunwayWinds(@NotNull List<Airport> airports, @NotNull String icaoCode,
+                                  @NotNull File metarFile, @NotNull PrintStream printer) {
+        Airport airport = airports.stream()
+                                  .filter(apt -> apt.getIcaoCode().equals(icaoCode))
+                                  .findFirst()
+                                  .orElse(null);
+        String metar = METARDecoder.latestMETAR(metarFile);
+        Wind wind = metar == null ? null : METARDecoder.decodeWind(metar);
+        if (airport == null || wind == null) return;
+
+        CrosswindCalculator calculator = new CrosswindCalculator(maxCrosswind, maxTailwind, true);
+        List<CrosswindCalculator.RunwayWind> usable = calculator.usableRunways(airport, wind);
+        printer.println(Utilities.sectionSeparator("RUNWAY WIND COMPONENTS %ICAO %WIND"
+                                                   .replace("%ICAO", icaoCode)
+                                                   .replace("%WIND", wind.toString())));
+        printer.printf("Limits: crosswind %.0f kt, tailwind %.0f kt (gusts included).%n",
+                       maxCrosswind, maxTailwind);
+        if (usable.isEmpty()) {
+            printer.println("No runway satisfies the limits.");
+        } else {
+            printer.println("Usable runways, the most suitable first:");
+            usable.forEach(rwy -> printer.println("\t" + rwy));
+        }
+        for (CrosswindCalculator.RunwayWind rwy : calculator.components(airport, wind)) {
+            if (!rwy.isUsable()) printer.println("\tNot usable: " + rwy);
+        }
+        printer.println(Utilities.sectionSeparator("END OF RUNWAY WIND COMPONENTS"));
+    }
+
     /**
      * This method asks the user for time precision using specified format.
      * Incorrect input format or the date in the future causes the method to take
@@ -0,0 +1,181 @@
+package cz.cuni.mff.java.flightplanner.plugin;
+
+import java.io.File;
+import java.io.PrintStream;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.util.List;
+import java.util.Map;
+import cz.cuni.mff.java.flightplanner.DialogCenter;
+import cz.cuni.mff.java.flightplanner.dataobject.Airport;
+import cz.cuni.mff.java.flightplanner.output.OutputSink;
+import cz.cuni.mff.java.flightplanner.stats.StationSummary;
+import cz.cuni.mff.java.flightplanner.stats.WeatherStatistics;
+import cz.cuni.mff.java.flightplanner.util.Downloader;
+import cz.cuni.mff.java.flightplanner.util.NotNull;
+
+/**
+ * The WeatherStatisticsPlugin class prints the statistical summaries of the
+ * weather observed at chosen airports over the last days.
+ */
+public class WeatherStatisticsPlugin implements Plugin {
+
+    private static final int defaultDays = 7, maxDays = 90;
+    private static final double defaultMinVisibility = 1500, defaultMinCeiling = 500;
+
+    @Override
+    public String name() { return this.getClass().getName(); }
+
+    @Override
+    public String description() { return "Write the weather statistics of chosen airports over a period."; }
+
+    @Override
+    public String keyword() { return "weather statistics"; }
+
+    @Override
+    public Integer pluginID() { return 6; }
+
+    /**
+     * Lets the user choose the airports, the length of the period and the
+     * minima, downloads the METARs of the period and prints the summary of
+     * each airport.
+     *
+     * @return The exit code of the action. Any non-zero code means that an issue
+     *         has occurred.
+     */
+    @Override
+    public int action() {
+        List<Airport> foundAirports =
+                Airport.searchAirports(null,
+                                       null,
+                                       false,
+                                       false);
+        if (foundAirports == null) return 1;
+        if (foundAirports.isEmpty()) return 0;
+
+        int days = (int) Math.min(maxDays,
+                                  askNumber("Please enter the number of the past days to be summarized (default %DEF): ",
+                                            defaultDays));
+        double minVisibility = askNumber("Please enter the visibility minimum in meters (default %DEF): ",
+                                         defaultMinVisibility),
+               minCeiling    = askNumber("Please enter the ceiling minimum in feet (default %DEF): ",
+                                         defaultMinCeiling);
+
+        ZonedDateTime to   = ZonedDateTime.now(ZoneOffset.UTC),
+                      from = to.minusDays(days);
+        Map<String, StationSummary> summaries = summarize(foundAirports, from, to, minVisibility, minCeiling);
+        for (Airport airport : foundAirports) {
+            printSummary(airport.getIcaoCode(), summaries, System.out);
+        }
+        return 0;
+    }
+
+    /**
+     * Asks the user for the airports, the length of the period and the minima,
+     * so that the plugin can be run by
+     * {@link #action(PluginParameters, PluginContext)} concurrently with the
+     * other plugins.
+     *
+     * @return The parameters of the plugin.
+     */
+    @Override
+    public @NotNull PluginParameters prepare(@NotNull PluginContext context) {
+        ParameterPrompts prompts = new ParameterPrompts(this, context);
+        if (prompts.airports()) {
+            prompts.number("days", "Please enter the number of the past days to be summarized (default %DEF): ",
+                           defaultDays);
+            prompts.number("min-visibility", "Please enter the visibility minimum in meters (default %DEF): ",
+                           defaultMinVisibility);
+            prompts.number("min-ceiling", "Please enter the ceiling minimum in feet (default %DEF): ",
+                           defaultMinCeiling);
+        }
+        return prompts.toParameters();
+    }
+
+    /**
+     * The non-interactive variant of {@link #action()}. The airports, the time
+     * window and the output form are taken from the {@code parameters}. The
+     * options "days" (used if the time window is not given), "min-visibility"
+     * and "min-ceiling" replace the prompted values.
+     *
+     * @param parameters The parameters of the non-interactive run.
+     * @return The exit code of the action. Any non-zero code means that an issue
+     *         has occurred.
+     */
+    @Override
+    public int action(@NotNull PluginParameters parameters) {
+        try (PluginContext context = new PluginContext()) {
+            return action(parameters, context);
+        }
+    }
+
+    /**
+     * The context-aware variant of {@link #action(PluginParameters)}. The
+     * airports and the METARs already obtained by another plugin of the run
+     * are reused, the default period ends at the start of the run.
+     *
+     * @param parameters The parameters of the plugin.
+     * @param context    The context shared by the plugins of the run.
+     * @return The exit code of the action. Any non-zero code means that an issue
+     *         has occurred.
+     */
+    @Override
+    public int action(@NotNull PluginParameters parameters, @NotNull PluginContext context) {
+        List<Airport> foundAirports = context.findAirports(parameters);
+        if (foundAirports == null) return 1;
+        double minVisibility, minCeiling;
+        int days;
+        try {
+            days          = (int) Math.min(maxDays, parameters.getOption("days", defaultDays));
+            minVisibility = parameters.getOption("min-visibility", defaultMinVisibility);
+            minCeiling    = parameters.getOption("min-ceiling", defaultMinCeiling);
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            return 1;
+        }
+        ZonedDateTime to   = parameters.getTo() != null ? parameters.getTo() : context.getStartTime(),
+                      from = parameters.getFrom() != null ? parameters.getFrom() : to.minusDays(days);
+
+        Map<String, File> metarFiles = context.downloadMETARs(from, to, foundAirports);
+        Map<String, StationSummary> summaries =
+                WeatherStatistics.summarize(metarFiles, from, to, minVisibility, minCeiling);
+        for (Airport airport : foundAirports) {
+            try (OutputSink sink = context.openOutput(parameters, airport.getIcaoCode() + "_STATISTICS")) {
+                printSummary(airport.getIcaoCode(), summaries, sink.printer());
+            }
+        }
+        return 0;
+    }
+
+    private static @NotNull Map<String, StationSummary> summarize(@NotNull List<Airport> airports,
+                                                                  @NotNull ZonedDateTime from, @NotNull ZonedDateTime to,
+                                                                  double minVisibility, double minCeiling) {
+        Map<String, File> metarFiles = new Downloader().downloadMETARs(from, to, airports);
+        return WeatherStatistics.summarize(metarFiles, from, to, minVisibility, minCeiling);
+    }
+
+    private static void printSummary(@NotNull String icaoCode, @NotNull Map<String, StationSummary> summaries,
+                                     @NotNull PrintStream printer) {
+        StationSummary summary = summaries.get(icaoCode);
+        if (summary == null) {
+            printer.println("No METAR was accessible for the %ICAO airport in the specified period."
+                            .replace("%ICAO", icaoCode));
+        } else {
+            summary.print(printer);
+        }
+    }
+
+    /**
+     * Asks the user for a positive number. Any incorrect input results in the
+     * default value.
+     */
+    private static double askNumber(String prompt, double defaultValue) {
+        System.out.print(prompt.replace("%DEF", String.format("%.0f", defaultValue)));
+        try {
+            double value = Double.parseDouble(DialogCenter.getInput(true, true).strip());
+            return value > 0 ? value : defaultValue;
+        } catch (NumberFormatException e) {
+            return defaultValue;
+        }
+    }
+}
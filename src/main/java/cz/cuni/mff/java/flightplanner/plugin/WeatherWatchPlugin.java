@@ -0,0 +1,126 @@
+package cz.cuni.mff.java.flightplanner.plugin;
+
+import java.time.Duration;
+import java.time.LocalTime;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.stream.Collectors;
+import cz.cuni.mff.java.flightplanner.DialogCenter;
+import cz.cuni.mff.java.flightplanner.dataobject.Airport;
+import cz.cuni.mff.java.flightplanner.util.Downloader;
+import cz.cuni.mff.java.flightplanner.util.METARWatcher;
+import cz.cuni.mff.java.flightplanner.util.NotNull;
+import cz.cuni.mff.java.flightplanner.util.Utilities;
+
+/**
+ * The WeatherWatchPlugin class keeps watching the weather at chosen airports and
+ * prints only the significant changes (new special reports, flight category
+ * changes and windshear) until the user stops it.
+ */
+public class WeatherWatchPlugin implements Plugin {
+
+    private static final int defaultInterval = 5, defaultDuration = 60, maxWorkers = 4;
+
+    @Override
+    public String name() { return this.getClass().getName(); }
+
+    @Override
+    public String description() { return "Watch the weather at chosen airports and report its changes."; }
+
+    @Override
+    public String keyword() { return "weather watch"; }
+
+    @Override
+    public Integer pluginID() { return 5; }
+
+    /**
+     * Lets the user choose the airports and the polling interval and then
+     * starts the {@link METARWatcher}. The watch mode ends when the user presses
+     * the "Enter" key.
+     *
+     * @return The exit code of the action. Any non-zero code means that an issue
+     *         has occurred.
+     */
+    @Override
+    public int action() {
+        List<Airport> foundAirports =
+                Airport.searchAirports(null,
+                                       null,
+                                       false,
+                                       false);
+        if (foundAirports == null) return 1;
+        if (foundAirports.isEmpty()) return 0;
+
+        System.out.print("Please enter the polling interval in minutes (default %DEF): "
+                         .replace("%DEF", String.valueOf(defaultInterval)));
+        int interval;
+        try {
+            interval = Math.max(1, Integer.parseInt(DialogCenter.getInput(true, true).strip()));
+        } catch (NumberFormatException e) {
+            interval = defaultInterval;
+        }
+
+        METARWatcher watcher = createWatcher(foundAirports, interval);
+        System.out.println("Press \"Enter\" to stop the watch mode.");
+        watcher.start();
+        DialogCenter.getInput(true, false);
+        watcher.stop();
+        System.out.println(Utilities.sectionSeparator("END OF WEATHER WATCH"));
+        return 0;
+    }
+
+    /**
+     * The non-interactive variant of {@link #action()}. The airports are taken
+     * from the {@code parameters}, the option "interval" replaces the prompted
+     * polling interval and the option "duration" gives the number of minutes
+     * after which the watch mode ends (default 60 minutes).
+     *
+     * @param parameters The parameters of the non-interactive run.
+     * @return The exit code of the action. Any non-zero code means that an issue
+     *         has occurred.
+     */
+    @Override
+    public int action(@NotNull PluginParameters parameters) {
+        List<Airport> foundAirports = parameters.findAirports();
+        if (foundAirports == null) return 1;
+        int interval;
+        long duration;
+        try {
+            interval = (int) Math.max(1, parameters.getOption("interval", defaultInterval));
+            duration = (long) Math.max(1, parameters.getOption("duration", defaultDuration));
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            return 1;
+        }
+        METARWatcher watcher = createWatcher(foundAirports, interval);
+        System.out.println("The watch mode ends in %DUR minute(s).".replace("%DUR", String.valueOf(duration)));
+        watcher.start();
+        try {
+            Thread.sleep(Duration.ofMinutes(duration).toMillis());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        watcher.stop();
+        System.out.println(Utilities.sectionSeparator("END OF WEATHER WATCH"));
+        return 0;
+    }
+
+    private static @NotNull METARWatcher createWatcher(@NotNull List<Airport> airports, int interval) {
+        List<String> stations = airports.stream()
+                                        .map(Airport::getIcaoCode)
+                                        .collect(Collectors.toList());
+        DateTimeFormatter timeFormat = DateTimeFormatter.ofPattern("HH:mm:ss");
+        System.out.println(Utilities.sectionSeparator("WEATHER WATCH"));
+        System.out.println("Watching %STATIONS every %INT minute(s)."
+                           .replace("%STATIONS", String.join(", ", stations))
+                           .replace("%INT", String.valueOf(interval)));
+        return new METARWatcher(stations,
+                                Duration.ofMinutes(interval),
+                                Duration.ofHours(1),
+                                Math.min(stations.size(), maxWorkers),
+                                new Downloader(),
+                                change -> System.out.printf("[%s] %s%n",
+                                                            LocalTime.now().format(timeFormat),
+                                                            change));
+    }
+}
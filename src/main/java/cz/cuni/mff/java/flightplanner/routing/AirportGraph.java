@@ -0,0 +1,340 @@
+package cz.cuni.mff.java.flightplanner.routing;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import cz.cuni.mff.java.flightplanner.dataobject.Airport;
+import cz.cuni.mff.java.flightplanner.dataobject.IcaoIndex;
+import cz.cuni.mff.java.flightplanner.geo.GreatCircle;
+import cz.cuni.mff.java.flightplanner.geo.Track;
+import cz.cuni.mff.java.flightplanner.performance.RouteWind;
+import cz.cuni.mff.java.flightplanner.util.NotNull;
+import cz.cuni.mff.java.flightplanner.util.Nullable;
+
+/**
+ * The AirportGraph class represents the airports as the nodes of the routing
+ * graph. Two airports are connected if their great-circle distance is within
+ * the range of the aircraft, however the edges are not stored: the
+ * neighbours of an airport are found in the spatial index when they are
+ * needed. The index divides the Earth into the cells of
+ * {@value #cellDegrees} degrees of latitude and longitude, only the cells
+ * which intersect the range of the airport are inspected.
+ * <p>
+ * The nodes are numbered from 0 to {@link #size()} - 1 cell by cell and all
+ * their data are kept in primitive arrays indexed by these numbers. The
+ * nodes are found by the {@link IcaoIndex} of the ICAO codes or by the
+ * {@link Airport#getId() IDs} of the airports. The graph is immutable and can
+ * be shared by several threads.
+ */
+public final class AirportGraph {
+
+    private static final double cellDegrees = 2;
+    private static final int latCells = (int) Math.ceil(180 / cellDegrees),
+                             lonCells = (int) Math.ceil(360 / cellDegrees);
+    private static AirportGraph database = null;
+
+    private final Airport[] airports;
+    private final IcaoIndex indices;
+    /**
+     * The node of each airport ID, -1 for the airports which are not in the
+     * graph.
+     */
+    private final int[] nodeOfAirport;
+    /**
+     * The coordinates in radians and the unit vectors of the nodes.
+     */
+    private final double[] lat, lon, x, y, z;
+    /**
+     * The nodes of the cell {@code c} are {@code cellStart[c]} to
+     * {@code cellStart[c + 1] - 1}.
+     */
+    private final int[] cellStart;
+
+    /**
+     * The visitor of the neighbours of a node.
+     */
+    interface NeighbourVisitor {
+        /**
+         * @param node  The neighbour.
+         * @param angle The central angle between the node and the neighbour in
+         *              radians.
+         */
+        void visit(int node, double angle);
+    }
+
+    /**
+     * Builds the graph of the airports. The airports without known
+     * coordinates are left out.
+     *
+     * @param airports The airports to be the nodes of the graph.
+     * @throws IllegalArgumentException if two airports have the same ICAO
+     *         code.
+     */
+    public AirportGraph(@NotNull Collection<Airport> airports) {
+        List<Airport> located = new ArrayList<>(airports.size());
+        for (Airport airport : airports) {
+            Double latitude = airport.getGeoLat(), longitude = airport.getGeoLong();
+            if (latitude != null && longitude != null && !latitude.isNaN() && !longitude.isNaN()) {
+                located.add(airport);
+            }
+        }
+        int n = located.size();
+        int[] cellOf = new int[n],
+              counts = new int[latCells * lonCells + 1];
+        for (int i = 0; i < n; i++) {
+            Airport airport = located.get(i);
+            cellOf[i] = cell(latCell(airport.getGeoLat()), lonCell(airport.getGeoLong()));
+            counts[cellOf[i] + 1]++;
+        }
+        for (int c = 0; c < latCells * lonCells; c++) {
+            counts[c + 1] += counts[c];
+        }
+        this.cellStart = counts.clone();
+        // the nodes are numbered cell by cell, so that the nodes of a cell are adjacent in the arrays
+        this.airports = new Airport[n];
+        for (int i = 0; i < n; i++) {
+            this.airports[counts[cellOf[i]]++] = located.get(i);
+        }
+        this.lat = new double[n];
+        this.lon = new double[n];
+        this.x = new double[n];
+        this.y = new double[n];
+        this.z = new double[n];
+        double[] latitudes = new double[n], longitudes = new double[n];
+        String[] icaoCodes = new String[n];
+        int[] nodes = new int[n];
+        int maxId = -1;
+        for (int i = 0; i < n; i++) {
+            Airport airport = this.airports[i];
+            icaoCodes[i] = airport.getIcaoCode();
+            nodes[i] = i;
+            maxId = Math.max(maxId, airport.getId());
+            latitudes[i] = airport.getGeoLat();
+            longitudes[i] = airport.getGeoLong();
+            lat[i] = Math.toRadians(latitudes[i]);
+            lon[i] = Math.toRadians(longitudes[i]);
+        }
+        GreatCircle.unitVectors(latitudes, longitudes, x, y, z, 0, n);
+        this.indices = new IcaoIndex(icaoCodes, nodes);
+        this.nodeOfAirport = new int[maxId + 1];
+        Arrays.fill(nodeOfAirport, -1);
+        for (int i = 0; i < n; i++) {
+            if (this.airports[i].getId() >= 0) nodeOfAirport[this.airports[i].getId()] = i;
+        }
+    }
+
+    /**
+     * Returns the graph of all the airports of the database. The graph is
+     * built at the first call and shared afterwards.
+     *
+     * @return The graph, or {@code null} if the database could not be read.
+     */
+    public static synchronized @Nullable AirportGraph ofDatabase() {
+        if (database == null) {
+            Collection<Airport> all = Airport.all();
+            if (all == null) return null;
+            database = new AirportGraph(all);
+        }
+        return database;
+    }
+
+    /**
+     * @return The number of the nodes.
+     */
+    public int size() {
+        return airports.length;
+    }
+
+    /**
+     * @param icaoCode The ICAO code of the airport (not case-sensitive).
+     * @return The node of the airport, or -1 if the airport is not in the
+     *         graph.
+     */
+    public int indexOf(@NotNull String icaoCode) {
+        return indices.get(icaoCode);
+    }
+
+    /**
+     * Finds the node of the airport by its ID. The airport which is not the
+     * airport of the node, e.g. the airport of another reading of the
+     * database, is found by its ICAO code.
+     *
+     * @param airport The airport.
+     * @return The node of the airport, or -1 if the airport is not in the
+     *         graph.
+     */
+    public int nodeOf(@NotNull Airport airport) {
+        int node = nodeOf(airport.getId());
+        return node >= 0 && airports[node] == airport ? node : indexOf(airport.getIcaoCode());
+    }
+
+    /**
+     * @param airportId The ID of the airport.
+     * @return The node of the airport, or -1 if the airport is not in the
+     *         graph.
+     */
+    public int nodeOf(int airportId) {
+        return airportId >= 0 && airportId < nodeOfAirport.length ? nodeOfAirport[airportId] : -1;
+    }
+
+    /**
+     * @param node The node of the graph.
+     * @return The airport represented by the node.
+     */
+    public @NotNull Airport airport(int node) {
+        return airports[node];
+    }
+
+    /**
+     * @return The great-circle distance of two nodes in nautical miles.
+     */
+    public double distanceNm(int from, int to) {
+        return angle(from, to) * GreatCircle.earthRadiusNm;
+    }
+
+    /**
+     * @return The initial true course from one node to the other in degrees.
+     */
+    public double initialCourse(int from, int to) {
+        return GreatCircle.initialBearingRadians(lat[from], lon[from], lat[to], lon[to]);
+    }
+
+    /**
+     * @return The latitude of the node in radians.
+     */
+    double latitude(int node) {
+        return lat[node];
+    }
+
+    /**
+     * @return The longitude of the node in radians.
+     */
+    double longitude(int node) {
+        return lon[node];
+    }
+
+    /**
+     * @return The central angle between two nodes in radians.
+     */
+    double angle(int from, int to) {
+        return GreatCircle.angle(x[from], y[from], z[from], x[to], y[to], z[to]);
+    }
+
+    /**
+     * Splits the wind into the components of the leg between two nodes, see
+     * {@link RouteWind#components}.
+     */
+    void windComponents(int from, int to, @NotNull RouteWind wind, @NotNull double[] result) {
+        wind.components(x[from], y[from], z[from], x[to], y[to], z[to], result);
+    }
+
+    /**
+     * Visits all the nodes whose distance from the {@code node} is at most
+     * {@code maxAngle}, except the node itself.
+     *
+     * @param node     The centre of the search.
+     * @param maxAngle The maximal central angle in radians.
+     * @param visitor  The visitor of the found nodes.
+     */
+    void forEachWithin(int node, double maxAngle, @NotNull NeighbourVisitor visitor) {
+        int[] range = new int[4];
+        cellRange(lat[node], lon[node], maxAngle, range);
+        double minDot = Math.cos(maxAngle),
+               nx = x[node], ny = y[node], nz = z[node];
+
+        for (int latIndex = range[0]; latIndex <= range[1]; latIndex++) {
+            for (int lonIndex = range[2]; lonIndex <= range[3]; lonIndex++) {
+                int c = cell(latIndex, lonIndex);
+                for (int other = cellStart[c], end = cellStart[c + 1]; other < end; other++) {
+                    if (other == node || nx * x[other] + ny * y[other] + nz * z[other] < minDot) continue;
+                    double angle = GreatCircle.angle(nx, ny, nz, x[other], y[other], z[other]);
+                    if (angle <= maxAngle) visitor.visit(other, angle);
+                }
+            }
+        }
+    }
+
+    /**
+     * Finds the cells which may contain a node within the given distance from
+     * the point. The cells are {@code cell(latIndex, lonIndex)} for the
+     * {@code latIndex} from {@code range[0]} to {@code range[1]} and the
+     * {@code lonIndex} from {@code range[2]} to {@code range[3]}.
+     *
+     * @param latitude  The latitude of the point in radians.
+     * @param longitude The longitude of the point in radians.
+     * @param maxAngle  The maximal central angle in radians.
+     * @param range     The array receiving the four indices.
+     */
+    void cellRange(double latitude, double longitude, double maxAngle, @NotNull int[] range) {
+        double minLat = latitude - maxAngle,
+               maxLat = latitude + maxAngle;
+        int firstLon, lastLon;
+        if (minLat <= -Math.PI / 2 || maxLat >= Math.PI / 2 || maxAngle >= Math.PI / 2) {
+            // the range contains a pole, all the longitudes have to be inspected
+            firstLon = 0;
+            lastLon = lonCells - 1;
+        } else {
+            double dLon = Math.asin(Math.min(1, Math.sin(maxAngle) / Math.cos(latitude)));
+            double west = Math.toDegrees(longitude - dLon),
+                   east = Math.toDegrees(longitude + dLon);
+            firstLon = (int) Math.floor((west + 180) / cellDegrees);
+            lastLon = (int) Math.floor((east + 180) / cellDegrees);
+            if (lastLon - firstLon + 1 >= lonCells) {
+                firstLon = 0;
+                lastLon = lonCells - 1;
+            }
+        }
+        range[0] = latCell(Math.toDegrees(Math.max(minLat, -Math.PI / 2)));
+        range[1] = latCell(Math.toDegrees(Math.min(maxLat, Math.PI / 2)));
+        range[2] = firstLon;
+        range[3] = lastLon;
+    }
+
+    /**
+     * @return The number of the cells of the spatial index.
+     */
+    static int cellCount() {
+        return latCells * lonCells;
+    }
+
+    /**
+     * @return The first node of the cell. The nodes of the cell end before
+     *         {@code cellStart(cell + 1)}.
+     */
+    int cellStart(int cell) {
+        return cellStart[cell];
+    }
+
+    /**
+     * Computes the cross-track distances of the nodes {@code from} to
+     * {@code to - 1}, see {@link Track#crossTracksNm}.
+     */
+    void crossTracksNm(@NotNull Track track, @NotNull double[] out, int from, int to) {
+        track.crossTracksNm(x, y, z, out, from, to);
+    }
+
+    /**
+     * Computes the along-track distances of the nodes {@code from} to
+     * {@code to - 1}, see {@link Track#alongTracksNm}.
+     */
+    void alongTracksNm(@NotNull Track track, @NotNull double[] out, int from, int to) {
+        track.alongTracksNm(x, y, z, out, from, to);
+    }
+
+    private static int latCell(double latitude) {
+        return Math.max(0, Math.min(latCells - 1, (int) Math.floor((latitude + 90) / cellDegrees)));
+    }
+
+    private static int lonCell(double longitude) {
+        return Math.floorMod((int) Math.floor((longitude + 180) / cellDegrees), lonCells);
+    }
+
+    /**
+     * @return The cell of the indices, the longitude index is taken modulo
+     *         the number of the longitude cells.
+     */
+    static int cell(int latIndex, int lonIndex) {
+        return latIndex * lonCells + Math.floorMod(lonIndex, lonCells);
+    }
+}
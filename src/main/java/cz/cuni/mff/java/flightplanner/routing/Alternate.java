@@ -0,0 +1,69 @@
+package cz.cuni.mff.java.flightplanner.routing;
+
+import cz.cuni.mff.java.flightplanner.dataobject.Airport;
+import cz.cuni.mff.java.flightplanner.util.NotNull;
+
+/**
+ * The Alternate class represents an airport found near a route by the
+ * {@link AlternateFinder}, together with its position relative to the route.
+ */
+public class Alternate {
+
+    private final Airport airport;
+    private final int leg;
+    private final double alongTrackNm, crossTrackNm, distanceNm;
+
+    /**
+     * @param airport      The alternate airport.
+     * @param leg          The index of the leg the airport is nearest to.
+     * @param alongTrackNm The distance from the start of the route to the
+     *                     point of the route nearest to the airport.
+     * @param crossTrackNm The distance of the airport from the great circle
+     *                     of the leg, positive to the right of the track.
+     * @param distanceNm   The distance of the airport from the route.
+     */
+    public Alternate(@NotNull Airport airport, int leg, double alongTrackNm, double crossTrackNm, double distanceNm) {
+        this.airport = airport;
+        this.leg = leg;
+        this.alongTrackNm = alongTrackNm;
+        this.crossTrackNm = crossTrackNm;
+        this.distanceNm = distanceNm;
+    }
+
+    public @NotNull Airport getAirport() {
+        return airport;
+    }
+
+    /**
+     * @return The index of the leg of the route (from 0) the airport is
+     *         nearest to.
+     */
+    public int getLeg() {
+        return leg;
+    }
+
+    /**
+     * @return The distance in nautical miles from the start of the route to
+     *         the point of the route nearest to the airport.
+     */
+    public double getAlongTrackNm() {
+        return alongTrackNm;
+    }
+
+    /**
+     * @return The distance in nautical miles of the airport from the great
+     *         circle of its leg, positive to the right of the track.
+     */
+    public double getCrossTrackNm() {
+        return crossTrackNm;
+    }
+
+    /**
+     * @return The distance in nautical miles of the airport from the nearest
+     *         point of the route. It differs from the cross-track distance
+     *         only for the airports beyond the ends of the leg.
+     */
+    public double getDistanceNm() {
+        return distanceNm;
+    }
+}
@@ -0,0 +1,195 @@
+package cz.cuni.mff.java.flightplanner.routing;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import cz.cuni.mff.java.flightplanner.dataobject.Airport;
+import cz.cuni.mff.java.flightplanner.geo.GreatCircle;
+import cz.cuni.mff.java.flightplanner.geo.Track;
+import cz.cuni.mff.java.flightplanner.util.NotNull;
+import cz.cuni.mff.java.flightplanner.util.Nullable;
+
+/**
+ * The AlternateFinder class finds the alternate airports along a route: the
+ * airports whose distance from the route is at most the width of the
+ * corridor. The route is a sequence of the great-circle legs between the
+ * airports of the graph.
+ * <p>
+ * Only the cells of the spatial index of the {@link AirportGraph} near the
+ * route are inspected: every leg is sampled every {@value #sampleSpacingNm} NM
+ * at most and the cells within the corridor width plus half the sample
+ * spacing of a sample are collected, each of them once per leg. The nodes of a
+ * cell are adjacent in the arrays of the graph, so their cross-track and
+ * along-track distances are computed by the batched {@link Track} methods.
+ * <p>
+ * The airports may be filtered by the {@link RouteRestrictions}, e.g. by
+ * their runways and categories. The finder keeps its working arrays between
+ * the queries and is not thread-safe, every thread needs its own instance.
+ */
+public final class AlternateFinder {
+
+    private static final double sampleSpacingNm = 60;
+
+    private final AirportGraph graph;
+    private final RouteRestrictions restrictions;
+    /**
+     * The cells inspected for the current leg and the nodes found by the
+     * current query are marked by the generation of the leg or the query.
+     */
+    private final int[] cellMark, nodeMark, bestLeg;
+    private final double[] crossTrack, alongTrack, bestDistance, bestAlong, bestCross;
+    private final int[] range = new int[4];
+    private int[] found = new int[64];
+    private int foundCount = 0, cellGeneration = 0, nodeGeneration = 0;
+
+    /**
+     * @param graph        The graph of the airports.
+     * @param restrictions The restrictions the alternates have to satisfy, or
+     *                     {@code null} if any airport may be an alternate.
+     * @throws IllegalArgumentException if the restrictions were evaluated for
+     *         another graph.
+     */
+    public AlternateFinder(@NotNull AirportGraph graph, @Nullable RouteRestrictions restrictions) {
+        if (restrictions != null && restrictions.getGraph() != graph) {
+            throw new IllegalArgumentException("The restrictions were evaluated for another graph.");
+        }
+        this.graph = graph;
+        this.restrictions = restrictions;
+        int n = graph.size();
+        this.cellMark = new int[AirportGraph.cellCount()];
+        this.nodeMark = new int[n];
+        this.bestLeg = new int[n];
+        this.crossTrack = new double[n];
+        this.alongTrack = new double[n];
+        this.bestDistance = new double[n];
+        this.bestAlong = new double[n];
+        this.bestCross = new double[n];
+    }
+
+    /**
+     * Finds the alternates along the route. The airports of the route are not
+     * its alternates.
+     *
+     * @param route      The route.
+     * @param corridorNm The maximal distance of an alternate from the route
+     *                   in nautical miles.
+     * @return The alternates sorted by their along-track position.
+     * @throws IllegalArgumentException if the corridor width is negative or
+     *         an airport of the route is not in the graph.
+     */
+    public @NotNull List<Alternate> find(@NotNull Route route, double corridorNm) {
+        return find(route.getStops(), corridorNm);
+    }
+
+    /**
+     * Finds the alternates along the legs between the consecutive waypoints.
+     * The waypoints are not their own alternates.
+     *
+     * @param waypoints  The airports of the route in the order of flight.
+     * @param corridorNm The maximal distance of an alternate from the route
+     *                   in nautical miles.
+     * @return The alternates sorted by their along-track position.
+     * @throws IllegalArgumentException if the corridor width is negative or
+     *         a waypoint is not in the graph.
+     */
+    public @NotNull List<Alternate> find(@NotNull List<Airport> waypoints, double corridorNm) {
+        if (!(corridorNm >= 0)) {
+            throw new IllegalArgumentException("The width of the corridor has to be a non-negative number.");
+        }
+        int[] nodes = new int[waypoints.size()];
+        for (int i = 0; i < nodes.length; i++) {
+            nodes[i] = graph.nodeOf(waypoints.get(i));
+            if (nodes[i] < 0) {
+                throw new IllegalArgumentException("Unknown airport: %AIRPORT"
+                                                   .replace("%AIRPORT", waypoints.get(i).getIcaoCode()));
+            }
+        }
+        int[] excluded = nodes.clone();
+        Arrays.sort(excluded);
+        nodeGeneration++;
+        foundCount = 0;
+        double legStartNm = 0;
+        for (int leg = 0; leg + 1 < nodes.length; leg++) {
+            legStartNm += searchLeg(leg, nodes[leg], nodes[leg + 1], legStartNm, corridorNm);
+        }
+
+        List<Alternate> alternates = new ArrayList<>(foundCount);
+        for (int k = 0; k < foundCount; k++) {
+            int node = found[k];
+            if (Arrays.binarySearch(excluded, node) >= 0) continue;
+            alternates.add(new Alternate(graph.airport(node), bestLeg[node], bestAlong[node], bestCross[node],
+                                         bestDistance[node]));
+        }
+        alternates.sort(Comparator.comparingDouble(Alternate::getAlongTrackNm)
+                                  .thenComparingDouble(Alternate::getDistanceNm));
+        return alternates;
+    }
+
+    /**
+     * Inspects the cells near the leg.
+     *
+     * @return The length of the leg in nautical miles.
+     */
+    private double searchLeg(int leg, int from, int to, double legStartNm, double corridorNm) {
+        Track track = new Track(Math.toDegrees(graph.latitude(from)), Math.toDegrees(graph.longitude(from)),
+                                Math.toDegrees(graph.latitude(to)), Math.toDegrees(graph.longitude(to)));
+        double lengthNm = track.lengthNm();
+        int samples = Math.max(1, (int) Math.ceil(lengthNm / sampleSpacingNm));
+        double step = lengthNm / samples,
+               searchAngle = (corridorNm + step / 2) / GreatCircle.earthRadiusNm;
+        double[] point = new double[2];
+        cellGeneration++;
+        for (int s = 0; s <= samples; s++) {
+            track.pointAt(s * step, point);
+            graph.cellRange(Math.toRadians(point[0]), Math.toRadians(point[1]), searchAngle, range);
+            for (int latIndex = range[0]; latIndex <= range[1]; latIndex++) {
+                for (int lonIndex = range[2]; lonIndex <= range[3]; lonIndex++) {
+                    int c = AirportGraph.cell(latIndex, lonIndex);
+                    if (cellMark[c] == cellGeneration) continue;
+                    cellMark[c] = cellGeneration;
+                    int first = graph.cellStart(c), end = graph.cellStart(c + 1);
+                    if (first < end) inspectCell(track, leg, from, to, legStartNm, corridorNm, first, end);
+                }
+            }
+        }
+        return lengthNm;
+    }
+
+    /**
+     * Keeps the nodes {@code first} to {@code end - 1} which are within the
+     * corridor of the leg and nearer to it than to the legs inspected before.
+     */
+    private void inspectCell(@NotNull Track track, int leg, int from, int to, double legStartNm, double corridorNm,
+                             int first, int end) {
+        graph.crossTracksNm(track, crossTrack, first, end);
+        graph.alongTracksNm(track, alongTrack, first, end);
+        double lengthNm = track.lengthNm();
+        for (int node = first; node < end; node++) {
+            if (restrictions != null && !restrictions.admits(node)) continue;
+            double along = alongTrack[node], distance;
+            if (along < 0) {
+                // behind the start of the leg, the nearest point is the start
+                distance = graph.distanceNm(node, from);
+                along = 0;
+            } else if (along > lengthNm) {
+                distance = graph.distanceNm(node, to);
+                along = lengthNm;
+            } else {
+                distance = Math.abs(crossTrack[node]);
+            }
+            if (distance > corridorNm) continue;
+            if (nodeMark[node] != nodeGeneration) {
+                nodeMark[node] = nodeGeneration;
+                if (foundCount == found.length) found = Arrays.copyOf(found, foundCount * 2);
+                found[foundCount++] = node;
+            } else if (distance >= bestDistance[node]) {
+                continue;
+            }
+            bestLeg[node] = leg;
+            bestDistance[node] = distance;
+            bestAlong[node] = legStartNm + along;
+            bestCross[node] = crossTrack[node];
+        }
+    }
+}
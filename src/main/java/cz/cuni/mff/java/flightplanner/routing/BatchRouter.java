@@ -0,0 +1,171 @@
+package cz.cuni.mff.java.flightplanner.routing;
+
+import java.io.IOException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import cz.cuni.mff.java.flightplanner.util.NotNull;
+import cz.cuni.mff.java.flightplanner.util.Nullable;
+
+/**
+ * The BatchRouter class plans the routes of many origin/destination pairs in
+ * parallel. The pairs are given by the nodes of the {@link AirportGraph}, so
+ * the searches never look up the airports by their ICAO codes.
+ * <p>
+ * The searches run on the router's own {@link ForkJoinPool}. Every worker
+ * thread keeps one {@link RoutePlanner}, whose arrays and queue are reused by
+ * all the searches of the thread. The graph, the landmarks and the
+ * restrictions are only read, so they are shared by all the workers.
+ * <p>
+ * The pairs are planned in blocks of {@value #blockSize}. When a block is
+ * done, its routes are passed to the consumer in the order of the pairs on
+ * the calling thread, so the consumer may write the results to a stream
+ * without any synchronization and only one block of the routes is kept in
+ * the memory.
+ */
+public final class BatchRouter implements AutoCloseable {
+
+    /**
+     * The number of the pairs planned before their routes are consumed.
+     */
+    public static final int blockSize = 1024;
+
+    private final AirportGraph graph;
+    private final ForkJoinPool pool;
+    private final ThreadLocal<RoutePlanner> planners;
+
+    /**
+     * @param graph       The graph of the airports to be searched.
+     * @param landmarks   The landmarks of the graph, or {@code null} if the
+     *                    searches are not to use them.
+     * @param parallelism The number of the worker threads.
+     * @throws IllegalArgumentException if the landmarks were built for another
+     *         graph or the parallelism is not positive.
+     */
+    public BatchRouter(@NotNull AirportGraph graph, @Nullable LandmarkIndex landmarks, int parallelism) {
+        if (landmarks != null && landmarks.getGraph() != graph) {
+            throw new IllegalArgumentException("The landmarks were built for another graph.");
+        }
+        if (parallelism <= 0) {
+            throw new IllegalArgumentException("The number of the threads has to be a positive number.");
+        }
+        this.graph = graph;
+        this.pool = new ForkJoinPool(parallelism);
+        this.planners = ThreadLocal.withInitial(() -> new RoutePlanner(graph, landmarks));
+    }
+
+    /**
+     * @return The number of the worker threads.
+     */
+    public int getParallelism() {
+        return pool.getParallelism();
+    }
+
+    /**
+     * Plans the routes of the pairs {@code (from[i], to[i])}.
+     *
+     * @param from         The departure nodes.
+     * @param to           The destination nodes.
+     * @param options      The range and the stop penalty.
+     * @param restrictions The constraints and the costs of the intermediate
+     *                     stops, or {@code null} if every node may be used.
+     * @param consumer     The consumer of the routes, called in the order of
+     *                     the pairs on the calling thread.
+     * @return The number of the found routes.
+     * @throws IllegalArgumentException if the arrays differ in length, contain
+     *         a node which is not in the graph or the restrictions were
+     *         evaluated for another graph.
+     * @throws IOException if the consumer fails. The remaining pairs are not
+     *         planned.
+     */
+    public int route(@NotNull int[] from, @NotNull int[] to, @NotNull RouteOptions options,
+                     @Nullable RouteRestrictions restrictions, @NotNull RouteConsumer consumer) throws IOException {
+        if (from.length != to.length) {
+            throw new IllegalArgumentException("Every departure needs its destination.");
+        }
+        if (restrictions != null && restrictions.getGraph() != graph) {
+            throw new IllegalArgumentException("The restrictions were evaluated for another graph.");
+        }
+        for (int i = 0; i < from.length; i++) {
+            if (from[i] < 0 || from[i] >= graph.size() || to[i] < 0 || to[i] >= graph.size()) {
+                throw new IllegalArgumentException("The pair %PAIR is not in the graph."
+                                                   .replace("%PAIR", String.valueOf(i)));
+            }
+        }
+        Route[] routes = new Route[Math.min(blockSize, from.length)];
+        int found = 0;
+        for (int start = 0; start < from.length; start += blockSize) {
+            int end = Math.min(from.length, start + blockSize);
+            pool.invoke(new PlanTask(from, to, options, restrictions, routes, start, start, end));
+            for (int i = start; i < end; i++) {
+                Route route = routes[i - start];
+                routes[i - start] = null;
+                if (route != null) found++;
+                consumer.accept(i, from[i], to[i], route);
+            }
+        }
+        return found;
+    }
+
+    /**
+     * Stops the worker threads. The router can not be used any more.
+     */
+    @Override
+    public void close() {
+        pool.shutdown();
+    }
+
+    /**
+     * The consumer of the routes planned by the {@link BatchRouter}.
+     */
+    @FunctionalInterface
+    public interface RouteConsumer {
+
+        /**
+         * @param pair  The index of the pair.
+         * @param from  The departure node.
+         * @param to    The destination node.
+         * @param route The planned route, or {@code null} if the destination
+         *              can not be reached within the range.
+         * @throws IOException if the route can not be consumed.
+         */
+        void accept(int pair, int from, int to, @Nullable Route route) throws IOException;
+    }
+
+    /**
+     * The task planning the pairs {@code start} to {@code end - 1}, split in
+     * halves until a single pair remains.
+     */
+    private final class PlanTask extends RecursiveAction {
+
+        private static final long serialVersionUID = 1L;
+
+        private final int[] from, to;
+        private final RouteOptions options;
+        private final RouteRestrictions restrictions;
+        private final Route[] routes;
+        private final int offset, start, end;
+
+        PlanTask(@NotNull int[] from, @NotNull int[] to, @NotNull RouteOptions options,
+                 @Nullable RouteRestrictions restrictions, @NotNull Route[] routes, int offset, int start, int end) {
+            this.from = from;
+            this.to = to;
+            this.options = options;
+            this.restrictions = restrictions;
+            this.routes = routes;
+            this.offset = offset;
+            this.start = start;
+            this.end = end;
+        }
+
+        @Override
+        protected void compute() {
+            if (end - start == 1) {
+                routes[start - offset] = planners.get().plan(from[start], to[start], options, restrictions);
+                return;
+            }
+            int middle = (start + end) >>> 1;
+            invokeAll(new PlanTask(from, to, options, restrictions, routes, offset, start, middle),
+                      new PlanTask(from, to, options, restrictions, routes, offset, middle, end));
+        }
+    }
+}
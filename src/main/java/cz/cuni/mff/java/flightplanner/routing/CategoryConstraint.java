@@ -0,0 +1,56 @@
+package cz.cuni.mff.java.flightplanner.routing;
+
+import java.util.Collection;
+import java.util.EnumSet;
+import cz.cuni.mff.java.flightplanner.dataobject.APTCategory;
+import cz.cuni.mff.java.flightplanner.dataobject.Airport;
+import cz.cuni.mff.java.flightplanner.util.NotNull;
+
+/**
+ * The CategoryConstraint class admits only the airports of the given
+ * categories, e.g. only the medium and the large airports as the alternates.
+ */
+public class CategoryConstraint implements RouteConstraint {
+
+    private final EnumSet<APTCategory> categories;
+
+    /**
+     * @param categories The admitted categories of the airports.
+     * @throws IllegalArgumentException if no category is given.
+     */
+    public CategoryConstraint(@NotNull Collection<APTCategory> categories) {
+        if (categories.isEmpty()) throw new IllegalArgumentException("At least one airport category has to be admitted.");
+        this.categories = EnumSet.copyOf(categories);
+    }
+
+    @Override
+    public boolean admits(@NotNull Airport airport) {
+        return categories.contains(airport.getCat());
+    }
+
+    /**
+     * Parses the comma separated list of the categories. The category may be
+     * given by its name ("large_airport") or its first word ("large"), the
+     * case does not matter.
+     *
+     * @param list The list of the categories.
+     * @return The constraint admitting the listed categories.
+     * @throws IllegalArgumentException if any of the categories is not known.
+     */
+    public static @NotNull CategoryConstraint parse(@NotNull String list) {
+        EnumSet<APTCategory> categories = EnumSet.noneOf(APTCategory.class);
+        for (String item : list.split(",")) {
+            String name = item.strip().toLowerCase();
+            if (name.isEmpty()) continue;
+            APTCategory found = null;
+            for (APTCategory category : APTCategory.values()) {
+                if (category.name().equals(name) || category.name().equals(name + "_airport")) found = category;
+            }
+            if (found == null) {
+                throw new IllegalArgumentException("Unknown airport category: %CAT".replace("%CAT", item.strip()));
+            }
+            categories.add(found);
+        }
+        return new CategoryConstraint(categories);
+    }
+}
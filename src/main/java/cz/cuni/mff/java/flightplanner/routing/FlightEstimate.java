@@ -0,0 +1,93 @@
+package cz.cuni.mff.java.flightplanner.routing;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import cz.cuni.mff.java.flightplanner.geo.GreatCircle;
+import cz.cuni.mff.java.flightplanner.performance.PerformanceModel;
+import cz.cuni.mff.java.flightplanner.performance.RouteWind;
+import cz.cuni.mff.java.flightplanner.util.NotNull;
+
+/**
+ * The FlightEstimate class holds the time and the fuel of a route estimated
+ * leg by leg by a performance model. The wind components of every leg are
+ * computed in the same way as by the {@link RoutePlanner}, so the estimate
+ * agrees with the cost minimized by the search. Every leg starts with the
+ * climb and ends with the descent; the fuel does not include the taxi and
+ * the reserves.
+ */
+public class FlightEstimate {
+
+    private final PerformanceModel performance;
+    private final RouteWind wind;
+    private final List<LegEstimate> legs;
+    private final double timeHours, fuelKg;
+
+    private FlightEstimate(@NotNull PerformanceModel performance, @NotNull RouteWind wind,
+                           @NotNull List<LegEstimate> legs) {
+        this.performance = performance;
+        this.wind = wind;
+        this.legs = Collections.unmodifiableList(legs);
+        double time = 0, fuel = 0;
+        for (LegEstimate leg : legs) {
+            time += leg.getTimeHours();
+            fuel += leg.getFuelKg();
+        }
+        this.timeHours = time;
+        this.fuelKg = fuel;
+    }
+
+    /**
+     * Estimates the route.
+     *
+     * @param route       The route to be estimated.
+     * @param performance The performance of the aircraft.
+     * @param wind        The wind of the route.
+     * @return The estimate. The time and the fuel of a leg which can not be
+     *         flown against the wind are infinite.
+     */
+    public static @NotNull FlightEstimate of(@NotNull Route route, @NotNull PerformanceModel performance,
+                                             @NotNull RouteWind wind) {
+        List<LegEstimate> legs = new ArrayList<>(route.getLegs().size());
+        double[] a = new double[3], b = new double[3], components = new double[2];
+        for (RouteLeg leg : route.getLegs()) {
+            GreatCircle.unitVector(leg.getFrom().getGeoLat(), leg.getFrom().getGeoLong(), a);
+            GreatCircle.unitVector(leg.getTo().getGeoLat(), leg.getTo().getGeoLong(), b);
+            wind.components(a[0], a[1], a[2], b[0], b[1], b[2], components);
+            double distance = leg.getDistanceNm();
+            legs.add(new LegEstimate(leg, components[0], components[1],
+                                     performance.legTimeHours(distance, components[0], components[1]),
+                                     performance.legFuelKg(distance, components[0], components[1])));
+        }
+        return new FlightEstimate(performance, wind, legs);
+    }
+
+    public @NotNull PerformanceModel getPerformance() {
+        return performance;
+    }
+
+    public @NotNull RouteWind getWind() {
+        return wind;
+    }
+
+    /**
+     * @return The estimates of the legs in the order of the route.
+     */
+    public @NotNull List<LegEstimate> getLegs() {
+        return legs;
+    }
+
+    /**
+     * @return The total time of the route in hours.
+     */
+    public double getTimeHours() {
+        return timeHours;
+    }
+
+    /**
+     * @return The total fuel of the route in kilograms.
+     */
+    public double getFuelKg() {
+        return fuelKg;
+    }
+}
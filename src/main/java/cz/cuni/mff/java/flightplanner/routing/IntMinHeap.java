@@ -0,0 +1,71 @@
+package cz.cuni.mff.java.flightplanner.routing;
+
+import java.util.Arrays;
+
+/**
+ * The binary min-heap of the node indices ordered by their {@code double}
+ * keys. The heap keeps the primitive values, so no object is created per
+ * inserted node. A node may be inserted several times with the decreasing
+ * keys; the outdated entries are skipped by the search.
+ */
+final class IntMinHeap {
+
+    private int[] nodes = new int[64];
+    private double[] keys = new double[64];
+    private int size = 0;
+
+    boolean isEmpty() {
+        return size == 0;
+    }
+
+    void clear() {
+        size = 0;
+    }
+
+    void push(int node, double key) {
+        if (size == nodes.length) {
+            nodes = Arrays.copyOf(nodes, size * 2);
+            keys = Arrays.copyOf(keys, size * 2);
+        }
+        int i = size++;
+        while (i > 0) {
+            int parent = (i - 1) >>> 1;
+            if (keys[parent] <= key) break;
+            nodes[i] = nodes[parent];
+            keys[i] = keys[parent];
+            i = parent;
+        }
+        nodes[i] = node;
+        keys[i] = key;
+    }
+
+    /**
+     * @return The key of the minimal entry. The heap must not be empty.
+     */
+    double peekKey() {
+        return keys[0];
+    }
+
+    /**
+     * Removes the minimal entry.
+     *
+     * @return The node of the removed entry. The heap must not be empty.
+     */
+    int pop() {
+        int result = nodes[0];
+        int node = nodes[--size];
+        double key = keys[size];
+        int i = 0, half = size >>> 1;
+        while (i < half) {
+            int child = 2 * i + 1;
+            if (child + 1 < size && keys[child + 1] < keys[child]) child++;
+            if (key <= keys[child]) break;
+            nodes[i] = nodes[child];
+            keys[i] = keys[child];
+            i = child;
+        }
+        nodes[i] = node;
+        keys[i] = key;
+        return result;
+    }
+}
@@ -0,0 +1,521 @@
+package cz.cuni.mff.java.flightplanner.routing;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.IntStream;
+import cz.cuni.mff.java.flightplanner.dataobject.Airport;
+import cz.cuni.mff.java.flightplanner.geo.GreatCircle;
+import cz.cuni.mff.java.flightplanner.util.NotNull;
+import cz.cuni.mff.java.flightplanner.util.Nullable;
+
+/**
+ * The LandmarkIndex class is the preprocessing of the airport graph for the
+ * A* search with the landmarks (ALT). The cheapest costs from several chosen
+ * landmark airports to every airport are computed in advance. By the
+ * triangle inequality the cost between the nodes {@code v} and {@code t} is at
+ * least {@code |cost(L, t) - cost(L, v)|} for every landmark {@code L}, which is
+ * a much better estimate than the great-circle distance alone. The search then
+ * expands only the few nodes close to the cheapest route.
+ * <p>
+ * The costs depend on the range and the stop penalty, so one index serves
+ * only the {@link RouteOptions} it was built for. The index can be saved to a
+ * file and loaded again. When the airports of the graph changed in between,
+ * the loaded costs are repaired incrementally:
+ * <ul>
+ *     <li>the added (or moved) airports can only make the costs lower, the
+ *         lowered costs are propagated from these airports only,</li>
+ *     <li>the removed airports make the costs of the airports whose cheapest
+ *         routes went through them higher. Only the costs of these airports
+ *         are computed again from the costs of their neighbours.</li>
+ * </ul>
+ * When a landmark airport itself is removed or the options differ, the index
+ * is built from scratch.
+ * <p>
+ * The {@value #directoryProperty} system property or the
+ * {@value #directoryVariable} environment variable names the directory where
+ * the indexes of the airport database are kept. Without it, the routes are
+ * searched for without the landmarks.
+ */
+public final class LandmarkIndex {
+
+    public static final String directoryProperty = "flightplanner.landmarks",
+                               directoryVariable = "FLIGHTPLANNER_LANDMARKS";
+    /**
+     * The number of the landmarks of the indexes of the airport database.
+     */
+    public static final int defaultLandmarkCount = 16;
+    private static final int magic = 0x46504C49, // "FPLI"
+                             version = 1,
+                             removedParent = -2;
+    private static final byte unknown = 0, valid = 1, invalid = 2;
+    private static final Map<String, LandmarkIndex> databaseIndexes = new HashMap<>();
+
+    private final AirportGraph graph;
+    private final double rangeNm, stopPenaltyNm, rangeAngle;
+    private final int[] landmarks;
+    /**
+     * The cost from the landmark {@code l} to the node {@code v} is
+     * {@code costs[v * landmarks.length + l]}, the infinite cost means that
+     * the node can not be reached from the landmark. The costs of one node
+     * are adjacent, so the estimate reads one block of the array per node.
+     */
+    private final double[] costs;
+    /**
+     * The previous node on the cheapest route from the landmark, stored like
+     * the {@link #costs}; -1 for the landmark and the unreachable nodes.
+     */
+    private final int[] parents;
+
+    private LandmarkIndex(@NotNull AirportGraph graph, @NotNull RouteOptions options, @NotNull int[] landmarks) {
+        this.graph = graph;
+        this.rangeNm = options.getRangeNm();
+        this.stopPenaltyNm = options.getStopPenaltyNm();
+        this.rangeAngle = rangeNm / GreatCircle.earthRadiusNm;
+        this.landmarks = landmarks;
+        this.costs = new double[graph.size() * landmarks.length];
+        this.parents = new int[graph.size() * landmarks.length];
+        Arrays.fill(costs, Double.POSITIVE_INFINITY);
+        Arrays.fill(parents, -1);
+    }
+
+    /**
+     * Builds the index from scratch. The landmarks are spread over the largest
+     * connected part of the graph as far from each other as possible, their
+     * costs are computed in parallel.
+     *
+     * @param graph         The graph of the airports.
+     * @param options       The range and the stop penalty of the searches.
+     * @param landmarkCount The maximal number of the landmarks.
+     * @return The built index.
+     */
+    public static @NotNull LandmarkIndex build(@NotNull AirportGraph graph, @NotNull RouteOptions options,
+                                               int landmarkCount) {
+        LandmarkIndex index = new LandmarkIndex(graph, options,
+                                                chooseLandmarks(graph, options, Math.max(1, landmarkCount)));
+        IntStream.range(0, index.landmarks.length)
+                 .parallel()
+                 .forEach(index::computeLandmark);
+        return index;
+    }
+
+    /**
+     * Loads the index from the file and repairs it for the current airports of
+     * the graph. If the file does not exist or can not be used, the index is
+     * built from scratch. The changed index is saved back to the file.
+     *
+     * @param file          The file of the index.
+     * @param graph         The graph of the airports.
+     * @param options       The range and the stop penalty of the searches.
+     * @param landmarkCount The number of the landmarks of a newly built index.
+     * @return The index of the graph.
+     */
+    public static @NotNull LandmarkIndex open(@NotNull Path file, @NotNull AirportGraph graph,
+                                              @NotNull RouteOptions options, int landmarkCount) {
+        LandmarkIndex index = null;
+        boolean changed = true;
+        if (Files.isRegularFile(file)) {
+            try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+                Stored stored = Stored.read(in);
+                if (stored.rangeNm == options.getRangeNm() && stored.stopPenaltyNm == options.getStopPenaltyNm()) {
+                    index = stored.update(graph, options);
+                    changed = stored.changed;
+                }
+            } catch (IOException e) {
+                System.err.println("The landmarks file %FILE can not be read, it will be built again."
+                                   .replace("%FILE", file.toString()));
+            }
+        }
+        if (index == null) index = build(graph, options, landmarkCount);
+        if (changed) {
+            try {
+                index.save(file);
+            } catch (IOException e) {
+                System.err.println("The landmarks file %FILE can not be written.".replace("%FILE", file.toString()));
+            }
+        }
+        return index;
+    }
+
+    /**
+     * Returns the index of the airport database for the options. The index is
+     * kept in the directory named by the {@value #directoryProperty} system
+     * property or the {@value #directoryVariable} environment variable, it is
+     * opened at the first call and shared afterwards.
+     *
+     * @param options The range and the stop penalty of the searches.
+     * @return The index, or {@code null} if no directory is configured or the
+     *         database could not be read.
+     */
+    public static synchronized @Nullable LandmarkIndex ofDatabase(@NotNull RouteOptions options) {
+        String directory = System.getProperty(directoryProperty);
+        if (directory == null) directory = System.getenv(directoryVariable);
+        if (directory == null || directory.isBlank()) return null;
+
+        String fileName = "landmarks-%RANGE-%PENALTY.bin"
+                .replace("%RANGE", String.valueOf(options.getRangeNm()))
+                .replace("%PENALTY", String.valueOf(options.getStopPenaltyNm()));
+        LandmarkIndex index = databaseIndexes.get(fileName);
+        if (index == null) {
+            AirportGraph graph = AirportGraph.ofDatabase();
+            if (graph == null) return null;
+            index = open(Path.of(directory.strip(), fileName), graph, options, defaultLandmarkCount);
+            databaseIndexes.put(fileName, index);
+        }
+        return index;
+    }
+
+    /**
+     * Writes the index to the file. The file is written under a temporary
+     * name first and then moved, so the concurrent runs never see a partial
+     * index.
+     *
+     * @param file The file of the index.
+     * @throws IOException if the file can not be written.
+     */
+    public void save(@NotNull Path file) throws IOException {
+        Path directory = file.toAbsolutePath().getParent();
+        Files.createDirectories(directory);
+        Path temporary = Files.createTempFile(directory, file.getFileName().toString(), ".part");
+        try {
+            try (DataOutputStream out =
+                         new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temporary)))) {
+                out.writeInt(magic);
+                out.writeInt(version);
+                out.writeDouble(rangeNm);
+                out.writeDouble(stopPenaltyNm);
+                out.writeInt(graph.size());
+                for (int node = 0; node < graph.size(); node++) {
+                    out.writeUTF(graph.airport(node).getIcaoCode());
+                    out.writeDouble(graph.latitude(node));
+                    out.writeDouble(graph.longitude(node));
+                }
+                out.writeInt(landmarks.length);
+                for (int landmark : landmarks) {
+                    out.writeInt(landmark);
+                }
+                for (int i = 0; i < costs.length; i++) {
+                    out.writeDouble(costs[i]);
+                    out.writeInt(parents[i]);
+                }
+            }
+            Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temporary);
+        }
+    }
+
+    /**
+     * @return The graph the index was built for.
+     */
+    public @NotNull AirportGraph getGraph() {
+        return graph;
+    }
+
+    /**
+     * @param options The options of a search.
+     * @return {@code True}, if the index can be used by the search with the
+     *         options. The index bounds the distance costs only, so it can not
+     *         be used with the performance of the aircraft.
+     */
+    public boolean supports(@NotNull RouteOptions options) {
+        return options.getRangeNm() == rangeNm && options.getStopPenaltyNm() == stopPenaltyNm &&
+               options.getPerformance() == null;
+    }
+
+    /**
+     * @return The landmark airports.
+     */
+    public @NotNull List<Airport> getLandmarks() {
+        List<Airport> result = new ArrayList<>(landmarks.length);
+        for (int landmark : landmarks) {
+            result.add(graph.airport(landmark));
+        }
+        return result;
+    }
+
+    /**
+     * Returns the lower bound of the cost of the cheapest route between two
+     * nodes.
+     *
+     * @return The bound, or the positive infinity if the target can not be
+     *         reached from the node.
+     */
+    double lowerBound(int node, int target) {
+        int k = landmarks.length, v = node * k, t = target * k;
+        double bound = 0;
+        for (int l = 0; l < k; l++) {
+            // NaN (both nodes unreachable from the landmark) never raises the bound
+            double difference = Math.abs(costs[t + l] - costs[v + l]);
+            if (difference > bound) bound = difference;
+        }
+        return bound;
+    }
+
+    /**
+     * Computes the costs of the landmark {@code l} from scratch by the
+     * Dijkstra's algorithm.
+     */
+    private void computeLandmark(int l) {
+        int k = landmarks.length;
+        for (int node = 0; node < graph.size(); node++) {
+            costs[node * k + l] = Double.POSITIVE_INFINITY;
+            parents[node * k + l] = -1;
+        }
+        IntMinHeap heap = new IntMinHeap();
+        costs[landmarks[l] * k + l] = 0;
+        heap.push(landmarks[l], 0);
+        propagate(l, heap);
+    }
+
+    /**
+     * Repairs the costs of the landmark {@code l} after the graph changed. The
+     * cheapest routes of the kept nodes which went through a removed node
+     * (marked by the parent {@value #removedParent}) are forgotten first. Then
+     * the costs of these nodes and of the {@code added} nodes are computed
+     * from their neighbours and the lowered costs are propagated.
+     */
+    private void repairLandmark(int l, @NotNull int[] added) {
+        int k = landmarks.length, n = graph.size();
+        byte[] state = new byte[n];
+        int[] path = new int[n];
+        int[] dirty = Arrays.copyOf(added, n);
+        int dirtyCount = added.length;
+        for (int node : added) {
+            state[node] = invalid;
+        }
+        for (int node = 0; node < n; node++) {
+            int length = 0, current = node;
+            while (state[current] == unknown) {
+                path[length++] = current;
+                int parent = parents[current * k + l];
+                if (parent < 0) {
+                    state[current] = parent == removedParent ? invalid : valid;
+                    length--;
+                    break;
+                }
+                current = parent;
+            }
+            byte resolved = state[current];
+            for (int i = 0; i < length; i++) {
+                state[path[i]] = resolved;
+            }
+        }
+        for (int node = 0; node < n; node++) {
+            if (state[node] == invalid && costs[node * k + l] < Double.POSITIVE_INFINITY) {
+                costs[node * k + l] = Double.POSITIVE_INFINITY;
+                parents[node * k + l] = -1;
+                dirty[dirtyCount++] = node;
+            }
+        }
+
+        IntMinHeap heap = new IntMinHeap();
+        for (int i = 0; i < dirtyCount; i++) {
+            int node = dirty[i];
+            graph.forEachWithin(node, rangeAngle, (neighbour, angle) -> {
+                double cost = costs[neighbour * k + l] + angle * GreatCircle.earthRadiusNm + stopPenaltyNm;
+                if (cost < costs[node * k + l]) {
+                    costs[node * k + l] = cost;
+                    parents[node * k + l] = neighbour;
+                }
+            });
+            if (costs[node * k + l] < Double.POSITIVE_INFINITY) heap.push(node, costs[node * k + l]);
+        }
+        propagate(l, heap);
+    }
+
+    /**
+     * Lowers the costs from the nodes of the heap until no cost can be
+     * lowered. The outdated entries of the heap are skipped.
+     */
+    private void propagate(int l, @NotNull IntMinHeap heap) {
+        int k = landmarks.length;
+        while (!heap.isEmpty()) {
+            double cost = heap.peekKey();
+            int node = heap.pop();
+            if (cost > costs[node * k + l]) continue;
+            graph.forEachWithin(node, rangeAngle, (neighbour, angle) -> {
+                double candidate = cost + angle * GreatCircle.earthRadiusNm + stopPenaltyNm;
+                if (candidate < costs[neighbour * k + l]) {
+                    costs[neighbour * k + l] = candidate;
+                    parents[neighbour * k + l] = node;
+                    heap.push(neighbour, candidate);
+                }
+            });
+        }
+    }
+
+    /**
+     * Chooses the landmarks in the largest connected part of the graph. The
+     * first landmark is the node farthest from an arbitrary node of the part,
+     * every next one is the node farthest from all the chosen landmarks.
+     */
+    private static @NotNull int[] chooseLandmarks(@NotNull AirportGraph graph, @NotNull RouteOptions options,
+                                                  int count) {
+        int[] candidates = largestComponent(graph, options.getRangeNm() / GreatCircle.earthRadiusNm);
+        if (candidates.length == 0) return new int[0];
+        int[] chosen = new int[Math.min(count, candidates.length)];
+        double[] nearest = new double[candidates.length];
+        Arrays.fill(nearest, Double.POSITIVE_INFINITY);
+        int next = candidates[0];
+        for (int i = 0; i <= chosen.length; i++) {
+            int farthest = next;
+            double farthestAngle = -1;
+            for (int c = 0; c < candidates.length; c++) {
+                nearest[c] = Math.min(nearest[c], graph.angle(next, candidates[c]));
+                if (nearest[c] > farthestAngle) {
+                    farthestAngle = nearest[c];
+                    farthest = candidates[c];
+                }
+            }
+            // the arbitrary starting node is only used to find the first landmark
+            if (i == 0) Arrays.fill(nearest, Double.POSITIVE_INFINITY);
+            else chosen[i - 1] = next;
+            next = farthest;
+        }
+        return chosen;
+    }
+
+    /**
+     * @return The nodes of the largest connected part of the graph.
+     */
+    private static @NotNull int[] largestComponent(@NotNull AirportGraph graph, double rangeAngle) {
+        int n = graph.size();
+        int[] component = new int[n], queue = new int[n];
+        Arrays.fill(component, -1);
+        int best = -1, bestSize = 0;
+        for (int start = 0, id = 0; start < n; start++) {
+            if (component[start] >= 0) continue;
+            int head = 0, tail = 0, current = id++;
+            component[start] = current;
+            queue[tail++] = start;
+            while (head < tail) {
+                int[] end = { tail };
+                graph.forEachWithin(queue[head++], rangeAngle, (neighbour, angle) -> {
+                    if (component[neighbour] < 0) {
+                        component[neighbour] = current;
+                        queue[end[0]++] = neighbour;
+                    }
+                });
+                tail = end[0];
+            }
+            if (tail > bestSize) {
+                bestSize = tail;
+                best = current;
+            }
+        }
+        int[] nodes = new int[bestSize];
+        for (int node = 0, i = 0; node < n; node++) {
+            if (component[node] == best) nodes[i++] = node;
+        }
+        return nodes;
+    }
+
+    /**
+     * The content of the index file, whose nodes are not yet matched with the
+     * nodes of the current graph.
+     */
+    private static final class Stored {
+
+        private double rangeNm, stopPenaltyNm;
+        private String[] icaoCodes;
+        private double[] latitudes, longitudes, costs;
+        private int[] landmarks, parents;
+        /**
+         * Set by {@link #update}, if the nodes of the graph differ from the
+         * stored ones.
+         */
+        private boolean changed = false;
+
+        private static @NotNull Stored read(@NotNull DataInputStream in) throws IOException {
+            if (in.readInt() != magic || in.readInt() != version) {
+                throw new IOException("Unknown format of the landmarks file.");
+            }
+            Stored stored = new Stored();
+            stored.rangeNm = in.readDouble();
+            stored.stopPenaltyNm = in.readDouble();
+            int n = in.readInt();
+            stored.icaoCodes = new String[n];
+            stored.latitudes = new double[n];
+            stored.longitudes = new double[n];
+            for (int node = 0; node < n; node++) {
+                stored.icaoCodes[node] = in.readUTF();
+                stored.latitudes[node] = in.readDouble();
+                stored.longitudes[node] = in.readDouble();
+            }
+            int k = in.readInt();
+            stored.landmarks = new int[k];
+            for (int l = 0; l < k; l++) {
+                stored.landmarks[l] = in.readInt();
+            }
+            stored.costs = new double[n * k];
+            stored.parents = new int[n * k];
+            for (int i = 0; i < n * k; i++) {
+                stored.costs[i] = in.readDouble();
+                stored.parents[i] = in.readInt();
+            }
+            return stored;
+        }
+
+        /**
+         * Matches the stored nodes with the nodes of the graph by their ICAO
+         * codes and coordinates and repairs the costs of the changed nodes.
+         *
+         * @return The repaired index, or {@code null} if a landmark was
+         *         removed and the index has to be built from scratch.
+         */
+        private @Nullable LandmarkIndex update(@NotNull AirportGraph graph, @NotNull RouteOptions options) {
+            int n = icaoCodes.length, k = landmarks.length;
+            int[] toGraph = new int[n];
+            boolean[] kept = new boolean[graph.size()];
+            int keptCount = 0;
+            for (int node = 0; node < n; node++) {
+                int index = graph.indexOf(icaoCodes[node]);
+                if (index >= 0 && graph.latitude(index) == latitudes[node] &&
+                    graph.longitude(index) == longitudes[node]) {
+                    toGraph[node] = index;
+                    kept[index] = true;
+                    keptCount++;
+                } else {
+                    toGraph[node] = -1;
+                }
+            }
+            int[] graphLandmarks = new int[k];
+            for (int l = 0; l < k; l++) {
+                graphLandmarks[l] = toGraph[landmarks[l]];
+                if (graphLandmarks[l] < 0) return null;
+            }
+
+            LandmarkIndex index = new LandmarkIndex(graph, options, graphLandmarks);
+            for (int node = 0; node < n; node++) {
+                if (toGraph[node] < 0) continue;
+                for (int l = 0; l < k; l++) {
+                    int parent = parents[node * k + l];
+                    index.costs[toGraph[node] * k + l] = costs[node * k + l];
+                    index.parents[toGraph[node] * k + l] = parent < 0 ? -1
+                                                          : toGraph[parent] < 0 ? removedParent : toGraph[parent];
+                }
+            }
+            int[] added = IntStream.range(0, graph.size())
+                                   .filter(node -> !kept[node])
+                                   .toArray();
+            changed = added.length > 0 || keptCount < n;
+            if (changed) {
+                IntStream.range(0, k)
+                         .parallel()
+                         .forEach(l -> index.repairLandmark(l, added));
+            }
+            return index;
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package cz.cuni.mff.java.flightplanner.routing;
+
+import cz.cuni.mff.java.flightplanner.util.NotNull;
+
+/**
+ * The LegEstimate class holds the time and the fuel of one leg of a route
+ * estimated by a performance model, together with the wind components used
+ * for the estimate.
+ */
+public class LegEstimate {
+
+    private final RouteLeg leg;
+    private final double tailwindKt, crosswindKt, timeHours, fuelKg;
+
+    /**
+     * @param leg         The estimated leg.
+     * @param tailwindKt  The wind component along the leg in knots, negative
+     *                    for the headwind.
+     * @param crosswindKt The size of the wind component across the leg in
+     *                    knots.
+     * @param timeHours   The time of the leg in hours.
+     * @param fuelKg      The fuel of the leg in kilograms.
+     */
+    public LegEstimate(@NotNull RouteLeg leg, double tailwindKt, double crosswindKt, double timeHours, double fuelKg) {
+        this.leg = leg;
+        this.tailwindKt = tailwindKt;
+        this.crosswindKt = crosswindKt;
+        this.timeHours = timeHours;
+        this.fuelKg = fuelKg;
+    }
+
+    public @NotNull RouteLeg getLeg() {
+        return leg;
+    }
+
+    /**
+     * @return The wind component along the leg in knots, negative for the
+     *         headwind.
+     */
+    public double getTailwindKt() {
+        return tailwindKt;
+    }
+
+    /**
+     * @return The size of the wind component across the leg in knots.
+     */
+    public double getCrosswindKt() {
+        return crosswindKt;
+    }
+
+    /**
+     * @return The time of the leg in hours.
+     */
+    public double getTimeHours() {
+        return timeHours;
+    }
+
+    /**
+     * @return The fuel of the leg in kilograms.
+     */
+    public double getFuelKg() {
+        return fuelKg;
+    }
+
+    /**
+     * @return The mean ground speed of the leg in knots.
+     */
+    public double getGroundSpeedKt() {
+        return timeHours > 0 ? leg.getDistanceNm() / timeHours : 0;
+    }
+}
@@ -0,0 +1,77 @@
+package cz.cuni.mff.java.flightplanner.routing;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import cz.cuni.mff.java.flightplanner.dataobject.Airport;
+import cz.cuni.mff.java.flightplanner.util.NotNull;
+
+/**
+ * The Route class represents the result of the route search: the sequence of
+ * the legs from the departure to the destination airport.
+ */
+public class Route {
+
+    private final List<RouteLeg> legs;
+    private final double distanceNm, cost;
+    private final int expandedNodes;
+
+    /**
+     * @param legs          The legs of the route in the order of flight.
+     * @param cost          The cost of the route minimized by the search.
+     * @param expandedNodes The number of the nodes expanded by the search.
+     */
+    public Route(@NotNull List<RouteLeg> legs, double cost, int expandedNodes) {
+        this.legs = Collections.unmodifiableList(new ArrayList<>(legs));
+        double distance = 0;
+        for (RouteLeg leg : legs) {
+            distance += leg.getDistanceNm();
+        }
+        this.distanceNm = distance;
+        this.cost = cost;
+        this.expandedNodes = expandedNodes;
+    }
+
+    /**
+     * @return The legs of the route. The route from an airport to itself has
+     *         no legs.
+     */
+    public @NotNull List<RouteLeg> getLegs() {
+        return legs;
+    }
+
+    /**
+     * @return All the airports of the route including the departure and the
+     *         destination.
+     */
+    public @NotNull List<Airport> getStops() {
+        List<Airport> stops = new ArrayList<>(legs.size() + 1);
+        for (RouteLeg leg : legs) {
+            if (stops.isEmpty()) stops.add(leg.getFrom());
+            stops.add(leg.getTo());
+        }
+        return stops;
+    }
+
+    /**
+     * @return The total distance of the route in nautical miles.
+     */
+    public double getDistanceNm() {
+        return distanceNm;
+    }
+
+    /**
+     * @return The cost of the route, i.e. its distance together with the
+     *         penalties of the legs.
+     */
+    public double getCost() {
+        return cost;
+    }
+
+    /**
+     * @return The number of the airports expanded by the search.
+     */
+    public int getExpandedNodes() {
+        return expandedNodes;
+    }
+}
@@ -0,0 +1,21 @@
+package cz.cuni.mff.java.flightplanner.routing;
+
+import cz.cuni.mff.java.flightplanner.dataobject.Airport;
+import cz.cuni.mff.java.flightplanner.util.NotNull;
+
+/**
+ * The constraint of the route search deciding which airports may be used as
+ * the intermediate stops. The departure and the destination airports are
+ * always allowed. The constraint is evaluated only once per airport when the
+ * {@link RouteRestrictions} are built, so it may inspect the runways or other
+ * details of the airport freely.
+ */
+@FunctionalInterface
+public interface RouteConstraint {
+
+    /**
+     * @param airport The airport to be checked.
+     * @return {@code True}, if the airport may be an intermediate stop.
+     */
+    boolean admits(@NotNull Airport airport);
+}
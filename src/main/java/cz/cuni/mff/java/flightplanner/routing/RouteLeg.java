@@ -0,0 +1,43 @@
+package cz.cuni.mff.java.flightplanner.routing;
+
+import cz.cuni.mff.java.flightplanner.dataobject.Airport;
+import cz.cuni.mff.java.flightplanner.util.NotNull;
+
+/**
+ * The RouteLeg class represents one great-circle leg of a route between two
+ * consecutive stops.
+ */
+public class RouteLeg {
+
+    private final Airport from, to;
+    private final double distanceNm, course;
+
+    /**
+     * @param from       The departure airport of the leg.
+     * @param to         The arrival airport of the leg.
+     * @param distanceNm The great-circle distance in nautical miles.
+     * @param course     The initial true course in degrees.
+     */
+    public RouteLeg(@NotNull Airport from, @NotNull Airport to, double distanceNm, double course) {
+        this.from = from;
+        this.to = to;
+        this.distanceNm = distanceNm;
+        this.course = course;
+    }
+
+    public @NotNull Airport getFrom() {
+        return from;
+    }
+
+    public @NotNull Airport getTo() {
+        return to;
+    }
+
+    public double getDistanceNm() {
+        return distanceNm;
+    }
+
+    public double getCourse() {
+        return course;
+    }
+}
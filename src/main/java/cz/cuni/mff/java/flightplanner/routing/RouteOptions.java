@@ -0,0 +1,97 @@
+package cz.cuni.mff.java.flightplanner.routing;
+
+import cz.cuni.mff.java.flightplanner.performance.PerformanceModel;
+import cz.cuni.mff.java.flightplanner.performance.RouteWind;
+import cz.cuni.mff.java.flightplanner.util.NotNull;
+import cz.cuni.mff.java.flightplanner.util.Nullable;
+
+/**
+ * The RouteOptions class holds the parameters of the route search: the range
+ * of the aircraft, which limits the length of every leg, and the penalty of
+ * every intermediate stop. The penalty is expressed in nautical miles, so
+ * that the planner prefers a slightly longer route with fewer stops.
+ * <p>
+ * If the options contain the {@link PerformanceModel} of the aircraft, a leg
+ * costs its time in the wind instead of its distance. The time is converted
+ * into the distance flown in the still air at the cruise speed, so the
+ * penalty keeps its meaning and the range still limits the great-circle
+ * distance of a leg.
+ */
+public class RouteOptions {
+
+    /**
+     * The range used when none is given, in nautical miles.
+     */
+    public static final double defaultRangeNm = 1000;
+    /**
+     * The stop penalty used when none is given, in nautical miles.
+     */
+    public static final double defaultStopPenaltyNm = 50;
+
+    private final double rangeNm, stopPenaltyNm;
+    private final PerformanceModel performance;
+    private final RouteWind wind;
+
+    /**
+     * @param rangeNm       The maximal length of one leg in nautical miles.
+     * @param stopPenaltyNm The cost of every leg added to its distance, in
+     *                      nautical miles.
+     * @param performance   The performance of the aircraft, or {@code null}
+     *                      if the legs cost their distance.
+     * @param wind          The wind of the route, used only with the
+     *                      performance.
+     * @throws IllegalArgumentException if the range is not positive or the
+     *         penalty is negative.
+     */
+    public RouteOptions(double rangeNm, double stopPenaltyNm, @Nullable PerformanceModel performance,
+                        @NotNull RouteWind wind) {
+        if (!(rangeNm > 0) || Double.isInfinite(rangeNm)) {
+            throw new IllegalArgumentException("The range has to be a positive number.");
+        }
+        if (!(stopPenaltyNm >= 0) || Double.isInfinite(stopPenaltyNm)) {
+            throw new IllegalArgumentException("The stop penalty can not be negative.");
+        }
+        this.rangeNm = rangeNm;
+        this.stopPenaltyNm = stopPenaltyNm;
+        this.performance = performance;
+        this.wind = wind;
+    }
+
+    /**
+     * @param rangeNm       The maximal length of one leg in nautical miles.
+     * @param stopPenaltyNm The cost of every leg added to its distance, in
+     *                      nautical miles.
+     * @throws IllegalArgumentException if the range is not positive or the
+     *         penalty is negative.
+     */
+    public RouteOptions(double rangeNm, double stopPenaltyNm) {
+        this(rangeNm, stopPenaltyNm, null, RouteWind.calm);
+    }
+
+    /**
+     * @param rangeNm The maximal length of one leg in nautical miles.
+     */
+    public RouteOptions(double rangeNm) {
+        this(rangeNm, defaultStopPenaltyNm);
+    }
+
+    public double getRangeNm() {
+        return rangeNm;
+    }
+
+    public double getStopPenaltyNm() {
+        return stopPenaltyNm;
+    }
+
+    /**
+     * @return The performance of the aircraft, or {@code null} if the legs
+     *         cost their distance.
+     */
+    public @Nullable PerformanceModel getPerformance() {
+        return performance;
+    }
+
+    public @NotNull RouteWind getWind() {
+        return wind;
+    }
+}
@@ -0,0 +1,253 @@
+package cz.cuni.mff.java.flightplanner.routing;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import cz.cuni.mff.java.flightplanner.geo.GreatCircle;
+import cz.cuni.mff.java.flightplanner.performance.PerformanceModel;
+import cz.cuni.mff.java.flightplanner.performance.RouteWind;
+import cz.cuni.mff.java.flightplanner.util.NotNull;
+import cz.cuni.mff.java.flightplanner.util.Nullable;
+
+/**
+ * The RoutePlanner class finds the cheapest route between two airports by
+ * the A* search. Each leg of the route may be at most as long as the range of
+ * the aircraft and costs its distance plus the stop penalty.
+ * <p>
+ * The heuristic of a node is the great-circle distance {@code d} to the
+ * destination plus the penalty of the smallest possible number of the
+ * remaining legs, {@code ceil(d / range)}. The heuristic never overestimates
+ * and is consistent, so every node is expanded at most once.
+ * <p>
+ * The state of the search is kept in the primitive arrays indexed by the
+ * nodes of the graph. The arrays are allocated once and marked by the
+ * generation of the search instead of being cleared, so the planner is cheap
+ * to reuse for many queries. The planner is not thread-safe, every thread
+ * needs its own instance.
+ * <p>
+ * The search may be restricted by the {@link RouteRestrictions}: the
+ * intermediate stops have to be eligible and their costs are added to the
+ * cost of the leg arriving at them. Both are looked up in constant time per
+ * relaxed edge. The heuristic stays consistent, as the restrictions can only
+ * make the routes more expensive.
+ * <p>
+ * If the planner is given a {@link LandmarkIndex} built for the options of the
+ * search, the heuristic is raised to the lower bound given by the landmarks,
+ * which is still consistent.
+ * <p>
+ * If the options contain the performance of the aircraft, every leg costs
+ * its time in the wind multiplied by the cruise speed. The model is evaluated
+ * for every relaxed edge, the wind components are computed from the unit
+ * vectors of the nodes. The leg is never faster than the cruise with the full
+ * wind behind, so the distance term of the heuristic is scaled by
+ * {@code tas / (tas + wind)}.
+ */
+public class RoutePlanner {
+
+    private final AirportGraph graph;
+    private final LandmarkIndex landmarks;
+    private final double[] cost;
+    private final int[] parent, reached, closed;
+    private final IntMinHeap open = new IntMinHeap();
+    private final Relaxation relaxation = new Relaxation();
+    private int generation = 0;
+
+    /**
+     * @param graph The graph of the airports to be searched.
+     */
+    public RoutePlanner(@NotNull AirportGraph graph) {
+        this(graph, null);
+    }
+
+    /**
+     * @param graph     The graph of the airports to be searched.
+     * @param landmarks The landmarks of the graph, or {@code null} if the
+     *                  search is not to use them.
+     * @throws IllegalArgumentException if the landmarks were built for another
+     *         graph.
+     */
+    public RoutePlanner(@NotNull AirportGraph graph, @Nullable LandmarkIndex landmarks) {
+        if (landmarks != null && landmarks.getGraph() != graph) {
+            throw new IllegalArgumentException("The landmarks were built for another graph.");
+        }
+        this.graph = graph;
+        this.landmarks = landmarks;
+        this.cost = new double[graph.size()];
+        this.parent = new int[graph.size()];
+        this.reached = new int[graph.size()];
+        this.closed = new int[graph.size()];
+    }
+
+    /**
+     * Finds the cheapest route between two airports.
+     *
+     * @param fromIcao The ICAO code of the departure airport.
+     * @param toIcao   The ICAO code of the destination airport.
+     * @param options  The range and the stop penalty.
+     * @return The found route, or {@code null} if the destination can not be
+     *         reached within the range.
+     * @throws IllegalArgumentException if any of the airports is unknown or
+     *         has no coordinates.
+     */
+    public @Nullable Route plan(@NotNull String fromIcao, @NotNull String toIcao, @NotNull RouteOptions options) {
+        return plan(fromIcao, toIcao, options, null);
+    }
+
+    /**
+     * Finds the cheapest route between two airports which satisfies the
+     * restrictions.
+     *
+     * @param fromIcao     The ICAO code of the departure airport.
+     * @param toIcao       The ICAO code of the destination airport.
+     * @param options      The range and the stop penalty.
+     * @param restrictions The constraints and the costs of the intermediate
+     *                     stops, or {@code null} if every airport may be used.
+     * @return The found route, or {@code null} if the destination can not be
+     *         reached within the range.
+     * @throws IllegalArgumentException if any of the airports is unknown or
+     *         has no coordinates.
+     */
+    public @Nullable Route plan(@NotNull String fromIcao, @NotNull String toIcao, @NotNull RouteOptions options,
+                                @Nullable RouteRestrictions restrictions) {
+        int from = graph.indexOf(fromIcao), to = graph.indexOf(toIcao);
+        if (from < 0) throw new IllegalArgumentException("Unknown airport: %AIRPORT".replace("%AIRPORT", fromIcao));
+        if (to < 0) throw new IllegalArgumentException("Unknown airport: %AIRPORT".replace("%AIRPORT", toIcao));
+        return plan(from, to, options, restrictions);
+    }
+
+    /**
+     * Finds the cheapest route between two nodes of the graph.
+     *
+     * @param from    The departure node.
+     * @param to      The destination node.
+     * @param options The range and the stop penalty.
+     * @return The found route, or {@code null} if the destination can not be
+     *         reached within the range.
+     */
+    public @Nullable Route plan(int from, int to, @NotNull RouteOptions options) {
+        return plan(from, to, options, null);
+    }
+
+    /**
+     * Finds the cheapest route between two nodes of the graph which satisfies
+     * the restrictions.
+     *
+     * @param from         The departure node.
+     * @param to           The destination node.
+     * @param options      The range and the stop penalty.
+     * @param restrictions The constraints and the costs of the intermediate
+     *                     stops, or {@code null} if every node may be used.
+     * @return The found route, or {@code null} if the destination can not be
+     *         reached within the range.
+     * @throws IllegalArgumentException if the restrictions were evaluated for
+     *         another graph.
+     */
+    public @Nullable Route plan(int from, int to, @NotNull RouteOptions options,
+                                @Nullable RouteRestrictions restrictions) {
+        if (restrictions != null && restrictions.getGraph() != graph) {
+            throw new IllegalArgumentException("The restrictions were evaluated for another graph.");
+        }
+        nextGeneration();
+        Relaxation r = relaxation;
+        r.goal = to;
+        r.rangeAngle = options.getRangeNm() / GreatCircle.earthRadiusNm;
+        r.penalty = options.getStopPenaltyNm();
+        r.performance = options.getPerformance();
+        r.wind = options.getWind();
+        r.distanceFactor = r.performance == null ? 1 : r.performance.getCruiseSpeedKt() /
+                                                       (r.performance.getCruiseSpeedKt() + r.wind.getSpeedKt());
+        r.landmarks = landmarks != null && landmarks.supports(options) ? landmarks : null;
+        r.restrictions = restrictions;
+        int expanded = 0;
+
+        open.clear();
+        reached[from] = generation;
+        cost[from] = 0;
+        parent[from] = -1;
+        open.push(from, r.heuristic(from));
+        while (!open.isEmpty()) {
+            int node = open.pop();
+            if (closed[node] == generation) continue;
+            closed[node] = generation;
+            expanded++;
+            if (node == to) return route(from, to, expanded);
+            r.node = node;
+            r.nodeCost = cost[node];
+            graph.forEachWithin(node, r.rangeAngle, r);
+        }
+        return null;
+    }
+
+    private @NotNull Route route(int from, int to, int expanded) {
+        List<RouteLeg> legs = new ArrayList<>();
+        for (int node = to; node != from; node = parent[node]) {
+            int previous = parent[node];
+            legs.add(new RouteLeg(graph.airport(previous), graph.airport(node),
+                                  graph.distanceNm(previous, node), graph.initialCourse(previous, node)));
+        }
+        Collections.reverse(legs);
+        return new Route(legs, cost[to], expanded);
+    }
+
+    private void nextGeneration() {
+        if (++generation == Integer.MAX_VALUE) {
+            Arrays.fill(reached, 0);
+            Arrays.fill(closed, 0);
+            generation = 1;
+        }
+    }
+
+    /**
+     * The relaxation of the edges from the expanded node. The instance is
+     * reused, so the expansion creates no objects.
+     */
+    private final class Relaxation implements AirportGraph.NeighbourVisitor {
+
+        private int goal, node;
+        private double rangeAngle, penalty, nodeCost, distanceFactor;
+        private LandmarkIndex landmarks;
+        private RouteRestrictions restrictions;
+        private PerformanceModel performance;
+        private RouteWind wind;
+        private final double[] components = new double[2];
+
+        private double heuristic(int node) {
+            double angle = graph.angle(node, goal),
+                   estimate = angle * GreatCircle.earthRadiusNm * distanceFactor +
+                              penalty * Math.ceil(angle / rangeAngle);
+            return landmarks == null ? estimate : Math.max(estimate, landmarks.lowerBound(node, goal));
+        }
+
+        /**
+         * @return The time of the leg to the neighbour multiplied by the
+         *         cruise speed, infinite if the leg can not be flown.
+         */
+        private double legCost(int neighbour, double distance) {
+            graph.windComponents(node, neighbour, wind, components);
+            return performance.legTimeHours(distance, components[0], components[1]) *
+                   performance.getCruiseSpeedKt();
+        }
+
+        @Override
+        public void visit(int neighbour, double angle) {
+            if (closed[neighbour] == generation) return;
+            double distance = angle * GreatCircle.earthRadiusNm,
+                   legCost = performance == null ? distance : legCost(neighbour, distance);
+            if (!(legCost < Double.POSITIVE_INFINITY)) return;
+            double candidate = nodeCost + legCost + penalty;
+            if (restrictions != null && neighbour != goal) {
+                if (!restrictions.admits(neighbour)) return;
+                candidate += restrictions.stopCost(neighbour);
+            }
+            if (reached[neighbour] != generation || candidate < cost[neighbour]) {
+                reached[neighbour] = generation;
+                cost[neighbour] = candidate;
+                parent[neighbour] = node;
+                double estimate = heuristic(neighbour);
+                // the infinite estimate means that the goal can not be reached from the neighbour
+                if (estimate < Double.POSITIVE_INFINITY) open.push(neighbour, candidate + estimate);
+            }
+        }
+    }
+}
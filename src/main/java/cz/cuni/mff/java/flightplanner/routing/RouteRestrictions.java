@@ -0,0 +1,93 @@
+package cz.cuni.mff.java.flightplanner.routing;
+
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.List;
+import cz.cuni.mff.java.flightplanner.util.NotNull;
+
+/**
+ * The RouteRestrictions class holds the constraints and the stop costs of the
+ * route search evaluated for every node of the graph in advance. The
+ * eligibility of the nodes is kept in a bit set and the costs in an array, so
+ * the search checks a neighbour in constant time instead of inspecting its
+ * runways or weather again at every relaxed edge.
+ */
+public final class RouteRestrictions {
+
+    private final AirportGraph graph;
+    private final BitSet eligible;
+    private final double[] stopCosts;
+
+    /**
+     * Evaluates the constraints and the costs for every node of the graph.
+     *
+     * @param graph       The graph of the airports.
+     * @param constraints The constraints every intermediate stop has to
+     *                    satisfy.
+     * @param costs       The costs summed for every intermediate stop.
+     * @throws IllegalArgumentException if any of the costs is negative.
+     */
+    public RouteRestrictions(@NotNull AirportGraph graph, @NotNull Collection<? extends RouteConstraint> constraints,
+                             @NotNull Collection<? extends StopCost> costs) {
+        this.graph = graph;
+        this.eligible = new BitSet(graph.size());
+        this.stopCosts = new double[graph.size()];
+        for (int node = 0; node < graph.size(); node++) {
+            boolean admitted = true;
+            for (RouteConstraint constraint : constraints) {
+                if (!constraint.admits(graph.airport(node))) {
+                    admitted = false;
+                    break;
+                }
+            }
+            eligible.set(node, admitted);
+            for (StopCost cost : costs) {
+                double value = cost.cost(graph.airport(node));
+                if (!(value >= 0)) {
+                    throw new IllegalArgumentException("The cost of the stop at %ICAO is negative."
+                                                       .replace("%ICAO", graph.airport(node).getIcaoCode()));
+                }
+                stopCosts[node] += value;
+            }
+        }
+    }
+
+    /**
+     * @param graph       The graph of the airports.
+     * @param constraints The constraints every intermediate stop has to
+     *                    satisfy.
+     */
+    public RouteRestrictions(@NotNull AirportGraph graph, @NotNull Collection<? extends RouteConstraint> constraints) {
+        this(graph, constraints, List.of());
+    }
+
+    /**
+     * @return The graph the restrictions were evaluated for.
+     */
+    public @NotNull AirportGraph getGraph() {
+        return graph;
+    }
+
+    /**
+     * @return The number of the nodes which may be intermediate stops.
+     */
+    public int eligibleCount() {
+        return eligible.cardinality();
+    }
+
+    /**
+     * @param node The node of the graph.
+     * @return {@code True}, if the node may be an intermediate stop.
+     */
+    public boolean admits(int node) {
+        return eligible.get(node);
+    }
+
+    /**
+     * @param node The node of the graph.
+     * @return The cost of the intermediate stop at the node in nautical miles.
+     */
+    public double stopCost(int node) {
+        return stopCosts[node];
+    }
+}
@@ -0,0 +1,65 @@
+package cz.cuni.mff.java.flightplanner.routing;
+
+import java.util.List;
+import java.util.stream.Collectors;
+import cz.cuni.mff.java.flightplanner.dataobject.Airport;
+import cz.cuni.mff.java.flightplanner.dataobject.Runway;
+import cz.cuni.mff.java.flightplanner.util.NotNull;
+import cz.cuni.mff.java.flightplanner.util.Nullable;
+
+/**
+ * The RunwayConstraint class admits only the airports whose longest runway is
+ * suitable for the aircraft. The longest runway has to be long enough, its
+ * surface has to be one of the accepted surfaces and, if required, the
+ * database has to contain the details of the runway. The airports without
+ * any runway of known length are never admitted.
+ */
+public class RunwayConstraint implements RouteConstraint {
+
+    private final double minLengthFt;
+    private final List<String> surfaces;
+    private final boolean detailedOnly;
+
+    /**
+     * @param minLengthFt  The minimal length of the longest runway in feet.
+     * @param surfaces     The accepted surfaces, e.g. "asp" or "con". The
+     *                     runway coverage has to start with one of them (not
+     *                     case-sensitive). Any surface is accepted if the list
+     *                     is {@code null} or empty.
+     * @param detailedOnly The flag indicating that the longest runway has to
+     *                     be {@link Runway#isDetailed() detailed}.
+     */
+    public RunwayConstraint(double minLengthFt, @Nullable List<String> surfaces, boolean detailedOnly) {
+        this.minLengthFt = minLengthFt;
+        this.surfaces = surfaces == null ? List.of()
+                        : surfaces.stream()
+                                  .map(surface -> surface.strip().toLowerCase())
+                                  .filter(surface -> !surface.isEmpty())
+                                  .collect(Collectors.toUnmodifiableList());
+        this.detailedOnly = detailedOnly;
+    }
+
+    @Override
+    public boolean admits(@NotNull Airport airport) {
+        Runway longest = longestRunway(airport);
+        if (longest == null || longest.getLength() < minLengthFt) return false;
+        if (detailedOnly && !longest.isDetailed()) return false;
+        if (surfaces.isEmpty()) return true;
+        String coverage = longest.getCoverage() == null ? "" : longest.getCoverage().toLowerCase();
+        return surfaces.stream().anyMatch(coverage::startsWith);
+    }
+
+    /**
+     * @return The runway of the airport with the greatest known length, or
+     *         {@code null} if the length of no runway is known.
+     */
+    static @Nullable Runway longestRunway(@NotNull Airport airport) {
+        Runway longest = null;
+        for (Runway runway : airport.getRunways()) {
+            Double length = runway.getLength();
+            if (length == null || length.isNaN()) continue;
+            if (longest == null || length > longest.getLength()) longest = runway;
+        }
+        return longest;
+    }
+}
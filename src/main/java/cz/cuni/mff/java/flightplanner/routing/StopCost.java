@@ -0,0 +1,22 @@
+package cz.cuni.mff.java.flightplanner.routing;
+
+import cz.cuni.mff.java.flightplanner.dataobject.Airport;
+import cz.cuni.mff.java.flightplanner.util.NotNull;
+
+/**
+ * The additional cost of an intermediate stop of the route. The cost is
+ * expressed in nautical miles like the stop penalty of the
+ * {@link RouteOptions}, so the planner accepts a longer route to avoid an
+ * expensive stop. The cost is evaluated only once per airport when the
+ * {@link RouteRestrictions} are built.
+ */
+@FunctionalInterface
+public interface StopCost {
+
+    /**
+     * @param airport The airport to be evaluated.
+     * @return The non-negative cost of the stop at the airport in nautical
+     *         miles.
+     */
+    double cost(@NotNull Airport airport);
+}
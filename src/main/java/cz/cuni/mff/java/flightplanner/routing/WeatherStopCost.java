@@ -0,0 +1,108 @@
+package cz.cuni.mff.java.flightplanner.routing;
+
+import java.io.File;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import cz.cuni.mff.java.flightplanner.dataobject.Airport;
+import cz.cuni.mff.java.flightplanner.dataobject.WeatherConditions;
+import cz.cuni.mff.java.flightplanner.dataobject.Wind;
+import cz.cuni.mff.java.flightplanner.util.CrosswindCalculator;
+import cz.cuni.mff.java.flightplanner.util.METARDecoder;
+import cz.cuni.mff.java.flightplanner.util.NotNull;
+import cz.cuni.mff.java.flightplanner.util.WeatherLexer;
+
+/**
+ * The WeatherStopCost class penalizes the stops at the airports whose latest
+ * decoded METAR is below the minima or whose wind is too strong for every
+ * runway. The stops at the airports without any known weather are not
+ * penalized.
+ */
+public class WeatherStopCost implements StopCost {
+
+    public static final double defaultMinVisibility = 1500, defaultMinCeiling = 500,
+                               defaultMaxCrosswind = 20, defaultMaxTailwind = 10,
+                               defaultPenaltyNm = 500;
+
+    private final Map<String, WeatherConditions> latest;
+    private final double minVisibility, minCeiling, belowMinimaPenaltyNm, crosswindPenaltyNm;
+    private final CrosswindCalculator calculator;
+
+    /**
+     * @param latest               The latest observed conditions for each
+     *                             airport ICAO code.
+     * @param minVisibility        The visibility minimum in meters.
+     * @param minCeiling           The ceiling minimum in feet.
+     * @param maxCrosswind         The maximal acceptable crosswind component
+     *                             in knots, the gusts included.
+     * @param belowMinimaPenaltyNm The cost of the stop below the minima.
+     * @param crosswindPenaltyNm   The cost of the stop without any runway
+     *                             usable in the wind.
+     */
+    public WeatherStopCost(@NotNull Map<String, WeatherConditions> latest, double minVisibility, double minCeiling,
+                           double maxCrosswind, double belowMinimaPenaltyNm, double crosswindPenaltyNm) {
+        this.latest = Map.copyOf(latest);
+        this.minVisibility = minVisibility;
+        this.minCeiling = minCeiling;
+        this.belowMinimaPenaltyNm = belowMinimaPenaltyNm;
+        this.crosswindPenaltyNm = crosswindPenaltyNm;
+        this.calculator = new CrosswindCalculator(maxCrosswind, defaultMaxTailwind, true);
+    }
+
+    /**
+     * Creates the cost with the default minima, crosswind limit and penalties.
+     *
+     * @param latest The latest observed conditions for each airport ICAO code.
+     */
+    public WeatherStopCost(@NotNull Map<String, WeatherConditions> latest) {
+        this(latest, defaultMinVisibility, defaultMinCeiling, defaultMaxCrosswind, defaultPenaltyNm, defaultPenaltyNm);
+    }
+
+    @Override
+    public double cost(@NotNull Airport airport) {
+        WeatherConditions conditions = latest.get(airport.getIcaoCode());
+        if (conditions == null) return 0;
+        double cost = 0;
+        if (isBelowMinima(conditions)) cost += belowMinimaPenaltyNm;
+        if (hasStrongCrosswind(airport, conditions)) cost += crosswindPenaltyNm;
+        return cost;
+    }
+
+    /**
+     * @return {@code True}, if the visibility or the ceiling is below the
+     *         minima. The unknown values are not below the minima.
+     */
+    public boolean isBelowMinima(@NotNull WeatherConditions conditions) {
+        return conditions.getVisibility() < minVisibility || conditions.getCeiling() < minCeiling;
+    }
+
+    /**
+     * @return {@code True}, if the airport has a runway with known heading and
+     *         none of its runways is usable in the reported wind.
+     */
+    public boolean hasStrongCrosswind(@NotNull Airport airport, @NotNull WeatherConditions conditions) {
+        Wind wind = conditions.getWind();
+        if (wind == null) return false;
+        return !calculator.components(airport, wind).isEmpty() && calculator.usableRunways(airport, wind).isEmpty();
+    }
+
+    /**
+     * Decodes the latest METAR of each downloaded file.
+     *
+     * @param metarFiles The map of pairs (icao String, METAR file) as returned
+     *                   by the downloader.
+     * @return The map of pairs (icao String, latest conditions). The airports
+     *         without any decodable METAR are not included.
+     */
+    public static @NotNull Map<String, WeatherConditions> latestConditions(@NotNull Map<String, File> metarFiles) {
+        Map<String, WeatherConditions> result = new HashMap<>();
+        metarFiles.forEach((icao, file) -> {
+            String metar = file == null ? null : METARDecoder.latestMETAR(file);
+            if (metar == null) return;
+            // the report type, the ICAO code and the time precede the conditions
+            List<WeatherLexer.Token> tokens = WeatherLexer.tokenize(metar.split("\\s+"), 3, WeatherLexer.Mode.METAR);
+            result.put(icao, METARDecoder.decodeConditions(tokens));
+        });
+        return result;
+    }
+}
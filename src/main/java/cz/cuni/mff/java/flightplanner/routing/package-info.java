@@ -0,0 +1,9 @@
+/**
+ * The package contains the route planning between the airports. The airports
+ * of the database form a graph whose edges are implied by the range of the
+ * aircraft; the edges are never stored, they are generated from the spatial
+ * index of the airports while the A* search expands the nodes.
+ *
+ * @author Viktor Bujko
+ */
+package cz.cuni.mff.java.flightplanner.routing;
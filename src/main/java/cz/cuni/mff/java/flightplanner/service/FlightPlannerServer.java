@@ -0,0 +1,455 @@
+package cz.cuni.mff.java.flightplanner.service;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import cz.cuni.mff.java.flightplanner.dataobject.*;
+import cz.cuni.mff.java.flightplanner.util.*;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.util.*;
+import java.util.concurrent.*;
+
+/**
+ * The FlightPlannerServer class is the embedded HTTP query service built on the
+ * HTTP server of the JDK. The airport database is loaded once when the server
+ * starts and the downloaded weather reports are cached, so the requests do not
+ * pay the start-up costs. The endpoints answer in the JSON format:
+ * <ul>
+ *     <li>{@code GET /airports?q=text&limit=n} - the airport search</li>
+ *     <li>{@code GET /airports/ICAO} - the information about the airport and
+ *         its runways</li>
+ *     <li>{@code GET /weather/ICAO?taf=yes} - the decoded latest METAR, the
+ *         runway wind components and optionally the decoded forecasts</li>
+ *     <li>{@code GET /metrics} - the latency histograms of the endpoints and
+ *         the cache sizes</li>
+ * </ul>
+ * The requests are handled by a fixed pool of workers with a bounded queue. If
+ * the queue is full, the request is answered by the status 503 at once, so
+ * that the thread accepting the connections is never blocked by a slow
+ * request. The weather providers are read with timeouts, so a hung provider
+ * ties up the workers only for a limited time. The persistent
+ * (keep-alive) connections are supported, their idle timeout can be set by
+ * the {@code keepAlive} parameter of the first server created in the JVM.
+ */
+public class FlightPlannerServer {
+
+    private static final int defaultSearchLimit = 20, maxSearchLimit = 200;
+    private static final double maxCrosswind = 20, maxTailwind = 10;
+    private static final Duration metarLookback = Duration.ofHours(3);
+
+    /**
+     * The handler of one endpoint. The handler returns the JSON document of
+     * the response or throws the {@link HttpError}.
+     */
+    @FunctionalInterface
+    private interface Endpoint {
+        @NotNull String handle(@NotNull String path, @NotNull Map<String, String> query) throws HttpError, IOException;
+    }
+
+    /**
+     * The error which is answered by the given HTTP status code.
+     */
+    private static class HttpError extends Exception {
+        private static final long serialVersionUID = 1L;
+        private final int status;
+
+        private HttpError(int status, @NotNull String message) {
+            super(message);
+            this.status = status;
+        }
+    }
+
+    private final int port, workers, queueCapacity;
+    private final Map<String, LatencyHistogram> latencies = new ConcurrentSkipListMap<>();
+    private final ReportCache<List<Observation>> metars;
+    private final ReportCache<List<Forecast>> forecasts;
+    private HttpServer server;
+    private ThreadPoolExecutor executor;
+
+    /**
+     * @param port          The port to listen at, 0 for any free port.
+     * @param workers       The number of the worker threads.
+     * @param queueCapacity The number of the requests waiting for a worker.
+     * @param keepAlive     The time after which an idle persistent connection
+     *                      is closed.
+     * @param cacheTime     The time after which the cached weather reports are
+     *                      downloaded again.
+     * @param downloader    The downloader of the weather reports.
+     */
+    public FlightPlannerServer(int port, int workers, int queueCapacity, @NotNull Duration keepAlive,
+                               @NotNull Duration cacheTime, @NotNull Downloader downloader) {
+        this.port = port;
+        this.workers = Math.max(1, workers);
+        this.queueCapacity = Math.max(1, queueCapacity);
+        // read by the JDK server when its first instance is created
+        if (System.getProperty("sun.net.httpserver.idleInterval") == null) {
+            System.setProperty("sun.net.httpserver.idleInterval",
+                               String.valueOf(Math.max(1, keepAlive.toSeconds())));
+        }
+        this.metars = new ReportCache<>(icao -> {
+            ZonedDateTime now = ZonedDateTime.now(ZoneOffset.UTC);
+            List<Observation> result = new ArrayList<>();
+            for (String line : downloader.fetchMETARLines(now.minus(metarLookback), now, icao)) {
+                Observation observation = METARDecoder.decodeObservation(line);
+                if (observation != null) result.add(observation);
+            }
+            result.sort(Comparator.comparing(Observation::getTime));
+            return result;
+        }, cacheTime);
+        this.forecasts = new ReportCache<>(icao -> {
+            ZonedDateTime now = ZonedDateTime.now(ZoneOffset.UTC);
+            return new TAFDecoder().readForecasts(downloader.fetchLines(Downloader.Product.TAF, now, now, icao), now);
+        }, cacheTime);
+    }
+
+    /**
+     * Loads the airport database and the METAR dictionary and starts the
+     * server.
+     *
+     * @throws IOException if the databases can not be loaded or the server can
+     *         not be bound to the port.
+     */
+    public synchronized void start() throws IOException {
+        if (server != null) return;
+        if (Airport.search("", 0) == null) {
+            throw new IOException("The airport database could not be loaded.");
+        }
+        if (!METARDictionary.isAvailable()) throw new IOException("The METAR dictionary could not be loaded.");
+
+        executor = new ThreadPoolExecutor(workers, workers, 0, TimeUnit.MILLISECONDS,
+                                          new ArrayBlockingQueue<>(queueCapacity),
+                                          runnable -> {
+                                              Thread thread = new Thread(runnable, "flightplanner-http-worker");
+                                              thread.setDaemon(true);
+                                              return thread;
+                                          },
+                                          new ThreadPoolExecutor.AbortPolicy());
+        // the exchanges are passed to the workers by the handlers, see dispatch
+        server = HttpServer.create(new InetSocketAddress(port), 0);
+        register("/airports", "airports", this::airports);
+        register("/weather", "weather", this::weather);
+        register("/metrics", "metrics", (path, query) -> metrics());
+        server.start();
+    }
+
+    /**
+     * Stops the server. The requests being handled are given up to the
+     * {@code delay} to finish.
+     *
+     * @param delay The time to wait for the running requests.
+     */
+    public synchronized void stop(@NotNull Duration delay) {
+        if (server == null) return;
+        server.stop((int) Math.max(0, delay.toSeconds()));
+        executor.shutdown();
+        server = null;
+        executor = null;
+    }
+
+    /**
+     * @return The port the server listens at, or -1 if it is not running.
+     */
+    public synchronized int getPort() {
+        return server == null ? -1 : server.getAddress().getPort();
+    }
+
+    private void register(@NotNull String context, @NotNull String name, @NotNull Endpoint endpoint) {
+        Executor workers = executor;
+        server.createContext(context, exchange -> dispatch(workers, exchange, context, name, endpoint));
+    }
+
+    /**
+     * Passes the exchange to a worker. Runs in the thread accepting the
+     * connections, therefore the request which can not be queued is answered
+     * by the status 503 without waiting.
+     */
+    private void dispatch(@NotNull Executor workers, @NotNull HttpExchange exchange, @NotNull String context,
+                          @NotNull String name, @NotNull Endpoint endpoint) throws IOException {
+        try {
+            workers.execute(() -> {
+                try {
+                    handle(exchange, context, name, endpoint);
+                } catch (IOException e) {
+                    exchange.close();
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            respond(exchange, 503, error("The server is overloaded, please try again later."));
+        }
+    }
+
+    /**
+     * Handles one exchange: parses the request, invokes the endpoint, sends
+     * the response and records the latency of the endpoint.
+     */
+    private void handle(@NotNull HttpExchange exchange, @NotNull String context, @NotNull String name,
+                        @NotNull Endpoint endpoint) throws IOException {
+        long start = System.nanoTime();
+        int status = 200;
+        String body;
+        try {
+            if (!"GET".equals(exchange.getRequestMethod())) {
+                throw new HttpError(405, "Only the GET method is supported.");
+            }
+            String path = exchange.getRequestURI().getPath().substring(context.length());
+            if (path.startsWith("/")) path = path.substring(1);
+            body = endpoint.handle(path, parseQuery(exchange.getRequestURI().getRawQuery()));
+        } catch (HttpError e) {
+            status = e.status;
+            body = error(e.getMessage());
+        } catch (IOException e) {
+            status = 502;
+            body = error("The data provider is not available.");
+        } catch (RuntimeException e) {
+            status = 500;
+            body = error("An internal error has occurred.");
+        }
+
+        try {
+            respond(exchange, status, body);
+        } finally {
+            latencies.computeIfAbsent(name, key -> new LatencyHistogram())
+                     .record(System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * Sends the JSON response and closes the exchange.
+     */
+    private static void respond(@NotNull HttpExchange exchange, int status, @NotNull String body)
+            throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    private static @NotNull Map<String, String> parseQuery(String rawQuery) throws HttpError {
+        Map<String, String> result = new HashMap<>();
+        if (rawQuery == null || rawQuery.isEmpty()) return result;
+        try {
+            for (String pair : rawQuery.split("&")) {
+                int equals = pair.indexOf('=');
+                String key   = equals < 0 ? pair : pair.substring(0, equals),
+                       value = equals < 0 ? "" : pair.substring(equals + 1);
+                result.put(URLDecoder.decode(key, StandardCharsets.UTF_8),
+                           URLDecoder.decode(value, StandardCharsets.UTF_8));
+            }
+        } catch (IllegalArgumentException e) {
+            throw new HttpError(400, "The query is not correctly encoded.");
+        }
+        return result;
+    }
+
+    private @NotNull String airports(@NotNull String path, @NotNull Map<String, String> query)
+            throws HttpError {
+        if (!path.isEmpty()) {
+            Airport airport = findAirport(path);
+            JsonWriter json = new JsonWriter();
+            writeAirport(json, airport, true);
+            return json.toString();
+        }
+        String text = query.get("q");
+        if (text == null || text.isBlank()) throw new HttpError(400, "The \"q\" parameter is required.");
+        int limit = defaultSearchLimit;
+        if (query.containsKey("limit")) {
+            try {
+                limit = Math.min(maxSearchLimit, Integer.parseInt(query.get("limit")));
+            } catch (NumberFormatException e) {
+                throw new HttpError(400, "The \"limit\" parameter has to be a number.");
+            }
+        }
+        List<Airport> found = Airport.search(text, limit);
+        if (found == null) throw new HttpError(503, "The airport database is not available.");
+
+        JsonWriter json = new JsonWriter().beginObject().name("airports").beginArray();
+        for (Airport airport : found) writeAirport(json, airport, false);
+        return json.endArray().endObject().toString();
+    }
+
+    private @NotNull String weather(@NotNull String path, @NotNull Map<String, String> query)
+            throws HttpError, IOException {
+        if (path.isEmpty() || path.contains("/")) throw new HttpError(404, "Use /weather/ICAO.");
+        Airport airport = findAirport(path);
+        boolean withForecasts = isTrue(query.get("taf"));
+
+        List<Observation> observations = metars.get(airport.getIcaoCode());
+        Observation latest = observations.isEmpty() ? null : observations.get(observations.size() - 1);
+        JsonWriter json = new JsonWriter().beginObject()
+                                          .member("icao", airport.getIcaoCode());
+        json.name("metar");
+        if (latest == null) json.value((String) null);
+        else writeObservation(json, latest);
+
+        json.name("runways").beginArray();
+        Wind wind = latest == null ? null : latest.getConditions().getWind();
+        if (wind != null) {
+            CrosswindCalculator calculator = new CrosswindCalculator(maxCrosswind, maxTailwind, true);
+            for (CrosswindCalculator.RunwayWind rwy : calculator.components(airport, wind)) {
+                json.beginObject()
+                    .member("runway", rwy.getDesignator())
+                    .member("heading", rwy.getHeading())
+                    .member("headwind", round(rwy.getHeadwind()))
+                    .member("tailwind", round(rwy.getTailwind()))
+                    .member("crosswind", round(rwy.getCrosswind()))
+                    .member("crosswindFrom", rwy.isFromRight() ? "right" : "left")
+                    .member("usable", rwy.isUsable())
+                    .endObject();
+            }
+        }
+        json.endArray();
+
+        if (withForecasts) {
+            json.name("taf").beginArray();
+            for (Forecast forecast : forecasts.get(airport.getIcaoCode())) writeForecast(json, forecast);
+            json.endArray();
+        }
+        return json.endObject().toString();
+    }
+
+    private @NotNull String metrics() {
+        JsonWriter json = new JsonWriter().beginObject().name("endpoints").beginObject();
+        for (Map.Entry<String, LatencyHistogram> entry : latencies.entrySet()) {
+            json.name(entry.getKey());
+            entry.getValue().writeJson(json);
+        }
+        json.endObject()
+            .name("cache").beginObject()
+            .member("metarStations", metars.size())
+            .member("tafStations", forecasts.size())
+            .endObject()
+            .name("workers").beginObject()
+            .member("size", executor.getPoolSize())
+            .member("active", executor.getActiveCount())
+            .member("queued", executor.getQueue().size())
+            .endObject();
+        return json.endObject().toString();
+    }
+
+    private static @NotNull Airport findAirport(@NotNull String icaoCode) throws HttpError {
+        Airport airport = Airport.find(icaoCode);
+        if (airport == null) {
+            throw new HttpError(404, "No airport matched \"%ICAO\".".replace("%ICAO", icaoCode));
+        }
+        return airport;
+    }
+
+    private static void writeAirport(@NotNull JsonWriter json, @NotNull Airport airport, boolean detailed) {
+        json.beginObject()
+            .member("icao", airport.getIcaoCode())
+            .member("name", airport.getName())
+            .member("municipality", airport.getMunicipality())
+            .member("country", airport.getCountryCode())
+            .member("category", airport.getCat().name())
+            .member("latitude", airport.getGeoLat())
+            .member("longitude", airport.getGeoLong())
+            .member("elevationFt", airport.getElevation());
+        if (detailed) {
+            json.name("runways").beginArray();
+            for (Runway rwy : airport.getRunways()) {
+                Double[] thr1 = rwy.getThr1Coordinates(),
+                         thr2 = rwy.getThr2Coordinates();
+                json.beginObject()
+                    .member("identification", rwy.getIdentification())
+                    .member("lengthFt", rwy.getLength())
+                    .member("widthFt", rwy.getWidth())
+                    .member("surface", rwy.getCoverage())
+                    .member("elevationsFt", rwy.getElevations())
+                    .member("detailed", rwy.isDetailed())
+                    .name("thresholds").beginArray()
+                    .beginArray().value(thr1[0]).value(thr1[1]).endArray()
+                    .beginArray().value(thr2[0]).value(thr2[1]).endArray()
+                    .endArray()
+                    .endObject();
+            }
+            json.endArray();
+        }
+        json.endObject();
+    }
+
+    private static void writeObservation(@NotNull JsonWriter json, @NotNull Observation observation) {
+        json.beginObject()
+            .member("type", observation.getType())
+            .member("time", observation.getTime().toString())
+            .member("raw", observation.getRaw())
+            .name("conditions");
+        writeConditions(json, observation.getConditions());
+        json.endObject();
+    }
+
+    private static void writeForecast(@NotNull JsonWriter json, @NotNull Forecast forecast) {
+        json.beginObject()
+            .member("issued", forecast.getIssued().toString())
+            .member("validFrom", forecast.getValidFrom().toString())
+            .member("validTo", forecast.getValidTo().toString())
+            .member("raw", forecast.getRaw())
+            .name("base");
+        writeConditions(json, forecast.getBase());
+        json.name("changes").beginArray();
+        for (Forecast.Change change : forecast.getChanges()) {
+            json.beginObject()
+                .member("type", change.getType().name())
+                .member("probability", change.getProbability())
+                .member("from", change.getFrom().toString())
+                .member("to", change.getTo().toString())
+                .member("raw", change.getRaw())
+                .name("conditions");
+            writeConditions(json, change.getConditions());
+            json.endObject();
+        }
+        json.endArray().endObject();
+    }
+
+    private static void writeConditions(@NotNull JsonWriter json, @NotNull WeatherConditions conditions) {
+        json.beginObject();
+        Wind wind = conditions.getWind();
+        json.name("wind");
+        if (wind == null) {
+            json.value((String) null);
+        } else {
+            json.beginObject()
+                .name("direction");
+            if (wind.isVariable()) json.value("VRB");
+            else json.value(wind.getDirection());
+            json.member("speedKt", wind.getSpeed())
+                .member("gustKt", wind.getGust())
+                .endObject();
+        }
+        json.member("visibilityM", conditions.getVisibility());
+        json.name("ceilingFt");
+        if (Double.isInfinite(conditions.getCeiling())) json.value("none");
+        else json.value(conditions.getCeiling());
+        json.name("weather");
+        if (conditions.getPhenomena() == null) {
+            json.value((String) null);
+        } else {
+            json.beginArray();
+            conditions.getPhenomena().forEach(json::value);
+            json.endArray();
+        }
+        json.member("windshear", conditions.isWindshear())
+            .member("flightCategory", conditions.getFlightCategory().name())
+            .endObject();
+    }
+
+    private static @NotNull String error(@NotNull String message) {
+        return new JsonWriter().beginObject().member("error", message).endObject().toString();
+    }
+
+    private static boolean isTrue(String value) {
+        return value != null && ("yes".equalsIgnoreCase(value) || "true".equalsIgnoreCase(value) || "1".equals(value));
+    }
+
+    private static double round(double value) {
+        return Math.round(value * 10) / 10.0;
+    }
+}
@@ -0,0 +1,204 @@
+package cz.cuni.mff.java.flightplanner.service;
+
+import cz.cuni.mff.java.flightplanner.output.JsonText;
+import cz.cuni.mff.java.flightplanner.util.NotNull;
+import cz.cuni.mff.java.flightplanner.util.Nullable;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+/**
+ * The minimal streaming writer of the JSON documents. The values are appended
+ * to the internal buffer in the order of the method calls, the separators are
+ * inserted automatically. The writer does not validate the structure of the
+ * document beyond the nesting of the objects and arrays.
+ */
+public class JsonWriter {
+
+    /**
+     * The document. Appending to it never fails, the {@link IOException}s of
+     * the {@link JsonText} methods are only rethrown unchecked.
+     */
+    private final StringBuilder out = new StringBuilder();
+    /**
+     * For each open object or array holds the flag indicating that the next
+     * value is its first one.
+     */
+    private final Deque<Boolean> first = new ArrayDeque<>();
+    private boolean afterName = false;
+
+    /**
+     * Opens a new object.
+     *
+     * @return This writer.
+     */
+    public @NotNull JsonWriter beginObject() {
+        separate();
+        out.append('{');
+        first.push(true);
+        return this;
+    }
+
+    /**
+     * Closes the innermost open object.
+     *
+     * @return This writer.
+     */
+    public @NotNull JsonWriter endObject() {
+        first.pop();
+        out.append('}');
+        return this;
+    }
+
+    /**
+     * Opens a new array.
+     *
+     * @return This writer.
+     */
+    public @NotNull JsonWriter beginArray() {
+        separate();
+        out.append('[');
+        first.push(true);
+        return this;
+    }
+
+    /**
+     * Closes the innermost open array.
+     *
+     * @return This writer.
+     */
+    public @NotNull JsonWriter endArray() {
+        first.pop();
+        out.append(']');
+        return this;
+    }
+
+    /**
+     * Writes the name of the next member of the current object.
+     *
+     * @param name The name of the member.
+     * @return This writer.
+     */
+    public @NotNull JsonWriter name(@NotNull String name) {
+        separate();
+        quote(name);
+        out.append(':');
+        afterName = true;
+        return this;
+    }
+
+    /**
+     * @param value The string value, {@code null} is written as JSON null.
+     * @return This writer.
+     */
+    public @NotNull JsonWriter value(@Nullable String value) {
+        separate();
+        if (value == null) out.append("null");
+        else quote(value);
+        return this;
+    }
+
+    /**
+     * @param value The numeric value. {@code NaN} and the infinite values are
+     *              written as JSON null.
+     * @return This writer.
+     */
+    public @NotNull JsonWriter value(double value) {
+        separate();
+        try {
+            JsonText.number(out, value);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return this;
+    }
+
+    /**
+     * @param value The integral value.
+     * @return This writer.
+     */
+    public @NotNull JsonWriter value(long value) {
+        separate();
+        out.append(value);
+        return this;
+    }
+
+    /**
+     * @param value The boolean value.
+     * @return This writer.
+     */
+    public @NotNull JsonWriter value(boolean value) {
+        separate();
+        out.append(value);
+        return this;
+    }
+
+    /**
+     * Writes the member with the string value.
+     *
+     * @return This writer.
+     */
+    public @NotNull JsonWriter member(@NotNull String name, @Nullable String value) {
+        return name(name).value(value);
+    }
+
+    /**
+     * Writes the member with the numeric value.
+     *
+     * @return This writer.
+     */
+    public @NotNull JsonWriter member(@NotNull String name, double value) {
+        return name(name).value(value);
+    }
+
+    /**
+     * Writes the member with the integral value.
+     *
+     * @return This writer.
+     */
+    public @NotNull JsonWriter member(@NotNull String name, long value) {
+        return name(name).value(value);
+    }
+
+    /**
+     * Writes the member with the boolean value.
+     *
+     * @return This writer.
+     */
+    public @NotNull JsonWriter member(@NotNull String name, boolean value) {
+        return name(name).value(value);
+    }
+
+    /**
+     * @return The written document.
+     */
+    @Override
+    public String toString() {
+        return out.toString();
+    }
+
+    private void separate() {
+        if (afterName) {
+            afterName = false;
+            return;
+        }
+        if (!first.isEmpty()) {
+            if (first.peek()) {
+                first.pop();
+                first.push(false);
+            } else {
+                out.append(',');
+            }
+        }
+    }
+
+    private void quote(@NotNull String text) {
+        try {
+            JsonText.quote(out, text);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
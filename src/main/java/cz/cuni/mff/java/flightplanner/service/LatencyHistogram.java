@@ -0,0 +1,127 @@
+package cz.cuni.mff.java.flightplanner.service;
+
+import cz.cuni.mff.java.flightplanner.util.NotNull;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The histogram of the request latencies which can be updated concurrently by
+ * the worker threads without any lock. The latencies are counted in buckets
+ * whose width grows exponentially: each power of two of microseconds is split
+ * into {@value #subBuckets} buckets, so the relative error of the reported
+ * percentiles is below 25 %. The latencies over approximately 125 minutes
+ * are counted in the last bucket.
+ */
+public class LatencyHistogram {
+
+    private static final int subBuckets = 4, powers = 32, bucketCount = subBuckets * powers;
+
+    private final AtomicLongArray counts = new AtomicLongArray(bucketCount);
+    private final LongAdder total = new LongAdder(), sumMicros = new LongAdder();
+    private final AtomicLong maxMicros = new AtomicLong();
+
+    /**
+     * Records one latency.
+     *
+     * @param nanos The latency in nanoseconds.
+     */
+    public void record(long nanos) {
+        long micros = Math.max(0, nanos / 1000);
+        counts.incrementAndGet(bucketOf(micros));
+        total.increment();
+        sumMicros.add(micros);
+        maxMicros.accumulateAndGet(micros, Math::max);
+    }
+
+    /**
+     * @return The number of the recorded latencies.
+     */
+    public long getCount() {
+        return total.sum();
+    }
+
+    /**
+     * @return The mean latency in milliseconds, 0 if nothing was recorded.
+     */
+    public double getMeanMillis() {
+        long count = total.sum();
+        return count == 0 ? 0 : sumMicros.sum() / 1000.0 / count;
+    }
+
+    /**
+     * @return The maximal latency in milliseconds.
+     */
+    public double getMaxMillis() {
+        return maxMicros.get() / 1000.0;
+    }
+
+    /**
+     * Estimates the latency below which the given fraction of the requests
+     * finished. The upper bound of the bucket is returned.
+     *
+     * @param q The quantile between 0 and 1.
+     * @return The latency in milliseconds, 0 if nothing was recorded.
+     */
+    public double quantileMillis(double q) {
+        long count = 0;
+        long[] snapshot = new long[counts.length()];
+        for (int i = 0; i < snapshot.length; i++) {
+            snapshot[i] = counts.get(i);
+            count += snapshot[i];
+        }
+        if (count == 0) return 0;
+        long rank = (long) Math.ceil(q * count), seen = 0;
+        for (int i = 0; i < snapshot.length; i++) {
+            seen += snapshot[i];
+            if (seen >= Math.max(1, rank)) {
+                return Math.min(upperBoundMicros(i), maxMicros.get()) / 1000.0;
+            }
+        }
+        return getMaxMillis();
+    }
+
+    /**
+     * Writes the summary of the histogram as a JSON object.
+     *
+     * @param json The writer.
+     */
+    public void writeJson(@NotNull JsonWriter json) {
+        json.beginObject()
+            .member("count", getCount())
+            .member("meanMs", round(getMeanMillis()))
+            .member("p50Ms", round(quantileMillis(0.5)))
+            .member("p90Ms", round(quantileMillis(0.9)))
+            .member("p99Ms", round(quantileMillis(0.99)))
+            .member("maxMs", round(getMaxMillis()))
+            .endObject();
+    }
+
+    private static double round(double millis) {
+        return Math.round(millis * 1000) / 1000.0;
+    }
+
+    /**
+     * @param micros The non-negative latency in microseconds.
+     * @return The index of the bucket the latency is counted in.
+     */
+    static int bucketOf(long micros) {
+        if (micros < subBuckets) return (int) micros;
+        int power = 63 - Long.numberOfLeadingZeros(micros);          // micros is in [2^power, 2^(power+1))
+        int sub = (int) ((micros >>> (power - 2)) & (subBuckets - 1));
+        return Math.min(bucketCount - 1, (power - 1) * subBuckets + sub);
+    }
+
+    /**
+     * @param bucket The index of the bucket.
+     * @return The smallest latency in microseconds which is counted in the
+     *         following bucket.
+     */
+    static long upperBoundMicros(int bucket) {
+        if (bucket < subBuckets) return bucket + 1;
+        int power = bucket / subBuckets + 1,
+            sub   = bucket % subBuckets;
+        return (1L << power) + ((long) (sub + 1) << (power - 2));
+    }
+}
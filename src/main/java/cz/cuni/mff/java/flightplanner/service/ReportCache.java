@@ -0,0 +1,103 @@
+package cz.cuni.mff.java.flightplanner.service;
+
+import cz.cuni.mff.java.flightplanner.util.NotNull;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * The cache of the weather reports of the stations whose entries expire after
+ * the given time. The concurrent requests for the same station which is not
+ * cached wait for a single download instead of downloading the reports
+ * repeatedly. The failed downloads are not cached.
+ *
+ * @param <T> The type of the cached reports.
+ */
+public class ReportCache<T> {
+
+    /**
+     * The loader of the reports of one station.
+     *
+     * @param <T> The type of the loaded reports.
+     */
+    @FunctionalInterface
+    public interface Loader<T> {
+        /**
+         * @param icaoCode The ICAO code of the station.
+         * @return The loaded reports.
+         * @throws IOException if the reports can not be loaded.
+         */
+        T load(@NotNull String icaoCode) throws IOException;
+    }
+
+    private static class Entry<T> {
+        private final long loadedAt;
+        private final CompletableFuture<T> reports = new CompletableFuture<>();
+
+        private Entry(long loadedAt) {
+            this.loadedAt = loadedAt;
+        }
+    }
+
+    private final ConcurrentHashMap<String, Entry<T>> entries = new ConcurrentHashMap<>();
+    private final Loader<T> loader;
+    private final long timeToLive;
+
+    /**
+     * @param loader     The loader of the reports.
+     * @param timeToLive The time after which the cached reports are loaded
+     *                   again.
+     */
+    public ReportCache(@NotNull Loader<T> loader, @NotNull Duration timeToLive) {
+        this.loader = loader;
+        this.timeToLive = timeToLive.toNanos();
+    }
+
+    /**
+     * Returns the cached reports of the station, or loads them if they are not
+     * cached or if they have expired.
+     *
+     * @param icaoCode The ICAO code of the station.
+     * @return The reports of the station.
+     * @throws IOException if the reports can not be loaded.
+     */
+    public T get(@NotNull String icaoCode) throws IOException {
+        while (true) {
+            long now = System.nanoTime();
+            Entry<T> entry = entries.get(icaoCode);
+            if (entry == null || now - entry.loadedAt > timeToLive) {
+                Entry<T> fresh = new Entry<>(now);
+                boolean owner = entry == null
+                                ? entries.putIfAbsent(icaoCode, fresh) == null
+                                : entries.replace(icaoCode, entry, fresh);
+                if (!owner) continue;                           // another thread is loading the reports
+                try {
+                    fresh.reports.complete(loader.load(icaoCode));
+                } catch (IOException | RuntimeException e) {
+                    entries.remove(icaoCode, fresh);
+                    fresh.reports.completeExceptionally(e);
+                }
+                entry = fresh;
+            }
+            try {
+                return entry.reports.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException("The loading of the reports was interrupted.");
+            } catch (ExecutionException e) {
+                if (e.getCause() instanceof IOException) throw (IOException) e.getCause();
+                throw new IOException("The reports of %ICAO could not be loaded.".replace("%ICAO", icaoCode));
+            }
+        }
+    }
+
+    /**
+     * @return The number of the cached stations.
+     */
+    public int size() {
+        return entries.size();
+    }
+}
@@ -0,0 +1,8 @@
+/**
+ * The package contains the embedded HTTP query service which answers the
+ * airport and weather lookups in the JSON format while the airport database
+ * and the weather reports stay loaded in the memory.
+ *
+ * @author Viktor Bujko
+ */
+package cz.cuni.mff.java.flightplanner.service;
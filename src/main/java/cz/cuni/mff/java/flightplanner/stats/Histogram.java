@@ -0,0 +1,100 @@
+package cz.cuni.mff.java.flightplanner.stats;
+
+import cz.cuni.mff.java.flightplanner.util.NotNull;
+
+/**
+ * The histogram with bins of a fixed width. The values below the lowest bin
+ * and above the highest bin are counted in the first and the last bin
+ * respectively, so no value is lost. Two histograms with the same bins can be
+ * merged.
+ * The instances are not thread-safe.
+ */
+public class Histogram {
+
+    private final double lowerBound, binWidth;
+    private final long[] counts;
+    private long total;
+
+    /**
+     * @param lowerBound The lower bound of the first bin.
+     * @param binWidth   The width of each bin.
+     * @param binCount   The number of the bins.
+     */
+    public Histogram(double lowerBound, double binWidth, int binCount) {
+        if (binWidth <= 0 || binCount <= 0) {
+            throw new IllegalArgumentException("The histogram needs at least one bin of a positive width.");
+        }
+        this.lowerBound = lowerBound;
+        this.binWidth = binWidth;
+        this.counts = new long[binCount];
+    }
+
+    /**
+     * Counts the value in its bin. The {@code NaN} values are ignored.
+     *
+     * @param value The value to be counted.
+     */
+    public void add(double value) {
+        if (Double.isNaN(value)) return;
+        double position = (value - lowerBound) / binWidth;
+        int bin = position < 0 ? 0 : (int) Math.min(counts.length - 1, (long) position);
+        counts[bin]++;
+        total++;
+    }
+
+    /**
+     * Adds the counts of the {@code other} histogram to this histogram.
+     *
+     * @param other The histogram with the same bins.
+     * @return This histogram.
+     */
+    public @NotNull Histogram merge(@NotNull Histogram other) {
+        if (other.lowerBound != lowerBound || other.binWidth != binWidth || other.counts.length != counts.length) {
+            throw new IllegalArgumentException("Only the histograms with the same bins can be merged.");
+        }
+        for (int i = 0; i < counts.length; i++) {
+            counts[i] += other.counts[i];
+        }
+        total += other.total;
+        return this;
+    }
+
+    /**
+     * @return The number of the bins.
+     */
+    public int getBinCount() {
+        return counts.length;
+    }
+
+    /**
+     * @param bin The index of the bin.
+     * @return The lower bound of the bin.
+     */
+    public double getBinLowerBound(int bin) {
+        return lowerBound + bin * binWidth;
+    }
+
+    /**
+     * @param bin The index of the bin.
+     * @return The number of the values counted in the bin.
+     */
+    public long getCount(int bin) {
+        return counts[bin];
+    }
+
+    /**
+     * @return The number of all counted values.
+     */
+    public long getTotal() {
+        return total;
+    }
+
+    /**
+     * @param bin The index of the bin.
+     * @return The fraction of the values counted in the bin, 0 if the
+     *         histogram is empty.
+     */
+    public double getFrequency(int bin) {
+        return total == 0 ? 0 : (double) counts[bin] / total;
+    }
+}
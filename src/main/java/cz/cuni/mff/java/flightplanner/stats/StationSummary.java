@@ -0,0 +1,310 @@
+package cz.cuni.mff.java.flightplanner.stats;
+
+import cz.cuni.mff.java.flightplanner.dataobject.FlightCategory;
+import cz.cuni.mff.java.flightplanner.dataobject.Observation;
+import cz.cuni.mff.java.flightplanner.dataobject.WeatherConditions;
+import cz.cuni.mff.java.flightplanner.util.NotNull;
+import cz.cuni.mff.java.flightplanner.util.Utilities;
+
+import java.io.PrintStream;
+import java.time.Duration;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.*;
+
+/**
+ * The statistical summary of the weather observed at one station over a time
+ * window. The observations are added one by one in any order and only the
+ * aggregates are kept: the wind rose, the wind speed histogram, the digests of
+ * the visibility and the ceiling, the counts of the flight categories and of
+ * the precipitation types and the sets of the hours with an observation and
+ * with an observation below the minima.
+ * The summaries of the same station and minima computed over different
+ * observations (e.g. other years or other parts of the window) can be merged.
+ * The instances are not thread-safe.
+ */
+public class StationSummary {
+
+    /**
+     * The precipitation types as used in the METAR weather groups.
+     */
+    private static final List<String> precipitationTypes =
+            List.of("DZ", "RA", "SN", "SG", "IC", "PL", "GR", "GS", "UP");
+    private static final long secondsPerHour = 3600;
+
+    private final String icaoCode;
+    private final double minVisibility, minCeiling;
+    private ZonedDateTime from, to;
+    /** The hour since the epoch which corresponds to the bit 0 of the hour sets. */
+    private long baseHour;
+    private BitSet observedHours = new BitSet(), belowMinimaHours = new BitSet();
+
+    private final WindRose windRose = new WindRose();
+    private final Histogram windSpeeds = new Histogram(0, 5, 10);
+    private final TDigest visibilities = new TDigest(), ceilings = new TDigest();
+    private long observations, specials, unlimitedCeilings;
+    private final EnumMap<FlightCategory, Long> categories = new EnumMap<>(FlightCategory.class);
+    private final Map<String, Long> precipitations = new TreeMap<>();
+
+    /**
+     * @param icaoCode      The ICAO code of the station.
+     * @param from          The start of the time window (inclusive).
+     * @param to            The end of the time window (exclusive).
+     * @param minVisibility The visibility minimum in meters.
+     * @param minCeiling    The ceiling minimum in feet.
+     */
+    public StationSummary(@NotNull String icaoCode, @NotNull ZonedDateTime from, @NotNull ZonedDateTime to,
+                          double minVisibility, double minCeiling) {
+        if (!from.isBefore(to)) throw new IllegalArgumentException("The time window is empty.");
+        this.icaoCode = icaoCode;
+        this.from = from;
+        this.to = to;
+        this.minVisibility = minVisibility;
+        this.minCeiling = minCeiling;
+        this.baseHour = Math.floorDiv(from.toEpochSecond(), secondsPerHour);
+    }
+
+    /**
+     * Adds the observation to the summary. The observations of other stations
+     * and those outside the time window are ignored.
+     *
+     * @param observation The decoded observation.
+     */
+    public void accept(@NotNull Observation observation) {
+        ZonedDateTime time = observation.getTime();
+        if (!icaoCode.equals(observation.getIcaoCode()) || time.isBefore(from) || !time.isBefore(to)) return;
+
+        observations++;
+        if (observation.isSpecial()) specials++;
+        WeatherConditions conditions = observation.getConditions();
+        if (conditions.getWind() != null) {
+            windRose.add(conditions.getWind());
+            windSpeeds.add(conditions.getWind().getSpeed());
+        }
+        visibilities.add(conditions.getVisibility());
+        if (Double.isInfinite(conditions.getCeiling())) {
+            unlimitedCeilings++;
+        } else {
+            ceilings.add(conditions.getCeiling());
+        }
+        categories.merge(conditions.getFlightCategory(), 1L, Long::sum);
+        if (conditions.getPhenomena() != null) {
+            for (String type : precipitationTypesOf(conditions.getPhenomena())) {
+                precipitations.merge(type, 1L, Long::sum);
+            }
+        }
+
+        int hour = (int) (Math.floorDiv(time.toEpochSecond(), secondsPerHour) - baseHour);
+        observedHours.set(hour);
+        if (conditions.getVisibility() < minVisibility || conditions.getCeiling() < minCeiling) {
+            belowMinimaHours.set(hour);
+        }
+    }
+
+    /**
+     * Merges the {@code other} summary into this one. The resulting time window
+     * spans both windows.
+     *
+     * @param other The summary of the same station with the same minima.
+     * @return This summary.
+     */
+    public @NotNull StationSummary merge(@NotNull StationSummary other) {
+        if (!icaoCode.equals(other.icaoCode) ||
+            minVisibility != other.minVisibility || minCeiling != other.minCeiling) {
+            throw new IllegalArgumentException("Only the summaries of the same station and minima can be merged.");
+        }
+        long newBase = Math.min(baseHour, other.baseHour);
+        observedHours = shift(observedHours, (int) (baseHour - newBase));
+        belowMinimaHours = shift(belowMinimaHours, (int) (baseHour - newBase));
+        observedHours.or(shift(other.observedHours, (int) (other.baseHour - newBase)));
+        belowMinimaHours.or(shift(other.belowMinimaHours, (int) (other.baseHour - newBase)));
+        baseHour = newBase;
+        if (other.from.isBefore(from)) from = other.from;
+        if (other.to.isAfter(to)) to = other.to;
+
+        windRose.merge(other.windRose);
+        windSpeeds.merge(other.windSpeeds);
+        visibilities.merge(other.visibilities);
+        ceilings.merge(other.ceilings);
+        observations += other.observations;
+        specials += other.specials;
+        unlimitedCeilings += other.unlimitedCeilings;
+        other.categories.forEach((category, count) -> categories.merge(category, count, Long::sum));
+        other.precipitations.forEach((type, count) -> precipitations.merge(type, count, Long::sum));
+        return this;
+    }
+
+    private static @NotNull BitSet shift(@NotNull BitSet hours, int offset) {
+        if (offset == 0) return (BitSet) hours.clone();
+        BitSet shifted = new BitSet(hours.length() + offset);
+        for (int hour = hours.nextSetBit(0); hour >= 0; hour = hours.nextSetBit(hour + 1)) {
+            shifted.set(hour + offset);
+        }
+        return shifted;
+    }
+
+    /**
+     * Extracts the precipitation types of the weather groups, e.g. "RA" and
+     * "SN" of "-SHRASN". Each type is returned only once.
+     */
+    private static @NotNull Set<String> precipitationTypesOf(@NotNull List<String> phenomena) {
+        Set<String> types = new TreeSet<>();
+        for (String phenomenon : phenomena) {
+            String codes = phenomenon.replaceFirst("^[+-]|^VC", "");
+            for (int i = 0; i + 2 <= codes.length(); i += 2) {
+                String code = codes.substring(i, i + 2);
+                if (precipitationTypes.contains(code)) types.add(code);
+            }
+        }
+        return types;
+    }
+
+    /**
+     * @return The ICAO code of the station.
+     */
+    public String getIcaoCode() {
+        return icaoCode;
+    }
+
+    /**
+     * @return The number of the summarized observations.
+     */
+    public long getObservationCount() {
+        return observations;
+    }
+
+    /**
+     * @return The wind rose of the observed winds.
+     */
+    public WindRose getWindRose() {
+        return windRose;
+    }
+
+    /**
+     * @param q The quantile between 0 and 1.
+     * @return The estimated visibility quantile in meters, or {@code NaN} if no
+     *         visibility was observed.
+     */
+    public double visibilityQuantile(double q) {
+        return visibilities.quantile(q);
+    }
+
+    /**
+     * The observations without any ceiling are considered the highest ones.
+     *
+     * @param q The quantile between 0 and 1.
+     * @return The estimated ceiling quantile in feet, {@code POSITIVE_INFINITY}
+     *         if it falls among the observations without ceiling, or {@code NaN}
+     *         if no ceiling was reported.
+     */
+    public double ceilingQuantile(double q) {
+        long limited = ceilings.size(),
+             all     = limited + unlimitedCeilings;
+        if (all == 0) return Double.NaN;
+        if (q * all >= limited) return Double.POSITIVE_INFINITY;
+        return ceilings.quantile(q * all / limited);
+    }
+
+    /**
+     * @return The number of the hours with at least one observation.
+     */
+    public int getObservedHours() {
+        return observedHours.cardinality();
+    }
+
+    /**
+     * @return The number of the hours with at least one observation below the
+     *         minima.
+     */
+    public int getHoursBelowMinima() {
+        return belowMinimaHours.cardinality();
+    }
+
+    /**
+     * @param type The precipitation type, e.g. "RA".
+     * @return The fraction of the observations which report the precipitation
+     *         type.
+     */
+    public double getPrecipitationFrequency(@NotNull String type) {
+        return observations == 0 ? 0 : (double) precipitations.getOrDefault(type, 0L) / observations;
+    }
+
+    /**
+     * @param category The flight category.
+     * @return The fraction of the observations in the flight category.
+     */
+    public double getCategoryFrequency(@NotNull FlightCategory category) {
+        return observations == 0 ? 0 : (double) categories.getOrDefault(category, 0L) / observations;
+    }
+
+    /**
+     * Prints the summary in a human readable form.
+     *
+     * @param printer The printer used for printing.
+     */
+    public void print(@NotNull PrintStream printer) {
+        DateTimeFormatter format = DateTimeFormatter.ofPattern("dd-MMM-yyyy HH:mm'Z'", Locale.ENGLISH);
+        printer.println(Utilities.sectionSeparator("WEATHER STATISTICS %ICAO".replace("%ICAO", icaoCode)));
+        printer.println("Period: %FROM - %TO, %COUNT observations (%SPECI special reports)."
+                        .replace("%FROM", from.withZoneSameInstant(ZoneOffset.UTC).format(format))
+                        .replace("%TO", to.withZoneSameInstant(ZoneOffset.UTC).format(format))
+                        .replace("%COUNT", String.valueOf(observations))
+                        .replace("%SPECI", String.valueOf(specials)));
+        if (observations == 0) {
+            printer.println(Utilities.sectionSeparator("END OF WEATHER STATISTICS"));
+            return;
+        }
+
+        printer.printf("%nVisibility percentiles: 10th %s, 25th %s, median %s.%n",
+                       meters(visibilityQuantile(0.1)), meters(visibilityQuantile(0.25)),
+                       meters(visibilityQuantile(0.5)));
+        printer.printf("Ceiling percentiles: 10th %s, 25th %s, median %s.%n",
+                       feet(ceilingQuantile(0.1)), feet(ceilingQuantile(0.25)), feet(ceilingQuantile(0.5)));
+
+        long windowHours = Math.max(1, Duration.between(from, to).toHours());
+        printer.printf("Hours below the minima (%.0f m, %.0f ft): %d of %d observed hours (%d hours in the period).%n",
+                       minVisibility, minCeiling, getHoursBelowMinima(), getObservedHours(), windowHours);
+
+        StringBuilder categoryLine = new StringBuilder("Flight categories:");
+        for (FlightCategory category : FlightCategory.values()) {
+            if (categories.containsKey(category)) {
+                categoryLine.append(String.format(" %s %.1f %%", category, getCategoryFrequency(category) * 100));
+            }
+        }
+        printer.println(categoryLine);
+
+        if (precipitations.isEmpty()) {
+            printer.println("No precipitation was observed.");
+        } else {
+            StringBuilder precipitationLine = new StringBuilder("Precipitation types:");
+            precipitations.keySet().forEach(type -> precipitationLine.append(
+                    String.format(" %s %.1f %%", type, getPrecipitationFrequency(type) * 100)));
+            printer.println(precipitationLine);
+        }
+
+        printer.printf("%nWind speed distribution (knots):%n");
+        for (int bin = 0; bin < windSpeeds.getBinCount(); bin++) {
+            if (windSpeeds.getCount(bin) == 0) continue;
+            printer.printf("\t%s: %.1f %%%n",
+                           bin == windSpeeds.getBinCount() - 1
+                           ? String.format("%.0f+", windSpeeds.getBinLowerBound(bin))
+                           : String.format("%.0f-%.0f", windSpeeds.getBinLowerBound(bin),
+                                           windSpeeds.getBinLowerBound(bin + 1)),
+                           windSpeeds.getFrequency(bin) * 100);
+        }
+        printer.printf("%nWind rose:%n");
+        windRose.print(printer);
+        printer.println(Utilities.sectionSeparator("END OF WEATHER STATISTICS"));
+    }
+
+    private static @NotNull String meters(double value) {
+        return Double.isNaN(value) ? "not reported" : String.format("%.0f m", value);
+    }
+
+    private static @NotNull String feet(double value) {
+        return Double.isNaN(value)
+               ? "not reported"
+               : Double.isInfinite(value) ? "no ceiling" : String.format("%.0f ft", value);
+    }
+}
@@ -0,0 +1,214 @@
+package cz.cuni.mff.java.flightplanner.stats;
+
+import cz.cuni.mff.java.flightplanner.util.NotNull;
+
+import java.util.Arrays;
+
+/**
+ * The merging t-digest which estimates the quantiles of a stream of values in a
+ * constant memory. The values are kept in a small number of centroids (a mean
+ * and a weight) which are the smaller the closer they are to the tails of the
+ * distribution, therefore the extreme percentiles are estimated accurately.
+ * The incoming values are buffered and merged into the centroids in batches.
+ * Two digests can be merged which allows the computation of the partial digests
+ * in parallel.
+ * The instances are not thread-safe.
+ */
+public class TDigest {
+
+    private final double compression;
+    private double[] means, weights;
+    private int centroidCount;
+    private final double[] bufferMeans, bufferWeights;
+    private int bufferCount;
+    private double totalWeight,
+                   min = Double.POSITIVE_INFINITY,
+                   max = Double.NEGATIVE_INFINITY;
+
+    /**
+     * Creates the digest with the compression 100, which keeps approximately
+     * 100 centroids.
+     */
+    public TDigest() {
+        this(100);
+    }
+
+    /**
+     * @param compression The compression parameter. The higher value means the
+     *                    more accurate estimates and the more memory used.
+     */
+    public TDigest(double compression) {
+        if (compression < 10) throw new IllegalArgumentException("The compression has to be at least 10.");
+        this.compression = compression;
+        int capacity = (int) Math.ceil(compression) * 2 + 10;
+        this.means = new double[capacity];
+        this.weights = new double[capacity];
+        this.bufferMeans = new double[capacity * 4];
+        this.bufferWeights = new double[capacity * 4];
+    }
+
+    /**
+     * Adds one value to the digest. The {@code NaN} values are ignored.
+     *
+     * @param value The value to be added.
+     */
+    public void add(double value) {
+        add(value, 1);
+    }
+
+    private void add(double mean, double weight) {
+        if (Double.isNaN(mean)) return;
+        if (bufferCount == bufferMeans.length) compress();
+        bufferMeans[bufferCount] = mean;
+        bufferWeights[bufferCount] = weight;
+        bufferCount++;
+        totalWeight += weight;
+        min = Math.min(min, mean);
+        max = Math.max(max, mean);
+    }
+
+    /**
+     * Adds all the values described by the {@code other} digest to this digest.
+     *
+     * @param other The digest to be merged into this one. It is not modified
+     *              apart from merging its own buffer.
+     * @return This digest.
+     */
+    public @NotNull TDigest merge(@NotNull TDigest other) {
+        other.compress();
+        for (int i = 0; i < other.centroidCount; i++) {
+            add(other.means[i], other.weights[i]);
+        }
+        if (other.totalWeight > 0) {
+            min = Math.min(min, other.min);
+            max = Math.max(max, other.max);
+        }
+        return this;
+    }
+
+    /**
+     * @return The number of the values added to the digest.
+     */
+    public long size() {
+        return Math.round(totalWeight);
+    }
+
+    /**
+     * @return The smallest added value, or {@code NaN} if the digest is empty.
+     */
+    public double getMin() {
+        return totalWeight == 0 ? Double.NaN : min;
+    }
+
+    /**
+     * @return The largest added value, or {@code NaN} if the digest is empty.
+     */
+    public double getMax() {
+        return totalWeight == 0 ? Double.NaN : max;
+    }
+
+    /**
+     * Estimates the value below which the given fraction of the values lies.
+     *
+     * @param q The quantile between 0 and 1, e.g. 0.1 for the 10th percentile.
+     * @return The estimated value, or {@code NaN} if the digest is empty.
+     */
+    public double quantile(double q) {
+        if (q < 0 || q > 1) throw new IllegalArgumentException("The quantile has to be between 0 and 1.");
+        compress();
+        if (centroidCount == 0) return Double.NaN;
+        if (centroidCount == 1) return means[0];
+
+        double index = q * totalWeight;
+        if (index < weights[0] / 2) {
+            return interpolate(min, means[0], index / (weights[0] / 2));
+        }
+        double cumulative = weights[0] / 2;               // the position of the current centroid center
+        for (int i = 0; i < centroidCount - 1; i++) {
+            double step = (weights[i] + weights[i + 1]) / 2;
+            if (index < cumulative + step) {
+                return interpolate(means[i], means[i + 1], (index - cumulative) / step);
+            }
+            cumulative += step;
+        }
+        double lastHalf = weights[centroidCount - 1] / 2;
+        return interpolate(means[centroidCount - 1], max, Math.min(1, (index - cumulative) / lastHalf));
+    }
+
+    private static double interpolate(double from, double to, double fraction) {
+        return from + (to - from) * fraction;
+    }
+
+    /**
+     * Merges the buffered values with the centroids. The sorted values are
+     * merged into a centroid as long as its size satisfies the limit given by
+     * the arcsine scale function, which keeps the centroids at the tails small.
+     */
+    private void compress() {
+        if (bufferCount == 0) return;
+        int n = centroidCount + bufferCount;
+        double[] allMeans = new double[n],
+                 allWeights = new double[n];
+        System.arraycopy(means, 0, allMeans, 0, centroidCount);
+        System.arraycopy(weights, 0, allWeights, 0, centroidCount);
+        System.arraycopy(bufferMeans, 0, allMeans, centroidCount, bufferCount);
+        System.arraycopy(bufferWeights, 0, allWeights, centroidCount, bufferCount);
+        bufferCount = 0;
+        sortByMean(allMeans, allWeights);
+
+        double weightSoFar = 0,
+               limit = totalWeight * qFromK(kFromQ(0) + 1);
+        double currentMean = allMeans[0],
+               currentWeight = allWeights[0];
+        int count = 0;
+        for (int i = 1; i < n; i++) {
+            if (weightSoFar + currentWeight + allWeights[i] <= limit) {
+                currentWeight += allWeights[i];
+                currentMean += (allMeans[i] - currentMean) * allWeights[i] / currentWeight;
+            } else {
+                count = emit(count, currentMean, currentWeight);
+                weightSoFar += currentWeight;
+                limit = totalWeight * qFromK(kFromQ(weightSoFar / totalWeight) + 1);
+                currentMean = allMeans[i];
+                currentWeight = allWeights[i];
+            }
+        }
+        centroidCount = emit(count, currentMean, currentWeight);
+    }
+
+    private int emit(int index, double mean, double weight) {
+        if (index == means.length) {
+            means = Arrays.copyOf(means, index * 2);
+            weights = Arrays.copyOf(weights, index * 2);
+        }
+        means[index] = mean;
+        weights[index] = weight;
+        return index + 1;
+    }
+
+    private double kFromQ(double q) {
+        return compression / (2 * Math.PI) * Math.asin(2 * q - 1);
+    }
+
+    private double qFromK(double k) {
+        if (k >= compression / 4) return 1;
+        return (Math.sin(k * 2 * Math.PI / compression) + 1) / 2;
+    }
+
+    /**
+     * Sorts both arrays by the means, keeping each weight with its mean.
+     */
+    private static void sortByMean(double[] means, double[] weights) {
+        Integer[] order = new Integer[means.length];
+        for (int i = 0; i < order.length; i++) order[i] = i;
+        Arrays.sort(order, (a, b) -> Double.compare(means[a], means[b]));
+        double[] sortedMeans = new double[means.length],
+                 sortedWeights = new double[weights.length];
+        for (int i = 0; i < order.length; i++) {
+            sortedMeans[i] = means[order[i]];
+            sortedWeights[i] = weights[order[i]];
+        }
+        System.arraycopy(sortedMeans, 0, means, 0, means.length);
+        System.arraycopy(sortedWeights, 0, weights, 0, weights.length);
+    }
+}
@@ -0,0 +1,97 @@
+package cz.cuni.mff.java.flightplanner.stats;
+
+import cz.cuni.mff.java.flightplanner.dataobject.Observation;
+import cz.cuni.mff.java.flightplanner.util.METARDecoder;
+import cz.cuni.mff.java.flightplanner.util.NotNull;
+
+import java.io.*;
+import java.time.ZonedDateTime;
+import java.util.*;
+import java.util.stream.Collector;
+import java.util.stream.Stream;
+
+/**
+ * The WeatherStatistics class computes the {@link StationSummary} objects from
+ * the decoded observations in a single pass. The summaries are mergeable,
+ * therefore the observations may be processed by a parallel stream and the
+ * partial summaries of the stations are combined at the end.
+ */
+public class WeatherStatistics {
+
+    /**
+     * Creates the collector which groups the observations by their station and
+     * summarizes them. The collector can be used by the parallel streams.
+     *
+     * @param from          The start of the time window (inclusive).
+     * @param to            The end of the time window (exclusive).
+     * @param minVisibility The visibility minimum in meters.
+     * @param minCeiling    The ceiling minimum in feet.
+     * @return The collector which results in the map of pairs (icao String,
+     *         summary of the station).
+     */
+    public static @NotNull Collector<Observation, ?, Map<String, StationSummary>> summarizing(
+            @NotNull ZonedDateTime from, @NotNull ZonedDateTime to, double minVisibility, double minCeiling) {
+        return Collector.of(
+                TreeMap::new,
+                (Map<String, StationSummary> summaries, Observation observation) ->
+                        summaries.computeIfAbsent(observation.getIcaoCode(),
+                                                  icao -> new StationSummary(icao, from, to, minVisibility, minCeiling))
+                                 .accept(observation),
+                WeatherStatistics::mergeAll);
+    }
+
+    /**
+     * Merges the summaries of the {@code right} map into the {@code left} map.
+     *
+     * @return The {@code left} map.
+     */
+    public static @NotNull Map<String, StationSummary> mergeAll(@NotNull Map<String, StationSummary> left,
+                                                                @NotNull Map<String, StationSummary> right) {
+        right.forEach((icao, summary) -> left.merge(icao, summary, StationSummary::merge));
+        return left;
+    }
+
+    /**
+     * Summarizes the METAR files downloaded by the
+     * {@link cz.cuni.mff.java.flightplanner.util.Downloader}. The files are
+     * read and decoded in parallel.
+     *
+     * @param metarFiles    The map of pairs (icao String, file with the METAR
+     *                      entries in the .csv format).
+     * @param from          The start of the time window (inclusive).
+     * @param to            The end of the time window (exclusive).
+     * @param minVisibility The visibility minimum in meters.
+     * @param minCeiling    The ceiling minimum in feet.
+     * @return The map of pairs (icao String, summary of the station).
+     */
+    public static @NotNull Map<String, StationSummary> summarize(@NotNull Map<String, File> metarFiles,
+                                                                 @NotNull ZonedDateTime from, @NotNull ZonedDateTime to,
+                                                                 double minVisibility, double minCeiling) {
+        return metarFiles.values()
+                         .parallelStream()
+                         .flatMap(WeatherStatistics::readObservations)
+                         .collect(summarizing(from, to, minVisibility, minCeiling));
+    }
+
+    /**
+     * Reads and decodes all the observations of the METAR file. The entries
+     * which can not be decoded are skipped.
+     *
+     * @param metarFile The file with the METAR entries in the .csv format.
+     * @return The stream of the decoded observations. It is empty if the file
+     *         can not be read.
+     */
+    public static @NotNull Stream<Observation> readObservations(@NotNull File metarFile) {
+        List<Observation> result = new ArrayList<>();
+        try (BufferedReader br = new BufferedReader(new FileReader(metarFile))) {
+            String line;
+            while ((line = br.readLine()) != null) {
+                Observation observation = METARDecoder.decodeObservation(line);
+                if (observation != null) result.add(observation);
+            }
+        } catch (IOException e) {
+            System.err.println("The file %FILE could not be read.".replace("%FILE", metarFile.getName()));
+        }
+        return result.stream();
+    }
+}
@@ -0,0 +1,140 @@
+package cz.cuni.mff.java.flightplanner.stats;
+
+import cz.cuni.mff.java.flightplanner.dataobject.Wind;
+import cz.cuni.mff.java.flightplanner.util.NotNull;
+
+import java.io.PrintStream;
+
+/**
+ * The wind rose counts the observed winds by their direction sector and speed
+ * band. The calm and the variable winds are counted separately, as they have
+ * no direction. Two wind roses can be merged.
+ * The instances are not thread-safe.
+ */
+public class WindRose {
+
+    /**
+     * The number of the direction sectors, each covering 22.5 degrees.
+     */
+    public static final int SECTORS = 16;
+    private static final String[] sectorNames = {"N", "NNE", "NE", "ENE", "E", "ESE", "SE", "SSE",
+                                                 "S", "SSW", "SW", "WSW", "W", "WNW", "NW", "NNW"};
+    /**
+     * The upper bounds of the speed bands in knots. The last band contains all
+     * the higher speeds.
+     */
+    private static final double[] speedBands = {5, 10, 15, 20, 30};
+
+    private final long[][] counts = new long[SECTORS][speedBands.length + 1];
+    private long calm, variable, total;
+
+    /**
+     * Counts the wind in its sector and speed band.
+     *
+     * @param wind The observed wind.
+     */
+    public void add(@NotNull Wind wind) {
+        total++;
+        if (wind.isCalm()) {
+            calm++;
+        } else if (wind.isVariable()) {
+            variable++;
+        } else {
+            counts[sectorOf(wind.getDirection())][bandOf(wind.getSpeed())]++;
+        }
+    }
+
+    /**
+     * Adds the counts of the {@code other} wind rose to this one.
+     *
+     * @param other The wind rose to be merged.
+     * @return This wind rose.
+     */
+    public @NotNull WindRose merge(@NotNull WindRose other) {
+        for (int sector = 0; sector < SECTORS; sector++) {
+            for (int band = 0; band < counts[sector].length; band++) {
+                counts[sector][band] += other.counts[sector][band];
+            }
+        }
+        calm += other.calm;
+        variable += other.variable;
+        total += other.total;
+        return this;
+    }
+
+    /**
+     * @return The number of all counted winds.
+     */
+    public long getTotal() {
+        return total;
+    }
+
+    /**
+     * @return The fraction of the calm winds.
+     */
+    public double getCalmFrequency() {
+        return total == 0 ? 0 : (double) calm / total;
+    }
+
+    /**
+     * @return The fraction of the variable winds.
+     */
+    public double getVariableFrequency() {
+        return total == 0 ? 0 : (double) variable / total;
+    }
+
+    /**
+     * @param sector The index of the sector, 0 being the north.
+     * @param band   The index of the speed band.
+     * @return The fraction of the winds from the sector in the speed band.
+     */
+    public double getFrequency(int sector, int band) {
+        return total == 0 ? 0 : (double) counts[sector][band] / total;
+    }
+
+    /**
+     * @param sector The index of the sector, 0 being the north.
+     * @return The fraction of the winds from the sector.
+     */
+    public double getSectorFrequency(int sector) {
+        long sum = 0;
+        for (long count : counts[sector]) sum += count;
+        return total == 0 ? 0 : (double) sum / total;
+    }
+
+    /**
+     * Prints the wind rose as a table of percentages, one row per sector.
+     *
+     * @param printer The printer used for printing.
+     */
+    public void print(@NotNull PrintStream printer) {
+        StringBuilder header = new StringBuilder(String.format("%-6s", "DIR"));
+        double lower = 1;
+        for (double upper : speedBands) {
+            header.append(String.format("%9s", String.format("%.0f-%.0f", lower, upper)));
+            lower = upper + 1;
+        }
+        header.append(String.format("%9s%9s", String.format(">%.0f", speedBands[speedBands.length - 1]), "ALL"));
+        printer.println(header + "   (knots, % of observations)");
+        for (int sector = 0; sector < SECTORS; sector++) {
+            StringBuilder row = new StringBuilder(String.format("%-6s", sectorNames[sector]));
+            for (int band = 0; band < counts[sector].length; band++) {
+                row.append(String.format("%9.1f", getFrequency(sector, band) * 100));
+            }
+            row.append(String.format("%9.1f", getSectorFrequency(sector) * 100));
+            printer.println(row);
+        }
+        printer.printf("Calm: %.1f %%, variable: %.1f %%%n", getCalmFrequency() * 100, getVariableFrequency() * 100);
+    }
+
+    private static int sectorOf(int direction) {
+        return (int) Math.round((direction % 360) / (360.0 / SECTORS)) % SECTORS;
+    }
+
+    private static int bandOf(double speed) {
+        for (int band = 0; band < speedBands.length; band++) {
+            if (speed <= speedBands[band]) return band;
+        }
+        return speedBands.length;
+    }
+}
@@ -0,0 +1,9 @@
+/**
+ * The package contains the aggregates which summarize the decoded weather
+ * observations over a time window. All aggregates are filled in a single pass
+ * and can be merged, so the partial results computed in parallel can be
+ * combined.
+ *
+ * @author Viktor Bujko
+ */
+package cz.cuni.mff.java.flightplanner.stats;
@@ -0,0 +1,98 @@
+package cz.cuni.mff.java.flightplanner.template;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import cz.cuni.mff.java.flightplanner.util.NotNull;
+
+/**
+ * The PlaceholderEngine class compiles the templates written in the syntax
+ * used throughout the application: a placeholder is the "%" character
+ * immediately followed by the name of a parameter, e.g. "%ICAO". Since the
+ * placeholders have no closing delimiter, the longest parameter name matching
+ * at the given position is used, so "%vCON" and "%CONTAM" can be used in
+ * the same template. The "%" characters which do not start any parameter
+ * name are kept as they are.
+ */
+public class PlaceholderEngine implements TemplateEngine {
+
+    @Override
+    public @NotNull Template compile(@NotNull String source, @NotNull List<String> parameters) {
+        List<String> names = new ArrayList<>(parameters);
+        names.sort(Comparator.comparingInt(String::length).reversed());
+
+        List<String> literals = new ArrayList<>();
+        List<Integer> slots = new ArrayList<>();
+        StringBuilder literal = new StringBuilder();
+        int i = 0;
+        while (i < source.length()) {
+            char c = source.charAt(i);
+            String name = c == '%' ? nameAt(source, i + 1, names) : null;
+            if (name == null) {
+                literal.append(c);
+                i++;
+                continue;
+            }
+            literals.add(literal.toString());
+            literal.setLength(0);
+            slots.add(parameters.indexOf(name));
+            i += name.length() + 1;
+        }
+        literals.add(literal.toString());
+        return new CompiledTemplate(parameters, literals, slots);
+    }
+
+    private static String nameAt(@NotNull String source, int index, @NotNull List<String> names) {
+        for (String name : names) {
+            if (!name.isEmpty() && source.startsWith(name, index)) return name;
+        }
+        return null;
+    }
+
+    /**
+     * The template compiled into the alternating literal segments and
+     * parameter slots: {@code literals[0] slot[0] literals[1] ... literals[n]}.
+     */
+    private static class CompiledTemplate implements Template {
+
+        private final List<String> parameters;
+        private final String[] literals;
+        private final int[] slots;
+        private final int literalLength;
+
+        CompiledTemplate(@NotNull List<String> parameters, @NotNull List<String> literals,
+                         @NotNull List<Integer> slots) {
+            this.parameters = List.copyOf(parameters);
+            this.literals = literals.toArray(new String[0]);
+            this.slots = slots.stream().mapToInt(Integer::intValue).toArray();
+            this.literalLength = Arrays.stream(this.literals).mapToInt(String::length).sum();
+        }
+
+        @Override
+        public @NotNull List<String> parameters() {
+            return parameters;
+        }
+
+        @Override
+        public void appendTo(@NotNull StringBuilder sb, @NotNull Object... values) {
+            if (values.length != parameters.size()) {
+                throw new IllegalArgumentException("The template expects %EXP values, %ACT given."
+                                                   .replace("%EXP", String.valueOf(parameters.size()))
+                                                   .replace("%ACT", String.valueOf(values.length)));
+            }
+            sb.append(literals[0]);
+            for (int i = 0; i < slots.length; i++) {
+                sb.append(values[slots[i]]).append(literals[i + 1]);
+            }
+        }
+
+        @Override
+        public @NotNull String render(@NotNull Object... values) {
+            // the values are usually short, 16 characters per slot avoid most of the resizing
+            StringBuilder sb = new StringBuilder(literalLength + 16 * slots.length);
+            appendTo(sb, values);
+            return sb.toString();
+        }
+    }
+}
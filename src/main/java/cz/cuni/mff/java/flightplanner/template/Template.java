@@ -0,0 +1,44 @@
+package cz.cuni.mff.java.flightplanner.template;
+
+import java.util.List;
+import cz.cuni.mff.java.flightplanner.util.NotNull;
+
+/**
+ * {@code Template} interface represents a compiled report template. The
+ * template knows its parameters in a fixed order and renders the values given
+ * in the same order. The values are converted by {@link String#valueOf(Object)}.
+ */
+public interface Template {
+
+    /**
+     * @return The names of the parameters of the template in the order in
+     *         which their values are expected.
+     */
+    @NotNull List<String> parameters();
+
+    /**
+     * Appends the rendered template to the builder.
+     *
+     * @param sb     The builder the result is appended to.
+     * @param values The values of the parameters in the order given by
+     *               {@link #parameters()}.
+     * @throws IllegalArgumentException if the number of the values does not
+     *         match the number of the parameters.
+     */
+    void appendTo(@NotNull StringBuilder sb, @NotNull Object... values);
+
+    /**
+     * Renders the template.
+     *
+     * @param values The values of the parameters in the order given by
+     *               {@link #parameters()}.
+     * @return The rendered template.
+     * @throws IllegalArgumentException if the number of the values does not
+     *         match the number of the parameters.
+     */
+    default @NotNull String render(@NotNull Object... values) {
+        StringBuilder sb = new StringBuilder();
+        appendTo(sb, values);
+        return sb.toString();
+    }
+}
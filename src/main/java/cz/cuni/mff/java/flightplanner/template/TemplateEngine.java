@@ -0,0 +1,25 @@
+package cz.cuni.mff.java.flightplanner.template;
+
+import java.util.List;
+import cz.cuni.mff.java.flightplanner.util.NotNull;
+
+/**
+ * {@code TemplateEngine} interface represents the syntax of the report
+ * templates. The engine used by the application is found by the
+ * {@link java.util.ServiceLoader} in the same way as the plugins are; if no
+ * engine is provided, the {@link PlaceholderEngine} is used.
+ */
+public interface TemplateEngine {
+
+    /**
+     * Parses the template text.
+     *
+     * @param source     The text of the template.
+     * @param parameters The names of the parameters which may occur in the
+     *                   template.
+     * @return The compiled template whose {@link Template#parameters()} are
+     *         the {@code parameters}.
+     * @throws IllegalArgumentException if the text is not a valid template.
+     */
+    @NotNull Template compile(@NotNull String source, @NotNull List<String> parameters);
+}
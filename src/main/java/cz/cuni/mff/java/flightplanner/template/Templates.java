@@ -0,0 +1,97 @@
+package cz.cuni.mff.java.flightplanner.template;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Properties;
+import java.util.ServiceLoader;
+import cz.cuni.mff.java.flightplanner.util.NotNull;
+
+/**
+ * The Templates class compiles the report templates of the application. Every
+ * template has a key and a default text given by the code which uses it. The
+ * default text can be replaced by the text stored under the same key in
+ * <ul>
+ *     <li>the {@value #templatesResource} resource on the classpath,</li>
+ *     <li>the properties file given by the {@value #templatesProperty} system
+ *         property or, if it is not set, by the {@value #templatesVariable}
+ *         environment variable. This file takes precedence over the
+ *         resource.</li>
+ * </ul>
+ * The templates are compiled by the {@link TemplateEngine} found by the
+ * {@link ServiceLoader}, or by the {@link PlaceholderEngine}. The callers keep
+ * the compiled templates in constants, so that each template is parsed only
+ * once.
+ */
+public final class Templates {
+
+    public static final String templatesResource = "templates.properties",
+                               templatesProperty = "flightplanner.templates",
+                               templatesVariable = "FLIGHTPLANNER_TEMPLATES";
+
+    private static final TemplateEngine engine = ServiceLoader.load(TemplateEngine.class)
+                                                              .findFirst()
+                                                              .orElseGet(PlaceholderEngine::new);
+    private static final Properties overrides = loadOverrides();
+
+    private Templates() {
+    }
+
+    /**
+     * Compiles the template.
+     *
+     * @param key           The key under which the template text can be
+     *                      customized.
+     * @param defaultSource The text used if the template is not customized.
+     * @param parameters    The names of the parameters of the template.
+     * @return The compiled template.
+     */
+    public static @NotNull Template compile(@NotNull String key, @NotNull String defaultSource,
+                                            @NotNull String... parameters) {
+        String source = overrides.getProperty(key);
+        if (source != null) {
+            try {
+                return engine.compile(source, List.of(parameters));
+            } catch (IllegalArgumentException e) {
+                System.err.println("The %KEY template is not valid, the default one is used: %MSG"
+                                   .replace("%KEY", key)
+                                   .replace("%MSG", String.valueOf(e.getMessage())));
+            }
+        }
+        return engine.compile(defaultSource, List.of(parameters));
+    }
+
+    private static @NotNull Properties loadOverrides() {
+        Properties result = new Properties();
+        ClassLoader loader = Templates.class.getClassLoader();
+        try (InputStream in = loader == null ? null : loader.getResourceAsStream(templatesResource)) {
+            if (in != null) load(result, in, templatesResource);
+        } catch (IOException ignored) { }
+
+        String file = System.getProperty(templatesProperty);
+        if (file == null) file = System.getenv(templatesVariable);
+        if (file != null && !file.isBlank()) {
+            try (InputStream in = Files.newInputStream(Path.of(file.strip()))) {
+                load(result, in, file);
+            } catch (IOException | RuntimeException e) {
+                System.err.println("The templates file %FILE could not be read, the default templates are used."
+                                   .replace("%FILE", file));
+            }
+        }
+        return result;
+    }
+
+    private static void load(@NotNull Properties properties, @NotNull InputStream in, @NotNull String origin)
+            throws IOException {
+        try (Reader reader = new InputStreamReader(in, StandardCharsets.UTF_8)) {
+            properties.load(reader);
+        } catch (IllegalArgumentException e) {
+            throw new IOException("Malformed templates in " + origin, e);
+        }
+    }
+}
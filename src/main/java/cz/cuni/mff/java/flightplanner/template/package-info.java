@@ -0,0 +1,11 @@
+/**
+ * The package contains the report templates. A template such as
+ * "The length: %LENGTH feet" is parsed only once into its literal segments and
+ * placeholders, so rendering a report line only appends the values instead of
+ * scanning the whole text for every placeholder. The template texts can be
+ * customized without rebuilding the application, and the template syntax
+ * itself is provided by a pluggable {@code TemplateEngine}.
+ *
+ * @author Viktor Bujko
+ */
+package cz.cuni.mff.java.flightplanner.template;
@@ -0,0 +1,357 @@
+package cz.cuni.mff.java.flightplanner.util;
+
+import cz.cuni.mff.java.flightplanner.dataobject.Airport;
+import cz.cuni.mff.java.flightplanner.dataobject.Runway;
+import cz.cuni.mff.java.flightplanner.dataobject.Wind;
+
+import java.io.File;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The CrosswindCalculator class joins the wind reported in a METAR with the
+ * runways of an airport. It computes the headwind, crosswind and tailwind
+ * components for each runway end and decides whether the runway end is usable
+ * with respect to the configured limits.
+ * The unit vectors of the runway ends are computed only once per airport and
+ * reused for every following observation, which keeps the evaluation of a whole
+ * region cheap. They are cached in an array indexed by the
+ * {@link Airport#getId() airport ID}, only the airports without an ID are
+ * cached by their ICAO codes.
+ */
+public class CrosswindCalculator {
+
+    private final double maxCrosswind, maxTailwind;
+    private final boolean gustsIncluded;
+    private final Map<String, RunwayEnds> runwayEndsCache = new ConcurrentHashMap<>();
+    private volatile RunwayEnds[] runwayEndsById = new RunwayEnds[0];
+
+    /**
+     * @param maxCrosswind  The maximal acceptable crosswind component in knots.
+     * @param maxTailwind   The maximal acceptable tailwind component in knots.
+     * @param gustsIncluded The flag indicating that the gust components are
+     *                      compared with the limits instead of the mean wind.
+     */
+    public CrosswindCalculator(double maxCrosswind, double maxTailwind, boolean gustsIncluded) {
+        this.maxCrosswind = maxCrosswind;
+        this.maxTailwind = maxTailwind;
+        this.gustsIncluded = gustsIncluded;
+    }
+
+    /**
+     * Computes the wind components for every runway end of the airport whose
+     * heading is known.
+     *
+     * @param airport The airport whose runways are evaluated.
+     * @param wind    The wind reported at the airport.
+     * @return The list of the wind components for each runway end in the order
+     *         of the runways in the database.
+     */
+    public @NotNull List<RunwayWind> components(@NotNull Airport airport, @NotNull Wind wind) {
+        RunwayEnds ends = runwayEnds(airport);
+        List<RunwayWind> result = new ArrayList<>(ends.size());
+        for (int i = 0; i < ends.size(); i++) {
+            result.add(evaluate(ends, i, wind));
+        }
+        return result;
+    }
+
+    /**
+     * Selects the runway ends which satisfy the limits and ranks them. The best
+     * runway end has the strongest headwind, ties are resolved by the weaker
+     * crosswind and then by the longer runway.
+     *
+     * @param airport The airport whose runways are evaluated.
+     * @param wind    The wind reported at the airport.
+     * @return The ranked list of usable runway ends. The list is empty if no
+     *         runway end satisfies the limits.
+     */
+    public @NotNull List<RunwayWind> usableRunways(@NotNull Airport airport, @NotNull Wind wind) {
+        List<RunwayWind> result = components(airport, wind);
+        result.removeIf(rwy -> !rwy.isUsable());
+        result.sort(ranking);
+        return result;
+    }
+
+    /**
+     * The batch version of {@link #usableRunways(Airport, Wind)} used for the
+     * whole region at once.
+     *
+     * @param airports The airports to be evaluated.
+     * @param winds    The latest reported wind for each airport ICAO code.
+     *                 Airports without an entry are skipped.
+     * @return The map of pairs (icao String, ranked list of usable runway ends).
+     */
+    public @NotNull Map<String, List<RunwayWind>> usableRunways(@NotNull Collection<Airport> airports,
+                                                                @NotNull Map<String, Wind> winds) {
+        Map<String, List<RunwayWind>> result = new LinkedHashMap<>();
+        for (Airport apt : airports) {
+            Wind wind = winds.get(apt.getIcaoCode());
+            if (wind != null) {
+                result.put(apt.getIcaoCode(), usableRunways(apt, wind));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Extracts the wind from the latest METAR of each downloaded file.
+     *
+     * @param metarFiles The map of pairs (icao String, METAR file) as returned
+     *                   by {@link Downloader#downloadMETARs}.
+     * @return The map of pairs (icao String, latest wind). The airports without
+     *         any decodable wind are not included.
+     */
+    public static @NotNull Map<String, Wind> latestWinds(@NotNull Map<String, File> metarFiles) {
+        Map<String, Wind> result = new HashMap<>();
+        metarFiles.forEach((icao, file) -> {
+            String metar = file == null ? null : METARDecoder.latestMETAR(file);
+            Wind wind = metar == null ? null : METARDecoder.decodeWind(metar);
+            if (wind != null) result.put(icao, wind);
+        });
+        return result;
+    }
+
+    /**
+     * Computes the components for one runway end. The variable wind is treated
+     * conservatively as a full crosswind and a full tailwind at once.
+     */
+    private @NotNull RunwayWind evaluate(@NotNull RunwayEnds ends, int i, @NotNull Wind wind) {
+        double head, cross, gustHead, gustCross;
+        double gust = wind.hasGusts() ? wind.getGust() : wind.getSpeed();
+        if (wind.isVariable()) {
+            head      = -wind.getSpeed();
+            gustHead  = -gust;
+            cross     = wind.getSpeed();
+            gustCross = gust;
+        } else {
+            double wRad = Math.toRadians(wind.getDirection()),
+                   wSin = Math.sin(wRad),
+                   wCos = Math.cos(wRad),
+                   // cos and sin of the angle between the wind and the runway
+                   cos  = wCos * ends.cos[i] + wSin * ends.sin[i],
+                   sin  = wSin * ends.cos[i] - wCos * ends.sin[i];
+            head      = wind.getSpeed() * cos;
+            gustHead  = gust * cos;
+            cross     = wind.getSpeed() * sin;
+            gustCross = gust * sin;
+        }
+        RunwayWind result = new RunwayWind(ends.icao, ends.designators[i], ends.headings[i],
+                                           ends.lengths[i], head, cross, gustHead, gustCross);
+        double checkedCross = gustsIncluded ? result.getGustCrosswind() : result.getCrosswind(),
+               checkedTail  = gustsIncluded ? result.getGustTailwind()  : result.getTailwind();
+        result.usable = checkedCross <= maxCrosswind && checkedTail <= maxTailwind;
+        return result;
+    }
+
+    /**
+     * @return The precomputed runway ends of the airport.
+     */
+    private @NotNull RunwayEnds runwayEnds(@NotNull Airport airport) {
+        int id = airport.getId();
+        if (id < 0) {
+            return runwayEndsCache.computeIfAbsent(airport.getIcaoCode(),
+                                                   icao -> new RunwayEnds(icao, airport.getRunways()));
+        }
+        RunwayEnds[] cache = runwayEndsById;
+        RunwayEnds ends = id < cache.length ? cache[id] : null;
+        // the same ID belongs to another airport if the database has been read again
+        if (ends == null || ends.runways != airport.getRunways()) {
+            ends = new RunwayEnds(airport.getIcaoCode(), airport.getRunways());
+            store(id, ends);
+        }
+        return ends;
+    }
+
+    /**
+     * Stores the runway ends in the cache. Two threads may compute the ends of
+     * the same airport at once, then either of the equal results is kept.
+     */
+    private synchronized void store(int id, @NotNull RunwayEnds ends) {
+        RunwayEnds[] cache = runwayEndsById;
+        if (id >= cache.length) {
+            cache = Arrays.copyOf(cache, Math.max(id + 1, cache.length * 2));
+        }
+        cache[id] = ends;
+        runwayEndsById = cache;
+    }
+
+    private static final Comparator<RunwayWind> ranking =
+            Comparator.comparingDouble(RunwayWind::getHeadwind).reversed()
+                      .thenComparingDouble(RunwayWind::getCrosswind)
+                      .thenComparing(Comparator.comparingDouble(RunwayWind::getLength).reversed());
+
+    /**
+     * The unit vectors and metadata of all runway ends of one airport whose
+     * heading is known.
+     */
+    private static class RunwayEnds {
+        private final List<Runway> runways;
+        private final String icao;
+        private final String[] designators;
+        private final double[] headings, sin, cos, lengths;
+
+        RunwayEnds(@NotNull String icao, @NotNull List<Runway> runways) {
+            List<String> ids  = new ArrayList<>();
+            List<double[]> values = new ArrayList<>();
+            for (Runway rwy : runways) {
+                double[] hdgs = rwy.getTrueHeadings();
+                String[] idents = rwy.getIdentification() == null
+                                  ? new String[0]
+                                  : rwy.getIdentification().split("/", -1);
+                for (int end = 0; end < hdgs.length; end++) {
+                    if (Double.isNaN(hdgs[end])) continue;
+                    ids.add(end < idents.length && !idents[end].isBlank() ? idents[end] : "UNKNOWN");
+                    values.add(new double[] {hdgs[end], rwy.getLength()});
+                }
+            }
+            this.runways     = runways;
+            this.icao        = icao;
+            this.designators = ids.toArray(new String[0]);
+            this.headings    = new double[ids.size()];
+            this.sin         = new double[ids.size()];
+            this.cos         = new double[ids.size()];
+            this.lengths     = new double[ids.size()];
+            for (int i = 0; i < ids.size(); i++) {
+                double rad = Math.toRadians(values.get(i)[0]);
+                headings[i] = values.get(i)[0];
+                sin[i]      = Math.sin(rad);
+                cos[i]      = Math.cos(rad);
+                lengths[i]  = values.get(i)[1];
+            }
+        }
+
+        int size() {
+            return designators.length;
+        }
+    }
+
+    /**
+     * The wind components computed for one runway end. The crosswind values
+     * are always non-negative, its side is given by {@link #isFromRight()}.
+     */
+    public static class RunwayWind {
+        private final String icaoCode, designator;
+        private final double heading, length, headwind, crosswind, gustHeadwind, gustCrosswind;
+        private boolean usable;
+
+        private RunwayWind(String icaoCode, String designator, double heading, double length,
+                           double headwind, double crosswind, double gustHeadwind, double gustCrosswind) {
+            this.icaoCode = icaoCode;
+            this.designator = designator;
+            this.heading = heading;
+            this.length = length;
+            this.headwind = headwind;
+            this.crosswind = crosswind;
+            this.gustHeadwind = gustHeadwind;
+            this.gustCrosswind = gustCrosswind;
+        }
+
+        /**
+         * @return The ICAO code of the airport.
+         */
+        public String getIcaoCode() {
+            return icaoCode;
+        }
+
+        /**
+         * @return The designator of the runway end, e.g. "27L".
+         */
+        public String getDesignator() {
+            return designator;
+        }
+
+        /**
+         * @return The true heading of the runway end.
+         */
+        public double getHeading() {
+            return heading;
+        }
+
+        /**
+         * @return The length of the runway in feet.
+         */
+        public double getLength() {
+            return length;
+        }
+
+        /**
+         * @return The headwind component in knots. A negative value means a
+         *         tailwind.
+         */
+        public double getHeadwind() {
+            return headwind;
+        }
+
+        /**
+         * @return The tailwind component in knots, or zero if the wind blows
+         *         against the aircraft.
+         */
+        public double getTailwind() {
+            return Math.max(0, -headwind);
+        }
+
+        /**
+         * @return The crosswind component in knots.
+         */
+        public double getCrosswind() {
+            return Math.abs(crosswind);
+        }
+
+        /**
+         * @return The flag indicating that the crosswind blows from the right
+         *         side of the runway.
+         */
+        public boolean isFromRight() {
+            return crosswind > 0;
+        }
+
+        /**
+         * @return The headwind component computed from the gust speed.
+         */
+        public double getGustHeadwind() {
+            return gustHeadwind;
+        }
+
+        /**
+         * @return The tailwind component computed from the gust speed.
+         */
+        public double getGustTailwind() {
+            return Math.max(0, -gustHeadwind);
+        }
+
+        /**
+         * @return The crosswind component computed from the gust speed.
+         */
+        public double getGustCrosswind() {
+            return Math.abs(gustCrosswind);
+        }
+
+        /**
+         * @return The flag indicating that the runway end satisfies the limits
+         *         of the calculator which created this object.
+         */
+        public boolean isUsable() {
+            return usable;
+        }
+
+        @Override
+        public String toString() {
+            String wind = headwind >= 0
+                          ? String.format("headwind %.0f kt", headwind)
+                          : String.format("tailwind %.0f kt", getTailwind());
+            String gusts = gustCrosswind != crosswind || gustHeadwind != headwind
+                           ? String.format(" (in gusts crosswind %.0f kt, %s %.0f kt)",
+                                           getGustCrosswind(),
+                                           gustHeadwind >= 0 ? "headwind" : "tailwind",
+                                           Math.abs(gustHeadwind))
+                           : "";
+            return "Runway %ID: %WIND, crosswind %CROSS kt from the %SIDE%GUSTS."
+                   .replace("%ID", designator)
+                   .replace("%WIND", wind)
+                   .replace("%CROSS", String.format("%.0f", getCrosswind()))
+                   .replace("%SIDE", isFromRight() ? "right" : "left")
+                   .replace("%GUSTS", gusts);
+        }
+    }
+}
@@ -10,14 +10,47 @@ import java.time.*;
 
 /**
  * The Downloader class is responsible for the download preparation and the METAR
- * information download itself from the provider website.
+ * and TAF information download itself from the provider website.
  */
 public class Downloader {
 
     /**
-     * This method uses {@link #buildMETARURL(ZonedDateTime, ZonedDateTime, String)}
-     * to build the URL from given parameters and then downloads the .csv file
-     * that contains METAR weather information.
+     * The time limits of the connection to the provider and of waiting for
+     * its data in milliseconds, so that an unresponsive provider does not
+     * block the download forever.
+     */
+    public static final int connectTimeoutMillis = 10_000, readTimeoutMillis = 30_000;
+
+    /**
+     * The weather product which can be downloaded. Each product knows the URL
+     * template of its provider and the suffix of the downloaded file.
+     */
+    public enum Product {
+        /**
+         * The observations in the .csv format provided by ogimet.com for the
+         * given time window.
+         */
+        METAR("http://www.ogimet.com/cgi-bin/getmetar?icao=%ICAO&begin=%FROM&end=%TO", ".csv"),
+        /**
+         * The raw forecasts provided by aviationweather.gov. The provider
+         * serves the currently valid forecasts, the time window is not used.
+         */
+        TAF("https://aviationweather.gov/api/data/taf?ids=%ICAO&format=raw", ".txt");
+
+        private final String urlTemplate, fileSuffix;
+
+        Product(String urlTemplate, String fileSuffix) {
+            this.urlTemplate = urlTemplate;
+            this.fileSuffix = fileSuffix;
+        }
+    }
+
+    /**
+     * This method uses {@link #buildURL(Product, ZonedDateTime, ZonedDateTime, String)}
+     * to build the URL from given parameters and then downloads the file that
+     * contains the weather information of the given product.
+     *
+     * @param product       The weather product to be downloaded.
      *
      * @param timeFrom      Describes the timestamp from when the data will be
      *                      fetched. If null, then corresponds to the current time
@@ -27,35 +60,35 @@ public class Downloader {
      *                      fetched. If null, then corresponds to the current time
      *                      in UTC.
      *
-     * @param airportTarget The airfield for which the METAR data will be gathered.
+     * @param airportTarget The airfield for which the data will be gathered.
      *
-     * @return The file which contains the METAR weather information for
+     * @return The file which contains the weather information for
      *         selected airport, date and time if available. Returns an empty file,
      *         if an error occurs.
      *
      * @throws IOException if an error occurs while creating a file.
      */
     @NotNull
-    private File downloadMETAR(@NotNull ZonedDateTime timeFrom, @NotNull ZonedDateTime timeTo,
-                               @NotNull Airport airportTarget) throws IOException {
+    private File download(@NotNull Product product, @NotNull ZonedDateTime timeFrom,
+                          @NotNull ZonedDateTime timeTo, @NotNull Airport airportTarget) throws IOException {
         String icao = airportTarget.getIcaoCode();
-        URL page =  buildMETARURL(timeFrom, timeTo,
-                                  icao);
+        URL page =  buildURL(product, timeFrom, timeTo,
+                             icao);
         if (page != null) {
             String line;
             File targetFile = File.createTempFile(icao,      //creates temporary file in current directory with icao code prefix in its name
-                                                  ".csv",
+                                                  product.fileSuffix,
                                                   new File("output/")
             );
             targetFile.deleteOnExit(); // deletion of created file after program ends
 
             try (OutputStreamWriter writer = new OutputStreamWriter(new FileOutputStream(targetFile));
-                 BufferedInputStream bis = new BufferedInputStream(page.openStream());
+                 BufferedInputStream bis = new BufferedInputStream(open(page));
                  BufferedReader br = new BufferedReader(new InputStreamReader(bis))) {
 
                 boolean threadStarted = false;
                 Thread t = new Thread(() -> {
-                    System.out.printf("%n... %s METAR download in process ...%n", icao.toUpperCase());
+                    System.out.printf("%n... %s %s download in process ...%n", icao.toUpperCase(), product);
                     try {
                         Thread.sleep(50);
                     } catch (InterruptedException ignored) { }
@@ -79,8 +112,8 @@ public class Downloader {
     }
 
     /**
-     * Wrapper aroung {@link #downloadMETAR(ZonedDateTime, ZonedDateTime, Airport)} method
-     * which allows multiple files to downloaded and grouped together.
+     * Wrapper aroung {@link #download(Product, ZonedDateTime, ZonedDateTime, Airport)}
+     * method which allows multiple METAR files to downloaded and grouped together.
      *
      * @param timeFrom      Describes the timestamp from when the data will be
      *                      fetched. If null, then corresponds to the current time
@@ -100,17 +133,104 @@ public class Downloader {
     @NotNull
     public Map<String, File> downloadMETARs(@NotNull ZonedDateTime timeFrom, @NotNull ZonedDateTime timeTo,
                                             @NotNull List<Airport> aptsToDwnld) {
+        return downloadAll(Product.METAR, timeFrom, timeTo, aptsToDwnld);
+    }
+
+    /**
+     * Downloads the currently valid forecasts (TAF) for all the given airports.
+     *
+     * @param aptsToDwnld   The list of airfields for which the TAF data will
+     *                      be downloaded.
+     *
+     * @return The map of pairs (icao String, non-empty file) which contain the
+     *         raw forecasts for selected airports (if available).
+     */
+    @NotNull
+    public Map<String, File> downloadTAFs(@NotNull List<Airport> aptsToDwnld) {
+        ZonedDateTime now = ZonedDateTime.now(ZoneId.of("UTC"));
+        return downloadAll(Product.TAF, now, now, aptsToDwnld);
+    }
+
+    /**
+     * Fetches the METAR entries of one airport directly into the memory without
+     * creating any file. Used for the repeated polling where only the few newest
+     * entries are expected.
+     *
+     * @param timeFrom  Describes the timestamp from when the data will be fetched.
+     * @param timeTo    Describes the timestamp until when the data will be fetched.
+     * @param icaoCode  The ICAO code of the airport.
+     * @return The non-blank lines of the provider response in the .csv format.
+     * @throws IOException if the download fails.
+     */
+    @NotNull
+    public List<String> fetchMETARLines(@NotNull ZonedDateTime timeFrom, @NotNull ZonedDateTime timeTo,
+                                        @NotNull String icaoCode) throws IOException {
+        return fetchLines(Product.METAR, timeFrom, timeTo, icaoCode);
+    }
+
+    /**
+     * Fetches the given product of one airport directly into the memory
+     * without creating any file.
+     *
+     * @param product   The weather product to be fetched.
+     * @param timeFrom  Describes the timestamp from when the data will be fetched.
+     * @param timeTo    Describes the timestamp until when the data will be fetched.
+     * @param icaoCode  The ICAO code of the airport.
+     * @return The non-blank lines of the provider response.
+     * @throws IOException if the download fails.
+     */
+    @NotNull
+    public List<String> fetchLines(@NotNull Product product, @NotNull ZonedDateTime timeFrom,
+                                   @NotNull ZonedDateTime timeTo, @NotNull String icaoCode) throws IOException {
+        URL page = buildURL(product, timeFrom, timeTo, icaoCode);
+        if (page == null) throw new IOException();
+        List<String> result = new ArrayList<>();
+        try (BufferedReader br = new BufferedReader(new InputStreamReader(open(page)))) {
+            String line;
+            while ((line = br.readLine()) != null) {
+                if (!line.isBlank()) result.add(line);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Opens the page with the connect and read timeouts set.
+     *
+     * @param page The page to be read.
+     * @return The stream of the page content.
+     * @throws IOException if the connection can not be opened in time. Reading
+     *         the stream throws the {@link SocketTimeoutException} if the
+     *         provider does not send any data in time.
+     */
+    @NotNull
+    private static InputStream open(@NotNull URL page) throws IOException {
+        URLConnection connection = page.openConnection();
+        connection.setConnectTimeout(connectTimeoutMillis);
+        connection.setReadTimeout(readTimeoutMillis);
+        return connection.getInputStream();
+    }
+
+    /**
+     * Downloads the given product for every airport of the list.
+     *
+     * @return The map of pairs (icao String, non-empty file).
+     */
+    @NotNull
+    private Map<String, File> downloadAll(@NotNull Product product, @NotNull ZonedDateTime timeFrom,
+                                          @NotNull ZonedDateTime timeTo, @NotNull List<Airport> aptsToDwnld) {
         Map<String, File> result = new HashMap<>();
 
         for(Airport apt : aptsToDwnld) {
             String icao = apt.getIcaoCode();
             try {
                 if (!result.containsKey(icao)) {
-                    result.put(icao, downloadMETAR(timeFrom, timeTo, apt));
+                    result.put(icao, download(product, timeFrom, timeTo, apt));
                 }
             } catch (IOException e) {
-                System.err.println("An error occured while creating a file with %ICAO METAR data."
-                                   .replace("%ICAO", icao));
+                System.err.println("An error occured while creating a file with %ICAO %PRODUCT data."
+                                   .replace("%ICAO", icao)
+                                   .replace("%PRODUCT", product.name()));
             }
         }
         System.out.printf("%n");
@@ -118,9 +238,10 @@ public class Downloader {
     }
 
     /**
-     * This method creates a URL of the METAR data provider website  by defining
+     * This method creates a URL of the data provider website  by defining
      * the current target airport name, date and time boundaries.
      *
+     * @param product  The weather product whose provider URL is built.
      * @param timeFrom Describes the time from when the data will be downloaded
      *                 in predefined LocalDateTime format.
      * @param timeTo   Describes the time until which the data will be downloaded
@@ -130,14 +251,15 @@ public class Downloader {
      * @return The URL which will be used for data gathering.
      */
     @Nullable
-    private URL buildMETARURL(@NotNull ZonedDateTime timeFrom, @NotNull ZonedDateTime timeTo, String airportCode) {
+    private URL buildURL(@NotNull Product product, @NotNull ZonedDateTime timeFrom,
+                         @NotNull ZonedDateTime timeTo, String airportCode) {
 
         airportCode = airportCode.toUpperCase();
         final String datePattern = "yyyyMMddHHmm";
               String  fromDate   = timeFrom.format(DateTimeFormatter.ofPattern(datePattern)),
                       toDate     = timeTo.format(DateTimeFormatter.ofPattern(datePattern));
 
-        String sURL =  "http://www.ogimet.com/cgi-bin/getmetar?icao=%ICAO&begin=%FROM&end=%TO"
+        String sURL =  product.urlTemplate
                         .replace("%ICAO", airportCode)
                         .replace("%FROM", fromDate)
                         .replace("%TO", toDate);
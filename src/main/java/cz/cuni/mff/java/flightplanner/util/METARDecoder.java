@@ -2,9 +2,18 @@ package cz.cuni.mff.java.flightplanner.util;
 
 import cz.cuni.mff.java.flightplanner.DialogCenter;
 import cz.cuni.mff.java.flightplanner.dataobject.Airport;
+import cz.cuni.mff.java.flightplanner.dataobject.Observation;
+import cz.cuni.mff.java.flightplanner.dataobject.WeatherConditions;
+import cz.cuni.mff.java.flightplanner.dataobject.Wind;
+import cz.cuni.mff.java.flightplanner.template.Template;
+import cz.cuni.mff.java.flightplanner.template.Templates;
 
 import java.io.*;
+import java.time.DateTimeException;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
 import java.util.*;
+import java.util.regex.Pattern;
 
 /**
  * The METARProcessor is the class responsible for parsing, modifying
@@ -13,30 +22,131 @@ import java.util.*;
  */
 public class METARDecoder {
 
-    private static final Map<String, String> metarDict = new HashMap<>();
     private static String fileOutputPath = null;
-    /**
-     * The constant pattern which makes part of a correct METAR.
-     */
-    private static final String windPttrn     = "((VRB)[0-9]{2}|[0-9]{5})(G[0-9]{2})?(KT|MPS)",
-                                vartnPttrn    = "[0-9]{3,4}V(P)?[0-9]{3,4}",
-                                vsbltyPttrn   = "[0-9]{4}|[0-9 /.]{1,5}SM",
-                                rvrPttrn      = "R[0-9]{2}[LCR]?/([PM]?[0-9]+V)?[PM]?[0-9]+(FT)?(/[DNU])?",
-                                weatherPttrn  = "(RE|[+-])?[a-zA-Z]{2,}",
-                                tempPttrn     = "((M?[0-9]{2})|(//))/((M?[0-9]{2})|(//))",
-                                cloudPttrn    = "(SKC|FEW|BKN|SCT|OVC|CLR)[0-9]{3}(CB|TCU|///)?",
-                                vrtclVisPttrn = "VV[0-9]{3}",
-                                pressurePttrn = "[AQ](([0-9]{4})|(////))",
-                                windshrPttrn  = "WS (ALL RWY|(RWY[0-9]{2}[LCR]?))",
-                                slpPttrn      = "SLP[0-9]{3}",
-                                rsgPttrn      = "[0-9]{2}[0-9/]{6}";
     /**
      * The constants used in aviation for the units conversion.
      */
     private static final double knotsToKmH  = 1.852,
                                 ftToM       = 0.3048,
                                 inchTohPa   = 1/2.953,
-                                hPaToInch   = 1/(100 * inchTohPa);
+                                hPaToInch   = 1/(100 * inchTohPa),
+                                mpsToKnots  = 3.6 / knotsToKmH;
+
+    /**
+     * The templates of the decoded METAR sections. They are parsed once when
+     * the class is loaded; the decoding of each token only appends the values.
+     */
+    private static final Template
+            locationTemplate = Templates.compile("metar.location",
+                    "Location: %ICAO\n\t%LOC\n\tLatitude: %LAT\n\tLongtitude: %LONG\n",
+                    "ICAO", "LOC", "LAT", "LONG"),
+            issueTemplate = Templates.compile("metar.issue",
+                    "%AIRPORTThe %TYPE was issued %AUTOthe %DAY-%MONTH-%YEAR at %HOUR:%MIN UTC time.",
+                    "AIRPORT", "TYPE", "AUTO", "DAY", "MONTH", "YEAR", "HOUR", "MIN"),
+            rsgClearedTemplate = Templates.compile("metar.rsg.cleared",
+                    "%INITRunway state descriptor: Runway %RWY cleared, %BRKACT",
+                    "INIT", "RWY", "BRKACT"),
+            rsgDepthMillimetersTemplate = Templates.compile("metar.rsg.depth.mm",
+                    "%DEPTH mm", "DEPTH"),
+            rsgDepthCentimetersTemplate = Templates.compile("metar.rsg.depth.cm",
+                    "%DEPTH cm", "DEPTH"),
+            rsgFrictionTemplate = Templates.compile("metar.rsg.friction",
+                    "Braking friction coefficient: %VALUE", "VALUE"),
+            rsgBrakingActionTemplate = Templates.compile("metar.rsg.braking",
+                    "Braking %ACTION", "ACTION"),
+            rsgTemplate = Templates.compile("metar.rsg",
+                    "%INITRunway state descriptor:\n\tRunway(s) concerned: %RWY\n\t %vCON: %CONTAM\n\t %vEXT: %EXTENT\n\t%vDEP: %DEPTH\n\t%vBR: %BRACT",
+                    "INIT", "RWY", "vCON", "CONTAM", "vEXT", "EXTENT", "vDEP", "DEPTH", "vBR", "BRACT"),
+            rsgLeftRunwayTemplate = Templates.compile("metar.rsg.runway.left",
+                    "%RWY or %RWYL", "RWY"),
+            rsgRightRunwayTemplate = Templates.compile("metar.rsg.runway.right",
+                    "%RWYR", "RWY"),
+            seaLevelPressureTemplate = Templates.compile("metar.slp",
+                    "%INITSea-level pressure: %VALUE%CONVERSION Beware of the possible difference with QNH!",
+                    "INIT", "VALUE", "CONVERSION"),
+            windshearRunwayTemplate = Templates.compile("metar.windshear.runway",
+                    "runway %RWY", "RWY"),
+            windshearTemplate = Templates.compile("metar.windshear",
+                    "%INITWARNING! WINDSHEAR was detected on %RUNWAY.",
+                    "INIT", "RUNWAY"),
+            pressureMissingTemplate = Templates.compile("metar.pressure.missing",
+                    "%INITSea-level pressure (QNH): Pressure not available.", "INIT"),
+            pressureTemplate = Templates.compile("metar.pressure",
+                    "%INITSea-level pressure (QNH): %VALUE %UNIT%CONVERSION.",
+                    "INIT", "VALUE", "UNIT", "CONVERSION"),
+            verticalVisibilityTemplate = Templates.compile("metar.vertical.visibility",
+                    "%INITVertical visibility: %VALUE feet%CONVERSION.",
+                    "INIT", "VALUE", "CONVERSION"),
+            cloudTemplate = Templates.compile("metar.cloud",
+                    "%INITClouds: A %LAYER detected at %HEIGHT feet%CONVERSION above aerodrome level%APPENDIX",
+                    "INIT", "LAYER", "HEIGHT", "CONVERSION", "APPENDIX"),
+            temperatureMissingTemplate = Templates.compile("metar.temperature.missing",
+                    "%INITTemperature: Temperature is not available.", "INIT"),
+            temperatureValueTemplate = Templates.compile("metar.temperature.value",
+                    "%TEMP %UNIT.", "TEMP", "UNIT"),
+            temperatureTemplate = Templates.compile("metar.temperature",
+                    "%INITTemperature: %TEMP\nDewpoint   : %DEWPOINT",
+                    "INIT", "TEMP", "DEWPOINT"),
+            weatherTemplate = Templates.compile("metar.weather",
+                    "%INIT%RECENT%WEATHER%TOKENB = %MODIFIER %PHENOMENON.",
+                    "INIT", "RECENT", "WEATHER", "TOKENB", "MODIFIER", "PHENOMENON"),
+            rvrConversionTemplate = Templates.compile("metar.rvr.variable.conversion",
+                    "%FCONV and%SCONV", "FCONV", "SCONV"),
+            rvrVariableTemplate = Templates.compile("metar.rvr.variable",
+                    "variable between %FVIS %UNIT and %MOD1%SVIS %UNIT%VARCONV",
+                    "FVIS", "UNIT", "MOD1", "SVIS", "VARCONV"),
+            rvrTemplate = Templates.compile("metar.rvr",
+                    "%INITRunway %RUNWAY, touchdown zone visual range is %MODIFIER%VALUE %UNIT%CONVERSION and %TREND is expected.",
+                    "INIT", "RUNWAY", "MODIFIER", "VALUE", "UNIT", "CONVERSION", "TREND"),
+            visibilityMaximumTemplate = Templates.compile("metar.visibility.maximum",
+                    "%INITVisibility: The visibility is 10 km or more.", "INIT"),
+            visibilityMinimumTemplate = Templates.compile("metar.visibility.minimum",
+                    "%INITVisibility: The visibility is 50 meters or less.", "INIT"),
+            visibilityMetersTemplate = Templates.compile("metar.visibility.meters",
+                    "%VISIB meters", "VISIB"),
+            visibilityValueTemplate = Templates.compile("metar.visibility.value",
+                    "%VISIB %UNIT", "VISIB", "UNIT"),
+            visibilityTemplate = Templates.compile("metar.visibility",
+                    "%INITMaximum horizontal visibility: %VISIBILITY.",
+                    "INIT", "VISIBILITY"),
+            gustsTemplate = Templates.compile("metar.wind.gusts",
+                    " with gusts of %GUSTS %UNIT%CONVERSION",
+                    "GUSTS", "UNIT", "CONVERSION"),
+            calmWindTemplate = Templates.compile("metar.wind.calm",
+                    "%TOKEN: The wind is calm.", "TOKEN"),
+            windTemplate = Templates.compile("metar.wind",
+                    "%INITWind: The wind %DIRECTION at %SPEED %UNIT%CONVERSION%GUSTS.",
+                    "INIT", "DIRECTION", "SPEED", "UNIT", "CONVERSION", "GUSTS"),
+            windVariationTemplate = Templates.compile("metar.wind.variation",
+                    "%INITVariable wind: The wind direction varies between %FWIND degrees and %SWIND degrees.\n" +
+                    "The wind direction has varied by 60 degrees or more in last 10 minutes with the mean speed exceeding 3 knots.",
+                    "INIT", "FWIND", "SWIND");
+
+    /**
+     * The flag indicating that the decoding options are asked for.
+     */
+    private final boolean interactive;
+    private final boolean presetTokenPrint;
+
+    /**
+     * Creates the decoder which asks the user for the decoding options and
+     * for each METAR to be decoded.
+     */
+    public METARDecoder() {
+        this.interactive = true;
+        this.presetTokenPrint = false;
+    }
+
+    /**
+     * Creates the decoder which decodes all METARs without any interaction
+     * with the user.
+     *
+     * @param tokenPrint The flag which indicates the token highlighting.
+     */
+    public METARDecoder(boolean tokenPrint) {
+        this.interactive = false;
+        this.presetTokenPrint = tokenPrint;
+    }
 
     /**
      * The method which takes the file denoted by {@code metarToDecode} and
@@ -50,8 +160,7 @@ public class METARDecoder {
      *         has occurred.
      */
     public int fileDecode(@NotNull File metarToDecode, @NotNull PrintStream printer, boolean fileOutput) {
-        int exitCode;
-        if ((exitCode = checkAndSetMetarDict()) != 0) return exitCode;
+        if (!METARDictionary.isAvailable()) return 1;
 
         List<String> allMETARs = readInReverseOrder(metarToDecode);
         if (allMETARs == null) return 1;
@@ -62,13 +171,14 @@ public class METARDecoder {
             return 0;
         }
         System.out.println(Utilities.sectionSeparator("METAR DECODING"));
-        boolean tokenPrint =
-                    DialogCenter.getResponse(
+        boolean tokenPrint = interactive
+                    ? DialogCenter.getResponse(
                             "The tokens may help you understand what token is being decoded.",
                             "Should the token names be printed too? %OPT: ",
                             "Y",
-                            true),
-                autoDecode =
+                            true)
+                    : presetTokenPrint,
+                autoDecode = !interactive ||
                     DialogCenter.getResponse(
                             null,
                             "Do you want to decode all METARs automatically without any further asking? %OPT: ",
@@ -77,7 +187,7 @@ public class METARDecoder {
                 noDecode = false;
         if (!autoDecode) {
             System.out.println("All available METAR = \"%DEFINITION\" are progressively decoded until you decide not to decode them anymore."
-                    .replace("%DEFINITION", metarDict.get("METAR")));
+                    .replace("%DEFINITION", METARDictionary.get("METAR")));
         }
 
         for (String metarEntry : allMETARs) {
@@ -159,21 +269,15 @@ public class METARDecoder {
                                                                   false);
         if (metarConcernedApts == null) return null;
         for (Airport apt : metarConcernedApts) {
-            airport = "Location: %ICAO\n\t%LOC\n\tLatitude: %LAT\n\tLongtitude: %LONG\n"
-                      .replace("%ICAO", apt.getIcaoCode())
-                      .replace("%LOC", apt.getName() + ", " + apt.getMunicipality() + ", " + apt.getCountryCode())
-                      .replace("%LAT", String.valueOf(apt.getGeoLat()))
-                      .replace("%LONG", String.valueOf(apt.getGeoLong()));
+            airport = locationTemplate.render(apt.getIcaoCode(),
+                                              apt.getName() + ", " + apt.getMunicipality() + ", " + apt.getCountryCode(),
+                                              apt.getGeoLat(),
+                                              apt.getGeoLong());
         }
-        String initInfo = "%AIRPORTThe %TYPE was issued %AUTOthe %DAY-%MONTH-%YEAR at %HOUR:%MIN UTC time."
-                          .replace("%AIRPORT", airport)
-                          .replace("%AUTO",auto)
-                          .replace("%DAY", fields[3])
-                          .replace("%MONTH", fields[2])
-                          .replace("%YEAR", fields[1])
-                          .replace("%HOUR", fields[4])
-                          .replace("%MIN", fields[5]),
-               metar = fields[6];
+        String metar = fields[6],
+               type  = metar.split("\\s+")[0], // METAR or SPECI
+               initInfo = issueTemplate.render(airport, type, auto,
+                                               fields[3], fields[2], fields[1], fields[4], fields[5]);
 
         return new String[] {initInfo, metar};
     }
@@ -199,73 +303,57 @@ public class METARDecoder {
 
         String[] tokens = metarEntry.split("\\s+");
         printer.println(Utilities.sectionSeparator(metarEntry));
-        printer.println(initInfo.replace("%TYPE", tokens[0]));
+        printer.println(initInfo);
         // 0 -> METAR/SPECI type, 1 -> airport ICAO, 2 -> day and time in zulu of metar publication, 3+ -> tokens to be decoded
-        // for loop iterates through the tokens and for each determines what information the token represents
-        for (int i = 3; i < tokens.length; i++) {
-            if (tokens[i].matches(windPttrn)) {    //wind direction and speed information
-                printer.println(windDirSpd(tokens[i], tokenPrint));
-                continue;
-            }
-            if (tokens[i].matches(vartnPttrn)) {
-                printer.println(windVariation(tokens[i], tokenPrint));
-                continue;
-            }
-            if (tokens[i].matches(vsbltyPttrn)) {
-                printer.println(visibility(tokens[i], tokenPrint));
-                continue;
-            }
-            //the following if condition treats the "1 1/4SM" case
-            if (tokens[i].matches("[0-9]+") &&
-                (i + 1 < tokens.length)           &&
-                tokens[i + 1].matches(vsbltyPttrn)
-                ) {
-                printer.println(visibility(tokens[i] + " " + tokens[i + 1], tokenPrint));
-                i++;
-                continue;
-            }
-            if (tokens[i].matches(rvrPttrn)) {
-                printer.println(rvrVisibility(tokens[i], tokenPrint));
-                continue;
-            }
-            if (tokens[i].matches(vrtclVisPttrn)) {
-                printer.println(verticalVisibility(tokens[i], tokenPrint));
-                continue;
-            }
-            if (tokens[i].matches(weatherPttrn)) {
-                printer.println(weatherPhenomena(tokens[i], tokens[i].startsWith("RE"), tokenPrint));
-                continue;
-            }
-            if (tokens[i].matches(cloudPttrn)) {
-                printer.println(cloudLayer(tokens[i], tokenPrint));
-                continue;
-            }
-            if (tokens[i].matches(tempPttrn)) {
-                printer.println(temperature(tokens[i], tokenPrint));
-                continue;
-            }
-            if (tokens[i].matches(pressurePttrn)) {
-                printer.println(pressure(tokens[i], tokenPrint));
-                continue;
-            }
-            if (tokens[i].matches(windshrPttrn)) {
-                printer.println(windshearWarning(tokens[i], tokenPrint));
-                continue;
-            }
-            if (tokens[i].matches(slpPttrn)) {
-                printer.println(seaLvlPressure(tokens[i], tokenPrint));
-                continue;
-            }
-            if (tokens[i].matches(rsgPttrn)) {
-                printer.println(rwyStateGroup(tokens[i], rsgPttrn, tokenPrint));
-            }
-            if (tokens[i].matches("[a-zA-Z]+")) {
-                String tokenMeaning = metarDict.get(tokens[i]);
-                if (tokenMeaning != null) {
-                    printer.printf("%s: %s.%n", tokens[i], tokenMeaning);
-                }
-            } else {
-                printer.println(tokens[i] + ": Unknown token.");
+        // for loop iterates through the classified tokens and translates each according to the information it represents
+        for (WeatherLexer.Token token : WeatherLexer.tokenize(tokens, 3, WeatherLexer.Mode.METAR)) {
+            String text = token.getText();
+            switch (token.getType()) {
+                case WIND:                  //wind direction and speed information
+                    printer.println(windDirSpd(text, tokenPrint));
+                    break;
+                case WIND_VARIATION:
+                    printer.println(windVariation(text, tokenPrint));
+                    break;
+                case VISIBILITY:
+                    printer.println(visibility(text, tokenPrint));
+                    break;
+                case RVR:
+                    printer.println(rvrVisibility(text, tokenPrint));
+                    break;
+                case VERTICAL_VISIBILITY:
+                    printer.println(verticalVisibility(text, tokenPrint));
+                    break;
+                case WEATHER:
+                    printer.println(weatherPhenomena(text, text.startsWith("RE"), tokenPrint));
+                    break;
+                case CLOUD:
+                    printer.println(cloudLayer(text, tokenPrint));
+                    break;
+                case TEMPERATURE:
+                    printer.println(temperature(text, tokenPrint));
+                    break;
+                case PRESSURE:
+                    printer.println(pressure(text, tokenPrint));
+                    break;
+                case WINDSHEAR:
+                    printer.println(windshearWarning(text, tokenPrint));
+                    break;
+                case SEA_LEVEL_PRESSURE:
+                    printer.println(seaLvlPressure(text, tokenPrint));
+                    break;
+                case RUNWAY_STATE:
+                    printer.println(rwyStateGroup(text, WeatherLexer.rsgPttrn, tokenPrint));
+                    break;
+                case WORD:
+                    String tokenMeaning = METARDictionary.get(text);
+                    if (tokenMeaning != null) {
+                        printer.printf("%s: %s.%n", text, tokenMeaning);
+                    }
+                    break;
+                default:
+                    printer.println(text + ": Unknown token.");
+                    break;
             }
         }
         printer.println(Utilities.sectionSeparator("END OF METAR"));
@@ -291,7 +379,7 @@ public class METARDecoder {
      * @return The decoded result {@code String} based on the information in the
      *         raw RSG token.
      */
-    private static @NotNull String rwyStateGroup(@NotNull String token, @NotNull String rsgPttrn, boolean tokenPrint) {
+    private static @NotNull String rwyStateGroup(@NotNull String token, @NotNull Pattern rsgPttrn, boolean tokenPrint) {
         // example of a RSG descriptor: 8849//91
         String init = initTokenDecoder(token,rsgPttrn,tokenPrint);
         // the token contains only numbers, "/" or substring "CLRD" on indexes 2 - 5
@@ -301,10 +389,7 @@ public class METARDecoder {
         String  brkAction = getRSGBrakingAction(token.substring(6));
 
         if (cleared) {
-            return "%INITRunway state descriptor: Runway %RWY cleared, %BRKACT"
-                    .replace("%INIT", init)
-                    .replace("%RWY", rwyModif)
-                    .replace("%BRKACT", brkAction);
+            return rsgClearedTemplate.render(init, rwyModif, brkAction);
         }
 
         char    contaminationType    = token.charAt(2),    // runway deposit position
@@ -312,21 +397,20 @@ public class METARDecoder {
 
         String  contaminationDepth = getRSGContaminationDepth(token.substring(4, 6));
 
-        return "%INITRunway state descriptor:\n\tRunway(s) concerned: %RWY\n\t %vCON: %CONTAM\n\t %vEXT: %EXTENT\n\t%vDEP: %DEPTH\n\t%vBR: %BRACT"
-                .replace("%INIT", init)
-                .replace("%RWY", rwyModif)
-                .replace("%vCON", String.valueOf(contaminationType))
-                .replace("%CONTAM", getRSGRwyContamination(contaminationType))
-                .replace("%vEXT", String.valueOf(contaminationExtent))
-                .replace("%EXTENT", getRSGContaminationExtent(contaminationExtent))
-                .replace("%vDEP", token.substring(4,6))
-                .replace("%DEPTH", contaminationDepth)
-                .replace("%vBR", token.substring(6))
-                .replace("%BRACT", brkAction);
+        return rsgTemplate.render(init,
+                                  rwyModif,
+                                  contaminationType,
+                                  getRSGRwyContamination(contaminationType),
+                                  contaminationExtent,
+                                  getRSGContaminationExtent(contaminationExtent),
+                                  token.substring(4,6),
+                                  contaminationDepth,
+                                  token.substring(6),
+                                  brkAction);
     }
 
     /**
-     * The method used for {@link #rwyStateGroup(String, String, boolean)}.
+     * The method used for {@link #rwyStateGroup(String, Pattern, boolean)}.
      * This method decodes a part of the RSG descriptor based on the descriptor
      * explanation at the METAR explanation websites mentioned in
      * {@link #metarEntryDecode(String, PrintStream, String, boolean)} method
@@ -352,7 +436,7 @@ public class METARDecoder {
     }
 
     /**
-     * The method used for {@link #rwyStateGroup(String, String, boolean)}.
+     * The method used for {@link #rwyStateGroup(String, Pattern, boolean)}.
      * This method decodes a part of the RSG descriptor based on the descriptor
      * explanation at the METAR explanation websites mentioned in
      * {@link #metarEntryDecode(String, PrintStream, String, boolean)} method
@@ -372,7 +456,7 @@ public class METARDecoder {
     }
 
     /**
-     * The method used for {@link #rwyStateGroup(String, String, boolean)}.
+     * The method used for {@link #rwyStateGroup(String, Pattern, boolean)}.
      * This method decodes a part of the RSG descriptor based on the descriptor
      * explanation at the METAR explanation websites mentioned in
      * {@link #metarEntryDecode(String, PrintStream, String, boolean)} method
@@ -392,11 +476,11 @@ public class METARDecoder {
         try {
           int argInt = Integer.parseInt(arg);
           if (Utilities.isBetween(argInt, 1, 90)) {
-              return "%VAL mm".replace("%VAL", arg);
+              return rsgDepthMillimetersTemplate.render(arg);
           } else {
               if (Utilities.isBetween(argInt, 92, 97)) {
                   final int step = 5, baseKey = 92, baseValue = 10;
-                  return "%VAL cm".replace("%VAL", String.valueOf(baseValue + (argInt - baseKey) * step ));
+                  return rsgDepthCentimetersTemplate.render(baseValue + (argInt - baseKey) * step);
               } else
                     throw new NumberFormatException();
           }
@@ -407,7 +491,7 @@ public class METARDecoder {
     }
 
     /**
-     * The method used for {@link #rwyStateGroup(String, String, boolean)}.
+     * The method used for {@link #rwyStateGroup(String, Pattern, boolean)}.
      * This method decodes a part of the RSG descriptor based on the descriptor
      * explanation at the METAR explanation websites mentioned in
      * {@link #metarEntryDecode(String, PrintStream, String, boolean)} method
@@ -422,17 +506,16 @@ public class METARDecoder {
             rwyModif = "All runways";
         } else {
             if (Utilities.isBetween(rwyID, 0, 36)) {
-                rwyModif = "%RWY or %RWYL"
-                        .replaceAll("%RWY", rwy);
+                rwyModif = rsgLeftRunwayTemplate.render(rwy);
             } else if (Utilities.isBetween(rwyID, 50, 86)) {
-                rwyModif = "%RWYR".replace("%RWY", rwy);
+                rwyModif = rsgRightRunwayTemplate.render(rwy);
             }
         }
         return rwyModif;
     }
 
     /**
-     * The method used for {@link #rwyStateGroup(String, String, boolean)}.
+     * The method used for {@link #rwyStateGroup(String, Pattern, boolean)}.
      * This method decodes a part of the RSG descriptor based on the descriptor
      * explanation at the METAR explanation websites mentioned in
      * {@link #metarEntryDecode(String, PrintStream, String, boolean)} method
@@ -454,7 +537,7 @@ public class METARDecoder {
         try {
             int intArg = Integer.parseInt(arg);
             if (Utilities.isBetween(intArg,0,90)) {
-                return "Braking friction coefficient: %VAL".replace("%VAL", arg);
+                return rsgFrictionTemplate.render(arg);
             } else {
                 // when arg value is > 90, it is special and mentioned in the dictionary
                 throw new NumberFormatException();
@@ -462,8 +545,7 @@ public class METARDecoder {
         } catch (NumberFormatException ex) {
             // if invoked correctly (which is the case always except for testing)
             // returns the value from the dictionary -> 91 - 95, 99 or //
-            return "Braking %DICTVAL"
-                   .replace("%DICTVAL", brakingFricti.get(arg));
+            return rsgBrakingActionTemplate.render(brakingFricti.get(arg));
         }
     }
 
@@ -477,18 +559,18 @@ public class METARDecoder {
      * @return           The information about sea-level pressure.
      */
     private static @NotNull String seaLvlPressure(@NotNull String token, boolean tokenPrint) {
-        String init = initTokenDecoder(token, METARDecoder.slpPttrn, tokenPrint);
+        String init = initTokenDecoder(token, WeatherLexer.slpPttrn, tokenPrint);
 
         String  seaLevelPressure = "",
                 conversion       = "";
         try {
             double slPressure = Double.parseDouble(token.substring(3)) / 10;
             if (slPressure >= 50.0)
-                seaLevelPressure = "9%s".replace("%s", String.valueOf(slPressure));
+                seaLevelPressure = "9" + slPressure;
             else {
                 if (slPressure < 10) {
-                    seaLevelPressure = "100%s".replace("%s",String.valueOf(slPressure));
-                } else seaLevelPressure = "10%s".replace("%s", String.valueOf(slPressure));
+                    seaLevelPressure = "100" + slPressure;
+                } else seaLevelPressure = "10" + slPressure;
             }
             conversion = Utilities.conversion(true,
                                     seaLevelPressure.substring(0,seaLevelPressure.indexOf(".")),
@@ -497,10 +579,7 @@ public class METARDecoder {
         }
         catch (NumberFormatException ignored) { }
 
-        return "%INITSea-level pressure: %VALUE%CONVERSION Beware of the possible difference with QNH!"
-                .replace("%INIT", init)
-                .replace("%VALUE", seaLevelPressure)
-                .replace("%CONVERSION", conversion);
+        return seaLevelPressureTemplate.render(init, seaLevelPressure, conversion);
     }
 
     /**
@@ -513,17 +592,15 @@ public class METARDecoder {
     * @return           Wind shear warning explanation.
     */
     private static @NotNull String windshearWarning(@NotNull String token, boolean tokenPrint) {
-        String init = initTokenDecoder(token, METARDecoder.windshrPttrn, tokenPrint);
+        String init = initTokenDecoder(token, WeatherLexer.windshrPttrn, tokenPrint);
 
         String runway;
         if (token.contains("ALL"))
             runway = "all runways.";
         else
-            runway = "runway %s".replace("%s", token.substring(token.indexOf("Y") + 1));
+            runway = windshearRunwayTemplate.render(token.substring(token.indexOf("Y") + 1));
 
-        return "%INITWARNING! WINDSHEAR was detected on %RUNWAY."
-               .replace("%INIT", init)
-               .replace("%RUNWAY", runway);
+        return windshearTemplate.render(init, runway);
     }
 
     /**
@@ -536,13 +613,12 @@ public class METARDecoder {
      * @return           The information about pressure using correct units.
      */
     private static @NotNull String pressure(@NotNull String token, boolean tokenPrint) {
-        String init = initTokenDecoder(token, METARDecoder.pressurePttrn, tokenPrint);
+        String init = initTokenDecoder(token, WeatherLexer.pressurePttrn, tokenPrint);
 
         String  value = token.substring(1),
                 unit  = token.startsWith("Q") ? "hPa" : "inches";
         if ("////".equals(value)) {
-            return "%INITSea-level pressure (QNH): Pressure not available."
-                    .replace("%INIT",init);
+            return pressureMissingTemplate.render(init);
         }
 
         String  conversion = "hPa".equals(unit)
@@ -550,16 +626,10 @@ public class METARDecoder {
                                 : Utilities.conversion(true,value,inchTohPa,"hPa");
 
         if ("inches".equals(unit)) {
-            value = "%fP.%sP"
-                   .replace("%fP", value.substring(0,2))
-                   .replace("%sP", value.substring(2));
+            value = value.substring(0, 2) + "." + value.substring(2);
         }
 
-        return "%INITSea-level pressure (QNH): %VALUE %UNIT%CONVERSION."
-                .replace("%INIT", init)
-                .replace("%VALUE", value)
-                .replace("%UNIT", unit)
-                .replace("%CONVERSION", conversion);
+        return pressureTemplate.render(init, value, unit, conversion);
     }
 
     /**
@@ -573,16 +643,13 @@ public class METARDecoder {
      *                   units.
      */
     private static @NotNull String verticalVisibility(@NotNull String token, boolean tokenPrint) {
-        String init = initTokenDecoder(token, METARDecoder.vrtclVisPttrn, tokenPrint);
+        String init = initTokenDecoder(token, WeatherLexer.vrtclVisPttrn, tokenPrint);
 
         String  value = token.substring(2,5),
                 conversion = Utilities.conversion(true,value,100,"meters");
 
 
-        return "%INITVertical visibility: %VALUE feet%CONVERSION."
-                .replace("%INIT", init)
-                .replace("%VALUE", value)
-                .replace("%CONVERSION", conversion);
+        return verticalVisibilityTemplate.render(init, value, conversion);
     }
 
     /**
@@ -595,10 +662,10 @@ public class METARDecoder {
      * @return           The cloud information explanation.
      */
     private static @NotNull String cloudLayer(@NotNull String token, boolean tokenPrint) {
-        String init = initTokenDecoder(token, METARDecoder.cloudPttrn, tokenPrint);
+        String init = initTokenDecoder(token, WeatherLexer.cloudPttrn, tokenPrint);
 
         assert token.length() >= 6;
-        String layerType = metarDict.get(token.substring(0, 3));
+        String layerType = METARDictionary.get(token.substring(0, 3));
         if (layerType == null) layerType = "unknown layer type";
         String  height      = token.substring(3,6),
                 layerHeight = Utilities.unitsConverter(height,100), //i.e. BKN030 means broken at 3000 feet
@@ -619,12 +686,7 @@ public class METARDecoder {
                 break;
         }
 
-        return "%INITClouds: A %LAYER detected at %HEIGHT feet%CONVERSION above aerodrome level%APPENDIX"
-                .replace("%INIT", init)
-                .replace("%LAYER",layerType)
-                .replace("%HEIGHT", layerHeight)
-                .replace("%CONVERSION", conversion)
-                .replace("%APPENDIX", appendix);
+        return cloudTemplate.render(init, layerType, layerHeight, conversion, appendix);
     }
 
     /**
@@ -637,31 +699,20 @@ public class METARDecoder {
      * @return           Decoded temperature.
      */
     private static @NotNull String temperature(@NotNull String token, boolean tokenPrint) {
-        String init = initTokenDecoder(token, METARDecoder.tempPttrn, tokenPrint);
+        String init = initTokenDecoder(token, WeatherLexer.tempPttrn, tokenPrint);
 
         if (token.equals("/////"))
-            return "%INITTemperature: Temperature is not available."
-                   .replace("%INIT",init);
+            return temperatureMissingTemplate.render(init);
 
+        String   unit    = "degrees";
         String[] temps   = token.split("/",-1);
-        String   temp    = temps[0].startsWith("M")
-                                ? "%TEMP %UNIT."
-                                  .replace("%TEMP",temps[0].replace("M", "-"))
-                                : temps[0].isBlank()
-                                    ? "Temperature not available."
-                                    : "%TEMP %UNIT.".replace("%TEMP", temps[0]),
-                dewPoint = temps[1].startsWith("M")
-                                ? "%TEMP %UNIT."
-                                  .replace("%TEMP",temps[1].replace("M","-"))
-                                : temps[1].isBlank()
-                                        ? "Dewpoint not available."
-                                        : "%DEW %UNIT.".replace("%DEW", temps[1]);
-        String  unit = "degrees";
-        return "%INITTemperature: %TEMP\nDewpoint   : %DEWPOINT"
-                .replace("%INIT", init)
-                .replace("%TEMP", temp)
-                .replace("%DEWPOINT", dewPoint)
-                .replaceAll("%UNIT", unit);
+        String   temp    = temps[0].isBlank()
+                                ? "Temperature not available."
+                                : temperatureValueTemplate.render(temps[0].replace("M", "-"), unit),
+                dewPoint = temps[1].isBlank()
+                                ? "Dewpoint not available."
+                                : temperatureValueTemplate.render(temps[1].replace("M", "-"), unit);
+        return temperatureTemplate.render(init, temp, dewPoint);
     }
 
     /**
@@ -676,16 +727,16 @@ public class METARDecoder {
      * @return           The wind variation explanation.
      */
     private static @NotNull String weatherPhenomena(@NotNull String token, boolean recentWeather, boolean tokenPrint) {
-        String init = initTokenDecoder(token, METARDecoder.weatherPttrn, tokenPrint);
+        String init = initTokenDecoder(token, WeatherLexer.weatherPttrn, tokenPrint);
 
         String modifier, tokenBUp = token;
         switch (token.charAt(0)) {
             case '+':
-                modifier = metarDict.get("+");
+                modifier = METARDictionary.get("+");
                 token = token.substring(1);
                 break;
             case '-':
-                modifier = metarDict.get("-");
+                modifier = METARDictionary.get("-");
                 token = token.substring(1);
                 break;
             default:
@@ -694,7 +745,7 @@ public class METARDecoder {
                 break;
         }
 
-        String  phenomenon = metarDict.get(token),
+        String  phenomenon = METARDictionary.get(token),
                 recent     = recentWeather ? "Recent " : "",
                 weatherKey = "Weather: ";
         StringBuilder sb = new StringBuilder();
@@ -703,7 +754,7 @@ public class METARDecoder {
         if (phenomenon == null) {
             for (int i = 0; i < token.length() / 2; i++) {
                 String  phenomenKey   = token.substring(2*i, 2*(i+1)),
-                        phenomenValue = metarDict.get(phenomenKey);
+                        phenomenValue = METARDictionary.get(phenomenKey);
                 if (phenomenValue != null) {
                     sb.append(phenomenValue).append(" ");
                 } else isUnknown = true;
@@ -714,13 +765,7 @@ public class METARDecoder {
             }
             phenomenon = sb.toString().strip();
         }
-        return "%INIT%RECENT%WEATHER%TOKENB = %MODIFIER %PHENOMENON."
-                .replace("%WEATHER",weatherKey)
-                .replaceFirst("%INIT",init)
-                .replace("%TOKENB",tokenBUp)
-                .replace("%RECENT", recent)
-                .replace("%MODIFIER", modifier)
-                .replace("%PHENOMENON",phenomenon);
+        return weatherTemplate.render(init, recent, weatherKey, tokenBUp, modifier, phenomenon);
     }
 
     /**
@@ -734,7 +779,7 @@ public class METARDecoder {
      * @return           The translation of at-runway level visibility information.
      */
     private static @NotNull String rvrVisibility(@NotNull String token, boolean tokenPrint) {
-        String init = initTokenDecoder(token, METARDecoder.rvrPttrn, tokenPrint);
+        String init = initTokenDecoder(token, WeatherLexer.rvrPttrn, tokenPrint);
 
         int    slash      = token.indexOf('/');
         String rwyID      = token.substring(1, slash),
@@ -752,7 +797,7 @@ public class METARDecoder {
                 break;
             default:
                 if (token.substring(slash)
-                         .matches("/" + vartnPttrn + ".*")) {
+                         .matches("/" + WeatherLexer.vartnPttrn.pattern() + ".*")) {
                     int _V = token.indexOf('V');
                     String modifier1 = "";
                     if (token.charAt(_V + 1) == 'P') {
@@ -767,22 +812,17 @@ public class METARDecoder {
                            sVis = token.substring(_V + 1, _V + 5);   // to have format nnnnVnnnn where n = [0-9]
 
                     String varConversion = "feet".equals(units)
-                            ? "%FCONV and%SCONV"
-                              .replace("%FCONV",Utilities.conversion(true,
-                                                                                     fVis,
-                                                                                     ftToM,
-                                                                                     "meters"))
-                              .replace("%SCONV",Utilities.conversion(true,
-                                                                                      sVis,
-                                                                                      ftToM,
-                                                                                      "meters"))
+                            ? rvrConversionTemplate.render(Utilities.conversion(true,
+                                                                                fVis,
+                                                                                ftToM,
+                                                                                "meters"),
+                                                           Utilities.conversion(true,
+                                                                                sVis,
+                                                                                ftToM,
+                                                                                "meters"))
                             : "";
 
-                    modifier = "variable between %FVIS %UNIT and %MOD1%SVIS %UNIT%VARCONV"
-                                .replace("%MOD1",modifier1)
-                                .replace("%FVIS", fVis)
-                                .replace("%SVIS", sVis)
-                                .replace("%VARCONV", varConversion);
+                    modifier = rvrVariableTemplate.render(fVis, units, modifier1, sVis, varConversion);
                 }
                 break;
         }
@@ -798,14 +838,7 @@ public class METARDecoder {
                 ? Utilities.conversion(!value.isBlank(), value, ftToM, "meters")
                 : "";
 
-        return "%INITRunway %RUNWAY, touchdown zone visual range is %MODIFIER%VALUE %UNIT%CONVERSION and %TREND is expected."
-               .replace("%INIT", init)
-               .replace("%RUNWAY",rwyID)
-               .replace("%MODIFIER", modifier)
-               .replace("%VALUE", value)
-               .replaceAll("%UNIT", units)
-               .replace("%CONVERSION", conversion)
-               .replace("%TREND", trend);
+        return rvrTemplate.render(init, rwyID, modifier, value, units, conversion, trend);
     }
 
     /**
@@ -818,14 +851,12 @@ public class METARDecoder {
      * @return           The information about visibility using correct units.
      */
     private static @NotNull String visibility(@NotNull String token, boolean tokenPrint) {
-        String init = initTokenDecoder(token, METARDecoder.vsbltyPttrn, tokenPrint);
+        String init = initTokenDecoder(token, WeatherLexer.vsbltyPttrn, tokenPrint);
 
         if (token.equals("9999"))
-            return "%INITVisibility: The visibility is 10 km or more."
-                    .replace("%INIT",init);
+            return visibilityMaximumTemplate.render(init);
         if (token.equals("0000"))
-            return "%INITVisibility: The visibility is 50 meters or less."
-                    .replace("%INIT", init);
+            return visibilityMinimumTemplate.render(init);
 
         int smIndex = token.indexOf("SM");
         String visibility;
@@ -835,19 +866,14 @@ public class METARDecoder {
             if (token.startsWith("0")) {
                 token = token.substring(1);
             }
-            visibility = "%s meters".replace("%s",
-                                             token);
+            visibility = visibilityMetersTemplate.render(token);
         }
         else {
-            visibility =
-                "%VISIB %UNIT"
-                .replace("%VISIB", token.substring(0, smIndex))
-                .replace("%UNIT", metarDict.get("SM"));
+            visibility = visibilityValueTemplate.render(token.substring(0, smIndex),
+                                                        METARDictionary.get("SM"));
         }
 
-        return "%INITMaximum horizontal visibility: %VISIBILITY."
-                .replace("%INIT", init)
-                .replace("%VISIBILITY", visibility);
+        return visibilityTemplate.render(init, visibility);
     }
 
     /**
@@ -861,13 +887,13 @@ public class METARDecoder {
      * @return           {@code token} with added explanation.
      */
     private static @NotNull String windDirSpd(@NotNull String token, boolean tokenPrint) {
-        String init = initTokenDecoder(token, METARDecoder.windPttrn, tokenPrint);  //normally the pattern is dddssUU(U) or dddssGssUU(U) where d -> direction, s -> speed and U -> unit char
+        String init = initTokenDecoder(token, WeatherLexer.windPttrn, tokenPrint);  //normally the pattern is dddssUU(U) or dddssGssUU(U) where d -> direction, s -> speed and U -> unit char
 
         if (token.equalsIgnoreCase("00000KT"))
-            return "%TOKEN: The wind is calm.".replace("%TOKEN", token);
+            return calmWindTemplate.render(token);
 
         String spdUnit = token.contains("KT")
-                ? metarDict.get("KT")
+                ? METARDictionary.get("KT")
                 : "meters per second";
         boolean conversionNeeded = "knots".equals(spdUnit);
         String  windDirection = token.startsWith("VRB")
@@ -875,23 +901,198 @@ public class METARDecoder {
                 : "blows from " + token.substring(0, 3) + " degrees";         // the substring is the direction 000 - 360
         String  windSpeed   = token.substring(3, 5),                          // the substring is the wind speed
                 gusts = token.contains("G")
-                        ? " with gusts of %GUSTS %UNIT%CONVERSION"
-                          .replace("%GUSTS",token.substring(6, 8))
-                          .replace("%UNIT", spdUnit)
-                          .replace("%CONVERSION", Utilities.conversion(conversionNeeded,token.substring(6, 8), knotsToKmH, "km/h"))
+                        ? gustsTemplate.render(token.substring(6, 8),
+                                               spdUnit,
+                                               Utilities.conversion(conversionNeeded,token.substring(6, 8), knotsToKmH, "km/h"))
                         : "";
         String conversion =
                 conversionNeeded
                     ? Utilities.conversion(true,windSpeed, knotsToKmH, "km/h")
                     : "";
 
-        return "%INITWind: The wind %DIRECTION at %SPEED %UNIT%CONVERSION%GUSTS."
-                .replace("%INIT",  init)
-                .replace("%DIRECTION", windDirection)
-                .replace("%SPEED", windSpeed)
-                .replace("%UNIT", spdUnit)
-                .replace("%CONVERSION", conversion)
-                .replace("%GUSTS", gusts);
+        return windTemplate.render(init, windDirection, windSpeed, spdUnit, conversion, gusts);
+    }
+
+    /**
+     * Finds the wind token in the METAR and converts it to the {@link Wind}
+     * object. The wind speeds given in meters per second are converted to knots.
+     *
+     * @param metar The METAR unit (without the .csv metadata) to be searched.
+     * @return The wind reported in the METAR, or {@code null} if the METAR does
+     *         not contain any wind information.
+     */
+    public static @Nullable Wind decodeWind(@NotNull String metar) {
+        for (String token : metar.split("\\s+")) {
+            if (WeatherLexer.classify(token, WeatherLexer.Mode.METAR) == WeatherLexer.TokenType.WIND) {
+                return windFromToken(token);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Converts the wind token to the {@link Wind} object.
+     *
+     * @param token The token of the {@link WeatherLexer.TokenType#WIND} type.
+     * @return The wind described by the token with the speeds in knots.
+     */
+    public static @NotNull Wind windFromToken(@NotNull String token) {
+        double unit = token.endsWith("MPS") ? mpsToKnots : 1;
+        int direction = token.startsWith("VRB")
+                        ? Wind.VARIABLE
+                        : Integer.parseInt(token.substring(0, 3));
+        double speed = Integer.parseInt(token.substring(3, 5)) * unit,
+               gust  = token.charAt(5) == 'G'
+                       ? Integer.parseInt(token.substring(6, 8)) * unit
+                       : Double.NaN;
+        return new Wind(direction, speed, gust);
+    }
+
+    /**
+     * Extracts the weather conditions from the classified tokens of a METAR or
+     * of a TAF group. Only the values present in the tokens are set, the others
+     * remain unknown.
+     *
+     * @param tokens The tokens to be inspected.
+     * @return The weather conditions described by the tokens.
+     */
+    public static @NotNull WeatherConditions decodeConditions(@NotNull List<WeatherLexer.Token> tokens) {
+        Wind wind = null;
+        double visibility = Double.NaN,
+               ceiling    = Double.NaN;
+        List<String> phenomena = null;
+        boolean windshear = false;
+
+        for (WeatherLexer.Token token : tokens) {
+            String text = token.getText();
+            switch (token.getType()) {
+                case WIND:
+                    wind = windFromToken(text);
+                    break;
+                case VISIBILITY:
+                    double vis = visibilityInMeters(text);
+                    // the lowest value is the prevailing one in the case of directional visibility
+                    if (Double.isNaN(visibility) || vis < visibility) visibility = vis;
+                    break;
+                case CLOUD:
+                case VERTICAL_VISIBILITY:
+                    if (Double.isNaN(ceiling)) ceiling = Double.POSITIVE_INFINITY;
+                    if (text.startsWith("BKN") || text.startsWith("OVC") || text.startsWith("VV")) {
+                        int start = text.startsWith("VV") ? 2 : 3;
+                        ceiling = Math.min(ceiling,
+                                           Integer.parseInt(text.substring(start, start + 3)) * 100);
+                    }
+                    break;
+                case WEATHER:
+                case WORD:
+                    switch (text) {
+                        case "CAVOK":
+                            visibility = 10000;
+                            ceiling = Double.POSITIVE_INFINITY;
+                            if (phenomena == null) phenomena = new ArrayList<>();
+                            break;
+                        case "NSW":
+                            phenomena = new ArrayList<>();
+                            break;
+                        case "NSC":
+                        case "NCD":
+                        case "SKC":
+                        case "CLR":
+                            if (Double.isNaN(ceiling)) ceiling = Double.POSITIVE_INFINITY;
+                            break;
+                        default:
+                            if (WeatherLexer.isPhenomenon(text)) {
+                                if (phenomena == null) phenomena = new ArrayList<>();
+                                phenomena.add(text);
+                            }
+                            break;
+                    }
+                    break;
+                case WINDSHEAR:
+                    windshear = true;
+                    break;
+                default:
+                    break;
+            }
+        }
+        return new WeatherConditions(wind, visibility, ceiling, phenomena, windshear);
+    }
+
+    /**
+     * Decodes one METAR entry in the .csv format of the provider into the
+     * {@link Observation} object.
+     *
+     * @param csvEntry The METAR and its metadata in .csv format, i.e.
+     *                 "ICAO,year,month,day,hour,minute,report".
+     * @return The decoded observation, or {@code null} if the entry is not
+     *         correct or the report is "NIL".
+     */
+    public static @Nullable Observation decodeObservation(@NotNull String csvEntry) {
+        String[] fields = csvEntry.split(",", 7);
+        if (fields.length < 7) return null;
+        String report = fields[6].replace("=", "").strip();
+        String[] parts = report.split("\\s+");
+        if (parts.length < 3 || report.endsWith("NIL")) return null;
+        try {
+            ZonedDateTime time = ZonedDateTime.of(Integer.parseInt(fields[1].strip()),
+                                                  Integer.parseInt(fields[2].strip()),
+                                                  Integer.parseInt(fields[3].strip()),
+                                                  Integer.parseInt(fields[4].strip()),
+                                                  Integer.parseInt(fields[5].strip()),
+                                                  0, 0, ZoneOffset.UTC);
+            String type = "SPECI".equals(parts[0]) ? "SPECI" : "METAR";
+            WeatherConditions conditions =
+                    decodeConditions(WeatherLexer.tokenize(parts, 3, WeatherLexer.Mode.METAR));
+            return new Observation(fields[0].strip(), type, time, conditions, report);
+        } catch (NumberFormatException | DateTimeException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Converts the visibility token to meters.
+     *
+     * @param token The token of the {@link WeatherLexer.TokenType#VISIBILITY}
+     *              type, e.g. "0800", "9999" or "1 1/4SM".
+     * @return The visibility in meters, or {@code NaN} if the token can not be
+     *         converted.
+     */
+    static double visibilityInMeters(@NotNull String token) {
+        final double metersPerSM = 1609.344;
+        if (!token.endsWith("SM")) {
+            return "9999".equals(token) ? 10000 : Utilities.parseDouble(token);
+        }
+        double miles = 0;
+        for (String part : token.substring(0, token.length() - 2).split(" ")) {
+            int slash = part.indexOf('/');
+            if (slash > 0) {
+                miles += Utilities.parseDouble(part.substring(0, slash)) /
+                         Utilities.parseDouble(part.substring(slash + 1));
+            } else {
+                miles += Utilities.parseDouble(part);
+            }
+        }
+        return miles * metersPerSM;
+    }
+
+    /**
+     * Reads the file downloaded by {@link Downloader} and returns the most
+     * recent METAR which is not "NIL".
+     *
+     * @param metarFile The downloaded .csv file with METAR entries.
+     * @return The most recent METAR unit without its .csv metadata, or
+     *         {@code null} if no such METAR is available.
+     */
+    public static @Nullable String latestMETAR(@NotNull File metarFile) {
+        List<String> allMETARs = readInReverseOrder(metarFile);
+        if (allMETARs == null) return null;
+        for (String entry : allMETARs) {
+            String[] fields = entry.split(",", 7);
+            if (fields.length < 7) continue;
+            String metar = fields[6].replace("=", "").strip();
+            if (!metar.endsWith("NIL")) return metar;
+        }
+        return null;
     }
 
     /**
@@ -904,48 +1105,13 @@ public class METARDecoder {
      * @return           {@code String} which explains the wind variation.
      */
     private static @NotNull String windVariation(@NotNull String token, boolean tokenPrint) {
-        String init = initTokenDecoder(token, METARDecoder.vartnPttrn, tokenPrint);
+        String init = initTokenDecoder(token, WeatherLexer.vartnPttrn, tokenPrint);
 
         int vPos = token.indexOf("V");
         String  firstWind   = token.substring(0, vPos),
                 secondWind  = token.substring(vPos + 1);
 
-        return "%INITVariable wind: The wind direction varies between %FWIND degrees and %SWIND degrees.\n"
-                .replace("%INIT", init)
-                .replace("%FWIND", firstWind)
-                .replace("%SWIND", secondWind) +
-               "The wind direction has varied by 60 degrees or more in last 10 minutes with the mean speed exceeding 3 knots.";
-    }
-
-    /**
-     * Checks whether the dictionary with METAR terminology already exists.
-     * If it does not, then reads the .txt file containing the dictionary with
-     * specified terminology and creates {@code Map<String,String> metarDict} map.
-     *
-     * @see #metarDict
-     *
-     * @return The exit code of the action. Any non-zero code means that an issue
-     *         has occurred.
-     */
-    private static int checkAndSetMetarDict() {
-        if (metarDict.isEmpty()) {
-            File metarDictLocation = FilesHandler.findResource("metarDictionary.txt");
-            if (metarDictLocation == null) {
-                System.err.println("The resource was not found.\n");
-                return 1;
-            }
-            try (BufferedReader br = new BufferedReader(new FileReader(metarDictLocation))) {
-                String dictEntry;
-                while ((dictEntry = br.readLine()) != null) {
-                    String[] tokens = dictEntry.split("=");
-                    metarDict.put(tokens[0], tokens[1]);
-                }
-            } catch (IOException ex) {
-                System.err.println("Something went wrong while reading the METAR dictionary file.");
-                return 1;
-            }
-        }
-        return 0;
+        return windVariationTemplate.render(init, firstWind, secondWind);
     }
 
     /**
@@ -958,10 +1124,9 @@ public class METARDecoder {
      * @return           The "init" value for each token. It is either an empty
      *                   string or a highlighted token.
      */
-    private static @NotNull String initTokenDecoder(@NotNull String token, @NotNull String pattern, boolean tokenPrint) {
+    private static @NotNull String initTokenDecoder(@NotNull String token, @NotNull Pattern pattern, boolean tokenPrint) {
         String result = "";
-        assert token.matches(pattern);
-        checkAndSetMetarDict();
+        assert pattern.matcher(token).matches();
         if (tokenPrint) {
             return Utilities.sectionSeparator(token) + "\n";
         }
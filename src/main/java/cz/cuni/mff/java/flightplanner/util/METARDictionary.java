@@ -0,0 +1,170 @@
+package cz.cuni.mff.java.flightplanner.util;
+
+import java.io.*;
+import java.util.*;
+
+/**
+ * The immutable dictionary of the METAR terminology read from the
+ * "metarDictionary.txt" resource. The dictionary is loaded only once, when it is
+ * first used, by the class initialization of the holder class, which makes the
+ * lazy loading thread-safe without any check on each lookup.
+ * The keys are deduplicated (the later definition wins, as it did with the
+ * former map) and placed into a table addressed by a minimal perfect hash
+ * function built by the "hash and displace" method. A lookup is then one hash
+ * computation per bucket and slot and a single key comparison.
+ */
+public final class METARDictionary {
+
+    private static final String resourceName = "metarDictionary.txt";
+    private static final int maxDisplacement = 1 << 20;
+
+    /**
+     * The initialization-on-demand holder of the loaded dictionary.
+     */
+    private static class Holder {
+        private static final METARDictionary instance = load();
+    }
+
+    private final String[] keys, values;
+    private final int[] displacements;
+    private final boolean available;
+
+    private METARDictionary(@NotNull Map<String, String> entries, boolean available) {
+        int n = entries.size();
+        this.available = available;
+        this.keys = new String[n];
+        this.values = new String[n];
+        this.displacements = new int[Math.max(1, n / 2)];
+        if (n > 0) build(entries);
+    }
+
+    /**
+     * Looks up the meaning of the abbreviation.
+     *
+     * @param key The abbreviation to be searched for.
+     * @return The meaning of the abbreviation, or {@code null} if the dictionary
+     *         does not contain it.
+     */
+    public static @Nullable String get(@NotNull String key) {
+        return Holder.instance.lookup(key);
+    }
+
+    /**
+     * @return The flag indicating that the dictionary resource was loaded
+     *         successfully. The first invocation triggers the loading.
+     */
+    public static boolean isAvailable() {
+        return Holder.instance.available;
+    }
+
+    /**
+     * @return The number of the distinct abbreviations in the dictionary.
+     */
+    public static int size() {
+        return Holder.instance.keys.length;
+    }
+
+    private @Nullable String lookup(@NotNull String key) {
+        if (keys.length == 0) return null;
+        int bucket = Integer.remainderUnsigned(hash(key, 0), displacements.length),
+            slot   = Integer.remainderUnsigned(hash(key, displacements[bucket]), keys.length);
+        return key.equals(keys[slot]) ? values[slot] : null;
+    }
+
+    /**
+     * Builds the minimal perfect hash. The keys are distributed into buckets by
+     * the first hash function, then the buckets are processed from the largest
+     * one and for each of them the smallest displacement is searched for which
+     * places all of its keys into distinct free slots.
+     */
+    private void build(@NotNull Map<String, String> entries) {
+        int bucketCount = displacements.length;
+        List<List<String>> buckets = new ArrayList<>(bucketCount);
+        for (int i = 0; i < bucketCount; i++) buckets.add(new ArrayList<>());
+        for (String key : entries.keySet()) {
+            buckets.get(Integer.remainderUnsigned(hash(key, 0), bucketCount)).add(key);
+        }
+        Integer[] order = new Integer[bucketCount];
+        for (int i = 0; i < bucketCount; i++) order[i] = i;
+        Arrays.sort(order, (a, b) -> buckets.get(b).size() - buckets.get(a).size());
+
+        boolean[] occupied = new boolean[keys.length];
+        int[] slots = new int[0];
+        for (int bucket : order) {
+            List<String> members = buckets.get(bucket);
+            if (members.isEmpty()) break;
+            if (slots.length < members.size()) slots = new int[members.size()];
+            int displacement = 1;
+            search:
+            while (true) {
+                if (displacement > maxDisplacement) {
+                    throw new IllegalStateException("The perfect hash of the METAR dictionary could not be built.");
+                }
+                for (int i = 0; i < members.size(); i++) {
+                    int slot = Integer.remainderUnsigned(hash(members.get(i), displacement), keys.length);
+                    if (occupied[slot]) {
+                        displacement++;
+                        continue search;
+                    }
+                    for (int j = 0; j < i; j++) {
+                        if (slots[j] == slot) {
+                            displacement++;
+                            continue search;
+                        }
+                    }
+                    slots[i] = slot;
+                }
+                break;
+            }
+            displacements[bucket] = displacement;
+            for (int i = 0; i < members.size(); i++) {
+                occupied[slots[i]] = true;
+                keys[slots[i]] = members.get(i);
+                values[slots[i]] = entries.get(members.get(i));
+            }
+        }
+    }
+
+    /**
+     * The seeded FNV-1a hash of the key followed by the final mixing step of
+     * the MurmurHash3, which spreads the short abbreviations well enough.
+     */
+    private static int hash(@NotNull String key, int seed) {
+        int h = 0x811C9DC5 ^ (seed * 0x9E3779B9);
+        for (int i = 0; i < key.length(); i++) {
+            h = (h ^ key.charAt(i)) * 0x01000193;
+        }
+        h ^= h >>> 16;
+        h *= 0x85EBCA6B;
+        h ^= h >>> 13;
+        h *= 0xC2B2AE35;
+        return h ^ (h >>> 16);
+    }
+
+    /**
+     * Reads the dictionary resource. Each line has the "KEY=meaning" format.
+     *
+     * @return The loaded dictionary, or an empty unavailable dictionary if the
+     *         resource could not be read.
+     */
+    private static @NotNull METARDictionary load() {
+        BufferedReader reader = ResourceLocator.openReader(resourceName);
+        if (reader == null) {
+            System.err.println("The resource was not found.\n");
+            return new METARDictionary(Map.of(), false);
+        }
+        Map<String, String> entries = new LinkedHashMap<>();
+        try (BufferedReader br = reader) {
+            String dictEntry;
+            while ((dictEntry = br.readLine()) != null) {
+                int separator = dictEntry.indexOf('=');
+                if (separator <= 0) continue;
+                entries.put(dictEntry.substring(0, separator), dictEntry.substring(separator + 1));
+            }
+        } catch (IOException ex) {
+            System.err.println("Something went wrong while reading the METAR dictionary file.");
+            return new METARDictionary(Map.of(), false);
+        }
+        return new METARDictionary(entries, true);
+    }
+}
@@ -0,0 +1,263 @@
+package cz.cuni.mff.java.flightplanner.util;
+
+import cz.cuni.mff.java.flightplanner.dataobject.Observation;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.function.Consumer;
+
+/**
+ * The METARWatcher class polls the METAR provider for a set of stations on a
+ * schedule and reports only the significant changes of the weather. Each poll
+ * fetches only the reports newer than the last report seen at the station and
+ * decodes just these new reports. The first poll of a station only records
+ * its latest report as the baseline of the changes, the older reports are not
+ * reported. A single scheduler thread drives the polling and fans the
+ * fetching and decoding out to a pool of workers. Only the last observation
+ * of each station is kept, so the memory used does not grow with the time the
+ * watcher runs.
+ */
+public class METARWatcher {
+
+    /**
+     * The kind of the reported change.
+     */
+    public enum ChangeKind {
+        /** A new special (unscheduled) report was issued. */
+        NEW_SPECI,
+        /** The flight category of the station changed. */
+        CATEGORY_CHANGE,
+        /** The windshear was newly reported. */
+        WINDSHEAR
+    }
+
+    /**
+     * The significant change of the weather at a station.
+     */
+    public static class WeatherChange {
+        private final ChangeKind kind;
+        private final Observation previous, current;
+
+        WeatherChange(@NotNull ChangeKind kind, @NotNull Observation previous, @NotNull Observation current) {
+            this.kind = kind;
+            this.previous = previous;
+            this.current = current;
+        }
+
+        /**
+         * @return The kind of the change.
+         */
+        public ChangeKind getKind() {
+            return kind;
+        }
+
+        /**
+         * @return The last observation before the change.
+         */
+        public @NotNull Observation getPrevious() {
+            return previous;
+        }
+
+        /**
+         * @return The observation which contains the change.
+         */
+        public Observation getCurrent() {
+            return current;
+        }
+
+        @Override
+        public String toString() {
+            String description;
+            switch (kind) {
+                case NEW_SPECI:
+                    description = "New special report";
+                    break;
+                case CATEGORY_CHANGE:
+                    description = "Flight category changed from %PREV to %CURR"
+                                  .replace("%PREV", previous.getConditions().getFlightCategory().name())
+                                  .replace("%CURR", current.getConditions().getFlightCategory().name());
+                    break;
+                default:
+                    description = "WARNING! Windshear reported";
+                    break;
+            }
+            return "%ICAO %TIME: %DESCRIPTION: %RAW"
+                   .replace("%ICAO", current.getIcaoCode())
+                   .replace("%TIME", String.format("%02d%02dZ", current.getTime().getHour(),
+                                                   current.getTime().getMinute()))
+                   .replace("%DESCRIPTION", description)
+                   .replace("%RAW", current.getRaw());
+        }
+    }
+
+    /**
+     * How long {@link #stop()} waits for the running poll to finish.
+     */
+    private static final long stopTimeoutSeconds = 5;
+
+    private final List<String> stations;
+    private final Duration interval, lookback;
+    private final Downloader downloader;
+    private final Consumer<WeatherChange> listener;
+    private final int workerCount;
+    /**
+     * The last observation of each station. Accessed only by the scheduler thread.
+     */
+    private final Map<String, Observation> lastObservations = new HashMap<>();
+    private ScheduledExecutorService scheduler;
+    private ExecutorService workers;
+
+    /**
+     * @param stations    The ICAO codes of the stations to be watched.
+     * @param interval    The delay between the end of a poll and the start of
+     *                    the next one.
+     * @param lookback    How far to the past the first poll of a station looks
+     *                    for its latest report, the baseline of the changes.
+     * @param workerCount The number of the threads fetching and decoding the
+     *                    reports.
+     * @param downloader  The downloader used to fetch the reports.
+     * @param listener    The consumer of the changes. It is always invoked from
+     *                    the scheduler thread.
+     */
+    public METARWatcher(@NotNull Collection<String> stations, @NotNull Duration interval,
+                        @NotNull Duration lookback, int workerCount, @NotNull Downloader downloader,
+                        @NotNull Consumer<WeatherChange> listener) {
+        this.stations = List.copyOf(new LinkedHashSet<>(stations));
+        this.interval = interval;
+        this.lookback = lookback;
+        this.workerCount = Math.max(1, workerCount);
+        this.downloader = downloader;
+        this.listener = listener;
+    }
+
+    /**
+     * Starts the periodic polling. The first poll starts immediately.
+     */
+    public synchronized void start() {
+        if (scheduler != null) return;
+        scheduler = Executors.newSingleThreadScheduledExecutor(daemonFactory("metar-watch-scheduler"));
+        workers   = Executors.newFixedThreadPool(workerCount, daemonFactory("metar-watch-worker"));
+        ExecutorService pool = workers;
+        scheduler.scheduleWithFixedDelay(() -> poll(pool), 0, interval.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Stops the polling and waits at most {@value #stopTimeoutSeconds} seconds
+     * for the running poll to finish.
+     */
+    public synchronized void stop() {
+        if (scheduler == null) return;
+        scheduler.shutdownNow();
+        workers.shutdownNow();
+        try {
+            scheduler.awaitTermination(stopTimeoutSeconds, TimeUnit.SECONDS);
+        } catch (InterruptedException ignored) {
+            Thread.currentThread().interrupt();
+        }
+        scheduler = null;
+        workers = null;
+    }
+
+    /**
+     * Performs one poll of all stations. The new reports of each station are
+     * fetched and decoded by the workers, the changes are then detected and
+     * reported in the order of the stations and the observation times.
+     * <p>
+     * An unexpected error of one poll is reported and the next poll runs as
+     * scheduled, as the scheduler would otherwise cancel the polling silently.
+     *
+     * @param workers The pool fetching and decoding the reports.
+     */
+    void poll(@NotNull ExecutorService workers) {
+        try {
+            pollStations(workers);
+        } catch (RuntimeException e) {
+            System.err.println("The poll of the METARs failed (%ERROR), the stations will be polled again."
+                               .replace("%ERROR", e.toString()));
+        }
+    }
+
+    private void pollStations(@NotNull ExecutorService workers) {
+        ZonedDateTime now = ZonedDateTime.now(ZoneOffset.UTC);
+        Map<String, Future<List<Observation>>> pending = new LinkedHashMap<>();
+        for (String station : stations) {
+            Observation last = lastObservations.get(station);
+            ZonedDateTime from = last == null ? now.minus(lookback) : last.getTime().plusMinutes(1);
+            ZonedDateTime seen = last == null ? null : last.getTime();
+            try {
+                pending.put(station, workers.submit(() -> fetchNew(station, from, now, seen)));
+            } catch (RejectedExecutionException e) {
+                return;                                         // the watcher is being stopped
+            }
+        }
+        for (Map.Entry<String, Future<List<Observation>>> entry : pending.entrySet()) {
+            List<Observation> fresh;
+            try {
+                fresh = entry.getValue().get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (ExecutionException e) {
+                System.err.println("The METARs of %ICAO could not be fetched, the station will be polled again."
+                                   .replace("%ICAO", entry.getKey()));
+                continue;
+            }
+            Observation previous = lastObservations.get(entry.getKey());
+            if (previous == null) {
+                // the first poll of the station: the latest report is the baseline, not a change
+                if (!fresh.isEmpty()) lastObservations.put(entry.getKey(), fresh.get(fresh.size() - 1));
+                continue;
+            }
+            for (Observation current : fresh) {
+                // recorded first, so that a failing listener does not get the same change again
+                lastObservations.put(entry.getKey(), current);
+                detectChanges(previous, current);
+                previous = current;
+            }
+        }
+    }
+
+    /**
+     * Fetches the reports of the station and decodes only those newer than the
+     * last seen report.
+     *
+     * @return The new observations sorted by their time.
+     */
+    private @NotNull List<Observation> fetchNew(@NotNull String station, @NotNull ZonedDateTime from,
+                                                @NotNull ZonedDateTime to, @Nullable ZonedDateTime seen)
+            throws IOException {
+        List<Observation> result = new ArrayList<>();
+        for (String line : downloader.fetchMETARLines(from, to, station)) {
+            Observation observation = METARDecoder.decodeObservation(line);
+            if (observation != null && (seen == null || observation.getTime().isAfter(seen))) {
+                result.add(observation);
+            }
+        }
+        result.sort(Comparator.comparing(Observation::getTime));
+        return result;
+    }
+
+    private void detectChanges(@NotNull Observation previous, @NotNull Observation current) {
+        if (current.isSpecial()) {
+            listener.accept(new WeatherChange(ChangeKind.NEW_SPECI, previous, current));
+        }
+        if (previous.getConditions().getFlightCategory() != current.getConditions().getFlightCategory()) {
+            listener.accept(new WeatherChange(ChangeKind.CATEGORY_CHANGE, previous, current));
+        }
+        if (current.getConditions().isWindshear() && !previous.getConditions().isWindshear()) {
+            listener.accept(new WeatherChange(ChangeKind.WINDSHEAR, previous, current));
+        }
+    }
+
+    private static @NotNull ThreadFactory daemonFactory(@NotNull String name) {
+        return runnable -> {
+            Thread thread = new Thread(runnable, name);
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+}
@@ -0,0 +1,293 @@
+package cz.cuni.mff.java.flightplanner.util;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.net.MalformedURLException;
+import java.net.JarURLConnection;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.net.URLConnection;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileVisitOption;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.InvalidPathException;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.util.EnumSet;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The ResourceLocator class finds the resource files needed for the program to
+ * run correctly, e.g. the airports database. The resource is looked up in
+ * this order:
+ * <ol>
+ *     <li>in the directories given by the {@value #resourcesProperty} system
+ *         property or, if it is not set, by the {@value #resourcesVariable}
+ *         environment variable. Several directories are separated by the
+ *         {@link File#pathSeparator},</li>
+ *     <li>on the classpath, which includes the application JAR file,</li>
+ *     <li>as the last resort, in the "src/resources" and "src/main/resources"
+ *         directories of the working directory and then by one search of the
+ *         working directory limited to {@value #maxSearchDepth} levels.</li>
+ * </ol>
+ * The resolved location of each resource is remembered, so every resource is
+ * searched for at most once per run, including the unsuccessful searches.
+ * <p>
+ * The resources are read directly from their location as streams or
+ * channels. The large resources ({@value #mapThreshold} bytes or more) stored
+ * as plain files are memory-mapped instead. When the
+ * {@value #cacheProperty} system property or the {@value #cacheVariable}
+ * environment variable names a cache directory, the large resources packed
+ * in the JAR file are extracted there once and mapped as well. The extracted
+ * copy is reused by the following runs as long as the size and the
+ * modification time of the packed resource stay the same.
+ */
+public final class ResourceLocator {
+
+    public static final String resourcesProperty = "flightplanner.resources",
+                               resourcesVariable = "FLIGHTPLANNER_RESOURCES",
+                               cacheProperty = "flightplanner.resource-cache",
+                               cacheVariable = "FLIGHTPLANNER_RESOURCE_CACHE";
+    private static final int maxSearchDepth = 4,
+                             mapThreshold = 1 << 20;
+    private static final Map<String, Optional<URL>> locations = new ConcurrentHashMap<>();
+
+    private ResourceLocator() {
+    }
+
+    /**
+     * Finds the resource.
+     *
+     * @param resourceName The name of the resource file, e.g.
+     *                     "MRpLairportsDatabase.csv".
+     * @return The location of the resource, or {@code null} if it can not be
+     *         found.
+     */
+    public static @Nullable URL locate(@NotNull String resourceName) {
+        return locations.computeIfAbsent(resourceName, name -> Optional.ofNullable(resolve(name)))
+                        .orElse(null);
+    }
+
+    /**
+     * Opens the resource for reading. The resource is read directly from its
+     * location, so the resources packed inside the JAR file can be read as
+     * well. The large resources are read from their memory-mapped content
+     * when possible.
+     *
+     * @param resourceName The name of the resource file.
+     * @return The UTF-8 reader of the resource, or {@code null} if the resource
+     *         can not be found or opened. The error is reported to the user.
+     */
+    public static @Nullable BufferedReader openReader(@NotNull String resourceName) {
+        URL location = locate(resourceName);
+        if (location == null) {
+            System.err.println("Please check that the %FILE is on the classpath or in the directory given by the %PROPERTY property or the %VARIABLE variable."
+                               .replace("%FILE", resourceName)
+                               .replace("%PROPERTY", resourcesProperty)
+                               .replace("%VARIABLE", resourcesVariable));
+            return null;
+        }
+        try {
+            ByteBuffer mapped = map(location, resourceName);
+            InputStream in = mapped != null ? new ByteBufferInputStream(mapped) : location.openStream();
+            return new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+        } catch (IOException e) {
+            System.err.println("The resource %URL could not be opened."
+                               .replace("%URL", location.toString()));
+            return null;
+        }
+    }
+
+    /**
+     * Maps the large resource into the memory. The small resources are not
+     * mapped, since reading them is cheaper than mapping.
+     *
+     * @return The read-only mapped content, or {@code null} if the resource is
+     *         small or it is packed and no cache directory is configured.
+     */
+    private static @Nullable ByteBuffer map(@NotNull URL location, @NotNull String resourceName)
+            throws IOException {
+        Path file = filePath(location);
+        if (file == null) file = extract(location, resourceName);
+        if (file == null || Files.size(file) < mapThreshold) return null;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            return channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+    }
+
+    /**
+     * Extracts the packed resource into the cache directory, unless an up to
+     * date copy is already there. The copy is up to date if it has the same
+     * modification time and the same size as the resource; if the size of the
+     * resource is not known, the modification time alone decides. The copy is
+     * written into a temporary file first and then moved, so the concurrent
+     * runs never see a partial copy.
+     *
+     * @return The extracted copy, or {@code null} if no cache directory is
+     *         configured or the resource is small.
+     */
+    private static @Nullable Path extract(@NotNull URL location, @NotNull String resourceName) throws IOException {
+        String cache = System.getProperty(cacheProperty);
+        if (cache == null) cache = System.getenv(cacheVariable);
+        if (cache == null || cache.isBlank()) return null;
+
+        URLConnection connection = location.openConnection();
+        long size = connection.getContentLengthLong(),
+             modified = connection.getLastModified();
+        if (size < 0 && connection instanceof JarURLConnection) {
+            // the content length of a JAR entry is not always known, its size
+            // in the central directory of the archive is
+            size = ((JarURLConnection) connection).getJarEntry().getSize();
+        }
+        if (size >= 0 && size < mapThreshold) return null;
+
+        Path directory = Path.of(cache.strip()),
+             copy = directory.resolve(Path.of(resourceName).getFileName());
+        if (Files.isRegularFile(copy) && Files.getLastModifiedTime(copy).toMillis() == modified &&
+            (size >= 0 ? Files.size(copy) == size : modified > 0)) {
+            return copy;
+        }
+        Files.createDirectories(directory);
+        Path temporary = Files.createTempFile(directory, resourceName, ".part");
+        try (InputStream in = connection.getInputStream()) {
+            long copied = Files.copy(in, temporary, StandardCopyOption.REPLACE_EXISTING);
+            if (size >= 0 && copied != size) {
+                throw new IOException("The resource %URL was not extracted completely."
+                                      .replace("%URL", location.toString()));
+            }
+            Files.setLastModifiedTime(temporary, FileTime.fromMillis(modified));
+            Files.move(temporary, copy, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temporary);
+        }
+        return copy;
+    }
+
+    private static @Nullable Path filePath(@NotNull URL location) {
+        if (!"file".equals(location.getProtocol())) return null;
+        try {
+            return Path.of(location.toURI());
+        } catch (URISyntaxException | IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    private static @Nullable URL resolve(@NotNull String resourceName) {
+        String configured = System.getProperty(resourcesProperty);
+        if (configured == null) configured = System.getenv(resourcesVariable);
+        if (configured != null) {
+            for (String directory : configured.split(File.pathSeparator)) {
+                if (directory.isBlank()) continue;
+                URL found = fileURL(directory.strip(), resourceName);
+                if (found != null) return found;
+            }
+        }
+
+        ClassLoader loader = ResourceLocator.class.getClassLoader();
+        URL onClasspath = loader == null ? ClassLoader.getSystemResource(resourceName)
+                                         : loader.getResource(resourceName);
+        if (onClasspath != null) return onClasspath;
+
+        Path workingDir = Path.of(FilesHandler.pwd());
+        for (String directory : new String[] { "src/resources", "src/main/resources" }) {
+            URL found = fileURL(workingDir.resolve(directory).toString(), resourceName);
+            if (found != null) return found;
+        }
+        URL found = search(workingDir, resourceName);
+        if (found != null) {
+            System.err.println("Resource found at %PATH".replace("%PATH", found.toString()));
+        }
+        return found;
+    }
+
+    private static @Nullable URL fileURL(@NotNull String directory, @NotNull String resourceName) {
+        try {
+            Path candidate = Path.of(directory, resourceName);
+            return Files.isRegularFile(candidate) ? candidate.toUri().toURL() : null;
+        } catch (InvalidPathException | MalformedURLException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Walks the directory tree once and stops at the first file with the
+     * name of the resource. The directories which can not be read are
+     * skipped.
+     */
+    private static @Nullable URL search(@NotNull Path root, @NotNull String resourceName) {
+        Path[] result = new Path[1];
+        try {
+            Files.walkFileTree(root, EnumSet.noneOf(FileVisitOption.class), maxSearchDepth,
+                               new SimpleFileVisitor<>() {
+                @Override
+                public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) {
+                    Path name = dir.getFileName();
+                    return name != null && name.toString().startsWith(".") && !dir.equals(root)
+                           ? FileVisitResult.SKIP_SUBTREE
+                           : FileVisitResult.CONTINUE;
+                }
+
+                @Override
+                public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) {
+                    Path name = file.getFileName();
+                    if (attrs.isRegularFile() && name != null && name.toString().equals(resourceName)) {
+                        result[0] = file;
+                        return FileVisitResult.TERMINATE;
+                    }
+                    return FileVisitResult.CONTINUE;
+                }
+
+                @Override
+                public FileVisitResult visitFileFailed(Path file, IOException exc) {
+                    return FileVisitResult.CONTINUE;
+                }
+            });
+            return result[0] == null ? null : result[0].toUri().toURL();
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    /**
+     * The stream which reads the mapped content of a resource.
+     */
+    private static class ByteBufferInputStream extends InputStream {
+
+        private final ByteBuffer buffer;
+
+        ByteBufferInputStream(@NotNull ByteBuffer buffer) {
+            this.buffer = buffer;
+        }
+
+        @Override
+        public int read() {
+            return buffer.hasRemaining() ? buffer.get() & 0xFF : -1;
+        }
+
+        @Override
+        public int read(byte[] bytes, int offset, int length) {
+            if (length == 0) return 0;
+            if (!buffer.hasRemaining()) return -1;
+            int count = Math.min(length, buffer.remaining());
+            buffer.get(bytes, offset, count);
+            return count;
+        }
+
+        @Override
+        public int available() {
+            return buffer.remaining();
+        }
+    }
+}
@@ -0,0 +1,301 @@
+package cz.cuni.mff.java.flightplanner.util;
+
+import cz.cuni.mff.java.flightplanner.dataobject.Forecast;
+import cz.cuni.mff.java.flightplanner.dataobject.WeatherConditions;
+
+import java.io.*;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.*;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+/**
+ * The TAFDecoder is the class responsible for parsing the terminal aerodrome
+ * forecasts (TAF). The body of the forecast is classified by the same
+ * {@link WeatherLexer} as the METAR and the change groups (FM, BECMG, TEMPO,
+ * PROB) are turned into the time-indexed {@link Forecast} model.
+ */
+public class TAFDecoder {
+
+    private static final Pattern issuePttrn  = Pattern.compile("[0-9]{6}Z"),
+                                 tafStartPttrn = Pattern.compile("(TAF )?((AMD|COR|RTD) )?[A-Z][A-Z0-9]{3} [0-9]{6}Z.*");
+    private static final DateTimeFormatter outFormat =
+            DateTimeFormatter.ofPattern("dd-MM-yyyy HH:mm 'UTC'", Locale.ENGLISH);
+
+    /**
+     * Decodes the file downloaded by {@link Downloader#downloadTAFs} and prints
+     * the decoded forecasts.
+     *
+     * @param tafFile   The file with the raw forecasts.
+     * @param printer   The printer used for printing.
+     * @param reference The time used to resolve the day-of-month based times of
+     *                  the forecast, usually the current time.
+     * @return The exit code of the action. Any non-zero code means that an issue
+     *         has occurred.
+     */
+    public int fileDecode(@NotNull File tafFile, @NotNull PrintStream printer, @NotNull ZonedDateTime reference) {
+        List<Forecast> forecasts = readForecasts(tafFile, reference);
+        if (forecasts == null) return 1;
+        if (forecasts.isEmpty()) {
+            printer.println("No TAF was accessible for the specified airport.");
+            return 0;
+        }
+        for (Forecast forecast : forecasts) {
+            printForecast(forecast, printer);
+            printer.printf("%n");
+        }
+        return 0;
+    }
+
+    /**
+     * Reads all forecasts from the file. A new forecast starts on each line
+     * beginning with the (optional) "TAF" keyword and the ICAO code followed by
+     * the issue time, any other line continues the previous forecast.
+     *
+     * @param tafFile   The file with the raw forecasts.
+     * @param reference The time used to resolve the times of the forecast.
+     * @return The list of the decoded forecasts, or {@code null} if the file
+     *         could not be read.
+     */
+    public @Nullable List<Forecast> readForecasts(@NotNull File tafFile, @NotNull ZonedDateTime reference) {
+        try (BufferedReader br = new BufferedReader(new FileReader(tafFile))) {
+            return readForecasts(br.lines().collect(Collectors.toList()), reference);
+        } catch (IOException | UncheckedIOException e) {
+            System.err.println("File reading failed. The TAF will not be decoded.");
+            return null;
+        }
+    }
+
+    /**
+     * Splits the lines of the provider response into the separate forecasts
+     * and decodes each of them. A forecast may span multiple lines, a new one
+     * starts with the line containing the forecast header.
+     *
+     * @param lines     The lines with the raw forecasts.
+     * @param reference The time used to resolve the times of the forecast.
+     * @return The list of the decoded forecasts.
+     */
+    public @NotNull List<Forecast> readForecasts(@NotNull List<String> lines, @NotNull ZonedDateTime reference) {
+        List<Forecast> result = new ArrayList<>();
+        StringBuilder current = new StringBuilder();
+        for (String line : lines) {
+            line = line.strip();
+            if (line.isEmpty()) continue;
+            if (tafStartPttrn.matcher(line).matches() && current.length() > 0) {
+                addForecast(result, current.toString(), reference);
+                current.setLength(0);
+            }
+            current.append(line).append(' ');
+        }
+        if (current.length() > 0) addForecast(result, current.toString(), reference);
+        return result;
+    }
+
+    private void addForecast(@NotNull List<Forecast> forecasts, @NotNull String raw,
+                             @NotNull ZonedDateTime reference) {
+        Forecast forecast = decode(raw, reference);
+        if (forecast != null) forecasts.add(forecast);
+    }
+
+    /**
+     * Decodes one forecast.
+     *
+     * @param taf       The raw text of the forecast.
+     * @param reference The time used to resolve the day-of-month based times
+     *                  of the forecast to the complete dates.
+     * @return The decoded forecast, or {@code null} if the forecast header is
+     *         not correct or the forecast is "NIL" or cancelled.
+     */
+    public @Nullable Forecast decode(@NotNull String taf, @NotNull ZonedDateTime reference) {
+        String raw = taf.replace("=", "").strip();
+        String[] parts = raw.split("\\s+");
+        int i = 0;
+        while (i < parts.length && ("TAF".equals(parts[i]) || "AMD".equals(parts[i]) ||
+                                    "COR".equals(parts[i]) || "RTD".equals(parts[i]))) {
+            i++;
+        }
+        if (i + 2 >= parts.length) return null;
+        String icao = parts[i++];
+        ZonedDateTime issued = null;
+        if (issuePttrn.matcher(parts[i]).matches()) {
+            issued = resolve(parts[i].substring(0, 2), parts[i].substring(2, 4),
+                             parts[i].substring(4, 6), reference);
+            i++;
+        }
+        if (i >= parts.length ||
+            WeatherLexer.classify(parts[i], WeatherLexer.Mode.TAF) != WeatherLexer.TokenType.VALIDITY) {
+            return null;
+        }
+        ZonedDateTime[] validity = period(parts[i++], issued != null ? issued : reference);
+        if (issued == null) issued = validity[0];
+        if (i < parts.length && ("NIL".equals(parts[i]) || "CNL".equals(parts[i]))) return null;
+
+        List<WeatherLexer.Token> tokens = WeatherLexer.tokenize(parts, i, WeatherLexer.Mode.TAF);
+        List<Forecast.Change> changes = new ArrayList<>();
+        int groupStart = 0;
+        while (groupStart < tokens.size() && !isChangeStart(tokens.get(groupStart))) groupStart++;
+        WeatherConditions base = METARDecoder.decodeConditions(tokens.subList(0, groupStart));
+
+        while (groupStart < tokens.size()) {
+            int groupEnd = groupStart + 1;
+            // "PROB30 TEMPO" is one group
+            if (tokens.get(groupStart).getType() == WeatherLexer.TokenType.PROBABILITY &&
+                groupEnd < tokens.size() &&
+                tokens.get(groupEnd).getType() == WeatherLexer.TokenType.TEMPORARY) {
+                groupEnd++;
+            }
+            while (groupEnd < tokens.size() && !isChangeStart(tokens.get(groupEnd))) groupEnd++;
+            Forecast.Change change = change(tokens.subList(groupStart, groupEnd), issued, validity[1]);
+            if (change != null) changes.add(change);
+            groupStart = groupEnd;
+        }
+
+        // the FM group lasts until the following FM group or the end of the validity
+        for (int c = 0; c < changes.size(); c++) {
+            Forecast.Change change = changes.get(c);
+            if (change.getType() != Forecast.ChangeType.FROM) continue;
+            for (int next = c + 1; next < changes.size(); next++) {
+                if (changes.get(next).getType() == Forecast.ChangeType.FROM) {
+                    changes.set(c, new Forecast.Change(change.getType(), change.getProbability(),
+                                                       change.getFrom(), changes.get(next).getFrom(),
+                                                       change.getConditions(), change.getRaw()));
+                    break;
+                }
+            }
+        }
+        return new Forecast(icao, issued, validity[0], validity[1], base, changes, raw);
+    }
+
+    /**
+     * Prints the decoded forecast.
+     *
+     * @param forecast The forecast to be printed.
+     * @param printer  The printer used for printing.
+     */
+    public void printForecast(@NotNull Forecast forecast, @NotNull PrintStream printer) {
+        printer.println(Utilities.sectionSeparator("TAF %ICAO".replace("%ICAO", forecast.getIcaoCode())));
+        printer.println(forecast.getRaw());
+        printer.println("The forecast was issued the %ISSUED and is valid from %FROM to %TO."
+                        .replace("%ISSUED", forecast.getIssued().format(outFormat))
+                        .replace("%FROM", forecast.getValidFrom().format(outFormat))
+                        .replace("%TO", forecast.getValidTo().format(outFormat)));
+        printer.println("Initial conditions: " + forecast.getBase());
+        for (Forecast.Change change : forecast.getChanges()) {
+            String type;
+            switch (change.getType()) {
+                case FROM:
+                    type = "From %FROM until %TO the conditions change to";
+                    break;
+                case BECOMING:
+                    type = "Between %FROM and %TO the conditions gradually change to";
+                    break;
+                case TEMPORARY:
+                    type = "Between %FROM and %TO temporarily";
+                    break;
+                default:
+                    type = "Between %FROM and %TO with %PROB% probability";
+                    break;
+            }
+            printer.println(type.replace("%FROM", change.getFrom().format(outFormat))
+                                .replace("%TO", change.getTo().format(outFormat))
+                                .replace("%PROB", String.valueOf(change.getProbability())) +
+                            ": " + change.getConditions());
+        }
+        printer.println(Utilities.sectionSeparator("END OF TAF"));
+    }
+
+    /**
+     * Creates the change object from the tokens of one change group.
+     */
+    private @Nullable Forecast.Change change(@NotNull List<WeatherLexer.Token> group,
+                                             @NotNull ZonedDateTime issued, @NotNull ZonedDateTime validTo) {
+        WeatherLexer.Token first = group.get(0);
+        StringBuilder raw = new StringBuilder();
+        group.forEach(token -> raw.append(token.getText()).append(' '));
+        int conditionsStart = 1, probability = 100;
+        Forecast.ChangeType type;
+        ZonedDateTime from, to;
+
+        if (first.getType() == WeatherLexer.TokenType.FROM) {
+            String text = first.getText();
+            type = Forecast.ChangeType.FROM;
+            from = resolve(text.substring(2, 4), text.substring(4, 6), text.substring(6, 8), issued);
+            to   = validTo;
+        } else {
+            if (first.getType() == WeatherLexer.TokenType.PROBABILITY) {
+                probability = Integer.parseInt(first.getText().substring(4));
+                if (group.size() > 1 && group.get(1).getType() == WeatherLexer.TokenType.TEMPORARY)
+                    conditionsStart++;
+            }
+            // the period follows the PROB, BECMG and TEMPO groups
+            type = first.getType() == WeatherLexer.TokenType.BECOMING
+                   ? Forecast.ChangeType.BECOMING
+                   : first.getType() == WeatherLexer.TokenType.TEMPORARY
+                     ? Forecast.ChangeType.TEMPORARY
+                     : Forecast.ChangeType.PROBABILITY;
+            if (conditionsStart >= group.size() ||
+                group.get(conditionsStart).getType() != WeatherLexer.TokenType.VALIDITY) {
+                return null;
+            }
+            ZonedDateTime[] period = period(group.get(conditionsStart).getText(), issued);
+            from = period[0];
+            to   = period[1];
+            conditionsStart++;
+        }
+        WeatherConditions conditions =
+                METARDecoder.decodeConditions(group.subList(conditionsStart, group.size()));
+        return new Forecast.Change(type, probability, from, to, conditions, raw.toString().strip());
+    }
+
+    private static boolean isChangeStart(@NotNull WeatherLexer.Token token) {
+        switch (token.getType()) {
+            case FROM:
+            case BECOMING:
+            case TEMPORARY:
+            case PROBABILITY:
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    /**
+     * Converts the "ddhh/ddhh" period to the complete dates.
+     */
+    private static @NotNull ZonedDateTime[] period(@NotNull String period, @NotNull ZonedDateTime reference) {
+        ZonedDateTime from = resolve(period.substring(0, 2), period.substring(2, 4), "00", reference),
+                      to   = resolve(period.substring(5, 7), period.substring(7, 9), "00", from);
+        if (to.isBefore(from)) to = to.plusMonths(1);
+        return new ZonedDateTime[] {from, to};
+    }
+
+    /**
+     * Resolves the day of month and time to the complete date which is the
+     * closest one to the reference time. The hour "24" means the midnight at the
+     * end of the day.
+     */
+    static @NotNull ZonedDateTime resolve(@NotNull String day, @NotNull String hour, @NotNull String minute,
+                                          @NotNull ZonedDateTime reference) {
+        int d = Integer.parseInt(day),
+            h = Integer.parseInt(hour),
+            m = Integer.parseInt(minute);
+        ZonedDateTime utcRef = reference.withZoneSameInstant(ZoneOffset.UTC),
+                      best   = null;
+        for (int monthShift = -1; monthShift <= 1; monthShift++) {
+            ZonedDateTime month = utcRef.withDayOfMonth(1).plusMonths(monthShift);
+            if (d < 1 || d > month.toLocalDate().lengthOfMonth()) continue;
+            ZonedDateTime candidate = month.withDayOfMonth(d)
+                                           .withHour(0).withMinute(0).withSecond(0).withNano(0)
+                                           .plusHours(h)
+                                           .plusMinutes(m);
+            if (best == null ||
+                Math.abs(candidate.toEpochSecond() - utcRef.toEpochSecond()) <
+                Math.abs(best.toEpochSecond() - utcRef.toEpochSecond())) {
+                best = candidate;
+            }
+        }
+        return best == null ? utcRef : best;
+    }
+}
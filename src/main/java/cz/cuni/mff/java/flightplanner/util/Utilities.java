@@ -17,7 +17,7 @@ public class Utilities {
      * @return the indication of whether the {@code number} is in the range
      *         between {@code lowerBound} and {@code upperBound}
      */
-    static boolean isBetween(int number, int lowerBound, int upperBound) {
+    public static boolean isBetween(int number, int lowerBound, int upperBound) {
         return lowerBound <= number && number <= upperBound;
     }
 
@@ -0,0 +1,205 @@
+package cz.cuni.mff.java.flightplanner.util;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Pattern;
+
+/**
+ * The WeatherLexer class splits the body of a weather report into tokens and
+ * classifies each of them. The same classification is shared by the METAR and
+ * the TAF decoders. The patterns are compiled only once and each pattern is
+ * tried only if the first character of the token allows a match, so that the
+ * bulk decoding does not spend its time in the regular expressions.
+ */
+public class WeatherLexer {
+
+    /**
+     * The constant pattern which makes part of a correct METAR or TAF.
+     */
+    static final Pattern windPttrn     = Pattern.compile("((VRB)[0-9]{2}|[0-9]{5})(G[0-9]{2})?(KT|MPS)"),
+                         vartnPttrn    = Pattern.compile("[0-9]{3,4}V(P)?[0-9]{3,4}"),
+                         vsbltyPttrn   = Pattern.compile("[0-9]{4}|[0-9 /.]{1,5}SM"),
+                         rvrPttrn      = Pattern.compile("R[0-9]{2}[LCR]?/([PM]?[0-9]+V)?[PM]?[0-9]+(FT)?(/[DNU])?"),
+                         weatherPttrn  = Pattern.compile("(RE|[+-])?[a-zA-Z]{2,}"),
+                         tempPttrn     = Pattern.compile("((M?[0-9]{2})|(//))/((M?[0-9]{2})|(//))"),
+                         cloudPttrn    = Pattern.compile("(SKC|FEW|BKN|SCT|OVC|CLR)[0-9]{3}(CB|TCU|///)?"),
+                         vrtclVisPttrn = Pattern.compile("VV[0-9]{3}"),
+                         pressurePttrn = Pattern.compile("[AQ](([0-9]{4})|(////))"),
+                         windshrPttrn  = Pattern.compile("WS (ALL RWY|(RWY[0-9]{2}[LCR]?))"),
+                         slpPttrn      = Pattern.compile("SLP[0-9]{3}"),
+                         rsgPttrn      = Pattern.compile("[0-9]{2}[0-9/]{6}"),
+                         validityPttrn = Pattern.compile("[0-9]{4}/[0-9]{4}"),
+                         fromPttrn     = Pattern.compile("FM[0-9]{6}"),
+                         probPttrn     = Pattern.compile("PROB[0-9]{2}"),
+                         tempFcstPttrn = Pattern.compile("T[XN]M?[0-9]{2}/[0-9]{4}Z"),
+                         phenomPttrn   = Pattern.compile("(RE)?[+-]?(VC)?(MI|PR|BC|DR|BL|SH|TS|FZ)?" +
+                                                         "(DZ|RA|SN|SG|IC|PL|GR|GS|UP|BR|FG|FU|VA|DU|SA|HZ|PY|PO|SQ|FC|SS|DS)*");
+
+    /**
+     * The category of a token of the weather report.
+     */
+    public enum TokenType {
+        WIND, WIND_VARIATION, VISIBILITY, RVR, VERTICAL_VISIBILITY, WEATHER, CLOUD,
+        TEMPERATURE, PRESSURE, WINDSHEAR, SEA_LEVEL_PRESSURE, RUNWAY_STATE, WORD, UNKNOWN,
+        // the following types are recognized only in the TAF mode
+        VALIDITY, FROM, BECOMING, TEMPORARY, PROBABILITY, TEMPERATURE_FORECAST
+    }
+
+    /**
+     * The type of the report being tokenized. The TAF mode recognizes the
+     * change groups and the validity periods before the common classification.
+     */
+    public enum Mode {
+        METAR, TAF
+    }
+
+    /**
+     * The classified part of a weather report. The multi-word groups (e.g.
+     * "1 1/4SM" or "WS ALL RWY") are joined into one token.
+     */
+    public static class Token {
+        private final TokenType type;
+        private final String text;
+
+        Token(TokenType type, String text) {
+            this.type = type;
+            this.text = text;
+        }
+
+        /**
+         * @return The category of the token.
+         */
+        public TokenType getType() {
+            return type;
+        }
+
+        /**
+         * @return The text of the token as it appears in the report.
+         */
+        public String getText() {
+            return text;
+        }
+
+        @Override
+        public String toString() {
+            return type + ":" + text;
+        }
+    }
+
+    /**
+     * Tokenizes the parts of the report starting at the {@code from} index.
+     *
+     * @param parts The whitespace separated parts of the report.
+     * @param from  The index of the first part to be tokenized. The preceding
+     *              parts (e.g. report type, ICAO code) are skipped.
+     * @param mode  The type of the report.
+     * @return The list of the classified tokens.
+     */
+    public static @NotNull List<Token> tokenize(@NotNull String[] parts, int from, @NotNull Mode mode) {
+        List<Token> result = new ArrayList<>(Math.max(parts.length - from, 0));
+        for (int i = from; i < parts.length; i++) {
+            String part = parts[i];
+            if (part.isEmpty()) continue;
+            // the windshear group consists of two or three parts: "WS ALL RWY" or "WS RWY27L"
+            if ("WS".equals(part) && i + 1 < parts.length) {
+                String joined = "ALL".equals(parts[i + 1]) && i + 2 < parts.length
+                                ? part + " " + parts[i + 1] + " " + parts[i + 2]
+                                : part + " " + parts[i + 1];
+                if (windshrPttrn.matcher(joined).matches()) {
+                    result.add(new Token(TokenType.WINDSHEAR, joined));
+                    i += joined.equals(part + " " + parts[i + 1]) ? 1 : 2;
+                    continue;
+                }
+            }
+            // the following condition treats the "1 1/4SM" case
+            if (isDigits(part) && i + 1 < parts.length &&
+                parts[i + 1].endsWith("SM") && vsbltyPttrn.matcher(parts[i + 1]).matches() &&
+                !vsbltyPttrn.matcher(part).matches()) {
+                result.add(new Token(TokenType.VISIBILITY, part + " " + parts[i + 1]));
+                i++;
+                continue;
+            }
+            result.add(new Token(classify(part, mode), part));
+        }
+        return result;
+    }
+
+    /**
+     * Tokenizes the whole whitespace separated report.
+     *
+     * @param report The report (or its part) to be tokenized.
+     * @param mode   The type of the report.
+     * @return The list of the classified tokens.
+     */
+    public static @NotNull List<Token> tokenize(@NotNull String report, @NotNull Mode mode) {
+        return tokenize(report.strip().split("\\s+"), 0, mode);
+    }
+
+    /**
+     * Classifies one token of the report. The order of the checks matters as
+     * several patterns may match the same token.
+     *
+     * @param token The token to be classified.
+     * @param mode  The type of the report.
+     * @return The category of the token.
+     */
+    public static @NotNull TokenType classify(@NotNull String token, @NotNull Mode mode) {
+        if (token.isEmpty()) return TokenType.UNKNOWN;
+        char first = token.charAt(0),
+             last  = token.charAt(token.length() - 1);
+        boolean digit = first >= '0' && first <= '9';
+
+        if (mode == Mode.TAF) {
+            if (digit && token.length() == 9 && validityPttrn.matcher(token).matches())
+                return TokenType.VALIDITY;
+            if (first == 'F' && fromPttrn.matcher(token).matches())   return TokenType.FROM;
+            if ("BECMG".equals(token))                                return TokenType.BECOMING;
+            if ("TEMPO".equals(token))                                return TokenType.TEMPORARY;
+            if (first == 'P' && probPttrn.matcher(token).matches())   return TokenType.PROBABILITY;
+            if (first == 'T' && last == 'Z' && tempFcstPttrn.matcher(token).matches())
+                return TokenType.TEMPERATURE_FORECAST;
+        }
+        if ((digit || first == 'V') && (last == 'T' || last == 'S') &&
+            windPttrn.matcher(token).matches())                       return TokenType.WIND;
+        if (digit && vartnPttrn.matcher(token).matches())             return TokenType.WIND_VARIATION;
+        if ((digit || first == '/' || first == '.') &&
+            vsbltyPttrn.matcher(token).matches())                     return TokenType.VISIBILITY;
+        if (first == 'R' && rvrPttrn.matcher(token).matches())       return TokenType.RVR;
+        if (first == 'V' && vrtclVisPttrn.matcher(token).matches())  return TokenType.VERTICAL_VISIBILITY;
+        if (!digit && weatherPttrn.matcher(token).matches())          return TokenType.WEATHER;
+        if (cloudPttrn.matcher(token).matches())                      return TokenType.CLOUD;
+        if ((digit || first == 'M' || first == '/') &&
+            tempPttrn.matcher(token).matches())                       return TokenType.TEMPERATURE;
+        if ((first == 'A' || first == 'Q') &&
+            pressurePttrn.matcher(token).matches())                   return TokenType.PRESSURE;
+        if (first == 'S' && slpPttrn.matcher(token).matches())       return TokenType.SEA_LEVEL_PRESSURE;
+        if (digit && rsgPttrn.matcher(token).matches())               return TokenType.RUNWAY_STATE;
+        if (isLetters(token))                                         return TokenType.WORD;
+        return TokenType.UNKNOWN;
+    }
+
+    /**
+     * @param token The token of the type {@link TokenType#WEATHER}.
+     * @return The flag indicating that the token describes a weather phenomenon
+     *         (e.g. "-SHRA") rather than a plain abbreviation (e.g. "NOSIG").
+     */
+    public static boolean isPhenomenon(@NotNull String token) {
+        return token.length() >= 2 && phenomPttrn.matcher(token).matches() &&
+               !token.startsWith("RE");
+    }
+
+    private static boolean isDigits(@NotNull String token) {
+        for (int i = 0; i < token.length(); i++) {
+            if (token.charAt(i) < '0' || token.charAt(i) > '9') return false;
+        }
+        return !token.isEmpty();
+    }
+
+    private static boolean isLetters(@NotNull String token) {
+        for (int i = 0; i < token.length(); i++) {
+            char c = token.charAt(i);
+            if (!(c >= 'a' && c <= 'z') && !(c >= 'A' && c <= 'Z')) return false;
+        }
+        return true;
+    }
+}
@@ -0,0 +1,57 @@
+package cz.cuni.mff.java.flightplanner.dataobject;
+
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Checks the dense IDs of the airports and the runways assigned when the
+ * database is read.
+ */
+class AirportRegistryTest {
+
+    private static final Map<String, Airport> airports = TestAirports.of(
+            TestAirports.line("LKPR", 50.1008, 14.26),
+            "LKMT,Ostrava,CZ,Mosnov,CZ-80,EU,medium_airport,49.696,18.111,844,"
+            + "RUNWAY,11483,207,ASP,1,0,04,,,,,,22,,,,,RUNWAY,1000,30,GRS,0,0,18,,,,,,36,,,,,",
+            TestAirports.line("LKTB", 49.151, 16.694));
+
+    @Test
+    void idsFollowTheDatabaseLines() {
+        AirportRegistry registry = new AirportRegistry(airports.values());
+        assertEquals(3, registry.size());
+        assertEquals(4, registry.runwayCount());
+        String[] order = { "LKPR", "LKMT", "LKTB" };
+        for (int id = 0; id < order.length; id++) {
+            Airport airport = airports.get(order[id]);
+            assertEquals(id, airport.getId());
+            assertEquals(id, registry.idOf(order[id].toLowerCase()));
+            assertSame(airport, registry.airport(id));
+            assertSame(airport, registry.find(order[id]));
+            List<Runway> runways = airport.getRunways();
+            assertEquals(runways.size(), registry.runwayStart(id + 1) - registry.runwayStart(id));
+            for (int i = 0; i < runways.size(); i++) {
+                Runway runway = registry.runway(registry.runwayStart(id) + i);
+                assertSame(runways.get(i), runway);
+                assertEquals(id, runway.getAirportId());
+            }
+        }
+        assertEquals(registry.runwayCount(), registry.runwayStart(registry.size()));
+        assertEquals(-1, registry.idOf("LKKV"));
+        assertNull(registry.find("LKKV"));
+    }
+
+    @Test
+    void airportsOfOtherDatabasesAreRejected() {
+        assertThrows(IllegalArgumentException.class,
+                     () -> new AirportRegistry(List.of(airports.get("LKPR"), airports.get("LKTB"))));
+        Airport other = TestAirports.of(TestAirports.line("LKKV", 50.203, 12.915)).get("LKKV");
+        assertThrows(IllegalArgumentException.class,
+                     () -> new AirportRegistry(List.of(airports.get("LKPR"), other)));
+    }
+}
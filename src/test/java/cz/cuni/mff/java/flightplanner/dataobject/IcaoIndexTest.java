@@ -0,0 +1,74 @@
+package cz.cuni.mff.java.flightplanner.dataobject;
+
+import java.util.HashSet;
+import java.util.Set;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Checks the base-37 packing of the ICAO codes and the lookup of the packed
+ * and the other codes.
+ */
+class IcaoIndexTest {
+
+    private static final String alphabet = "ABCDEFGHIJKLMNOPQRSTUVWXYZ0123456789";
+
+    @Test
+    void everyShortCodeHasItsOwnPackedValue() {
+        Set<Integer> packed = new HashSet<>();
+        int count = 0;
+        for (char a : alphabet.toCharArray()) {
+            for (char b : alphabet.toCharArray()) {
+                for (String code : new String[] { "" + a, "" + a + b, "" + a + b + 'Z', "" + a + b + "9Q" }) {
+                    int value = IcaoIndex.pack(code);
+                    assertTrue(value >= 0 && value < 37 * 37 * 37 * 37, code);
+                    packed.add(value);
+                    count++;
+                }
+            }
+        }
+        // the one-letter codes are repeated for every second letter
+        assertEquals(count - alphabet.length() * (alphabet.length() - 1), packed.size());
+        assertEquals(IcaoIndex.pack("LKPR"), IcaoIndex.pack(" lkpr\t"));
+        assertTrue(IcaoIndex.pack("LKP") < IcaoIndex.pack("LKPA"));
+        assertTrue(IcaoIndex.pack("LKPZ") < IcaoIndex.pack("LKP0"));
+    }
+
+    @Test
+    void otherCodesAreNotPacked() {
+        assertEquals(-1, IcaoIndex.pack(""));
+        assertEquals(-1, IcaoIndex.pack("   "));
+        assertEquals(-1, IcaoIndex.pack("EGLL1"));
+        assertEquals(-1, IcaoIndex.pack("K-AB"));
+        assertEquals(-1, IcaoIndex.pack("LK R"));
+        assertEquals(-1, IcaoIndex.pack("LKPŘ"));
+    }
+
+    @Test
+    void codesAreFoundByTheirValues() {
+        String[] codes = { "LKPR", "lkmt", "K9", "Z", "US-0001", "EGLL1", "0000" };
+        int[] values = { 10, 20, 30, 40, 50, 60, 70 };
+        IcaoIndex index = new IcaoIndex(codes, values);
+        assertEquals(codes.length, index.size());
+        for (int i = 0; i < codes.length; i++) {
+            assertEquals(values[i], index.get(codes[i]));
+            assertEquals(values[i], index.get(new StringBuilder(" " + codes[i].toLowerCase() + " ")));
+        }
+        assertEquals(-1, index.get("LKPA"));
+        assertEquals(-1, index.get("LKP"));
+        assertEquals(-1, index.get("US-0002"));
+        assertEquals(-1, index.get(""));
+    }
+
+    @Test
+    void duplicateCodesAreRejected() {
+        assertThrows(IllegalArgumentException.class, () -> new IcaoIndex(new String[] { "LKPR", " lkpr" },
+                                                                         new int[] { 1, 2 }));
+        assertThrows(IllegalArgumentException.class, () -> new IcaoIndex(new String[] { "US-0001", "us-0001" },
+                                                                         new int[] { 1, 2 }));
+        assertThrows(IllegalArgumentException.class, () -> new IcaoIndex(new String[] { "LKPR" }, new int[0]));
+    }
+}
@@ -0,0 +1,96 @@
+package cz.cuni.mff.java.flightplanner.dataobject;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.UncheckedIOException;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Random;
+import cz.cuni.mff.java.flightplanner.util.NotNull;
+
+/**
+ * The TestAirports class creates the airports of the tests from the lines in
+ * the .csv format of the airports database, so that the tests do not depend
+ * on the shipped database.
+ */
+public final class TestAirports {
+
+    private static final String line = "%ICAO,%ICAO Airport,CZ,Town,CZ-10,EU,%CATEGORY,%LAT,%LON,1000,"
+                                       + "RUNWAY,%LENGTH,98,ASP,1,0,09,,,,,,27,,,,,";
+    private static final String[] categories = { "small_airport", "medium_airport", "large_airport" };
+
+    private TestAirports() {
+    }
+
+    /**
+     * @param icaoCode  The ICAO code of the airport.
+     * @param latitude  The latitude in degrees.
+     * @param longitude The longitude in degrees.
+     * @return The database line of a small airport with one 3000 ft runway.
+     */
+    public static @NotNull String line(@NotNull String icaoCode, double latitude, double longitude) {
+        return line(icaoCode, latitude, longitude, 3000, 0);
+    }
+
+    /**
+     * @param category The index of the category: 0 small, 1 medium, 2 large.
+     */
+    private static @NotNull String line(@NotNull String icaoCode, double latitude, double longitude,
+                                        int runwayLengthFt, int category) {
+        return line.replace("%ICAO", icaoCode)
+                   .replace("%CATEGORY", categories[category])
+                   .replace("%LAT", String.format(Locale.ROOT, "%.6f", latitude))
+                   .replace("%LON", String.format(Locale.ROOT, "%.6f", longitude))
+                   .replace("%LENGTH", String.valueOf(runwayLengthFt));
+    }
+
+    /**
+     * Parses the database lines.
+     *
+     * @param lines The lines of the airports.
+     * @return The airports indexed by their ICAO codes.
+     */
+    public static @NotNull Map<String, Airport> of(@NotNull String... lines) {
+        try {
+            return Airport.readDatabase(new BufferedReader(new StringReader(String.join("\n", lines))));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Creates the airports spread randomly over the area. Their ICAO codes
+     * are "Q" followed by three letters, the categories and the runway
+     * lengths (1000 to 10000 ft) vary.
+     *
+     * @param count  The number of the airports, at most 17576.
+     * @param seed   The seed of the positions.
+     * @param minLat The southern border of the area in degrees.
+     * @param maxLat The northern border of the area in degrees.
+     * @param minLon The western border of the area in degrees.
+     * @param maxLon The eastern border of the area in degrees.
+     * @return The airports indexed by their ICAO codes.
+     */
+    public static @NotNull Map<String, Airport> random(int count, long seed, double minLat, double maxLat,
+                                                       double minLon, double maxLon) {
+        Random random = new Random(seed);
+        String[] lines = new String[count];
+        for (int i = 0; i < count; i++) {
+            lines[i] = line(code(i),
+                            minLat + random.nextDouble() * (maxLat - minLat),
+                            minLon + random.nextDouble() * (maxLon - minLon),
+                            1000 + random.nextInt(9001),
+                            random.nextInt(categories.length));
+        }
+        return of(lines);
+    }
+
+    /**
+     * @return The ICAO code of the {@code i}-th random airport.
+     */
+    public static @NotNull String code(int i) {
+        return new String(new char[] { 'Q', (char) ('A' + i / 676), (char) ('A' + i / 26 % 26),
+                                       (char) ('A' + i % 26) });
+    }
+}
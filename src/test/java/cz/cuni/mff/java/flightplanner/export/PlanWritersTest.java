@@ -0,0 +1,152 @@
+package cz.cuni.mff.java.flightplanner.export;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import javax.xml.parsers.DocumentBuilderFactory;
+import cz.cuni.mff.java.flightplanner.dataobject.Airport;
+import cz.cuni.mff.java.flightplanner.dataobject.TestAirports;
+import cz.cuni.mff.java.flightplanner.dataobject.Wind;
+import cz.cuni.mff.java.flightplanner.performance.ProfilePerformance;
+import cz.cuni.mff.java.flightplanner.performance.RouteWind;
+import cz.cuni.mff.java.flightplanner.routing.FlightEstimate;
+import cz.cuni.mff.java.flightplanner.routing.Route;
+import cz.cuni.mff.java.flightplanner.routing.RouteLeg;
+import org.junit.jupiter.api.Test;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.w3c.dom.NodeList;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Checks the text written by the FPL, GPX and CSV leg table writers for a
+ * route flown eastwards along the equator, in the calm and against a wind
+ * the aircraft can not fly against.
+ */
+class PlanWritersTest {
+
+    /**
+     * The climb and the descent of 12 minutes over 20 NM, the cruise at
+     * 120 kt and 5000 ft, i.e. 124 minutes and 65 kg for 240 NM and 64
+     * minutes and 35 kg for 120 NM in the calm.
+     */
+    private static final ProfilePerformance profile =
+            new ProfilePerformance("TEST", "Test aircraft", 5000, 12, 20, 10, 120, 30, 12, 20, 5);
+    private static final Map<String, Airport> airports =
+            TestAirports.of(TestAirports.line("AAAA", 0, 0).replace("AAAA Airport", "Alpha & <Field>"),
+                            TestAirports.line("BBBB", 0, 4), TestAirports.line("C1", 0, 6));
+    private static final Route route =
+            new Route(List.of(new RouteLeg(airports.get("AAAA"), airports.get("BBBB"), 240, 90),
+                              new RouteLeg(airports.get("BBBB"), airports.get("C1"), 120, 90)), 360, 0);
+    private static final FlightEstimate calm = FlightEstimate.of(route, profile, RouteWind.calm);
+    /**
+     * The easterly wind of 130 kt stronger than the cruise speed.
+     */
+    private static final FlightEstimate headwind =
+            FlightEstimate.of(route, profile, RouteWind.of(new Wind(90, 130, Double.NaN), null));
+
+    @Test
+    void fplIsOneLinePerLeg() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        PlanWriter writer = PlanFormat.FPL.open(out);
+        writer.write(route, calm);
+        writer.write(route, calm);
+        writer.finish();
+        assertEquals(2, writer.count());
+        assertEquals("1\t1\tAAAA\tN0120A050 DCT\tBBBB0204\n"
+                     + "1\t2\tBBBB\tN0120A050 DCT\tZZZZ0104\n"
+                     + "2\t1\tAAAA\tN0120A050 DCT\tBBBB0204\n"
+                     + "2\t2\tBBBB\tN0120A050 DCT\tZZZZ0104\n", text(out));
+    }
+
+    @Test
+    void fplRejectsRoutesWithoutTheTime() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        PlanWriter writer = PlanFormat.FPL.open(out);
+        assertThrows(IllegalArgumentException.class, () -> writer.write(route, null));
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class,
+                                                  () -> writer.write(route, headwind));
+        assertTrue(e.getMessage().contains("AAAA - BBBB"));
+        // nothing of the rejected routes is written and the next route is the first one
+        writer.write(route, calm);
+        writer.finish();
+        assertEquals(1, writer.count());
+        assertTrue(text(out).startsWith("1\t1\tAAAA\t"));
+        assertEquals(2, text(out).split("\n").length);
+    }
+
+    @Test
+    void gpxIsOneRoutePerPlan() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        PlanWriter writer = PlanFormat.GPX.open(out);
+        writer.write(route, calm);
+        writer.write(route, null);
+        writer.finish();
+        assertEquals(2, writer.count());
+
+        Document document = DocumentBuilderFactory.newInstance().newDocumentBuilder()
+                                                   .parse(new ByteArrayInputStream(out.toByteArray()));
+        assertEquals("gpx", document.getDocumentElement().getTagName());
+        NodeList routes = document.getElementsByTagName("rte");
+        assertEquals(2, routes.getLength());
+        Element first = (Element) routes.item(0);
+        assertEquals("AAAA-C1", child(first, "name"));
+        assertEquals("360.0 NM, 188 min, 100 kg", child(first, "desc"));
+        assertEquals("360.0 NM", child((Element) routes.item(1), "desc"));
+        assertEquals("2", child((Element) routes.item(1), "number"));
+
+        NodeList points = first.getElementsByTagName("rtept");
+        assertEquals(3, points.getLength());
+        Element departure = (Element) points.item(0), destination = (Element) points.item(2);
+        assertEquals("0.000000", departure.getAttribute("lat"));
+        assertEquals("6.000000", destination.getAttribute("lon"));
+        assertEquals("304.8", child(departure, "ele"));
+        assertEquals("Alpha & <Field>", child(departure, "desc"));
+        assertEquals("C1", child(destination, "name"));
+    }
+
+    @Test
+    void legTableIsOneRowPerLeg() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        PlanWriter writer = PlanFormat.LEGS.open(out);
+        writer.write(route, calm);
+        writer.write(route, headwind);
+        writer.write(route, null);
+        writer.finish();
+        assertEquals(3, writer.count());
+        String[] lines = text(out).split("\r?\n");
+        assertEquals(7, lines.length);
+        assertEquals("plan,leg,from,to,distance_nm,course,tailwind_kt,time_min,fuel_kg", lines[0]);
+        assertEquals("1,1,AAAA,BBBB,240,90,0,124,65", lines[1]);
+        assertEquals("1,2,BBBB,C1,120,90,0,64,35", lines[2]);
+        // the legs which can not be flown have no time and no fuel
+        assertEquals("2,1,AAAA,BBBB,240,90,-130,,", lines[3]);
+        assertEquals("3,2,BBBB,C1,120,90,,,", lines[6]);
+    }
+
+    @Test
+    void formatsAreFoundByTheirKeywords() {
+        assertSame(PlanFormat.FPL, PlanFormat.of("fpl"));
+        assertSame(PlanFormat.GPX, PlanFormat.of(" GPX "));
+        assertSame(PlanFormat.LEGS, PlanFormat.of("Legs"));
+        assertNull(PlanFormat.of("kml"));
+        assertTrue(PlanFormat.FPL.isEstimateNeeded());
+        assertEquals("csv", PlanFormat.LEGS.getFileExtension());
+    }
+
+    private static String text(ByteArrayOutputStream out) {
+        return new String(out.toByteArray(), StandardCharsets.UTF_8);
+    }
+
+    private static String child(Element element, String tagName) {
+        return element.getElementsByTagName(tagName).item(0).getTextContent();
+    }
+}
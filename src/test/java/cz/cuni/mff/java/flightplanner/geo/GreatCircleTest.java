@@ -0,0 +1,121 @@
+package cz.cuni.mff.java.flightplanner.geo;
+
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Checks the great-circle kernel on the known distances and compares the
+ * batched variants with the scalar ones on random points of the whole globe.
+ */
+class GreatCircleTest {
+
+    private static final int count = 1000;
+    private static final double lat = 50.1008, lon = 14.26;
+    private final double[] latitudes = new double[count], longitudes = new double[count];
+
+    GreatCircleTest() {
+        Random random = new Random(45);
+        for (int i = 0; i < count; i++) {
+            latitudes[i] = Math.toDegrees(Math.asin(2 * random.nextDouble() - 1));
+            longitudes[i] = 360 * random.nextDouble() - 180;
+        }
+        // the points near the origin and its antipode
+        latitudes[0] = lat;
+        longitudes[0] = lon + 1e-7;
+        latitudes[1] = -lat;
+        longitudes[1] = lon - 180;
+    }
+
+    @Test
+    void knownDistancesAndBearings() {
+        double degreeNm = GreatCircle.earthRadiusNm * Math.PI / 180;
+        assertEquals(degreeNm, GreatCircle.distanceNm(0, 0, 0, 1), 1e-9);
+        assertEquals(degreeNm, GreatCircle.distanceNm(0, 179.5, 0, -179.5), 1e-9);
+        assertEquals(90 * degreeNm, GreatCircle.distanceNm(0, 0, 90, 0), 1e-9);
+        assertEquals(180 * degreeNm, GreatCircle.distanceNm(lat, lon, -lat, lon - 180), 1e-6);
+        assertEquals(0, GreatCircle.initialBearing(0, 0, 1, 0), 1e-9);
+        assertEquals(90, GreatCircle.initialBearing(0, 0, 0, 1), 1e-9);
+        assertEquals(270, GreatCircle.initialBearing(0, 0, 0, -1), 1e-9);
+        // LKPR - LPPT is about 2 230 km
+        assertEquals(1204, GreatCircle.distanceNm(50.1008, 14.26, 38.7813, -9.1359), 2);
+    }
+
+    @Test
+    void batchedDistancesMatchTheScalarOnes() {
+        double[] out = new double[count];
+        GreatCircle.distancesNm(lat, lon, latitudes, longitudes, out, 0, count);
+        for (int i = 0; i < count; i++) {
+            assertEquals(GreatCircle.distanceNm(lat, lon, latitudes[i], longitudes[i]), out[i], 1e-6);
+        }
+    }
+
+    @Test
+    void batchedAnglesMatchTheScalarOnes() {
+        double[] xs = new double[count], ys = new double[count], zs = new double[count], out = new double[count],
+                 origin = GreatCircle.unitVector(lat, lon, new double[3]);
+        GreatCircle.unitVectors(latitudes, longitudes, xs, ys, zs, 0, count);
+        GreatCircle.angles(origin[0], origin[1], origin[2], xs, ys, zs, out, 0, count);
+        for (int i = 0; i < count; i++) {
+            assertEquals(GreatCircle.latitude(xs[i], ys[i], zs[i]), latitudes[i], 1e-9);
+            assertEquals(GreatCircle.angle(origin[0], origin[1], origin[2], xs[i], ys[i], zs[i]), out[i], 1e-12);
+            assertEquals(GreatCircle.distanceNm(lat, lon, latitudes[i], longitudes[i]),
+                         out[i] * GreatCircle.earthRadiusNm, 1e-6);
+        }
+    }
+
+    @Test
+    void batchedBearingsMatchTheScalarOnes() {
+        double[] out = new double[count];
+        GreatCircle.initialBearings(lat, lon, latitudes, longitudes, out, 2, count);
+        for (int i = 2; i < count; i++) {
+            assertEquals(GreatCircle.initialBearing(lat, lon, latitudes[i], longitudes[i]), out[i], 1e-9);
+        }
+    }
+
+    @Test
+    void destinationPointInvertsTheDistanceAndBearing() {
+        double[] point = new double[2];
+        for (int i = 2; i < count; i += 10) {
+            double distance = GreatCircle.distanceNm(lat, lon, latitudes[i], longitudes[i]);
+            if (distance > 10000) continue;
+            GreatCircle.destinationPoint(lat, lon, GreatCircle.initialBearing(lat, lon, latitudes[i], longitudes[i]),
+                                         distance, point);
+            assertEquals(0, GreatCircle.distanceNm(point[0], point[1], latitudes[i], longitudes[i]), 1e-6);
+        }
+    }
+
+    @Test
+    void intermediatePointsDivideTheGreatCircle() {
+        double[] lats = new double[3], lons = new double[3], half = new double[2];
+        double total = GreatCircle.distanceNm(lat, lon, 38.7813, -9.1359);
+        GreatCircle.intermediatePoints(lat, lon, 38.7813, -9.1359, lats, lons, 3);
+        for (int i = 0; i < 3; i++) {
+            assertEquals(total * (i + 1) / 4, GreatCircle.distanceNm(lat, lon, lats[i], lons[i]), 1e-6);
+        }
+        GreatCircle.intermediatePoint(lat, lon, 38.7813, -9.1359, 0.5, half);
+        assertEquals(lats[1], half[0], 1e-9);
+        assertEquals(lons[1], half[1], 1e-9);
+    }
+
+    @Test
+    void batchedTracksMatchTheScalarOnes() {
+        Track track = new Track(lat, lon, 38.7813, -9.1359);
+        assertEquals(GreatCircle.distanceNm(lat, lon, 38.7813, -9.1359), track.lengthNm(), 1e-6);
+        double[] xs = new double[count], ys = new double[count], zs = new double[count],
+                 cross = new double[count], along = new double[count];
+        GreatCircle.unitVectors(latitudes, longitudes, xs, ys, zs, 0, count);
+        track.crossTracksNm(xs, ys, zs, cross, 0, count);
+        track.alongTracksNm(xs, ys, zs, along, 0, count);
+        for (int i = 0; i < count; i++) {
+            assertEquals(track.crossTrackNm(latitudes[i], longitudes[i]), cross[i], 1e-6);
+            assertEquals(track.alongTrackNm(latitudes[i], longitudes[i]), along[i], 1e-6);
+            assertEquals(GreatCircle.crossTrackNm(lat, lon, 38.7813, -9.1359, latitudes[i], longitudes[i]),
+                         cross[i], 1e-6);
+        }
+        double[] point = track.pointAt(track.lengthNm() / 3, new double[2]);
+        assertEquals(0, track.crossTrackNm(point[0], point[1]), 1e-6);
+        assertEquals(track.lengthNm() / 3, track.alongTrackNm(point[0], point[1]), 1e-6);
+    }
+}
@@ -0,0 +1,99 @@
+package cz.cuni.mff.java.flightplanner.navdata;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import cz.cuni.mff.java.flightplanner.dataobject.TestAirports;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Checks that the navigation database written by the {@link NavDataWriter}
+ * is read back unchanged and that the incorrect files are rejected with the
+ * number of the incorrect line.
+ */
+class NavDataReaderTest {
+
+    @Test
+    void writtenDatabaseIsReadBack() throws IOException {
+        NavGraph generated = new NavDataGenerator().generate(TestAirports.random(200, 44, 45, 55, 0, 20).values());
+        assertTrue(generated.pointCount() > 0);
+        assertTrue(generated.segmentCount() > 0);
+
+        byte[] written = write(generated);
+        NavGraph read = NavDataReader.read(new ByteArrayInputStream(written));
+        assertEquals(generated.pointCount(), read.pointCount());
+        assertEquals(generated.segmentCount(), read.segmentCount());
+        assertEquals(generated.edgeCount(), read.edgeCount());
+        for (int p = 0; p < generated.pointCount(); p++) {
+            assertEquals(generated.ident(p), read.ident(p));
+            assertEquals(generated.region(p), read.region(p));
+            assertEquals(generated.type(p), read.type(p));
+            assertEquals(generated.latitude(p), read.latitude(p), 1e-6);
+            assertEquals(generated.longitude(p), read.longitude(p), 1e-6);
+            assertEquals(generated.frequency(p), read.frequency(p), 0.005);
+            assertEquals(p, read.indexOf(generated.ident(p), generated.region(p)));
+        }
+        for (int s = 0; s < generated.segmentCount(); s++) {
+            assertEquals(generated.segmentFrom(s), read.segmentFrom(s));
+            assertEquals(generated.segmentTo(s), read.segmentTo(s));
+            assertEquals(generated.segmentAirway(s), read.segmentAirway(s));
+            assertEquals(generated.isBidirectional(s), read.isBidirectional(s));
+        }
+        assertArrayEquals(written, write(read));
+    }
+
+    @Test
+    void readsTheDocumentedFormat() throws IOException {
+        NavGraph graph = read("FPNAV,1\n"
+                              + "# a comment\n"
+                              + "\n"
+                              + "VOR,OKL,LK,50.08,14.26,112.6\n"
+                              + "NDB,L,LK,50.1,14.3,340\n"
+                              + "FIX,ABC12,LK,49.5,15\n"
+                              + "SEG,L42,OKL,LK,ABC12,LK\n"
+                              + "SEG,Z1,ABC12,LK,L,LK,F\n");
+        assertEquals(3, graph.pointCount());
+        assertEquals(2, graph.segmentCount());
+        assertEquals(3, graph.edgeCount());
+        int vor = graph.indexOf("OKL", "LK"), fix = graph.indexOf("ABC12", "LK");
+        assertEquals(NavPointType.VOR, graph.type(vor));
+        assertEquals(112.6, graph.frequency(vor), 1e-4);
+        assertTrue(Double.isNaN(graph.frequency(fix)));
+        assertTrue(graph.isBidirectional(0));
+        assertFalse(graph.isBidirectional(1));
+        assertEquals(-1, graph.indexOf("OKL", "LO"));
+    }
+
+    @Test
+    void incorrectLinesAreReported() {
+        assertError("FPNAV,2\n", "Line 1");
+        assertError("FPNAV,1\nVOR,OKL,LK,50.08\n", "Line 2");
+        assertError("FPNAV,1\nVOR,OKL,LK,91,14\n", "Line 2");
+        assertError("FPNAV,1\nAPT,OKL,LK,50,14\n", "Line 2");
+        assertError("FPNAV,1\nVOR,OKL,LK,50,14\nVOR,OKL,LK,51,14\n", "Line 3");
+        assertError("FPNAV,1\nVOR,OKL,LK,50,14\nSEG,L42,OKL,LK,XYZ,LK\n", "Line 3");
+        assertError("FPNAV,1\nVOR,OKL,LK,50,14\nVOR,VLM,LK,49,16\nSEG,L42,OKL,LK,VLM,LK,X\n", "Line 4");
+    }
+
+    private static void assertError(String text, String line) {
+        IOException e = assertThrows(IOException.class, () -> read(text));
+        assertTrue(e.getMessage().startsWith(line + ":"), e.getMessage());
+    }
+
+    private static NavGraph read(String text) throws IOException {
+        return NavDataReader.read(new ByteArrayInputStream(text.getBytes(StandardCharsets.US_ASCII)));
+    }
+
+    private static byte[] write(NavGraph graph) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        NavDataWriter.write(graph, out);
+        return out.toByteArray();
+    }
+}
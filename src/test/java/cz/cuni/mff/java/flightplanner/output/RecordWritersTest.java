@@ -0,0 +1,100 @@
+package cz.cuni.mff.java.flightplanner.output;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+/**
+ * Checks the exact text of the CSV writer and the exact bytes of the binary
+ * writer for two records with the same fields: a text with a comma and quotes,
+ * a missing number, a missing text, a negative integer and a boolean.
+ */
+class RecordWritersTest {
+
+    @Test
+    void csvQuotesTheValuesAndDefersTheHeader() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        CsvWriter writer = new CsvWriter(out);
+        writer.beginRecord();
+        writer.string("name", "a,\"b\"");
+        writer.number("value", Double.NaN);
+        writer.flush();
+        // the header is written only when the first record is complete
+        assertEquals(0, out.size());
+        writer.string("note", null);
+        writer.integer("count", -3);
+        writer.bool("ok", true);
+        writer.endRecord();
+        writeSecond(writer);
+        writer.flush();
+        assertEquals("name,value,note,count,ok\r\n"
+                     + "\"a,\"\"b\"\"\",,,-3,true\r\n"
+                     + "plain,2.5,\"x\ny\",150,false\r\n", out.toString(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void binaryWritesEachNameOnce() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        BinaryRecordWriter writer = new BinaryRecordWriter(out);
+        writeFirst(writer);
+        writeSecond(writer);
+        writer.flush();
+
+        ByteArrayOutputStream expected = new ByteArrayOutputStream();
+        DataOutputStream data = new DataOutputStream(expected);
+        data.write(new byte[] { 'F', 'P', 'R', 'B', 1 });
+        // the first record defines the names 0 to 4
+        data.write(new byte[] { 2, 0, 4, 'n', 'a', 'm', 'e', 5, 'a', ',', '"', 'b', '"' });
+        data.write(new byte[] { 1, 1, 5, 'v', 'a', 'l', 'u', 'e' });
+        data.write(new byte[] { 1, 2, 4, 'n', 'o', 't', 'e' });
+        data.write(new byte[] { 4, 3, 5, 'c', 'o', 'u', 'n', 't', 5 });         // zig-zag -3 = 5
+        data.write(new byte[] { 6, 4, 2, 'o', 'k', 0 });
+        // the second record refers to them by their indices
+        data.write(new byte[] { 2, 0, 5, 'p', 'l', 'a', 'i', 'n', 3, 1 });
+        data.writeDouble(2.5);
+        data.write(new byte[] { 2, 2, 3, 'x', '\n', 'y' });
+        data.write(new byte[] { 4, 3, (byte) 0xAC, 0x02 });                       // zig-zag 150 = 300
+        data.write(new byte[] { 5, 4, 0 });
+        assertArrayEquals(expected.toByteArray(), out.toByteArray());
+    }
+
+    @Test
+    void numbersAreFormattedTheSameInAllTextFormats() throws IOException {
+        assertEquals("150", NumberText.of(150.0));
+        assertEquals("-2.5", NumberText.of(-2.5));
+        assertEquals("1.0E15", NumberText.of(1e15));
+        assertNull(NumberText.of(Double.NaN));
+        assertNull(NumberText.of(Double.NEGATIVE_INFINITY));
+        StringBuilder json = new StringBuilder();
+        JsonText.number(json, Double.POSITIVE_INFINITY);
+        json.append(',');
+        JsonText.number(json, 3.0);
+        assertEquals("null,3", json.toString());
+    }
+
+    private static void writeFirst(RecordWriter writer) throws IOException {
+        writer.beginRecord();
+        writer.string("name", "a,\"b\"");
+        writer.number("value", Double.NaN);
+        writer.string("note", null);
+        writer.integer("count", -3);
+        writer.bool("ok", true);
+        writer.endRecord();
+    }
+
+    private static void writeSecond(RecordWriter writer) throws IOException {
+        writer.beginRecord();
+        writer.string("name", "plain");
+        writer.number("value", 2.5);
+        writer.string("note", "x\ny");
+        writer.integer("count", 150);
+        writer.bool("ok", false);
+        writer.endRecord();
+    }
+}
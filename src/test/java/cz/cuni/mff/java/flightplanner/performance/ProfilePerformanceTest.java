@@ -0,0 +1,106 @@
+package cz.cuni.mff.java.flightplanner.performance;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.StringReader;
+import cz.cuni.mff.java.flightplanner.dataobject.Wind;
+import cz.cuni.mff.java.flightplanner.geo.GreatCircle;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Checks the leg times and fuel of the performance profile in the calm and in
+ * the wind, the wind of the route and the reading of the performance table.
+ */
+class ProfilePerformanceTest {
+
+    /**
+     * The climb of 12 minutes over 20 NM burning 10 kg, the cruise at 120 kt
+     * burning 30 kg per hour and the descent of 12 minutes over 20 NM burning
+     * 5 kg.
+     */
+    private static final ProfilePerformance profile =
+            new ProfilePerformance("TEST", "Test aircraft", 5000, 12, 20, 10, 120, 30, 12, 20, 5);
+
+    @Test
+    void calmLegIsClimbCruiseAndDescent() {
+        assertEquals(0.4 + 200.0 / 120, profile.legTimeHours(240, 0, 0), 1e-9);
+        assertEquals(15 + 200.0 / 120 * 30, profile.legFuelKg(240, 0, 0), 1e-9);
+        // a leg shorter than the climb and the descent is their part
+        assertEquals(0.2, profile.legTimeHours(20, 0, 0), 1e-9);
+        assertEquals(7.5, profile.legFuelKg(20, 0, 0), 1e-9);
+    }
+
+    @Test
+    void windChangesTheGroundSpeed() {
+        // the tailwind of 20 kt lengthens the climb and the descent by 4 NM each
+        assertEquals(0.4 + (240 - 48) / 140.0, profile.legTimeHours(240, 20, 0), 1e-9);
+        assertTrue(profile.legTimeHours(240, -20, 0) > profile.legTimeHours(240, 0, 0));
+        // the crosswind of 72 kt leaves 96 kt along the course
+        assertEquals(0.4 + 200.0 / 96, profile.legTimeHours(240, 0, 72), 1e-9);
+        assertEquals(Double.POSITIVE_INFINITY, profile.legTimeHours(240, -130, 0));
+        assertEquals(Double.POSITIVE_INFINITY, profile.legFuelKg(240, 0, 120));
+    }
+
+    @Test
+    void incorrectProfilesAreRejected() {
+        assertThrows(IllegalArgumentException.class,
+                     () -> new ProfilePerformance("X", "", 5000, 12, 20, 10, 0, 30, 12, 20, 5));
+        assertThrows(IllegalArgumentException.class,
+                     () -> new ProfilePerformance("X", "", 5000, 12, 20, -1, 120, 30, 12, 20, 5));
+        // the climb of 30 NM in 12 minutes is faster than the cruise
+        assertThrows(IllegalArgumentException.class,
+                     () -> new ProfilePerformance("X", "", 5000, 12, 30, 10, 120, 30, 12, 20, 5));
+    }
+
+    @Test
+    void routeWindIsTheMeanOfTheReportedWinds() {
+        RouteWind west = RouteWind.of(new Wind(270, 20, Double.NaN), null);
+        assertEquals(20, west.getSpeedKt(), 1e-9);
+        assertEquals(270, west.getDirection());
+        assertEquals(20, west.tailwindKt(90), 1e-9);
+        assertEquals(-20, west.tailwindKt(270), 1e-9);
+        assertEquals(20, west.crosswindKt(0), 1e-9);
+
+        assertSame(RouteWind.calm, RouteWind.of(null, null));
+        RouteWind opposite = RouteWind.of(new Wind(360, 10, Double.NaN), new Wind(180, 10, Double.NaN));
+        assertEquals(0, opposite.getSpeedKt(), 1e-9);
+        RouteWind variable = RouteWind.of(new Wind(Wind.VARIABLE, 10, Double.NaN), new Wind(90, 10, Double.NaN));
+        assertEquals(5, variable.getSpeedKt(), 1e-9);
+
+        // the components of an eastbound leg on the equator
+        double[] a = GreatCircle.unitVector(0, 0, new double[3]), b = GreatCircle.unitVector(0, 2, new double[3]),
+                 components = new double[2];
+        west.components(a[0], a[1], a[2], b[0], b[1], b[2], components);
+        assertEquals(20, components[0], 1e-9);
+        assertEquals(0, components[1], 1e-9);
+    }
+
+    @Test
+    void tableIsReadByTheAircraftTypes() throws IOException {
+        PerformanceTable resource = PerformanceTable.ofResource();
+        assertNotNull(resource);
+        assertNotNull(resource.find("c172"));
+        assertNotNull(resource.find(" A320 "));
+        assertNull(resource.find("B747"));
+
+        String header = "type,description,cruise_altitude_ft,climb_min,climb_nm,climb_fuel_kg,cruise_tas_kt,"
+                        + "cruise_fuel_kg_h,descent_min,descent_nm,descent_fuel_kg\n";
+        PerformanceTable table = read("# comment\n" + header + "test,Test aircraft,5000,12,20,10,120,30,12,20,5\n");
+        assertEquals(profile.legTimeHours(240, 0, 0), table.find("TEST").legTimeHours(240, 0, 0));
+        assertTrue(assertThrows(IOException.class, () -> read(header + "X,,1,2,3\n")).getMessage().contains("2"));
+        assertTrue(assertThrows(IOException.class, () -> read(header + "\nX,,5000,12,20,10,0,30,12,20,5\n"))
+                           .getMessage().contains("3"));
+        assertThrows(IOException.class, () -> read("type,description\n"));
+    }
+
+    private static PerformanceTable read(String text) throws IOException {
+        return PerformanceTable.read(new BufferedReader(new StringReader(text)));
+    }
+}
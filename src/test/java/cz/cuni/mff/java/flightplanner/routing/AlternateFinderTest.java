@@ -0,0 +1,118 @@
+package cz.cuni.mff.java.flightplanner.routing;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import cz.cuni.mff.java.flightplanner.dataobject.APTCategory;
+import cz.cuni.mff.java.flightplanner.dataobject.Airport;
+import cz.cuni.mff.java.flightplanner.dataobject.TestAirports;
+import cz.cuni.mff.java.flightplanner.geo.GreatCircle;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Compares the alternates found in the corridor along a route with the
+ * distances of all the airports from the route computed one by one.
+ */
+class AlternateFinderTest {
+
+    private static final AirportGraph graph = RoutePlannerTest.graph;
+    private static final double corridorNm = 40;
+
+    @Test
+    void findsEveryAirportWithinTheCorridor() {
+        Route route = new RoutePlanner(graph).plan(TestAirports.code(0), TestAirports.code(1),
+                                                   RoutePlannerTest.options);
+        assertNotNull(route);
+        assertTrue(route.getLegs().size() > 1);
+
+        Map<Airport, Alternate> expected = nearestLegs(route.getStops(), corridorNm);
+        List<Alternate> found = new AlternateFinder(graph, null).find(route, corridorNm);
+        assertFalse(found.isEmpty());
+        assertEquals(expected.size(), found.size());
+        double previousAlong = Double.NEGATIVE_INFINITY;
+        for (Alternate alternate : found) {
+            Alternate reference = expected.get(alternate.getAirport());
+            assertNotNull(reference, alternate.getAirport().getIcaoCode());
+            assertEquals(reference.getLeg(), alternate.getLeg());
+            assertEquals(reference.getDistanceNm(), alternate.getDistanceNm(), 1e-6);
+            assertEquals(reference.getAlongTrackNm(), alternate.getAlongTrackNm(), 1e-6);
+            assertTrue(alternate.getAlongTrackNm() >= previousAlong);
+            previousAlong = alternate.getAlongTrackNm();
+        }
+    }
+
+    @Test
+    void alternatesSatisfyTheRestrictions() {
+        Route route = new RoutePlanner(graph).plan(TestAirports.code(2), TestAirports.code(3),
+                                                   RoutePlannerTest.options);
+        assertNotNull(route);
+        RouteRestrictions large = new RouteRestrictions(graph, List.of(new CategoryConstraint(
+                List.of(APTCategory.large_airport))));
+        List<Alternate> all = new AlternateFinder(graph, null).find(route, corridorNm),
+                        restricted = new AlternateFinder(graph, large).find(route, corridorNm);
+        assertTrue(restricted.size() < all.size());
+        for (Alternate alternate : all) {
+            boolean admitted = alternate.getAirport().getCat() == APTCategory.large_airport;
+            assertEquals(admitted, restricted.stream().anyMatch(a -> a.getAirport() == alternate.getAirport()));
+        }
+    }
+
+    @Test
+    void waypointsAreNotAlternates() {
+        Airport from = graph.airport(0), to = graph.airport(1);
+        List<Alternate> found = new AlternateFinder(graph, null).find(List.of(from, to), 10000);
+        assertEquals(graph.size() - 2, found.size());
+        for (Alternate alternate : found) {
+            assertTrue(alternate.getAirport() != from && alternate.getAirport() != to);
+        }
+        assertThrows(IllegalArgumentException.class, () -> new AlternateFinder(graph, null).find(List.of(from), -1));
+    }
+
+    /**
+     * @return The airports within the corridor with their nearest legs, the
+     *         waypoints left out.
+     */
+    private static Map<Airport, Alternate> nearestLegs(List<Airport> waypoints, double corridorNm) {
+        Map<Airport, Alternate> result = new HashMap<>();
+        for (int node = 0; node < graph.size(); node++) {
+            Airport airport = graph.airport(node);
+            if (waypoints.contains(airport)) continue;
+            Alternate best = null;
+            double legStart = 0;
+            for (int leg = 0; leg + 1 < waypoints.size(); leg++) {
+                Airport a = waypoints.get(leg), b = waypoints.get(leg + 1);
+                double length = GreatCircle.distanceNm(a.getGeoLat(), a.getGeoLong(), b.getGeoLat(), b.getGeoLong()),
+                       along = GreatCircle.alongTrackNm(a.getGeoLat(), a.getGeoLong(), b.getGeoLat(), b.getGeoLong(),
+                                                        airport.getGeoLat(), airport.getGeoLong()),
+                       distance;
+                if (along < 0) {
+                    distance = distance(airport, a);
+                    along = 0;
+                } else if (along > length) {
+                    distance = distance(airport, b);
+                    along = length;
+                } else {
+                    distance = Math.abs(GreatCircle.crossTrackNm(a.getGeoLat(), a.getGeoLong(), b.getGeoLat(),
+                                                                 b.getGeoLong(), airport.getGeoLat(),
+                                                                 airport.getGeoLong()));
+                }
+                if (distance <= corridorNm && (best == null || distance < best.getDistanceNm())) {
+                    best = new Alternate(airport, leg, legStart + along, 0, distance);
+                }
+                legStart += length;
+            }
+            if (best != null) result.put(airport, best);
+        }
+        return result;
+    }
+
+    private static double distance(Airport a, Airport b) {
+        return GreatCircle.distanceNm(a.getGeoLat(), a.getGeoLong(), b.getGeoLat(), b.getGeoLong());
+    }
+}
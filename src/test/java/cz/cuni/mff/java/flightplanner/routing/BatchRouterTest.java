@@ -0,0 +1,87 @@
+package cz.cuni.mff.java.flightplanner.routing;
+
+import java.io.IOException;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Compares the routes planned in parallel by the {@link BatchRouter} with the
+ * routes of one {@link RoutePlanner} and checks the order of the consumed
+ * routes.
+ */
+class BatchRouterTest {
+
+    private static final AirportGraph graph = RoutePlannerTest.graph;
+
+    @Test
+    void parallelRoutesMatchTheSequentialOnes() throws IOException {
+        // more pairs than one block, so that the blocks follow each other
+        int count = BatchRouter.blockSize * 2 + 100;
+        int[] from = new int[count], to = new int[count];
+        Random random = new Random(48);
+        for (int i = 0; i < count; i++) {
+            from[i] = random.nextInt(graph.size());
+            to[i] = random.nextInt(graph.size());
+        }
+        // the short range leaves some of the destinations unreachable
+        for (RouteOptions options : new RouteOptions[] { RoutePlannerTest.options, new RouteOptions(45, 30) }) {
+            LandmarkIndex landmarks = LandmarkIndex.build(graph, options, 4);
+            RoutePlanner planner = new RoutePlanner(graph);
+            Thread caller = Thread.currentThread();
+            int[] next = { 0 }, reached = { 0 };
+            int found;
+            try (BatchRouter router = new BatchRouter(graph, landmarks, 3)) {
+                found = router.route(from, to, options, null, (pair, departure, destination, route) -> {
+                    assertSame(caller, Thread.currentThread());
+                    assertEquals(next[0]++, pair);
+                    assertEquals(from[pair], departure);
+                    assertEquals(to[pair], destination);
+                    Route expected = planner.plan(departure, destination, options);
+                    if (expected == null) {
+                        assertNull(route);
+                        return;
+                    }
+                    assertNotNull(route);
+                    assertEquals(expected.getCost(), route.getCost(), 1e-6);
+                    reached[0]++;
+                });
+            }
+            assertEquals(count, next[0]);
+            assertEquals(reached[0], found);
+            assertTrue(found > 0);
+        }
+    }
+
+    @Test
+    void failingConsumerStopsThePlanning() {
+        int[] from = new int[BatchRouter.blockSize * 2], to = new int[from.length];
+        int[] consumed = { 0 };
+        try (BatchRouter router = new BatchRouter(graph, null, 2)) {
+            assertThrows(IOException.class, () -> router.route(from, to, RoutePlannerTest.options, null,
+                                                               (pair, departure, destination, route) -> {
+                consumed[0]++;
+                if (pair == 10) throw new IOException("The disk is full.");
+            }));
+        }
+        assertEquals(11, consumed[0]);
+    }
+
+    @Test
+    void incorrectPairsAreRejected() {
+        try (BatchRouter router = new BatchRouter(graph, null, 1)) {
+            assertThrows(IllegalArgumentException.class,
+                         () -> router.route(new int[2], new int[1], RoutePlannerTest.options, null,
+                                            (pair, departure, destination, route) -> { }));
+            assertThrows(IllegalArgumentException.class,
+                         () -> router.route(new int[] { 0 }, new int[] { graph.size() }, RoutePlannerTest.options,
+                                            null, (pair, departure, destination, route) -> { }));
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package cz.cuni.mff.java.flightplanner.routing;
+
+import java.util.Arrays;
+import cz.cuni.mff.java.flightplanner.util.NotNull;
+import cz.cuni.mff.java.flightplanner.util.Nullable;
+
+/**
+ * The plain Dijkstra search over all the pairs of the nodes, the reference
+ * the optimized searches are compared with. The legs cost their distance plus
+ * the stop penalty, the restrictions apply to the intermediate stops.
+ */
+final class Dijkstra {
+
+    private Dijkstra() {
+    }
+
+    /**
+     * @return The cost of the cheapest route, infinite if the destination can
+     *         not be reached.
+     */
+    static double cost(@NotNull AirportGraph graph, int from, int to, @NotNull RouteOptions options,
+                       @Nullable RouteRestrictions restrictions) {
+        return costs(graph, from, options, restrictions, to)[to];
+    }
+
+    /**
+     * @param goal The destination, which is exempt from the restrictions, or
+     *             -1 if every node is an intermediate stop.
+     * @return The costs of the cheapest routes from the node to all the nodes,
+     *         infinite for the nodes which can not be reached.
+     */
+    static @NotNull double[] costs(@NotNull AirportGraph graph, int from, @NotNull RouteOptions options,
+                                   @Nullable RouteRestrictions restrictions, int goal) {
+        int n = graph.size();
+        double[] cost = new double[n];
+        boolean[] done = new boolean[n];
+        Arrays.fill(cost, Double.POSITIVE_INFINITY);
+        cost[from] = 0;
+        while (true) {
+            int node = -1;
+            for (int v = 0; v < n; v++) {
+                if (!done[v] && cost[v] < Double.POSITIVE_INFINITY && (node < 0 || cost[v] < cost[node])) node = v;
+            }
+            if (node < 0) return cost;
+            done[node] = true;
+            for (int v = 0; v < n; v++) {
+                if (done[v]) continue;
+                double distance = graph.distanceNm(node, v);
+                if (distance > options.getRangeNm()) continue;
+                double candidate = cost[node] + distance + options.getStopPenaltyNm();
+                if (restrictions != null && v != goal) {
+                    if (!restrictions.admits(v)) continue;
+                    candidate += restrictions.stopCost(v);
+                }
+                cost[v] = Math.min(cost[v], candidate);
+            }
+        }
+    }
+}
@@ -0,0 +1,101 @@
+package cz.cuni.mff.java.flightplanner.routing;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import cz.cuni.mff.java.flightplanner.dataobject.Airport;
+import cz.cuni.mff.java.flightplanner.dataobject.TestAirports;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Checks the landmark (ALT) index: its bounds never exceed the costs of the
+ * plain Dijkstra search, the routes found with it are the cheapest ones and
+ * the index repaired for the changed airports is exact.
+ */
+class LandmarkIndexTest {
+
+    private static final RouteOptions options = RoutePlannerTest.options;
+
+    @Test
+    void boundsNeverExceedTheCosts() {
+        AirportGraph graph = RoutePlannerTest.graph;
+        LandmarkIndex index = LandmarkIndex.build(graph, options, 8);
+        Random random = new Random(2);
+        for (int i = 0; i < 10; i++) {
+            int from = random.nextInt(graph.size());
+            double[] costs = Dijkstra.costs(graph, from, options, null, -1);
+            for (int to = 0; to < graph.size(); to++) {
+                if (costs[to] < Double.POSITIVE_INFINITY) {
+                    assertTrue(index.lowerBound(from, to) <= costs[to] + 1e-6);
+                }
+            }
+        }
+    }
+
+    @Test
+    void routesWithLandmarksAreTheCheapest() {
+        AirportGraph graph = RoutePlannerTest.graph;
+        LandmarkIndex index = LandmarkIndex.build(graph, options, 8);
+        RoutePlanner plain = new RoutePlanner(graph), withLandmarks = new RoutePlanner(graph, index);
+        Random random = new Random(3);
+        int expandedPlain = 0, expandedWithLandmarks = 0;
+        for (int i = 0; i < 40; i++) {
+            int from = random.nextInt(graph.size()), to = random.nextInt(graph.size());
+            Route expected = plain.plan(from, to, options), route = withLandmarks.plan(from, to, options);
+            assertNotNull(expected);
+            assertNotNull(route);
+            assertEquals(Dijkstra.cost(graph, from, to, options, null), route.getCost(), 1e-6);
+            expandedPlain += expected.getExpandedNodes();
+            expandedWithLandmarks += route.getExpandedNodes();
+        }
+        assertTrue(expandedWithLandmarks <= expandedPlain);
+    }
+
+    @Test
+    void indexServesOnlyItsOptions() {
+        LandmarkIndex index = LandmarkIndex.build(RoutePlannerTest.graph, options, 4);
+        assertTrue(index.supports(new RouteOptions(options.getRangeNm(), options.getStopPenaltyNm())));
+        assertFalse(index.supports(new RouteOptions(options.getRangeNm() + 1, options.getStopPenaltyNm())));
+        assertFalse(index.supports(new RouteOptions(options.getRangeNm(), options.getStopPenaltyNm() + 1)));
+    }
+
+    @Test
+    void savedIndexIsRepairedForChangedAirports(@TempDir Path directory) {
+        Path file = directory.resolve("landmarks.bin");
+        Map<String, Airport> airports = TestAirports.random(320, 42, 45, 55, 0, 20);
+        List<Airport> before = new ArrayList<>(), after = new ArrayList<>();
+        for (int i = 0; i < 300; i++) {
+            before.add(airports.get(TestAirports.code(i)));
+        }
+        LandmarkIndex built = LandmarkIndex.open(file, new AirportGraph(before), options, 8);
+        for (int i = 0; i < 320; i++) {
+            Airport airport = airports.get(TestAirports.code(i));
+            // some of the old airports, but no landmark, are removed and new ones are added
+            if (i % 15 != 7 || built.getLandmarks().contains(airport)) after.add(airport);
+        }
+        AirportGraph graph = new AirportGraph(after);
+        LandmarkIndex repaired = LandmarkIndex.open(file, graph, options, 8);
+        assertEquals(graph, repaired.getGraph());
+
+        // the bound from a landmark is its exact cost, the other landmarks never exceed it
+        for (Airport landmark : repaired.getLandmarks()) {
+            int l = graph.nodeOf(landmark);
+            double[] costs = Dijkstra.costs(graph, l, options, null, -1);
+            for (int node = 0; node < graph.size(); node++) {
+                if (costs[node] < Double.POSITIVE_INFINITY) {
+                    assertEquals(costs[node], repaired.lowerBound(l, node), 1e-6);
+                }
+            }
+        }
+        // no landmark was removed, so the index was repaired and not built again
+        assertEquals(built.getLandmarks(), repaired.getLandmarks());
+    }
+}
@@ -0,0 +1,82 @@
+package cz.cuni.mff.java.flightplanner.routing;
+
+import java.util.List;
+import java.util.Random;
+import cz.cuni.mff.java.flightplanner.dataobject.Airport;
+import cz.cuni.mff.java.flightplanner.dataobject.TestAirports;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Compares the routes of the A* search with the plain Dijkstra search on the
+ * random airports of central Europe.
+ */
+class RoutePlannerTest {
+
+    static final AirportGraph graph = new AirportGraph(TestAirports.random(300, 41, 45, 55, 0, 20).values());
+    static final RouteOptions options = new RouteOptions(150, 30);
+
+    @Test
+    void findsTheCheapestRoutes() {
+        RoutePlanner planner = new RoutePlanner(graph);
+        Random random = new Random(1);
+        int planned = 0;
+        for (int i = 0; i < 40; i++) {
+            int from = random.nextInt(graph.size()), to = random.nextInt(graph.size());
+            double expected = Dijkstra.cost(graph, from, to, options, null);
+            Route route = planner.plan(from, to, options);
+            if (expected == Double.POSITIVE_INFINITY) {
+                assertNull(route);
+                continue;
+            }
+            assertNotNull(route);
+            assertEquals(expected, route.getCost(), 1e-6);
+            planned++;
+        }
+        assertTrue(planned > 30);
+    }
+
+    @Test
+    void routeConsistsOfLegsWithinRange() {
+        Route route = new RoutePlanner(graph).plan(TestAirports.code(0), TestAirports.code(1), options);
+        assertNotNull(route);
+        List<Airport> stops = route.getStops();
+        assertEquals(TestAirports.code(0), stops.get(0).getIcaoCode());
+        assertEquals(TestAirports.code(1), stops.get(stops.size() - 1).getIcaoCode());
+        double distance = 0;
+        for (RouteLeg leg : route.getLegs()) {
+            assertTrue(leg.getDistanceNm() <= options.getRangeNm());
+            distance += leg.getDistanceNm();
+        }
+        assertEquals(distance, route.getDistanceNm(), 1e-6);
+        assertEquals(distance + route.getLegs().size() * options.getStopPenaltyNm(), route.getCost(), 1e-6);
+    }
+
+    @Test
+    void returnsNullIfTheDestinationIsOutOfRange() {
+        assertNull(new RoutePlanner(graph).plan(TestAirports.code(0), TestAirports.code(1), new RouteOptions(1)));
+    }
+
+    @Test
+    void plannerCanBeReused() {
+        RoutePlanner planner = new RoutePlanner(graph);
+        Route first = planner.plan(0, graph.size() - 1, options);
+        planner.plan(1, 2, options);
+        Route again = planner.plan(0, graph.size() - 1, options);
+        assertNotNull(first);
+        assertNotNull(again);
+        assertEquals(first.getCost(), again.getCost());
+        assertEquals(first.getStops(), again.getStops());
+    }
+
+    @Test
+    void rejectsUnknownAirports() {
+        assertThrows(IllegalArgumentException.class,
+                     () -> new RoutePlanner(graph).plan("XXXX", TestAirports.code(1), options));
+    }
+}
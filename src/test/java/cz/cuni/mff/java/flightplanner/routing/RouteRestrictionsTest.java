@@ -0,0 +1,82 @@
+package cz.cuni.mff.java.flightplanner.routing;
+
+import java.util.List;
+import java.util.Random;
+import cz.cuni.mff.java.flightplanner.dataobject.APTCategory;
+import cz.cuni.mff.java.flightplanner.dataobject.Airport;
+import cz.cuni.mff.java.flightplanner.dataobject.TestAirports;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Checks that the restricted routes stop only at the admitted airports and
+ * that they are the cheapest ones including the costs of the stops.
+ */
+class RouteRestrictionsTest {
+
+    private static final AirportGraph graph = RoutePlannerTest.graph;
+    private static final RouteOptions options = RoutePlannerTest.options;
+
+    @Test
+    void restrictedRoutesAreTheCheapest() {
+        RouteConstraint runway = new RunwayConstraint(4000, List.of("asp"), false);
+        StopCost largeAirports = airport -> airport.getCat() == APTCategory.large_airport ? 80 : 0;
+        RouteRestrictions restrictions = new RouteRestrictions(graph, List.of(runway), List.of(largeAirports));
+        RoutePlanner planner = new RoutePlanner(graph);
+        Random random = new Random(4);
+        int planned = 0;
+        for (int i = 0; i < 40; i++) {
+            int from = random.nextInt(graph.size()), to = random.nextInt(graph.size());
+            double expected = Dijkstra.cost(graph, from, to, options, restrictions);
+            Route route = planner.plan(from, to, options, restrictions);
+            if (expected == Double.POSITIVE_INFINITY) {
+                assertNull(route);
+                continue;
+            }
+            assertNotNull(route);
+            assertEquals(expected, route.getCost(), 1e-6);
+            List<Airport> stops = route.getStops();
+            for (Airport stop : stops.subList(1, stops.size() - 1)) {
+                assertTrue(runway.admits(stop));
+            }
+            planned++;
+        }
+        assertTrue(planned > 0);
+    }
+
+    @Test
+    void destinationIsExemptFromTheConstraints() {
+        RouteRestrictions nothing = new RouteRestrictions(graph, List.of(airport -> false));
+        assertEquals(0, nothing.eligibleCount());
+        int from = 0, to = -1;
+        for (int node = 1; node < graph.size() && to < 0; node++) {
+            if (graph.distanceNm(from, node) <= options.getRangeNm()) to = node;
+        }
+        Route route = new RoutePlanner(graph).plan(from, to, options, nothing);
+        assertNotNull(route);
+        assertEquals(1, route.getLegs().size());
+    }
+
+    @Test
+    void runwayConstraintChecksTheLongestRunway() {
+        Airport airport = TestAirports.of(TestAirports.line("QQQQ", 50, 14)).get("QQQQ");
+        assertTrue(new RunwayConstraint(3000, null, false).admits(airport));
+        assertTrue(new RunwayConstraint(2000, List.of(" ASP "), false).admits(airport));
+        assertFalse(new RunwayConstraint(3001, null, false).admits(airport));
+        assertFalse(new RunwayConstraint(2000, List.of("grass"), false).admits(airport));
+    }
+
+    @Test
+    void categoriesAreParsedByTheirNames() {
+        Airport airport = TestAirports.of(TestAirports.line("QQQQ", 50, 14)).get("QQQQ");
+        assertTrue(CategoryConstraint.parse("small, Large_airport").admits(airport));
+        assertFalse(CategoryConstraint.parse("medium").admits(airport));
+        assertThrows(IllegalArgumentException.class, () -> CategoryConstraint.parse("seaplane"));
+    }
+}
@@ -0,0 +1,63 @@
+package cz.cuni.mff.java.flightplanner.service;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Checks the boundaries of the exponential buckets and the percentiles
+ * reported from them.
+ */
+class LatencyHistogramTest {
+
+    @Test
+    void bucketsCoverTheLatenciesWithoutGaps() {
+        assertEquals(0, LatencyHistogram.bucketOf(0));
+        assertEquals(3, LatencyHistogram.bucketOf(3));
+        assertEquals(4, LatencyHistogram.bucketOf(4));
+        assertEquals(7, LatencyHistogram.bucketOf(7));
+        // from 8 microseconds on each power of two is split into four buckets
+        assertEquals(8, LatencyHistogram.bucketOf(8));
+        assertEquals(8, LatencyHistogram.bucketOf(9));
+        assertEquals(9, LatencyHistogram.bucketOf(10));
+        assertEquals(1024, LatencyHistogram.upperBoundMicros(LatencyHistogram.bucketOf(1000)));
+        assertEquals(1280, LatencyHistogram.upperBoundMicros(LatencyHistogram.bucketOf(1024)));
+
+        int previous = 0;
+        for (long micros = 1; micros < 1L << 33; micros += 1 + micros / 50) {
+            int bucket = LatencyHistogram.bucketOf(micros);
+            assertTrue(bucket == previous || bucket == previous + 1, "micros = " + micros);
+            long lower = bucket == 0 ? 0 : LatencyHistogram.upperBoundMicros(bucket - 1),
+                 upper = LatencyHistogram.upperBoundMicros(bucket);
+            assertTrue(lower <= micros && micros < upper, "micros = " + micros);
+            assertTrue(micros < 4 || upper - lower <= lower / 4, "micros = " + micros);
+            previous = bucket;
+        }
+        // the last bucket starts at about 125 minutes and takes all the longer latencies
+        assertEquals(127, LatencyHistogram.bucketOf(Long.MAX_VALUE / 1000));
+        assertEquals(126, LatencyHistogram.bucketOf(7_516_192_767L));
+        assertEquals(127, LatencyHistogram.bucketOf(7_516_192_768L));
+    }
+
+    @Test
+    void percentilesAreTheUpperBoundsOfTheBuckets() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        assertEquals(0, histogram.quantileMillis(0.5));
+        for (int i = 0; i < 90; i++) histogram.record(1_000_000);           // 1 ms
+        for (int i = 0; i < 10; i++) histogram.record(100_000_000);         // 100 ms
+        assertEquals(100, histogram.getCount());
+        assertEquals(10.9, histogram.getMeanMillis(), 1e-9);
+        assertEquals(1.024, histogram.quantileMillis(0.5));
+        assertEquals(1.024, histogram.quantileMillis(0.9));
+        // the upper bound of the last bucket is limited by the maximum
+        assertEquals(100, histogram.quantileMillis(0.91));
+        assertEquals(100, histogram.quantileMillis(1));
+        assertEquals(1.024, histogram.quantileMillis(0));
+
+        JsonWriter json = new JsonWriter();
+        histogram.writeJson(json);
+        assertEquals("{\"count\":100,\"meanMs\":10.9,\"p50Ms\":1.024,\"p90Ms\":1.024,\"p99Ms\":100,\"maxMs\":100}",
+                     json.toString());
+    }
+}
@@ -0,0 +1,85 @@
+package cz.cuni.mff.java.flightplanner.stats;
+
+import java.util.Arrays;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Checks the quantiles estimated by the t-digest against the exact quantiles
+ * of the sorted values, also after merging the partial digests.
+ */
+class TDigestTest {
+
+    private static final double[] quantiles = { 0.001, 0.01, 0.1, 0.25, 0.5, 0.75, 0.9, 0.99, 0.999 };
+
+    @Test
+    void quantilesOfTheUniformValues() {
+        TDigest digest = new TDigest();
+        Random random = new Random(30);
+        for (int i = 0; i < 100_000; i++) digest.add(random.nextDouble());
+        assertEquals(100_000, digest.size());
+        for (double q : quantiles) {
+            // the error is the smaller the closer the quantile is to the tail
+            assertEquals(q, digest.quantile(q), Math.max(0.0005, 0.02 * Math.min(q, 1 - q)), "q = " + q);
+        }
+        assertEquals(digest.getMin(), digest.quantile(0));
+        assertEquals(digest.getMax(), digest.quantile(1));
+    }
+
+    @Test
+    void quantilesOfTheSkewedValues() {
+        TDigest digest = new TDigest();
+        Random random = new Random(31);
+        double[] values = new double[50_000];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = -Math.log(1 - random.nextDouble()) * 10;
+            digest.add(values[i]);
+        }
+        Arrays.sort(values);
+        for (double q : quantiles) {
+            // the sparse tail is compared by the rank of the estimate, not by its value
+            int rank = Arrays.binarySearch(values, digest.quantile(q));
+            double fraction = (rank < 0 ? -rank - 1 : rank) / (double) values.length;
+            assertEquals(q, fraction, Math.max(0.0005, 0.02 * Math.min(q, 1 - q)), "q = " + q);
+        }
+    }
+
+    @Test
+    void mergedDigestsEstimateAllTheValues() {
+        TDigest whole = new TDigest(), lower = new TDigest(), upper = new TDigest();
+        for (int i = 0; i < 20_000; i++) {
+            whole.add(i);
+            (i < 5_000 ? lower : upper).add(i);
+        }
+        TDigest merged = new TDigest().merge(lower).merge(upper).merge(new TDigest());
+        assertEquals(whole.size(), merged.size());
+        assertEquals(0, merged.getMin());
+        assertEquals(19_999, merged.getMax());
+        for (double q : quantiles) {
+            assertEquals(q * 20_000, merged.quantile(q), 0.01 * 20_000, "q = " + q);
+            assertEquals(whole.quantile(q), merged.quantile(q), 0.01 * 20_000, "q = " + q);
+        }
+        // the merged digests are not changed
+        assertEquals(5_000, lower.size());
+        assertEquals(4_999, lower.getMax());
+    }
+
+    @Test
+    void emptyAndConstantDigests() {
+        TDigest digest = new TDigest();
+        assertTrue(Double.isNaN(digest.quantile(0.5)));
+        assertTrue(Double.isNaN(digest.getMin()));
+        digest.add(Double.NaN);
+        assertEquals(0, digest.size());
+        for (int i = 0; i < 1000; i++) digest.add(7);
+        assertEquals(7, digest.quantile(0.01));
+        assertEquals(7, digest.quantile(0.99));
+
+        assertThrows(IllegalArgumentException.class, () -> digest.quantile(1.5));
+        assertThrows(IllegalArgumentException.class, () -> new TDigest(5));
+    }
+}
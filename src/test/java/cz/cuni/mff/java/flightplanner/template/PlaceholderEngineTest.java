@@ -0,0 +1,64 @@
+package cz.cuni.mff.java.flightplanner.template;
+
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Checks that the compiled templates render the same text as the chains of
+ * {@link String#replace} they replaced, in particular the longest match of the
+ * placeholders without a closing delimiter.
+ */
+class PlaceholderEngineTest {
+
+    private final PlaceholderEngine engine = new PlaceholderEngine();
+
+    @Test
+    void longestParameterNameIsMatched() {
+        Template template = engine.compile("%vCON: %CONTAM, %vCONT", List.of("vCON", "CONTAM", "CON"));
+        assertEquals(List.of("vCON", "CONTAM", "CON"), template.parameters());
+        assertEquals("Contamination: wet snow, ContaminationT", template.render("Contamination", "wet snow", "x"));
+        // the shorter name is used where the longer one does not match
+        Template shorter = engine.compile("%CON-%CONTAM-%CONTAMX", List.of("CON", "CONTAM"));
+        assertEquals("a-b-bX", shorter.render("a", "b"));
+    }
+
+    @Test
+    void placeholdersFollowedByTextAreSeparated() {
+        Template template = engine.compile("%INITRunway %RWY or %RWYL", List.of("INIT", "RWY"));
+        assertEquals("> Runway 09 or 09L", template.render("> ", "09"));
+    }
+
+    @Test
+    void unknownPlaceholdersAreKept() {
+        Template template = engine.compile("100 % of %X, %Y and %", List.of("X"));
+        assertEquals("100 % of 1, %Y and %", template.render(1));
+        assertEquals("%VALUE", engine.compile("%VALUE", List.of()).render());
+        assertEquals("", engine.compile("", List.of("X")).render("unused"));
+    }
+
+    @Test
+    void valuesMustMatchTheParameters() {
+        Template template = engine.compile("%A%B", List.of("A", "B"));
+        assertEquals("12", template.render(1, 2));
+        assertEquals("nullB", template.render(null, "B"));
+        assertThrows(IllegalArgumentException.class, () -> template.render(1));
+        StringBuilder sb = new StringBuilder("x");
+        template.appendTo(sb, "y", "z");
+        assertEquals("xyz", sb.toString());
+    }
+
+    @Test
+    void rendersTheSameAsTheReplaceChain() {
+        String source = "%INITRunway state descriptor:\n\tRunway(s) concerned: %RWY\n\t %vCON: %CONTAM\n\t"
+                        + " %vEXT: %EXTENT\n\t%vDEP: %DEPTH\n\t%vBR: %BRACT";
+        String[] names = { "INIT", "RWY", "vCON", "CONTAM", "vEXT", "EXTENT", "vDEP", "DEPTH", "vBR", "BRACT" };
+        String[] values = { "", "27", "Contamination", "wet", "Extent", "51-100%", "Depth", "01 mm",
+                            "Braking", "action good" };
+        String replaced = source;
+        for (int i = 0; i < names.length; i++) replaced = replaced.replace("%" + names[i], values[i]);
+        assertEquals(replaced, Templates.compile("test.rsg", source, names).render((Object[]) values));
+    }
+}
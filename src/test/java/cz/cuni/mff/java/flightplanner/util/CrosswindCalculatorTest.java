@@ -0,0 +1,103 @@
+package cz.cuni.mff.java.flightplanner.util;
+
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import cz.cuni.mff.java.flightplanner.dataobject.Airport;
+import cz.cuni.mff.java.flightplanner.dataobject.TestAirports;
+import cz.cuni.mff.java.flightplanner.dataobject.Wind;
+import cz.cuni.mff.java.flightplanner.util.CrosswindCalculator.RunwayWind;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Checks the wind components of the runway ends, the side of the crosswind,
+ * the gusts, the variable wind and the ranking of the usable runway ends.
+ */
+class CrosswindCalculatorTest {
+
+    /**
+     * LKAA has the runways 09/27 (3000 ft) and 05/23 (6000 ft), LKBB has the
+     * parallel runways 09/27 (3000 ft) and 09L/27R (6000 ft).
+     */
+    private static final Map<String, Airport> airports =
+            TestAirports.of(TestAirports.line("LKAA", 50, 14) + ",RUNWAY,6000,98,ASP,1,0,05,,,,,,23,,,,,",
+                            TestAirports.line("LKBB", 49, 16) + ",RUNWAY,6000,98,ASP,1,0,09L,,,,,,27R,,,,,");
+    private static final Airport twoRunways = airports.get("LKAA"), parallelRunways = airports.get("LKBB");
+
+    @Test
+    void crosswindSideFollowsTheRunwayEnd() {
+        List<RunwayWind> ends = new CrosswindCalculator(15, 5, false).components(twoRunways,
+                                                                                 new Wind(360, 10, Double.NaN));
+        assertEquals(4, ends.size());
+        RunwayWind east = find(ends, "09"), west = find(ends, "27"), northEast = find(ends, "05");
+        assertEquals(90, east.getHeading(), 1e-9);
+        // the northern wind blows from the left of the runway 09 and from the right of the runway 27
+        assertEquals(10, east.getCrosswind(), 1e-9);
+        assertFalse(east.isFromRight());
+        assertEquals(0, east.getHeadwind(), 1e-9);
+        assertEquals(10, west.getCrosswind(), 1e-9);
+        assertTrue(west.isFromRight());
+        assertEquals(10 * Math.cos(Math.toRadians(50)), northEast.getHeadwind(), 1e-9);
+        assertEquals(10 * Math.sin(Math.toRadians(50)), northEast.getCrosswind(), 1e-9);
+        assertEquals(northEast.getHeadwind(), find(ends, "23").getTailwind(), 1e-9);
+        assertEquals(0, northEast.getTailwind());
+    }
+
+    @Test
+    void gustsAreComparedOnlyIfIncluded() {
+        Wind gusty = new Wind(300, 20, 30);
+        RunwayWind mean = find(new CrosswindCalculator(12, 5, false).components(twoRunways, gusty), "27"),
+                   gusts = find(new CrosswindCalculator(12, 5, true).components(twoRunways, gusty), "27");
+        assertEquals(20 * Math.cos(Math.toRadians(30)), mean.getHeadwind(), 1e-9);
+        assertEquals(10, mean.getCrosswind(), 1e-9);
+        assertTrue(mean.isFromRight());
+        assertEquals(30 * Math.cos(Math.toRadians(30)), mean.getGustHeadwind(), 1e-9);
+        assertEquals(15, mean.getGustCrosswind(), 1e-9);
+        assertTrue(mean.isUsable());
+        assertFalse(gusts.isUsable());
+        RunwayWind opposite = find(new CrosswindCalculator(12, 5, false).components(twoRunways, gusty), "09");
+        assertEquals(30 * Math.cos(Math.toRadians(30)), opposite.getGustTailwind(), 1e-9);
+    }
+
+    @Test
+    void variableWindIsFullCrosswindAndFullTailwind() {
+        Wind variable = new Wind(Wind.VARIABLE, 5, 8);
+        for (RunwayWind end : new CrosswindCalculator(15, 5, false).components(twoRunways, variable)) {
+            assertEquals(5, end.getTailwind(), 1e-9, end.getDesignator());
+            assertEquals(5, end.getCrosswind(), 1e-9, end.getDesignator());
+            assertEquals(8, end.getGustTailwind(), 1e-9, end.getDesignator());
+            assertEquals(8, end.getGustCrosswind(), 1e-9, end.getDesignator());
+            assertTrue(end.isUsable());
+        }
+        assertEquals(List.of(), new CrosswindCalculator(15, 4, false).usableRunways(twoRunways, variable));
+        assertEquals(List.of(), new CrosswindCalculator(15, 5, true).usableRunways(twoRunways, variable));
+    }
+
+    @Test
+    void usableRunwaysAreRanked() {
+        CrosswindCalculator calculator = new CrosswindCalculator(15, 5, false);
+        // 23 has the stronger headwind than 27, the tailwind of 05 and 09 is above the limit
+        List<RunwayWind> usable = calculator.usableRunways(twoRunways, new Wind(240, 10, Double.NaN));
+        assertEquals(List.of("23", "27"), designators(usable));
+        // the same components: the longer runway is better
+        usable = calculator.usableRunways(parallelRunways, new Wind(90, 10, Double.NaN));
+        assertEquals(List.of("09L", "09"), designators(usable));
+
+        Map<String, List<RunwayWind>> region =
+                calculator.usableRunways(airports.values(), Map.of("LKAA", new Wind(240, 10, Double.NaN)));
+        assertEquals(1, region.size());
+        assertEquals(List.of("23", "27"), designators(region.get("LKAA")));
+    }
+
+    private static RunwayWind find(List<RunwayWind> ends, String designator) {
+        return ends.stream().filter(end -> designator.equals(end.getDesignator())).findFirst().orElseThrow();
+    }
+
+    private static List<String> designators(List<RunwayWind> ends) {
+        return ends.stream().map(RunwayWind::getDesignator).collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,54 @@
+package cz.cuni.mff.java.flightplanner.util;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Checks that the perfect hash of the dictionary finds every abbreviation of
+ * the resource with its meaning and nothing else.
+ */
+class METARDictionaryTest {
+
+    @Test
+    void everyKeyOfTheResourceIsFound() throws IOException {
+        Map<String, String> expected = new LinkedHashMap<>();
+        try (InputStream in = METARDictionaryTest.class.getResourceAsStream("/metarDictionary.txt")) {
+            assertNotNull(in);
+            BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+            String line;
+            while ((line = reader.readLine()) != null) {
+                int separator = line.indexOf('=');
+                if (separator > 0) expected.put(line.substring(0, separator), line.substring(separator + 1));
+            }
+        }
+        assertTrue(METARDictionary.isAvailable());
+        assertEquals(expected.size(), METARDictionary.size());
+        for (Map.Entry<String, String> entry : expected.entrySet()) {
+            assertEquals(entry.getValue(), METARDictionary.get(entry.getKey()), entry.getKey());
+        }
+        assertEquals("light", METARDictionary.get("-"));
+        assertEquals("heavy", METARDictionary.get("+"));
+        assertEquals("altimeter", METARDictionary.get("A"));
+    }
+
+    @Test
+    void missingKeysAreNotFound() {
+        assertNull(METARDictionary.get(""));
+        assertNull(METARDictionary.get("QQQQ"));
+        assertNull(METARDictionary.get("light"));
+        assertNull(METARDictionary.get("a"));
+        assertNull(METARDictionary.get("-="));
+        assertNull(METARDictionary.get("AAL "));
+    }
+}
@@ -0,0 +1,125 @@
+package cz.cuni.mff.java.flightplanner.util;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import cz.cuni.mff.java.flightplanner.util.METARWatcher.ChangeKind;
+import cz.cuni.mff.java.flightplanner.util.METARWatcher.WeatherChange;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Checks the changes reported by the watcher over two polls of a fake
+ * provider: the first poll only records the baseline, the second one reports
+ * the new special report, the change of the flight category and the new
+ * windshear.
+ */
+class METARWatcherTest {
+
+    private static final String vfr = "24010KT 9999 FEW040 10/05 Q1013",
+                                ifr = "24010KT 2000 BR OVC005 08/07 Q1010";
+
+    private final ZonedDateTime now = ZonedDateTime.now(ZoneOffset.UTC).truncatedTo(ChronoUnit.MINUTES);
+    private final ExecutorService workers = Executors.newFixedThreadPool(2);
+    private final List<String> lines = new ArrayList<>();
+    private final List<ZonedDateTime> requestedFrom = new ArrayList<>();
+    private final List<WeatherChange> changes = new ArrayList<>();
+
+    /**
+     * The provider which serves the {@link #lines} of LKPR and fails for any
+     * other station.
+     */
+    private final Downloader downloader = new Downloader() {
+        @Override
+        public List<String> fetchMETARLines(ZonedDateTime timeFrom, ZonedDateTime timeTo, String icaoCode)
+                throws IOException {
+            if (!"LKPR".equals(icaoCode)) throw new IOException("No such station.");
+            synchronized (requestedFrom) {
+                requestedFrom.add(timeFrom);
+            }
+            return List.copyOf(lines);
+        }
+    };
+
+    @AfterEach
+    void shutdown() {
+        workers.shutdownNow();
+    }
+
+    @Test
+    void onlyTheChangesAfterTheFirstPollAreReported() {
+        METARWatcher watcher = new METARWatcher(List.of("LKPR", "LKXX"), Duration.ofMinutes(10),
+                                                Duration.ofHours(1), 2, downloader, changes::add);
+        // the special report and the windshear within the lookback are the baseline, not changes
+        lines.add(line(50, "SPECI", "WS ALL RWY " + ifr));
+        lines.add(line(30, "METAR", vfr));
+        watcher.poll(workers);
+        assertEquals(List.of(), changes);
+        // the first poll looks one hour back
+        assertTrue(requestedFrom.get(0).isAfter(now.minusMinutes(61)));
+        assertTrue(requestedFrom.get(0).isBefore(now.minusMinutes(58)));
+
+        lines.add(line(20, "SPECI", ifr));
+        lines.add(line(10, "METAR", "WS ALL RWY " + ifr));
+        watcher.poll(workers);
+        // the next poll asks only for the reports after the last one seen
+        assertEquals(now.minusMinutes(29), requestedFrom.get(1));
+        assertEquals(3, changes.size(), changes.toString());
+        assertEquals(ChangeKind.NEW_SPECI, changes.get(0).getKind());
+        assertEquals(ChangeKind.CATEGORY_CHANGE, changes.get(1).getKind());
+        assertEquals(now.minusMinutes(30), changes.get(1).getPrevious().getTime());
+        assertEquals(now.minusMinutes(20), changes.get(1).getCurrent().getTime());
+        assertTrue(changes.get(1).toString().contains("from VFR to IFR"));
+        assertEquals(ChangeKind.WINDSHEAR, changes.get(2).getKind());
+        assertEquals(now.minusMinutes(10), changes.get(2).getCurrent().getTime());
+
+        // nothing new, nothing reported
+        watcher.poll(workers);
+        assertEquals(3, changes.size());
+    }
+
+    @Test
+    void failingListenerDoesNotEndThePolling() {
+        METARWatcher watcher = new METARWatcher(List.of("LKPR"), Duration.ofMinutes(10), Duration.ofHours(1), 1,
+                                                downloader, change -> {
+                                                    changes.add(change);
+                                                    throw new IllegalStateException("listener failure");
+                                                });
+        lines.add(line(30, "METAR", vfr));
+        watcher.poll(workers);
+        lines.add(line(20, "SPECI", vfr));
+        watcher.poll(workers);
+        lines.add(line(10, "SPECI", vfr));
+        watcher.poll(workers);
+        // every special report is reported once, although the listener failed on the previous one
+        assertEquals(2, changes.size());
+        assertEquals(now.minusMinutes(20), changes.get(0).getCurrent().getTime());
+        assertEquals(now.minusMinutes(10), changes.get(1).getCurrent().getTime());
+    }
+
+    /**
+     * @return The provider line of the report of LKPR issued the given number
+     *         of minutes ago.
+     */
+    private String line(int minutesAgo, String type, String body) {
+        ZonedDateTime time = now.minusMinutes(minutesAgo);
+        return "LKPR,%Y,%M,%D,%h,%m,%TYPE LKPR %DAY%h%mZ %BODY="
+               .replace("%Y", String.valueOf(time.getYear()))
+               .replace("%M", String.valueOf(time.getMonthValue()))
+               .replace("%DAY", String.format("%02d", time.getDayOfMonth()))
+               .replace("%D", String.valueOf(time.getDayOfMonth()))
+               .replace("%h", String.format("%02d", time.getHour()))
+               .replace("%m", String.format("%02d", time.getMinute()))
+               .replace("%TYPE", type)
+               .replace("%BODY", body);
+    }
+}
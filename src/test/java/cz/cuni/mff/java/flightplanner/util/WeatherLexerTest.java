@@ -0,0 +1,96 @@
+package cz.cuni.mff.java.flightplanner.util;
+
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.util.List;
+import cz.cuni.mff.java.flightplanner.dataobject.FlightCategory;
+import cz.cuni.mff.java.flightplanner.dataobject.Forecast;
+import cz.cuni.mff.java.flightplanner.dataobject.WeatherConditions;
+import cz.cuni.mff.java.flightplanner.util.WeatherLexer.Mode;
+import cz.cuni.mff.java.flightplanner.util.WeatherLexer.Token;
+import cz.cuni.mff.java.flightplanner.util.WeatherLexer.TokenType;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Checks the classification of the tokens of the METAR and TAF reports and
+ * the decoding of the change groups of a TAF on top of it.
+ */
+class WeatherLexerTest {
+
+    private static final ZonedDateTime reference = ZonedDateTime.of(2024, 3, 12, 10, 0, 0, 0, ZoneOffset.UTC);
+
+    @Test
+    void metarTokensAreClassified() {
+        List<Token> tokens = WeatherLexer.tokenize("24012G25KT 200V280 1 1/4SM R27L/P1500FT -SHRA BKN015CB VV002 "
+                                                   + "M02/M05 Q1013 WS ALL RWY NOSIG 12#4", Mode.METAR);
+        TokenType[] expected = { TokenType.WIND, TokenType.WIND_VARIATION, TokenType.VISIBILITY, TokenType.RVR,
+                                 TokenType.WEATHER, TokenType.CLOUD, TokenType.VERTICAL_VISIBILITY,
+                                 TokenType.TEMPERATURE, TokenType.PRESSURE, TokenType.WINDSHEAR, TokenType.WEATHER,
+                                 TokenType.UNKNOWN };
+        assertEquals(expected.length, tokens.size(), tokens.toString());
+        for (int i = 0; i < expected.length; i++) {
+            assertEquals(expected[i], tokens.get(i).getType(), tokens.get(i).getText());
+        }
+        assertEquals("1 1/4SM", tokens.get(2).getText());
+        assertEquals("WS ALL RWY", tokens.get(9).getText());
+        assertEquals(TokenType.VISIBILITY, WeatherLexer.classify("9999", Mode.METAR));
+        assertEquals(TokenType.WIND, WeatherLexer.classify("VRB03KT", Mode.METAR));
+        assertEquals(TokenType.UNKNOWN, WeatherLexer.classify("", Mode.METAR));
+
+        assertTrue(WeatherLexer.isPhenomenon("-SHRA"));
+        assertTrue(WeatherLexer.isPhenomenon("+TSRAGR"));
+        assertFalse(WeatherLexer.isPhenomenon("NOSIG"));
+        assertFalse(WeatherLexer.isPhenomenon("RERA"));
+    }
+
+    @Test
+    void tafGroupsAreRecognizedOnlyInTheTafMode() {
+        assertEquals(TokenType.VALIDITY, WeatherLexer.classify("1212/1318", Mode.TAF));
+        assertEquals(TokenType.FROM, WeatherLexer.classify("FM121500", Mode.TAF));
+        assertEquals(TokenType.BECOMING, WeatherLexer.classify("BECMG", Mode.TAF));
+        assertEquals(TokenType.TEMPORARY, WeatherLexer.classify("TEMPO", Mode.TAF));
+        assertEquals(TokenType.PROBABILITY, WeatherLexer.classify("PROB30", Mode.TAF));
+        assertEquals(TokenType.TEMPERATURE_FORECAST, WeatherLexer.classify("TXM02/1214Z", Mode.TAF));
+        assertEquals(TokenType.WEATHER, WeatherLexer.classify("BECMG", Mode.METAR));
+        assertEquals(TokenType.UNKNOWN, WeatherLexer.classify("FM121500", Mode.METAR));
+    }
+
+    @Test
+    void tafChangeGroupsAreDecoded() {
+        Forecast forecast = new TAFDecoder().decode("TAF LKPR 121100Z 1212/1312 24010KT 9999 SCT030 "
+                                                    + "BECMG 1214/1216 BKN008 "
+                                                    + "PROB30 TEMPO 1218/1222 0800 FG "
+                                                    + "FM130600 27015KT CAVOK=", reference);
+        assertNotNull(forecast);
+        assertEquals("LKPR", forecast.getIcaoCode());
+        assertEquals(reference.withHour(11), forecast.getIssued());
+        assertEquals(reference.withHour(12), forecast.getValidFrom());
+        assertEquals(reference.withDayOfMonth(13).withHour(12), forecast.getValidTo());
+
+        List<Forecast.Change> changes = forecast.getChanges();
+        assertEquals(3, changes.size());
+        assertEquals(Forecast.ChangeType.BECOMING, changes.get(0).getType());
+        assertEquals(Forecast.ChangeType.PROBABILITY, changes.get(1).getType());
+        assertEquals(30, changes.get(1).getProbability());
+        assertEquals(reference.withHour(18), changes.get(1).getFrom());
+        assertEquals(Forecast.ChangeType.FROM, changes.get(2).getType());
+        assertEquals(forecast.getValidTo(), changes.get(2).getTo());
+
+        assertEquals(FlightCategory.VFR, forecast.conditionsAt(reference.withHour(13)).getFlightCategory());
+        assertEquals(FlightCategory.IFR, forecast.conditionsAt(reference.withHour(17)).getFlightCategory());
+        WeatherConditions worst = forecast.worstConditionsAt(reference.withHour(20));
+        assertEquals(FlightCategory.LIFR, worst.getFlightCategory());
+        assertEquals(FlightCategory.VFR,
+                     forecast.conditionsAt(reference.withDayOfMonth(13).withHour(7)).getFlightCategory());
+        assertNull(forecast.conditionsAt(reference.withDayOfMonth(13).withHour(12)));
+
+        assertNull(new TAFDecoder().decode("TAF LKPR 121100Z 1212/1312 NIL=", reference));
+        assertNull(new TAFDecoder().decode("TAF LKPR 121100Z", reference));
+    }
+}